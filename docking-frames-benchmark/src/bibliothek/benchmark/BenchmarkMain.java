@@ -0,0 +1,67 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Starts the benchmarks of this module. All the usual command line options of JMH are supported,
+ * but unless specified otherwise the results are written as JSON into the file <code>jmh-result.json</code>,
+ * and each forked JVM runs in headless mode.
+ * @author Benjamin Sigg
+ */
+public class BenchmarkMain {
+	/** the default name of the file containing the results */
+	public static final String RESULT_FILE = "jmh-result.json";
+	
+	/**
+	 * Runs the benchmarks.
+	 * @param args command line options of JMH, e.g. a regular expression selecting some benchmarks
+	 * @throws Exception if the benchmarks cannot be run
+	 */
+	public static void main( String[] args ) throws Exception{
+		CommandLineOptions options = new CommandLineOptions( args );
+		if( options.shouldHelp() || options.shouldList() || options.shouldListProfilers() || options.shouldListResultFormats() ){
+			org.openjdk.jmh.Main.main( args );
+			return;
+		}
+		
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent( options );
+		if( !options.getResultFormat().hasValue() ){
+			builder.resultFormat( ResultFormatType.JSON );
+		}
+		if( !options.getResult().hasValue() ){
+			builder.result( RESULT_FILE );
+		}
+		builder.jvmArgsAppend( "-Djava.awt.headless=true" );
+		
+		new Runner( builder.build() ).run();
+	}
+}
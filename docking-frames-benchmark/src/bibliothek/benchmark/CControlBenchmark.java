@@ -0,0 +1,127 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.CGrid;
+import bibliothek.gui.dock.common.CGridArea;
+import bibliothek.gui.dock.common.DefaultSingleCDockable;
+import bibliothek.util.xml.XElement;
+
+/**
+ * Applies a large layout that was stored in the xml format with {@link CControl#readXML(XElement)}.
+ * The layout contains two settings, the current layout and one additional setting. The content 
+ * area of a {@link CControl} cannot be created in headless mode, hence the dockables are shown
+ * on a {@link CGridArea}.
+ * @author Benjamin Sigg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+public class CControlBenchmark {
+	/** the number of dockables in the layout */
+	@Param({"16", "64", "256"})
+	public int dockables;
+	
+	private CControl control;
+	private XElement layout;
+	
+	@Setup
+	public void setup() throws Exception{
+		Workspace.invoke( new Callable<Void>(){
+			public Void call(){
+				createLayout();
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Creates {@link #control} and stores its layout in {@link #layout}.
+	 */
+	private void createLayout(){
+		control = new CControl();
+		CGridArea area = control.createGridArea( "grid" );
+		
+		DefaultSingleCDockable[] items = new DefaultSingleCDockable[ dockables ];
+		int columns = Math.max( 1, (int)Math.ceil( Math.sqrt( dockables ) ) );
+		CGrid grid = new CGrid( control );
+		for( int i = 0; i < dockables; i++ ){
+			items[i] = new DefaultSingleCDockable( "dockable " + i, "Dockable " + i );
+			grid.add( i % columns, i / columns, 1, 1, items[i] );
+		}
+		area.deploy( grid );
+		control.save( "first" );
+		
+		// a second layout where every third dockable is invisible
+		for( int i = 0; i < dockables; i += 3 ){
+			items[i].setVisible( false );
+		}
+		control.save( "second" );
+		
+		layout = new XElement( "layout" );
+		control.writeXML( layout );
+	}
+	
+	@TearDown
+	public void tearDown() throws Exception{
+		Workspace.invoke( new Callable<Void>(){
+			public Void call(){
+				control.destroy();
+				return null;
+			}
+		});
+	}
+	
+	@Benchmark
+	public int readXML() throws Exception{
+		return Workspace.invoke( new Callable<Integer>(){
+			public Integer call(){
+				control.readXML( layout );
+				return control.getCDockableCount();
+			}
+		});
+	}
+}
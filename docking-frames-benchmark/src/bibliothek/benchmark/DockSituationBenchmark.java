@@ -0,0 +1,154 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.dock.layout.DockLayoutComposition;
+import bibliothek.gui.dock.layout.DockSituation;
+import bibliothek.util.xml.XElement;
+
+/**
+ * Writes and reads the layout of a {@link bibliothek.gui.dock.SplitDockStation} using a {@link DockSituation},
+ * in the binary and in the xml format.
+ * @author Benjamin Sigg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+public class DockSituationBenchmark {
+	/** the number of dockables in the layout */
+	@Param({"16", "256", "1024"})
+	public int dockables;
+	
+	private DockController controller;
+	private DockSituation situation;
+	private Map<String, DockStation> stations;
+	private byte[] binary;
+	private XElement xml;
+	
+	@Setup
+	public void setup() throws Exception{
+		controller = Workspace.createController();
+		stations = new HashMap<String, DockStation>();
+		stations.put( "root", Workspace.invoke( new Callable<DockStation>(){
+			public DockStation call(){
+				return Workspace.createStation( controller, dockables );
+			}
+		}));
+		situation = new DockSituation( controller );
+		binary = situation.write( stations );
+		xml = new XElement( "layout" );
+		situation.writeXML( stations, xml );
+	}
+	
+	@TearDown
+	public void tearDown(){
+		controller.kill();
+	}
+	
+	@Benchmark
+	public byte[] writeBinary() throws IOException{
+		return situation.write( stations );
+	}
+	
+	@Benchmark
+	public int readBinary() throws IOException{
+		Map<String, DockLayoutComposition> compositions = situation.readCompositions( new DataInputStream( new ByteArrayInputStream( binary )));
+		return decode( compositions );
+	}
+	
+	@Benchmark
+	public XElement writeXML(){
+		XElement element = new XElement( "layout" );
+		situation.writeXML( stations, element );
+		return element;
+	}
+	
+	@Benchmark
+	public int readXML(){
+		return decode( situation.readCompositionsXML( xml ));
+	}
+	
+	@Benchmark
+	public int roundTripBinary() throws IOException{
+		byte[] data = situation.write( stations );
+		return decode( situation.readCompositions( new DataInputStream( new ByteArrayInputStream( data ))));
+	}
+	
+	@Benchmark
+	public int roundTripXML(){
+		XElement element = new XElement( "layout" );
+		situation.writeXML( stations, element );
+		return decode( situation.readCompositionsXML( element ));
+	}
+	
+	/**
+	 * Accesses all the layouts of <code>compositions</code>, which forces lazy compositions to
+	 * decode their content.
+	 * @param compositions the compositions to visit
+	 * @return the number of layouts
+	 */
+	private int decode( Map<String, DockLayoutComposition> compositions ){
+		int count = 0;
+		for( DockLayoutComposition composition : compositions.values() ){
+			count += decode( composition );
+		}
+		return count;
+	}
+	
+	private int decode( DockLayoutComposition composition ){
+		int count = composition.getLayout() == null ? 0 : 1;
+		for( DockLayoutComposition child : composition.getChildren() ){
+			count += decode( child );
+		}
+		return count;
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.awt.Component;
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.control.relocator.DefaultDockRelocator;
+import bibliothek.gui.dock.station.layer.BoundedDropLayer;
+import bibliothek.gui.dock.station.layer.DockStationDropLayer;
+import bibliothek.gui.dock.station.layer.DropLayerIndex;
+import bibliothek.gui.dock.station.layer.LayerPriority;
+import bibliothek.gui.dock.station.layer.OrderedLayerCollection;
+
+/**
+ * Searches the stations below the mouse, like the {@link DefaultDockRelocator} does for each
+ * movement of the mouse during a drag and drop operation. Both the {@link DropLayerIndex} and
+ * the linear search over all stations are measured. In headless mode no component is showing, hence
+ * the stations use synthetic {@link BoundedDropLayer}s with fixed bounds: one root station covers
+ * the whole screen, and its children are arranged in a square grid on top of it.
+ * @author Benjamin Sigg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+public class DropSearchBenchmark {
+	/** the width of the area covered by the stations */
+	private static final int WIDTH = 1600;
+	/** the height of the area covered by the stations */
+	private static final int HEIGHT = 1200;
+	
+	/** the number of stations on the root station */
+	@Param({"16", "256", "1024"})
+	public int stations;
+	
+	private DockController controller;
+	private DropLayerIndex index;
+	private int x = 0;
+	private int y = 0;
+	
+	@Setup
+	public void setup() throws Exception{
+		controller = Workspace.createController();
+		Workspace.invoke( new Callable<DockStation>(){
+			public DockStation call(){
+				return createStations();
+			}
+		});
+		index = new DropLayerIndex( controller );
+		index.bind();
+	}
+	
+	@TearDown
+	public void tearDown(){
+		index.unbind();
+		controller.kill();
+	}
+	
+	/**
+	 * Creates the root station and its children, each child covers one cell of a square grid.
+	 * @return the root station
+	 */
+	private DockStation createStations(){
+		// the children are empty stations, they must not be removed
+		controller.setSingleParentRemover( null );
+		
+		BoundedStation root = new BoundedStation( new Rectangle( 0, 0, WIDTH, HEIGHT ), 0 );
+		controller.add( root );
+		
+		int columns = Math.max( 1, (int)Math.ceil( Math.sqrt( stations ) ) );
+		int rows = (stations + columns - 1) / columns;
+		for( int i = 0; i < stations; i++ ){
+			int column = i % columns;
+			int row = i / columns;
+			int left = column * WIDTH / columns;
+			int top = row * HEIGHT / rows;
+			Rectangle bounds = new Rectangle( left, top, (column+1) * WIDTH / columns - left, (row+1) * HEIGHT / rows - top );
+			root.drop( new BoundedStation( bounds, 1 ) );
+		}
+		return root;
+	}
+	
+	/**
+	 * Moves the simulated mouse to its next location.
+	 */
+	private void nextLocation(){
+		x = (x + 37) % WIDTH;
+		y = (y + 23) % HEIGHT;
+	}
+	
+	@Benchmark
+	public List<DockStation> indexed(){
+		nextLocation();
+		List<DockStationDropLayer> layers = index.getLayersAt( x, y );
+		return index.sortLayers( layers );
+	}
+	
+	@Benchmark
+	public List<DockStation> linear(){
+		nextLocation();
+		OrderedLayerCollection collection = new OrderedLayerCollection();
+		for( DockStation station : controller.getRegister().listDockStations() ){
+			collection.add( station );
+		}
+		return collection.sort( x, y );
+	}
+	
+	/**
+	 * A station with one {@link BoundedLayer} whose bounds do not depend on the
+	 * location of any component.
+	 * @author Benjamin Sigg
+	 */
+	private static class BoundedStation extends SplitDockStation{
+		private final Rectangle bounds;
+		private final int depth;
+		
+		public BoundedStation( Rectangle bounds, int depth ){
+			this.bounds = bounds;
+			this.depth = depth;
+		}
+		
+		@Override
+		public boolean isStationShowing(){
+			return true;
+		}
+		
+		@Override
+		public DockStationDropLayer[] getLayers(){
+			return new DockStationDropLayer[]{ new BoundedLayer( this ) };
+		}
+	}
+	
+	/**
+	 * The layer of a {@link BoundedStation}. Layers of nested stations are more important
+	 * than the layers of their parents.
+	 * @author Benjamin Sigg
+	 */
+	private static class BoundedLayer implements BoundedDropLayer{
+		private final BoundedStation station;
+		private LayerPriority priority = LayerPriority.BASE;
+		
+		public BoundedLayer( BoundedStation station ){
+			this.station = station;
+		}
+		
+		public DockStation getStation(){
+			return station;
+		}
+		
+		public Component getComponent(){
+			return station;
+		}
+		
+		public Rectangle getScreenBounds(){
+			return station.bounds;
+		}
+		
+		public DockStationDropLayer modify( DockStationDropLayer child ){
+			return child;
+		}
+		
+		public boolean contains( int x, int y ){
+			return station.bounds.contains( x, y );
+		}
+		
+		public LayerPriority getPriority(){
+			return priority;
+		}
+		
+		public void setPriority( LayerPriority priority ){
+			this.priority = priority;
+		}
+		
+		public boolean canCompare( DockStationDropLayer level ){
+			return level instanceof BoundedLayer;
+		}
+		
+		public int compare( DockStationDropLayer level ){
+			BoundedLayer other = (BoundedLayer)level;
+			return other.station.depth - station.depth;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.station.support.DockablePlaceholderList;
+import bibliothek.gui.dock.station.support.PlaceholderListItem;
+import bibliothek.gui.dock.station.support.PlaceholderMap;
+import bibliothek.util.Path;
+
+/**
+ * Measures the operations of {@link DockablePlaceholderList} and {@link PlaceholderMap} that are
+ * used whenever a {@link Dockable} is added to or removed from a station, and whenever the layout
+ * of a station is stored.
+ * @author Benjamin Sigg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+public class PlaceholderBenchmark {
+	/** the number of dockables in the list */
+	@Param({"16", "256", "2048"})
+	public int dockables;
+	
+	private DockablePlaceholderList<Item> list;
+	private Item[] items;
+	private Path[] placeholders;
+	private PlaceholderMap map;
+	private byte[] mapBytes;
+	private int next = 0;
+	
+	@Setup
+	public void setup() throws IOException{
+		list = new DockablePlaceholderList<Item>();
+		items = new Item[ dockables ];
+		placeholders = new Path[ dockables ];
+		for( int i = 0; i < dockables; i++ ){
+			items[i] = new Item( new DefaultDockable( "dockable " + i ) );
+			placeholders[i] = new Path( "dock.item" + i );
+			list.dockables().add( items[i] );
+			list.dockables().addPlaceholder( i, placeholders[i] );
+		}
+		map = list.toMap();
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		map.write( out );
+		out.close();
+		mapBytes = bytes.toByteArray();
+	}
+	
+	/**
+	 * Gets the index of the item to use in the next invocation.
+	 * @return the index
+	 */
+	private int next(){
+		next = (next + 7) % dockables;
+		return next;
+	}
+	
+	@Benchmark
+	public int removeAndPut(){
+		int index = next();
+		Path placeholder = list.remove( items[index] );
+		if( placeholder == null ){
+			placeholder = placeholders[index];
+		}
+		return list.put( placeholder, items[index] );
+	}
+	
+	@Benchmark
+	public int lookup(){
+		return list.getDockableIndex( placeholders[ next() ] );
+	}
+	
+	@Benchmark
+	public PlaceholderMap listToMap(){
+		return list.toMap();
+	}
+	
+	@Benchmark
+	public DockablePlaceholderList<Item> listFromMap(){
+		return new DockablePlaceholderList<Item>( map );
+	}
+	
+	@Benchmark
+	public PlaceholderMap mapCopy(){
+		return map.copy();
+	}
+	
+	@Benchmark
+	public int mapWrite() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream( mapBytes.length );
+		DataOutputStream out = new DataOutputStream( bytes );
+		map.write( out );
+		out.close();
+		return bytes.size();
+	}
+	
+	@Benchmark
+	public PlaceholderMap mapRead() throws IOException{
+		return new PlaceholderMap( new DataInputStream( new ByteArrayInputStream( mapBytes )), null );
+	}
+	
+	/**
+	 * A simple wrapper around a {@link Dockable}.
+	 * @author Benjamin Sigg
+	 */
+	public static class Item implements PlaceholderListItem<Dockable>{
+		private final Dockable dockable;
+		
+		public Item( Dockable dockable ){
+			this.dockable = dockable;
+		}
+		
+		public Dockable asDockable(){
+			return dockable;
+		}
+	}
+}
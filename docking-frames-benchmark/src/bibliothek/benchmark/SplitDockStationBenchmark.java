@@ -0,0 +1,113 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.station.split.SplitDockGrid;
+
+/**
+ * Measures how long a {@link SplitDockStation} needs to build a new tree of {@link Dockable}s 
+ * with {@link SplitDockStation#dropTree(bibliothek.gui.dock.station.split.SplitDockTree) dropTree}, and
+ * to update the boundaries of all its children.
+ * @author Benjamin Sigg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+public class SplitDockStationBenchmark {
+	/** the number of dockables on the station */
+	@Param({"16", "64", "256"})
+	public int dockables;
+	
+	private DockController controller;
+	private SplitDockStation station;
+	private SplitDockGrid grid;
+	private int width = 1600;
+	
+	@Setup
+	public void setup() throws Exception{
+		controller = Workspace.createController();
+		station = new SplitDockStation();
+		grid = Workspace.createGrid( Workspace.createDockables( dockables ) );
+		Workspace.invoke( new Callable<Void>(){
+			public Void call(){
+				controller.add( station );
+				station.setSize( width, 1200 );
+				station.dropTree( grid.toTree() );
+				return null;
+			}
+		});
+	}
+	
+	@TearDown
+	public void tearDown(){
+		controller.kill();
+	}
+	
+	@Benchmark
+	public int dropTree() throws Exception{
+		return Workspace.invoke( new Callable<Integer>(){
+			public Integer call(){
+				station.dropTree( grid.toTree() );
+				return station.getDockableCount();
+			}
+		});
+	}
+	
+	@Benchmark
+	public int updateBounds() throws Exception{
+		return Workspace.invoke( new Callable<Integer>(){
+			public Integer call(){
+				// changing the size ensures that the boundaries are really recalculated
+				width = width == 1600 ? 1601 : 1600;
+				station.setSize( width, 1200 );
+				station.updateBounds();
+				return station.getDockableCount();
+			}
+		});
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.extension.gui.dock.theme.FlatTheme;
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockTheme;
+import bibliothek.gui.dock.themes.BasicTheme;
+import bibliothek.gui.dock.util.UIProperties;
+
+/**
+ * Switches the {@link DockTheme} of a {@link DockController}. A switch replaces most of the 
+ * colors, fonts and icons, hence every observer of the {@link UIProperties} is updated.
+ * @author Benjamin Sigg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+public class UIPropertiesBenchmark {
+	/** the number of dockables that are observing the properties */
+	@Param({"16", "64", "256"})
+	public int dockables;
+	
+	private DockController controller;
+	private DockTheme basic;
+	private DockTheme flat;
+	
+	@Setup
+	public void setup() throws Exception{
+		controller = Workspace.createController();
+		basic = new BasicTheme();
+		flat = new FlatTheme();
+		Workspace.invoke( new Callable<Void>(){
+			public Void call(){
+				Workspace.createStation( controller, dockables );
+				controller.setTheme( basic );
+				return null;
+			}
+		});
+	}
+	
+	@TearDown
+	public void tearDown(){
+		controller.kill();
+	}
+	
+	@Benchmark
+	public DockTheme switchTheme() throws Exception{
+		return Workspace.invoke( new Callable<DockTheme>(){
+			public DockTheme call(){
+				if( controller.getTheme() == basic ){
+					controller.setTheme( flat );
+				}
+				else{
+					controller.setTheme( basic );
+				}
+				return controller.getTheme();
+			}
+		});
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.benchmark;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.station.split.SplitDockGrid;
+
+/**
+ * Creates synthetic workspaces for the benchmarks. The {@link Dockable}s are arranged in a square
+ * grid, every fourth cell contains a stack of two {@link Dockable}s. Benchmarks that modify Swing components
+ * must run their code on the {@link EventQueue}, as the framework does.
+ * @author Benjamin Sigg
+ */
+public final class Workspace {
+	private Workspace(){
+		// nothing
+	}
+	
+	/**
+	 * Runs <code>task</code> on the {@link EventQueue} and waits until it is finished.
+	 * @param task the task to run
+	 * @return the result of <code>task</code>
+	 * @throws Exception if <code>task</code> throws an exception
+	 */
+	public static <T> T invoke( Callable<T> task ) throws Exception{
+		if( EventQueue.isDispatchThread() ){
+			return task.call();
+		}
+		FutureTask<T> future = new FutureTask<T>( task );
+		EventQueue.invokeAndWait( future );
+		return future.get();
+	}
+	
+	/**
+	 * Creates a new {@link DockController} which does not show any dialogs.
+	 * @return the new controller
+	 */
+	@SuppressWarnings("deprecation")
+	public static DockController createController(){
+		DockController.disableCoreWarning();
+		return new DockController();
+	}
+	
+	/**
+	 * Creates <code>count</code> new {@link DefaultDockable}s.
+	 * @param count the number of dockables
+	 * @return the new dockables
+	 */
+	public static Dockable[] createDockables( int count ){
+		Dockable[] dockables = new Dockable[ count ];
+		for( int i = 0; i < count; i++ ){
+			dockables[i] = new DefaultDockable( "dockable " + i );
+		}
+		return dockables;
+	}
+	
+	/**
+	 * Creates a grid containing all of <code>dockables</code>.
+	 * @param dockables the elements to put into the grid
+	 * @return the new grid
+	 */
+	public static SplitDockGrid createGrid( Dockable[] dockables ){
+		int columns = Math.max( 1, (int)Math.ceil( Math.sqrt( dockables.length ) ) );
+		SplitDockGrid grid = new SplitDockGrid();
+		int cell = 0;
+		boolean stacked = false;
+		for( int i = 0; i < dockables.length; i++ ){
+			grid.addDockable( cell % columns, cell / columns, 1, 1, dockables[i] );
+			// every fourth cell gets a second dockable, which results in a stack
+			if( cell % 4 == 0 && !stacked ){
+				stacked = true;
+			}
+			else{
+				stacked = false;
+				cell++;
+			}
+		}
+		return grid;
+	}
+	
+	/**
+	 * Creates a new {@link SplitDockStation} showing <code>count</code> {@link Dockable}s. The
+	 * station is registered at <code>controller</code>.
+	 * @param controller the controller to use
+	 * @param count the number of dockables
+	 * @return the new station
+	 */
+	public static SplitDockStation createStation( DockController controller, int count ){
+		SplitDockStation station = new SplitDockStation();
+		controller.add( station );
+		station.dropTree( createGrid( createDockables( count ) ).toTree() );
+		station.setSize( 1600, 1200 );
+		station.doLayout();
+		return station;
+	}
+}
@@ -39,6 +39,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -71,6 +73,7 @@ import bibliothek.gui.dock.StackDockStation;
 import bibliothek.gui.dock.action.DockAction;
 import bibliothek.gui.dock.common.action.CloseActionFactory;
 import bibliothek.gui.dock.common.action.util.CDefaultDockActionDistributor;
+import bibliothek.gui.dock.common.event.CControlBulkListener;
 import bibliothek.gui.dock.common.event.CControlListener;
 import bibliothek.gui.dock.common.event.CDockableAdapter;
 import bibliothek.gui.dock.common.event.CDockablePropertyListener;
@@ -96,6 +99,7 @@ import bibliothek.gui.dock.common.intern.CommonSingleDockableFactory;
 import bibliothek.gui.dock.common.intern.ControlVetoClosingListener;
 import bibliothek.gui.dock.common.intern.ControlVetoFocusListener;
 import bibliothek.gui.dock.common.intern.EfficientControlFactory;
+import bibliothek.gui.dock.common.intern.IndexedCControlRegister;
 import bibliothek.gui.dock.common.intern.MutableCControlRegister;
 import bibliothek.gui.dock.common.intern.action.CActionImportanceOrder;
 import bibliothek.gui.dock.common.intern.action.CActionOffer;
@@ -166,6 +170,7 @@ import bibliothek.gui.dock.station.stack.tab.TabPane;
 import bibliothek.gui.dock.station.support.PlaceholderStrategy;
 import bibliothek.gui.dock.support.util.ApplicationResource;
 import bibliothek.gui.dock.support.util.ApplicationResourceManager;
+import bibliothek.gui.dock.support.util.StreamableApplicationResource;
 import bibliothek.gui.dock.themes.BasicTheme;
 import bibliothek.gui.dock.themes.ColorScheme;
 import bibliothek.gui.dock.themes.ThemeFactory;
@@ -191,7 +196,8 @@ import bibliothek.util.Path;
 import bibliothek.util.Version;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
-import bibliothek.util.xml.XIO;
+import bibliothek.util.xml.XReader;
+import bibliothek.util.xml.XWriter;
 
 /**
  * Manages the interaction between {@link SingleCDockable}, {@link MultipleCDockable}
@@ -872,7 +878,7 @@ public class CControl {
         try{
         	addMultipleDockableFactory( "", NullMultipleCDockableFactory.NULL, false );
         	
-            resources.put( "ccontrol.frontend", new ApplicationResource(){
+            resources.put( "ccontrol.frontend", new StreamableApplicationResource(){
                 public void write( DataOutputStream out ) throws IOException {
                     Version.write( out, Version.VERSION_1_1_1 );
                     frontend.write( out );
@@ -891,6 +897,23 @@ public class CControl {
                 public void readXML( XElement element ) {
                     frontend.readXML( element.getElement( "frontend" ) );
                 }
+                public void writeXML( XWriter writer ) throws IOException {
+                    writer.startElement( "frontend" );
+                    frontend.writeXML( writer );
+                    writer.endElement();
+                }
+                public void readXML( XReader reader ) throws IOException {
+                    boolean found = false;
+                    while( reader.nextElement() ){
+                        if( !found && "frontend".equals( reader.getName() )){
+                            frontend.readXML( reader );
+                            found = true;
+                        }
+                        else{
+                            reader.skipElement();
+                        }
+                    }
+                }
             });
 
             resources.put( "ccontrol.preferences", new ApplicationResource(){
@@ -1627,6 +1650,68 @@ public class CControl {
      * or if the unique id of <code>dockable</code> already is used for another object
      */
     public <S extends SingleCDockable> S addDockable( S dockable ){
+        if( addSingleDockable( dockable )){
+	        for( CControlListener listener : listeners() )
+	            listener.added( CControl.this, dockable );
+        }
+        return dockable;
+    }
+    
+    /**
+     * Adds several {@link SingleCDockable}s and {@link MultipleCDockable}s to this control. This
+     * method has the same effect as calling {@link #addDockable(SingleCDockable)} or 
+     * {@link #addDockable(MultipleCDockable)} for each element of <code>dockables</code>, but
+     * the {@link CControlListener}s are informed only after all elements have been added. A 
+     * {@link CControlBulkListener} is informed only once about all the new elements.
+     * @param dockables the new elements, the {@link MultipleCDockable}s get a random identifier
+     * @throws IllegalArgumentException if one of the elements cannot be added. The elements that
+     * were added before the exception was thrown remain in this control
+     */
+    public void addDockables( Collection<? extends CDockable> dockables ){
+    	List<CDockable> added = new ArrayList<CDockable>( dockables.size() );
+    	try{
+    		for( CDockable dockable : dockables ){
+    			if( dockable instanceof SingleCDockable ){
+    				if( addSingleDockable( (SingleCDockable)dockable )){
+    					added.add( dockable );
+    				}
+    			}
+    			else if( dockable instanceof MultipleCDockable ){
+    				MultipleCDockable multiple = (MultipleCDockable)dockable;
+    				addMultipleDockable( createMultipleDockableId( multiple ), multiple );
+    				added.add( dockable );
+    			}
+    			else if( dockable == null ){
+    				throw new NullPointerException( "dockable must not be null" );
+    			}
+    			else{
+    				throw new IllegalArgumentException( "dockable is neither a SingleCDockable nor a MultipleCDockable: " + dockable );
+    			}
+    		}
+    	}
+    	finally{
+    		if( !added.isEmpty() ){
+    			List<CDockable> event = Collections.unmodifiableList( added );
+    			for( CControlListener listener : listeners() ){
+    				if( listener instanceof CControlBulkListener ){
+    					((CControlBulkListener)listener).addedAll( this, event );
+    				}
+    				else{
+    					for( CDockable dockable : added ){
+    						listener.added( this, dockable );
+    					}
+    				}
+    			}
+    		}
+    	}
+    }
+    
+    /**
+     * Registers <code>dockable</code> without informing any {@link CControlListener}.
+     * @param dockable the new element
+     * @return <code>true</code> if <code>dockable</code> was added, <code>false</code> if it was already known
+     */
+    private boolean addSingleDockable( SingleCDockable dockable ){
         if( dockable == null )
             throw new NullPointerException( "dockable must not be null" );
 
@@ -1641,7 +1726,7 @@ public class CControl {
 
         if( preset != null ){
         	if( preset == dockable ){
-        		return dockable;
+        		return false;
         	}
         	else{
         		throw new IllegalArgumentException( "unique id \'" + dockable.getUniqueId() + "\' already in use for another SingleCDockable" );
@@ -1659,11 +1744,7 @@ public class CControl {
         frontend.setHideable( dockable.intern(), true );
 
         register.addSingleDockable( dockable );
-
-        for( CControlListener listener : listeners() )
-            listener.added( CControl.this, dockable );
-
-        return dockable;
+        return true;
     }
     
     /**
@@ -1691,12 +1772,7 @@ public class CControl {
      * @return the element with that identifier or <code>null</code>
      */
     public SingleCDockable getSingleDockable( String id ){
-        for( SingleCDockable dockable : register.getSingleDockables() ){
-            if( dockable.getUniqueId().equals( id )){
-                return dockable;
-            }
-        }
-        return null;
+        return register.getSingleDockable( id );
     }
 
     /**
@@ -1707,12 +1783,11 @@ public class CControl {
      * otherwise
      */
     public boolean removeSingleDockable( String id ){
-        for( SingleCDockable dockable : register.getSingleDockables() ){
-            if( dockable.getUniqueId().equals( id )){
-                return removeDockable( dockable );
-            }
+        SingleCDockable dockable = register.getSingleDockable( id );
+        if( dockable == null ){
+        	return false;
         }
-        return false;
+        return removeDockable( dockable );
     }
     
     /**
@@ -1875,8 +1950,15 @@ public class CControl {
      * @return <code>dockable</code>
      */
     public <M extends MultipleCDockable> M addDockable( M dockable) {
-        Set<String> ids = new HashSet<String>();
-
+        return addDockable( createMultipleDockableId( dockable ), dockable );
+    }
+    
+    /**
+     * Creates a new unique identifier for <code>dockable</code> which is not yet in use.
+     * @param dockable the element which is going to be added
+     * @return the new identifier
+     */
+    private String createMultipleDockableId( MultipleCDockable dockable ){
         String factoryId;
         MultipleCDockableFactory<?, ?> factory = dockable.getFactory();
         if( factory == null ){
@@ -1887,22 +1969,32 @@ public class CControl {
         if( factoryId == null ){
         	throw new IllegalStateException( "the factory for a MultipleCDockable is not registered: " + dockable.getFactory() );
         }        	
-        
-
-        for( MultipleCDockable multi : register.getMultipleDockables() ){
-            if( factoryId.equals( access.getFactoryId( multi.getFactory() ))){
-                ids.add( accesses.get( multi ).getUniqueId() );
-            }
-        }
 
         int count = 0;
         String id = count + " " + factoryId;
-        while( ids.contains( register.toMultiId( id ) ) ){
-            count++;
-            id = count + " " + factoryId;
+        
+        if( register instanceof IndexedCControlRegister ){
+        	IndexedCControlRegister indexed = (IndexedCControlRegister)register;
+	        while( indexed.getMultipleDockable( id ) != null ){
+	            count++;
+	            id = count + " " + factoryId;
+	        }
+        }
+        else{
+	        Set<String> ids = new HashSet<String>();
+	        for( MultipleCDockable multi : register.getMultipleDockables() ){
+	            if( factoryId.equals( access.getFactoryId( multi.getFactory() ))){
+	                ids.add( accesses.get( multi ).getUniqueId() );
+	            }
+	        }
+	        
+	        while( ids.contains( register.toMultiId( id ) ) ){
+	            count++;
+	            id = count + " " + factoryId;
+	        }
         }
 
-        return addDockable( id, dockable );
+        return id;
     }
 
     /**
@@ -1920,6 +2012,20 @@ public class CControl {
      * @throws NullPointerException if any argument is <code>null</code>
      */
     public <M extends MultipleCDockable> M addDockable( String uniqueId, M dockable ){
+    	addMultipleDockable( uniqueId, dockable );
+        
+        for( CControlListener listener : listeners() )
+            listener.added( CControl.this, dockable );
+
+        return dockable;
+    }
+    
+    /**
+     * Registers <code>dockable</code> without informing any {@link CControlListener}.
+     * @param uniqueId the unique identifier of the new element
+     * @param dockable the new element
+     */
+    private void addMultipleDockable( String uniqueId, MultipleCDockable dockable ){
         if( dockable == null )
             throw new NullPointerException( "dockable must not be null" );
 
@@ -1933,27 +2039,19 @@ public class CControl {
         if( dockable.getControl() != null )
             throw new IllegalStateException( "dockable is already part of a control" );
 
-        uniqueId = register.toMultiId( uniqueId );
+        String multiId = register.toMultiId( uniqueId );
 
-        for( MultipleCDockable multi : register.getMultipleDockables() ){
-            String id = accesses.get( multi ).getUniqueId();
-            if( uniqueId.equals( id )){
-                throw new IllegalArgumentException( "The unique identifier is already in use: " + uniqueId );
-            }
+        if( getMultipleDockable( uniqueId ) != null ){
+        	throw new IllegalArgumentException( "The unique identifier is already in use: " + multiId );
         }
 
         dockable.setControlAccess( access );
-        accesses.get( dockable ).setUniqueId( uniqueId );
+        accesses.get( dockable ).setUniqueId( multiId );
         
-        frontend.addDockable( uniqueId, dockable.intern() );
+        frontend.addDockable( multiId, dockable.intern() );
         frontend.setHideable( dockable.intern(), true );
         
         register.addMultipleDockable( dockable );
-
-        for( CControlListener listener : listeners() )
-            listener.added( CControl.this, dockable );
-
-        return dockable;
     }
     
     /**
@@ -2007,6 +2105,10 @@ public class CControl {
      * was found
      */
     public MultipleCDockable getMultipleDockable( String id ){
+    	if( register instanceof IndexedCControlRegister ){
+    		return ((IndexedCControlRegister)register).getMultipleDockable( id );
+    	}
+    	
         id = register.toMultiId( id );
         for( MultipleCDockable dockable : register.getMultipleDockables() ){
             if( accesses.get( dockable ).getUniqueId().equals( id )){
@@ -2072,12 +2174,8 @@ public class CControl {
     private boolean shouldCreate( MultipleCDockableFactory<?, ?> factory, CommonMultipleDockableLayout layout ){
         String uniqueId = layout.getId();
 
-        String multiId = register.toMultiId( uniqueId );
-
-        for( MultipleCDockable multi : register.getMultipleDockables() ){
-            if( accesses.get( multi ).getUniqueId().equals( multiId )){
-                return false;
-            }
+        if( getMultipleDockable( uniqueId ) != null ){
+        	return false;
         }
 
         String factoryId = access.getFactoryId( factory );
@@ -2189,14 +2287,7 @@ public class CControl {
         if( factory != null ){
             frontend.unregisterFactory( factory );
 
-            List<MultipleCDockable> toRemove = new ArrayList<MultipleCDockable>();
-            for( MultipleCDockable dockable : register.getMultipleDockables() ){
-                if( dockable.getFactory() == factory.getFactory() ){
-                    toRemove.add( dockable );
-                }
-            }
-
-            for( MultipleCDockable dockable : toRemove ){
+            for( MultipleCDockable dockable : register.listMultipleDockables( factory.getFactory() ) ){
                 removeDockable( dockable );
             }
         }
@@ -2559,11 +2650,16 @@ public class CControl {
      * @throws IOException if the file is not writable
      */
     public void writeXML( File file ) throws IOException{
-        XElement root = new XElement( "root" );
-        getResources().writeXML( root );
         BufferedOutputStream out = new BufferedOutputStream( new FileOutputStream( file ));
-        XIO.writeUTF( root, out );
-        out.close();
+        try{
+            XWriter writer = new XWriter( out, "UTF-8" );
+            writer.startElement( "root" );
+            getResources().writeXML( writer );
+            writer.finish();
+        }
+        finally{
+            out.close();
+        }
     }
     
     /**
@@ -2604,9 +2700,16 @@ public class CControl {
      */
     public void readXML( File file ) throws IOException{
         BufferedInputStream in = new BufferedInputStream( new FileInputStream( file ));
-        XElement element = XIO.readUTF( in );
-        in.close();
-        readXML( element );
+        try{
+            XReader reader = new XReader( in, "UTF-8" );
+            if( reader.nextElement() ){
+                getResources().readXML( reader );
+            }
+            reader.close();
+        }
+        finally{
+            in.close();
+        }
     }
 
     /**
@@ -2850,6 +2953,10 @@ public class CControl {
         }
 
         public String getFactoryId( MultipleCDockableFactory<?,?> factory ){
+        	if( register instanceof IndexedCControlRegister ){
+        		return ((IndexedCControlRegister)register).getFactoryId( factory );
+        	}
+        	
         	for( Map.Entry<String, MultipleCDockableFactory<?, ?>> entry : register.getFactories().entrySet() ){
                 if( entry.getValue() == factory ){
                     return entry.getKey();
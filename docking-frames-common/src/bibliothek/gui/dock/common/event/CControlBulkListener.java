@@ -0,0 +1,48 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.common.event;
+
+import java.util.Collection;
+import java.util.List;
+
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.intern.CDockable;
+
+/**
+ * A {@link CControlListener} that wants to be informed only once if several {@link CDockable}s
+ * are added at the same time with {@link CControl#addDockables(Collection)}. Instead of calling
+ * {@link #added(CControl, CDockable)} for each new element, {@link #addedAll(CControl, List)} is
+ * called once.
+ * @author Benjamin Sigg
+ */
+public interface CControlBulkListener extends CControlListener {
+	/**
+	 * Called when a set of {@link CDockable}s has been made public.
+	 * @param control the caller
+	 * @param dockables the elements that are now known, in the order in which they were added
+	 */
+	public void addedAll( CControl control, List<CDockable> dockables );
+}
@@ -144,6 +144,9 @@ public class CDockFrontend extends DockFrontend{
 
     @Override
     public void setSetting( final Setting setting, final boolean entry ) {
+    	// the modes are read before the layout, hence the layout has to be validated first
+    	decodeSetting( setting, entry );
+    	
     	for( CDockFrontendListener listener : frontendListeners() ){
     		listener.loading( this, (CSetting)setting );
     	}
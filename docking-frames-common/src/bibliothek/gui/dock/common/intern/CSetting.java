@@ -64,6 +64,15 @@ public class CSetting extends Setting{
         return modes;
     }
     
+    @Override
+    public void copyFrom( Setting setting, DockSituation situation ) throws IOException{
+    	super.copyFrom( setting, situation );
+    	if( setting instanceof CSetting ){
+    		// the modes are only read when a setting is applied, they can be shared
+    		modes = ((CSetting)setting).getModes();
+    	}
+    }
+    
     @Override
     public void write( DockSituation situation, PropertyTransformer transformer, boolean entry, DataOutputStream out ) throws IOException {
         Version.write( out, Version.VERSION_1_1_1 );
@@ -29,6 +29,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,7 +52,7 @@ import bibliothek.gui.dock.frontend.FrontendEntry;
  * Standard implementation of {@link CControlRegister}.
  * @author Benjamin Sigg
  */
-public class DefaultCControlRegister implements MutableCControlRegister {
+public class DefaultCControlRegister implements IndexedCControlRegister {
     /** the owner of this register */
     private CControl control;
 
@@ -69,6 +71,10 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     /** the set of known factories */
     private Map<String, CommonMultipleDockableFactory> factories = 
         new HashMap<String, CommonMultipleDockableFactory>();
+    
+    /** for each known factory one of the identifiers under which it is registered */
+    private Map<MultipleCDockableFactory<?, ?>, String> factoryIds =
+    	new IdentityHashMap<MultipleCDockableFactory<?,?>, String>();
 
     /** list of all dockables registered  */
     private List<CDockable> dockables =
@@ -82,6 +88,19 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     private List<MultipleCDockable> multiDockables = 
         new ArrayList<MultipleCDockable>();
     
+    /** all the {@link SingleCDockable}s of {@link #singleDockables} accessed by their unique identifier */
+    private Map<String, SingleCDockable> singleIndex = new HashMap<String, SingleCDockable>();
+    
+    /** all the {@link MultipleCDockable}s of {@link #multiDockables} accessed by their unique identifier */
+    private Map<String, MultipleCDockable> multiIndex = new HashMap<String, MultipleCDockable>();
+    
+    /** the identifier and factory under which each {@link MultipleCDockable} was registered */
+    private Map<MultipleCDockable, MultipleEntry> multiEntries = new IdentityHashMap<MultipleCDockable, MultipleEntry>();
+    
+    /** all the {@link MultipleCDockable}s of {@link #multiDockables} grouped by their factory */
+    private Map<MultipleCDockableFactory<?, ?>, Set<MultipleCDockable>> factoryBuckets =
+    	new IdentityHashMap<MultipleCDockableFactory<?,?>, Set<MultipleCDockable>>();
+    
     /** the stations known  */
     private List<CStation<?>> stations = new ArrayList<CStation<?>>();
     
@@ -200,13 +219,11 @@ public class DefaultCControlRegister implements MutableCControlRegister {
      * @return the list of dockables, never <code>null</code> but might be empty
      */
     public List<MultipleCDockable> listMultipleDockables( MultipleCDockableFactory<?, ?> factory ){
-        List<MultipleCDockable> result = new ArrayList<MultipleCDockable>();
-        for( MultipleCDockable dockable : multiDockables ){
-            if( dockable.getFactory() == factory ){
-                result.add( dockable );
-            }
+        Set<MultipleCDockable> bucket = factoryBuckets.get( factory );
+        if( bucket == null ){
+        	return new ArrayList<MultipleCDockable>();
         }
-        return result;
+        return new ArrayList<MultipleCDockable>( bucket );
     }
     
     /**
@@ -267,20 +284,59 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     public void addMultipleDockable( MultipleCDockable dockable ) {
         dockables.add( dockable );
         multiDockables.add( dockable );
+        
+        String uniqueId = getUniqueId( dockable );
+        MultipleEntry entry = new MultipleEntry( uniqueId, dockable.getFactory() );
+        multiEntries.put( dockable, entry );
+        if( uniqueId != null ){
+        	multiIndex.put( uniqueId, dockable );
+        }
+        
+        Set<MultipleCDockable> bucket = factoryBuckets.get( entry.factory );
+        if( bucket == null ){
+        	bucket = new LinkedHashSet<MultipleCDockable>();
+        	factoryBuckets.put( entry.factory, bucket );
+        }
+        bucket.add( dockable );
     }
 
+    /**
+     * Gets the unique identifier that was assigned to <code>dockable</code> by its {@link CControlAccess}.
+     * @param dockable the element whose identifier is searched
+     * @return the identifier, not transformed by {@link #toMultiId(String)}, or <code>null</code>
+     * if <code>dockable</code> does not have an identifier
+     */
+    private String getUniqueId( MultipleCDockable dockable ){
+    	CControlAccess control = dockable.getControlAccess();
+    	if( control == null ){
+    		return null;
+    	}
+    	CDockableAccess access = control.access( dockable );
+    	if( access == null ){
+    		return null;
+    	}
+    	String id = access.getUniqueId();
+    	if( id == null ){
+    		return null;
+    	}
+    	if( isMultiId( id )){
+    		return multiToNormalId( id );
+    	}
+    	return id;
+    }
+    
     public void addSingleDockable( SingleCDockable dockable ) {
         dockables.add( dockable );
         singleDockables.add( dockable );
+        singleIndex.put( dockable.getUniqueId(), dockable );
     }
     
     public SingleCDockable getSingleDockable( String id ){
-	    for( SingleCDockable dockable : singleDockables ){
-	    	if( dockable.getUniqueId().equals( id )){
-	    		return dockable;
-	    	}
-	    }
-	    return null;
+    	return singleIndex.get( id );
+    }
+    
+    public MultipleCDockable getMultipleDockable( String id ){
+    	return multiIndex.get( id );
     }
 
     public void addStation( CStation<?> station ) {
@@ -336,11 +392,39 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     }
 
     public void putCommonMultipleDockableFactory( String id, CommonMultipleDockableFactory factory ) {
-        factories.put( id, factory );
+        CommonMultipleDockableFactory old = factories.put( id, factory );
+        if( old != null ){
+        	updateFactoryId( old.getFactory(), id );
+        }
+        if( !factoryIds.containsKey( factory.getFactory() )){
+        	factoryIds.put( factory.getFactory(), id );
+        }
+    }
+    
+    /**
+     * Called after the factory with identifier <code>id</code> was removed or replaced. Searches
+     * another identifier for <code>factory</code> if <code>id</code> was its identifier.
+     * @param factory the factory that was removed
+     * @param id the identifier that is no longer associated with <code>factory</code>
+     */
+    private void updateFactoryId( MultipleCDockableFactory<?, ?> factory, String id ){
+    	if( id.equals( factoryIds.get( factory ) )){
+    		factoryIds.remove( factory );
+    		for( Map.Entry<String, CommonMultipleDockableFactory> entry : factories.entrySet() ){
+    			if( entry.getValue().getFactory() == factory ){
+    				factoryIds.put( factory, entry.getKey() );
+    				break;
+    			}
+    		}
+    	}
     }
 
     public CommonMultipleDockableFactory removeCommonMultipleDockableFactory( String id ) {
-        return factories.remove( id );
+        CommonMultipleDockableFactory factory = factories.remove( id );
+        if( factory != null ){
+        	updateFactoryId( factory.getFactory(), id );
+        }
+        return factory;
     }
 
     public boolean removeStationContainer( CStationContainer container ){
@@ -358,6 +442,20 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     public boolean removeMultipleDockable( MultipleCDockable dockable ) {
         if( dockables.remove( dockable ) ){
             multiDockables.remove( dockable );
+            
+            MultipleEntry entry = multiEntries.remove( dockable );
+            if( entry != null ){
+            	if( entry.uniqueId != null && multiIndex.get( entry.uniqueId ) == dockable ){
+            		multiIndex.remove( entry.uniqueId );
+            	}
+            	Set<MultipleCDockable> bucket = factoryBuckets.get( entry.factory );
+            	if( bucket != null ){
+            		bucket.remove( dockable );
+            		if( bucket.isEmpty() ){
+            			factoryBuckets.remove( entry.factory );
+            		}
+            	}
+            }
             return true;
         }
         return false;
@@ -366,6 +464,9 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     public boolean removeSingleDockable( SingleCDockable dockable ) {
         if( dockables.remove( dockable )){
             singleDockables.remove( dockable );
+            if( singleIndex.get( dockable.getUniqueId() ) == dockable ){
+            	singleIndex.remove( dockable.getUniqueId() );
+            }
             return true;
         }
         return false;
@@ -401,4 +502,24 @@ public class DefaultCControlRegister implements MutableCControlRegister {
             return null;
         return factory.getFactory();
     }
+    
+    public String getFactoryId( MultipleCDockableFactory<?, ?> factory ){
+    	return factoryIds.get( factory );
+    }
+    
+    /**
+     * Describes under which identifier and factory a {@link MultipleCDockable} was registered. 
+     * @author Benjamin Sigg
+     */
+    private static class MultipleEntry{
+    	/** the unique identifier of the dockable, may be <code>null</code> */
+    	public final String uniqueId;
+    	/** the factory of the dockable */
+    	public final MultipleCDockableFactory<?, ?> factory;
+    	
+    	public MultipleEntry( String uniqueId, MultipleCDockableFactory<?, ?> factory ){
+    		this.uniqueId = uniqueId;
+    		this.factory = factory;
+    	}
+    }
 }
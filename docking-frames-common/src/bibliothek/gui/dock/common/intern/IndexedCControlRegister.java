@@ -0,0 +1,55 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.common.intern;
+
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.MultipleCDockable;
+import bibliothek.gui.dock.common.MultipleCDockableFactory;
+
+/**
+ * A {@link MutableCControlRegister} that offers fast access to its {@link MultipleCDockable}s and
+ * factories. Implementing this interface is optional, {@link CControl} checks whether its register
+ * implements this interface and falls back to searching through all the registered elements if not.
+ * @author Benjamin Sigg
+ */
+public interface IndexedCControlRegister extends MutableCControlRegister {
+    /**
+     * Searches the {@link MultipleCDockable} whose unique id equals <code>id</code>. The
+     * identifier <code>id</code> must not be transformed by {@link #toMultiId(String)}.
+     * @param id some id to search
+     * @return a dockable with the same id or <code>null</code>
+     */
+    public MultipleCDockable getMultipleDockable( String id );
+    
+    /**
+     * Searches an identifier which is used for <code>factory</code>. If <code>factory</code> is
+     * registered with more than one identifier, then any one of these identifiers is returned.
+     * @param factory the factory to search
+     * @return the identifier of <code>factory</code> or <code>null</code> if 
+     * <code>factory</code> is not registered
+     */
+    public String getFactoryId( MultipleCDockableFactory<?, ?> factory );
+}
@@ -527,6 +527,9 @@ public class CControlPerspective {
     	}
     	
     	Map<String, DockLayoutComposition> stations = conversion.getSituation().readCompositions( in );
+    	for( DockLayoutComposition station : stations.values() ){
+    		conversion.getSituation().decode( station );
+    	}
     	factory.setStations( stations );
     	
     	for( DockLayoutComposition composition : stations.values() ){
@@ -548,6 +551,7 @@ public class CControlPerspective {
     				DockLayoutComposition composition = null;
     				if( in.readBoolean() ){
     					 composition = conversion.getSituation().readComposition( in );
+    					 conversion.getSituation().decode( composition );
     				}
     				
 	    			CDockablePerspective dockable = perspective.getDockable( key );
@@ -258,7 +258,7 @@ public class CDockTheme<D extends DockTheme> implements DockTheme {
         CControl control = controller.getProperties().get( CControl.CCONTROL );
         
         try{
-            colors.lockUpdate();
+            colors.beginTransaction();
             
             ExtensionName<CColorBridgeExtension> name = new ExtensionName<CColorBridgeExtension>( 
             		CColorBridgeExtension.EXTENSION_NAME, CColorBridgeExtension.class, CColorBridgeExtension.PARAMETER_NAME, this );
@@ -291,12 +291,12 @@ public class CDockTheme<D extends DockTheme> implements DockTheme {
             }
         }
         finally{
-            colors.unlockUpdate();
+            colors.endTransaction();
         }
         
         FontManager fonts = controller.getFonts();
         try{
-            fonts.lockUpdate();
+            fonts.beginTransaction();
             for( Map.Entry<Path, FontBridgeFactory> entry : fontBridgeFactories.entrySet() ){
                 FontBridge bridge = entry.getValue().create( fonts );
                 fonts.publish( Priority.DEFAULT, entry.getKey(), bridge );
@@ -304,7 +304,7 @@ public class CDockTheme<D extends DockTheme> implements DockTheme {
             }
         }
         finally{
-            fonts.unlockUpdate();
+            fonts.endTransaction();
         }
         
         controllers.add( settings );
@@ -442,8 +442,9 @@ public abstract class AbstractLocationMode<A extends ModeArea> implements Iterab
 				}
 				else{
 					for( Dockable dockable : dockables ){
-						manager.refresh( dockable, true );
+						manager.markDirty( dockable, true );
 					}
+					manager.refreshDirty();
 				}
 			}
 		}
@@ -28,8 +28,6 @@ package bibliothek.gui.dock.facile.mode;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -114,9 +112,6 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 	/** the action that is currently executing */
 	private List<CGroupMovement> currentAction = new ArrayList<CGroupMovement>();
 	
-	/** the list of {@link Dockable}s for which {@link #refresh(Dockable, boolean)} has to be called */
-	private LinkedHashSet<Dockable> pendingRefreshs = new LinkedHashSet<Dockable>();
-	
 	/** the current {@link ExtendedModeEnablementFactory} */
 	private PropertyValue<ExtendedModeEnablementFactory> extendedModeFactory = new PropertyValue<ExtendedModeEnablementFactory>( MODE_ENABLEMENT ) {
 		@Override
@@ -636,16 +631,14 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 
 	/**
 	 * If the {@link DockRegister} is currently stalled, then a call to {@link LocationModeManager#refresh(Dockable, boolean)}
-	 * is scheduled, otherwise the call is performed directly.
+	 * is scheduled, otherwise the call is performed directly. Scheduled calls are collected with
+	 * {@link #markDirty(Dockable, boolean)} and executed in one pass, hence each {@link Dockable}
+	 * is refreshed only once.
 	 * @param dockable the dockable which should be forwarded to {@link LocationModeManager#refresh(Dockable, boolean)}
 	 */
 	public void delayedRefresh( Dockable dockable ){
-		if( getController().getRegister().isStalled() ){
-			pendingRefreshs.add( dockable );
-		}
-		else{
-			refresh( dockable, true );
-		}
+		markDirty( dockable, true );
+		refreshDirty();
 	}
 	
 	/**
@@ -679,6 +672,10 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 		public void dockableRegistered( DockController controller, Dockable dockable ){
 			dockable.addDockHierarchyListener( hierarchyListener );
 			rebuild( dockable );
+			markDirty( dockable, false );
+			if( !isOnTransaction() ){
+				refreshDirty();
+			}
 		}
 		
 		@Override
@@ -688,18 +685,15 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 		
 		@Override
 		public void registerUnstalled( DockController controller ){
-			while( pendingRefreshs.size() > 0 && !controller.getRegister().isStalled() ){
-				Iterator<Dockable> iter = pendingRefreshs.iterator();
-				Dockable next = iter.next();
-				iter.remove();
-				refresh( next, true );
+			if( !isOnTransaction() ){
+				refreshDirty();
 			}
 		}
 	}
 	
 	/**
-	 * Reacts on dockables that are changing their position by calling
-	 * {@link LocationModeManager#refresh(Dockable, boolean)}.
+	 * Reacts on dockables that are changing their position by marking them dirty. The
+	 * dirty elements are refreshed directly or once the current transaction is finished.
 	 * @author Benjamin Sigg
 	 */
 	private class HierarchyListener implements DockHierarchyListener{
@@ -708,8 +702,9 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 		}
 
 		public void hierarchyChanged( DockHierarchyEvent event ){
+            markDirty( event.getDockable(), true );
             if( !isOnTransaction() ){
-            	delayedRefresh( event.getDockable() );
+            	refreshDirty();
             }	
 		}		
 	}
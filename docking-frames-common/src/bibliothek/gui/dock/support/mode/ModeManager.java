@@ -31,6 +31,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -91,6 +92,24 @@ public abstract class ModeManager<H, M extends Mode<H>> {
 	/** used to change the history of {@link Dockable}s before applying a new mode */
 	private HistoryRewriter<H,M> historyRewriter;
 	
+	/** the {@link Dockable}s whose mode has to be re-evaluated, the value tells whether their children are dirty as well */
+	private Map<Dockable, Boolean> dirty = new LinkedHashMap<Dockable, Boolean>();
+	
+	/** whether {@link #refreshDirty()} is currently running */
+	private boolean refreshingDirty = false;
+	
+	/** how often the mode of a {@link Dockable} was re-evaluated */
+	private long refreshCount = 0;
+	
+	/** how many transactions are currently running, used to count the re-evaluations of a transaction */
+	private int countedTransactions = 0;
+	
+	/** the value of {@link #refreshCount} when the outermost transaction started */
+	private long refreshCountAtTransaction = 0;
+	
+	/** how many {@link Dockable}s were re-evaluated during the last transaction */
+	private long lastTransactionRefreshCount = 0;
+	
 	private ActionGuard guard = new ActionGuard() {
 		public boolean react( Dockable dockable ){
 			return getHandle( dockable ) != null;
@@ -469,6 +488,7 @@ public abstract class ModeManager<H, M extends Mode<H>> {
     		return;
     	
     	try{
+    		beginCountTransaction();
 	    	openAffected();
 	    	
 	    	runTransaction( new Runnable() {
@@ -479,6 +499,7 @@ public abstract class ModeManager<H, M extends Mode<H>> {
     	}
     	finally{
     		closeAffected();
+    		endCountTransaction();
     	}
     }
     
@@ -496,7 +517,9 @@ public abstract class ModeManager<H, M extends Mode<H>> {
     /**
      * Runs <code>run</code> as transaction, the {@link DockRegister} is stalled
      * and {@link #isOnTransaction()} returns <code>true</code> while 
-     * <code>run</code> runs. 
+     * <code>run</code> runs. The {@link Dockable}s that were {@link #markDirty(Dockable, boolean) marked dirty}
+     * during the transaction are refreshed once the outermost transaction ends, unless the transaction
+     * is <code>continuous</code>, in which case clients should call {@link #refreshDirty()} afterwards. 
      * @param run the runnable to execute
      * @param continuous if set to <code>true</code> the transaction should run without changing
      * the internal cache storing the position of all {@link Dockable}s. This can be important
@@ -506,6 +529,7 @@ public abstract class ModeManager<H, M extends Mode<H>> {
      */
     public void runTransaction( Runnable run, boolean continuous ){
     	try{
+    		beginCountTransaction();
     		controller.getRegister().setStalled( true );
     		onTransaction++;
     		if( continuous ){
@@ -519,7 +543,56 @@ public abstract class ModeManager<H, M extends Mode<H>> {
     		if( continuous ){
     			onContinuous--;
     		}
+    		try{
+	    		if( !continuous && onTransaction == 0 && affectedCount == 0 ){
+	    			refreshDirty();
+	    		}
+    		}
+    		finally{
+    			endCountTransaction();
+    		}
+    	}
+    }
+    
+    /**
+     * Called when a transaction starts, remembers how many {@link Dockable}s were
+     * re-evaluated until now.
+     */
+    private void beginCountTransaction(){
+    	if( countedTransactions == 0 ){
+    		refreshCountAtTransaction = refreshCount;
     	}
+    	countedTransactions++;
+    }
+    
+    /**
+     * Called when a transaction ends, updates {@link #getLastTransactionRefreshCount()}.
+     */
+    private void endCountTransaction(){
+    	countedTransactions--;
+    	if( countedTransactions == 0 ){
+    		lastTransactionRefreshCount = refreshCount - refreshCountAtTransaction;
+    	}
+    }
+    
+    /**
+     * Tells how often the mode of a {@link Dockable} was re-evaluated by one of the
+     * <code>refresh</code> methods since this manager was created.
+     * @return the total number of re-evaluations
+     */
+    public long getRefreshCount(){
+    	return refreshCount;
+    }
+    
+    /**
+     * Tells how many {@link Dockable}s were re-evaluated during the last transaction that
+     * was started with one of the <code>runTransaction</code> methods. Re-evaluations that
+     * happened while the {@link DockRegister} fired its stalled events at the end of
+     * the transaction are included.
+     * @return the number of re-evaluations of the last finished transaction
+     */
+    public long getLastTransactionRefreshCount(){
+    	return lastTransactionRefreshCount;
     }
 
     /**
@@ -773,6 +846,7 @@ public abstract class ModeManager<H, M extends Mode<H>> {
     public void refresh( Dockable dockable, boolean recursive ){
     	DockableHandle handle = getHandle( dockable );
     	if( handle != null ){
+    		refreshCount++;
     		handle.putMode( access( getCurrentMode( dockable ) ) );
     	}
     	if( recursive ){
@@ -785,11 +859,104 @@ public abstract class ModeManager<H, M extends Mode<H>> {
     	}
     }
     
+    /**
+     * Marks <code>dockable</code> as dirty, meaning its mode has to be re-evaluated. The mode
+     * is not updated until {@link #refreshDirty()} is called. Marking the same element more than
+     * once before {@link #refreshDirty()} is called has the same effect as marking it only once.
+     * @param dockable the element whose mode might have changed
+     * @param recursive if set, then the children of <code>dockable</code> are marked dirty as well
+     */
+    public void markDirty( Dockable dockable, boolean recursive ){
+    	Boolean current = dirty.get( dockable );
+    	if( current == null || (recursive && !current.booleanValue()) ){
+    		dirty.put( dockable, Boolean.valueOf( recursive ) );
+    	}
+    }
+    
+    /**
+     * Tells whether <code>dockable</code> was {@link #markDirty(Dockable, boolean) marked dirty}
+     * and is still waiting for {@link #refreshDirty()}.
+     * @param dockable the element to search
+     * @return whether <code>dockable</code> is dirty
+     */
+    public boolean isDirty( Dockable dockable ){
+    	return dirty.containsKey( dockable );
+    }
+    
+    /**
+     * Re-evaluates the modes of all the {@link Dockable}s that were {@link #markDirty(Dockable, boolean) marked dirty},
+     * each element is re-evaluated only once. Elements that are marked dirty while this method
+     * runs are handled as well. If the {@link DockRegister} is or becomes stalled, then this method
+     * stops and leaves the remaining elements dirty, they should be refreshed once the register
+     * is no longer stalled.
+     */
+    public void refreshDirty(){
+    	if( refreshingDirty ){
+    		return;
+    	}
+    	try{
+    		refreshingDirty = true;
+    		// the elements refreshed so far, and whether their children were marked as well
+    		Map<Dockable, Boolean> refreshed = new HashMap<Dockable, Boolean>();
+    		
+    		while( !dirty.isEmpty() && !isStalled() ){
+    			Iterator<Map.Entry<Dockable, Boolean>> iterator = dirty.entrySet().iterator();
+    			Map.Entry<Dockable, Boolean> next = iterator.next();
+    			iterator.remove();
+    			
+    			Dockable dockable = next.getKey();
+    			boolean recursive = next.getValue().booleanValue();
+    			Boolean expanded = refreshed.get( dockable );
+    			
+    			refresh( dockable, false );
+    			refreshed.put( dockable, Boolean.valueOf( recursive || (expanded != null && expanded.booleanValue()) ));
+    			if( recursive ){
+    				markChildrenDirty( dockable, refreshed );
+    			}
+    		}
+    	}
+    	finally{
+    		refreshingDirty = false;
+    	}
+    }
+    
+    /**
+     * Marks the children of <code>dockable</code> dirty, children that were already refreshed by the
+     * current call to {@link #refreshDirty()} are not refreshed again, only their own children are visited.
+     * @param dockable the element whose children are dirty
+     * @param refreshed the elements that were already refreshed, and whether their children are marked
+     */
+    private void markChildrenDirty( Dockable dockable, Map<Dockable, Boolean> refreshed ){
+    	DockStation station = dockable.asDockStation();
+    	if( station != null ){
+    		for( int i = 0, n = station.getDockableCount(); i<n; i++ ){
+    			Dockable child = station.getDockable( i );
+    			Boolean expanded = refreshed.get( child );
+    			if( expanded == null ){
+    				markDirty( child, true );
+    			}
+    			else if( !expanded.booleanValue() ){
+    				refreshed.put( child, Boolean.TRUE );
+    				markChildrenDirty( child, refreshed );
+    			}
+    		}
+    	}
+    }
+    
+    /**
+     * Tells whether the {@link DockRegister} of the current controller is stalled.
+     * @return whether {@link Dockable}s should not yet be refreshed
+     */
+    private boolean isStalled(){
+    	return controller != null && controller.getRegister().isStalled();
+    }
+    
     /**
      * Removes the properties that belong to <code>dockable</code>.
      * @param dockable the element to remove
      */
     public void remove( Dockable dockable ){
+    	dirty.remove( dockable );
         DockableHandle entry = dockables.remove( dockable );
         if( entry != null ){
         	if( !entry.empty ){
@@ -1253,6 +1420,9 @@ public abstract class ModeManager<H, M extends Mode<H>> {
                 
                 if( (old == null && current != null) || (old != null && !old.equals( current ))){
                     applyDuringRead( key, old, current, entry.dockable );
+                    if( entry.dockable != null ){
+                    	markDirty( entry.dockable, false );
+                    }
                 }
             }
         }
@@ -1515,8 +1685,9 @@ public abstract class ModeManager<H, M extends Mode<H>> {
          */
         public void finish(){
             for( Dockable dockable : set ){
-            	refresh( dockable, false );
+            	markDirty( dockable, false );
             }
+            refreshDirty();
         }
     }
 }
@@ -32,6 +32,8 @@ import java.util.prefs.Preferences;
 
 import bibliothek.util.Version;
 import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XReader;
+import bibliothek.util.xml.XWriter;
 
 /**
  * Manages a set of {@link ApplicationResource}s, can load and store the
@@ -178,6 +180,60 @@ public class ApplicationResourceManager {
         }
     }
     
+    /**
+     * Writes the content of this manager in xml format. The output is the same as the
+     * output of {@link #writeXML(XElement)}, but {@link StreamableApplicationResource}s
+     * write directly into <code>writer</code>, the other resources are converted into
+     * {@link XElement}s one by one.
+     * @param writer the writer to write into, the new elements are children of the
+     * element that is currently open in <code>writer</code>
+     * @throws IOException if <code>writer</code> cannot write
+     */
+    public void writeXML( XWriter writer ) throws IOException{
+        for( Map.Entry<String, ApplicationResource> resource : resources.entrySet() ){
+            ApplicationResource value = resource.getValue();
+            if( value instanceof StreamableApplicationResource ){
+                writer.startElement( "resource" );
+                writer.addString( "name", resource.getKey() );
+                ((StreamableApplicationResource)value).writeXML( writer );
+                writer.endElement();
+            }
+            else{
+                XElement xresource = new XElement( "resource" );
+                xresource.addString( "name", resource.getKey() );
+                value.writeXML( xresource );
+                writer.element( xresource );
+            }
+        }
+    }
+    
+    /**
+     * Reads the contents of this manager from <code>reader</code>.
+     * @param reader the reader whose cursor is at the beginning of the element that was
+     * written by {@link #writeXML(XWriter)} or {@link #writeXML(XElement)}, the element is
+     * closed afterwards
+     * @throws IOException if <code>reader</code> cannot read
+     */
+    public void readXML( XReader reader ) throws IOException{
+        while( reader.nextElement() ){
+            if( "resource".equals( reader.getName() )){
+                String name = reader.getString( "name" );
+                ApplicationResource resource = resources.get( name );
+                if( resource instanceof StreamableApplicationResource ){
+                    ((StreamableApplicationResource)resource).readXML( reader );
+                }
+                else if( resource != null ){
+                    resource.readXML( reader.readElement() );
+                }
+                else
+                    buffer.put( name, reader.readElement() );
+            }
+            else{
+                reader.skipElement();
+            }
+        }
+    }
+    
     /**
      * Writes the contents of this manager into <code>file</code>.
      * @param file the file to write into
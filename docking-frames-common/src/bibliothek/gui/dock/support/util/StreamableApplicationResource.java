@@ -0,0 +1,57 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.support.util;
+
+import java.io.IOException;
+
+import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XReader;
+import bibliothek.util.xml.XWriter;
+
+/**
+ * An {@link ApplicationResource} that can write its xml content into a {@link XWriter} and
+ * read it from a {@link XReader}, without building a tree of {@link XElement}s first. The
+ * {@link ApplicationResourceManager} prefers these methods over {@link #writeXML(XElement)}
+ * and {@link #readXML(XElement)}. Both variants must use the same format.
+ * @author Benjamin Sigg
+ */
+public interface StreamableApplicationResource extends ApplicationResource {
+	/**
+	 * Writes the contents of this resource in xml format.
+	 * @param writer the writer to write into, the new elements are children of the element that
+	 * is currently open. The attributes of the open element should not be changed.
+	 * @throws IOException if <code>writer</code> cannot write
+	 */
+	public void writeXML( XWriter writer ) throws IOException;
+	
+	/**
+	 * Reads the contents of this resource in xml format.
+	 * @param reader the reader whose cursor is at the beginning of the element that was written
+	 * by {@link #writeXML(XWriter)} or {@link #writeXML(XElement)}, this method has to close the element 
+	 * @throws IOException if <code>reader</code> cannot read
+	 */
+	public void readXML( XReader reader ) throws IOException;
+}
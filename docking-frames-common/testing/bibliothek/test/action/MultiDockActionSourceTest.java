@@ -0,0 +1,253 @@
+package bibliothek.test.action;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import bibliothek.gui.dock.action.DefaultDockActionSource;
+import bibliothek.gui.dock.action.DockAction;
+import bibliothek.gui.dock.action.DockActionSource;
+import bibliothek.gui.dock.action.MultiDockActionSource;
+import bibliothek.gui.dock.action.actions.SimpleButtonAction;
+import bibliothek.gui.dock.event.DockActionSourceListener;
+
+/**
+ * Builds random trees of nested {@link MultiDockActionSource}s and changes them step by step: actions
+ * are added to and removed from the leafs, sources are added and removed, and separators are
+ * switched on and off. After each step the actions reported by {@link MultiDockActionSource#getDockActionCount()}
+ * and {@link MultiDockActionSource#getDockAction(int)} are compared with the actions found by
+ * iterating over the tree. A listener applies all the events fired by the root to a copy of
+ * the list of actions, the copy has to match the tree as well. From time to time the listener
+ * is removed, then the root has to answer without observing its children.
+ */
+public class MultiDockActionSourceTest {
+	private Random random;
+	private MultiDockActionSource root;
+	private List<MultiDockActionSource> multis = new ArrayList<MultiDockActionSource>();
+	private List<DefaultDockActionSource> leafs = new ArrayList<DefaultDockActionSource>();
+	/** the children of each source in {@link #multis}, at the same index */
+	private List<List<DockActionSource>> children = new ArrayList<List<DockActionSource>>();
+
+	/** the actions of {@link #root} according to the events that were fired */
+	private List<DockAction> mirror = new ArrayList<DockAction>();
+	private Mirror listener = new Mirror();
+	private boolean observed;
+	private int actions = 0;
+
+	public static void main( String[] args ){
+		int steps = 0;
+		for( int seed = 0; seed < 200; seed++ ){
+			steps += new MultiDockActionSourceTest( seed ).run( 300 );
+		}
+		System.out.println( steps + " random changes produce the same actions and events" );
+	}
+
+	public MultiDockActionSourceTest( int seed ){
+		random = new Random( seed );
+	}
+
+	private int run( int steps ){
+		root = new MultiDockActionSource();
+		multis.add( root );
+		children.add( new ArrayList<DockActionSource>() );
+		for( int i = 0, n = 1 + random.nextInt( 4 ); i < n; i++ ){
+			addSource();
+		}
+		observe( true );
+
+		for( int step = 0; step < steps; step++ ){
+			change();
+			check( step );
+		}
+		return steps;
+	}
+
+	private void change(){
+		switch( random.nextInt( 10 ) ){
+			case 0:
+			case 1:
+				if( !leafs.isEmpty() ){
+					DefaultDockActionSource leaf = leafs.get( random.nextInt( leafs.size() ) );
+					DockAction[] added = new DockAction[ 1 + random.nextInt( 3 ) ];
+					for( int i = 0; i < added.length; i++ ){
+						added[i] = action();
+					}
+					leaf.add( random.nextInt( leaf.getDockActionCount() + 1 ), added );
+				}
+				break;
+			case 2:
+			case 3:
+				if( !leafs.isEmpty() ){
+					DefaultDockActionSource leaf = leafs.get( random.nextInt( leafs.size() ) );
+					int count = leaf.getDockActionCount();
+					if( count > 0 ){
+						int index = random.nextInt( count );
+						leaf.remove( index, 1 + random.nextInt( count - index ) );
+					}
+				}
+				break;
+			case 4:
+			case 5:
+				addSource();
+				break;
+			case 6:
+				removeSource();
+				break;
+			case 7:
+				MultiDockActionSource multi = multis.get( random.nextInt( multis.size() ) );
+				multi.setSeparateSources( !multi.isSeparateSources() );
+				break;
+			case 8:
+				if( random.nextInt( 4 ) == 0 ){
+					removeAll( multis.get( random.nextInt( multis.size() ) ) );
+				}
+				else{
+					multis.get( random.nextInt( multis.size() ) ).addSeparator();
+				}
+				break;
+			case 9:
+				observe( !observed );
+				break;
+		}
+	}
+
+	private DockAction action(){
+		SimpleButtonAction action = new SimpleButtonAction();
+		action.setText( "action " + (actions++) );
+		return action;
+	}
+
+	private void addSource(){
+		int index = random.nextInt( multis.size() );
+		MultiDockActionSource parent = multis.get( index );
+		DockActionSource child;
+		if( random.nextInt( 3 ) == 0 ){
+			MultiDockActionSource multi = new MultiDockActionSource();
+			multi.setSeparateSources( random.nextBoolean() );
+			multis.add( multi );
+			children.add( new ArrayList<DockActionSource>() );
+			child = multi;
+		}
+		else{
+			DefaultDockActionSource leaf = new DefaultDockActionSource();
+			for( int i = 0, n = random.nextInt( 4 ); i < n; i++ ){
+				leaf.add( action() );
+			}
+			leafs.add( leaf );
+			child = leaf;
+		}
+		children.get( index ).add( child );
+		parent.add( child );
+	}
+
+	private void removeSource(){
+		int index = random.nextInt( multis.size() );
+		List<DockActionSource> list = children.get( index );
+		if( !list.isEmpty() ){
+			DockActionSource child = list.remove( random.nextInt( list.size() ) );
+			multis.get( index ).remove( child );
+			forget( child );
+		}
+	}
+
+	private void removeAll( MultiDockActionSource parent ){
+		int index = multis.indexOf( parent );
+		List<DockActionSource> list = new ArrayList<DockActionSource>( children.get( index ) );
+		children.get( index ).clear();
+		parent.removeAll();
+		for( DockActionSource child : list ){
+			forget( child );
+		}
+	}
+
+	private void forget( DockActionSource source ){
+		leafs.remove( source );
+		int index = multis.indexOf( source );
+		if( index >= 0 ){
+			multis.remove( index );
+			for( DockActionSource child : children.remove( index ) ){
+				forget( child );
+			}
+		}
+	}
+
+	private void observe( boolean observed ){
+		if( this.observed != observed ){
+			this.observed = observed;
+			if( observed ){
+				root.addDockActionSourceListener( listener );
+				mirror.clear();
+				for( int i = 0, n = root.getDockActionCount(); i < n; i++ ){
+					mirror.add( root.getDockAction( i ) );
+				}
+			}
+			else{
+				root.removeDockActionSourceListener( listener );
+			}
+		}
+	}
+
+	private void check( int step ){
+		// without listeners the separators are only updated when the actions are counted
+		int count = root.getDockActionCount();
+
+		List<DockAction> expected = new ArrayList<DockAction>();
+		Iterator<DockAction> iterator = root.iterator();
+		while( iterator.hasNext() ){
+			expected.add( iterator.next() );
+		}
+
+		assertEquals( expected.size(), count, step, "count" );
+		for( int i = 0; i < count; i++ ){
+			if( root.getDockAction( i ) != expected.get( i ) ){
+				throw new AssertionError( "step " + step + ", action " + i + ": expected " + expected.get( i ) + " but was " + root.getDockAction( i ) );
+			}
+		}
+		for( MultiDockActionSource multi : multis ){
+			List<DockAction> actions = new ArrayList<DockAction>();
+			int inner = multi.getDockActionCount();
+			for( DockAction action : multi ){
+				actions.add( action );
+			}
+			assertEquals( actions.size(), inner, step, "count of nested source" );
+			for( int i = 0; i < inner; i++ ){
+				if( multi.getDockAction( i ) != actions.get( i ) ){
+					throw new AssertionError( "step " + step + ", nested action " + i );
+				}
+			}
+		}
+		if( observed && !mirror.equals( expected ) ){
+			throw new AssertionError( "step " + step + ": events lead to " + mirror + " but actions are " + expected );
+		}
+	}
+
+	private static void assertEquals( int expected, int actual, int step, String message ){
+		if( expected != actual ){
+			throw new AssertionError( "step " + step + ", " + message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	/**
+	 * Applies the events of {@link MultiDockActionSourceTest#root} to {@link MultiDockActionSourceTest#mirror}.
+	 */
+	private class Mirror implements DockActionSourceListener{
+		public void actionsAdded( DockActionSource source, int firstIndex, int lastIndex ){
+			if( firstIndex < 0 || firstIndex > mirror.size() || lastIndex < firstIndex ){
+				throw new AssertionError( "illegal range added: " + firstIndex + "-" + lastIndex + ", size " + mirror.size() );
+			}
+			for( int i = firstIndex; i <= lastIndex; i++ ){
+				mirror.add( i, source.getDockAction( i ) );
+			}
+		}
+
+		public void actionsRemoved( DockActionSource source, int firstIndex, int lastIndex ){
+			if( firstIndex < 0 || lastIndex >= mirror.size() || lastIndex < firstIndex ){
+				throw new AssertionError( "illegal range removed: " + firstIndex + "-" + lastIndex + ", size " + mirror.size() );
+			}
+			for( int i = lastIndex; i >= firstIndex; i-- ){
+				mirror.remove( i );
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package bibliothek.test.benchmark;
+
+import bibliothek.gui.DockFrontend;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.frontend.Setting;
+import bibliothek.gui.dock.station.split.SplitDockGrid;
+
+/**
+ * Measures how long {@link DockFrontend} needs to store and to apply a {@link Setting}
+ * that contains many {@link Dockable}s. Each operation needs to look up the entry of
+ * every {@link Dockable}, hence this benchmark shows how fast these lookups are.
+ */
+public class DockFrontendBenchmark {
+	private static final int DOCKABLES = 5000;
+	private static final int VISIBLE = 50;
+	private static final int COLUMNS = 10;
+	private static final int ROUNDS = 5;
+
+	public static void main( String[] args ){
+		DockFrontend frontend = new DockFrontend();
+		SplitDockStation station = new SplitDockStation();
+		frontend.addRoot( "root", station );
+
+		SplitDockGrid grid = new SplitDockGrid();
+		Dockable[] dockables = new Dockable[ DOCKABLES ];
+		for( int i = 0; i < DOCKABLES; i++ ){
+			dockables[i] = new DefaultDockable( "dockable " + i );
+			frontend.addDockable( "dockable" + i, dockables[i] );
+			frontend.setHideable( dockables[i], true );
+			if( i < VISIBLE ){
+				grid.addDockable( i % COLUMNS, i / COLUMNS, 1, 1, dockables[i] );
+			}
+		}
+		station.dropTree( grid.toTree() );
+		System.out.println( "dockables=" + DOCKABLES + ", visible=" + VISIBLE );
+
+		Setting setting = null;
+		long time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			setting = frontend.getSetting( true );
+		}
+		System.out.println( "getSetting: " + millis( System.nanoTime() - time ) / ROUNDS + " ms" );
+
+		time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			frontend.setSetting( setting, true );
+		}
+		System.out.println( "setSetting: " + millis( System.nanoTime() - time ) / ROUNDS + " ms" );
+
+		time = System.nanoTime();
+		int hidden = 0;
+		for( int i = 0; i < ROUNDS; i++ ){
+			for( Dockable dockable : dockables ){
+				if( frontend.isHidden( dockable ) ){
+					hidden++;
+				}
+				frontend.getFrontendEntry( dockable );
+			}
+		}
+		System.out.println( "isHidden/getFrontendEntry: " + millis( System.nanoTime() - time ) / ROUNDS + " ms (" + hidden + " hidden)" );
+
+		frontend.getController().kill();
+	}
+
+	private static long millis( long nanos ){
+		return nanos / 1000000;
+	}
+}
@@ -0,0 +1,299 @@
+package bibliothek.test.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import bibliothek.gui.dock.station.support.PlaceholderMap;
+import bibliothek.gui.dock.station.support.PlaceholderMap.Key;
+import bibliothek.util.Path;
+import bibliothek.util.Version;
+
+/**
+ * Measures memory and time needed by {@link PlaceholderMap} to store, copy, read and write a
+ * layout with many placeholders. As reference the same data is stored in nested
+ * {@link LinkedHashMap}s with boxed values, which is how {@link PlaceholderMap} used
+ * to store its data. Both sides use the same keys and names, copy all values deeply
+ * like {@link PlaceholderMap#copy()} did, and write the same binary format.
+ */
+public class PlaceholderMapBenchmark {
+	private static final int MAPS = 200;
+	private static final int KEYS = 250;
+	private static final int ROUNDS = 20;
+
+	/** the names of the values stored for each key */
+	private static final String[] NAMES = { "convert", "convert-keys", "dock.id", "dock.index", "dock.weight", "dock.stamp" };
+
+	/** used to create and copy the keys of the boxed maps */
+	private static final PlaceholderMap KEY_FACTORY = new PlaceholderMap( new Path( "dock.PlaceholderList" ), 0 );
+
+	public static void main( String[] args ) throws IOException{
+		System.out.println( "maps=" + MAPS + ", keys per map=" + KEYS );
+
+		long before = usedMemory();
+		PlaceholderMap[] compact = new PlaceholderMap[ MAPS ];
+		for( int i = 0; i < MAPS; i++ ){
+			compact[i] = createMap( i );
+		}
+		long compactMemory = usedMemory() - before;
+
+		before = usedMemory();
+		Object[] boxed = new Object[ MAPS ];
+		for( int i = 0; i < MAPS; i++ ){
+			boxed[i] = createBoxed( i );
+		}
+		long boxedMemory = usedMemory() - before;
+
+		System.out.println( "memory: PlaceholderMap=" + (compactMemory / 1024) + " KiB, boxed=" + (boxedMemory / 1024) + " KiB" );
+
+		long compactBytes = write( compact );
+		long boxedBytes = writeBoxed( boxed );
+		if( compactBytes != boxedBytes ){
+			throw new IllegalStateException( "formats differ: " + compactBytes + " != " + boxedBytes );
+		}
+
+		for( int warmup = 0; warmup < 3; warmup++ ){
+			copy( compact );
+			copyBoxed( boxed );
+			write( compact );
+			writeBoxed( boxed );
+			lookup( compact );
+			lookupBoxed( boxed );
+		}
+
+		long time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			copy( compact );
+		}
+		long compactCopy = System.nanoTime() - time;
+
+		time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			copyBoxed( boxed );
+		}
+		long boxedCopy = System.nanoTime() - time;
+
+		time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			write( compact );
+		}
+		long compactWrite = System.nanoTime() - time;
+
+		time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			writeBoxed( boxed );
+		}
+		long boxedWrite = System.nanoTime() - time;
+
+		time = System.nanoTime();
+		long sum = 0;
+		for( int i = 0; i < ROUNDS; i++ ){
+			sum += lookup( compact );
+		}
+		long compactLookup = System.nanoTime() - time;
+
+		time = System.nanoTime();
+		for( int i = 0; i < ROUNDS; i++ ){
+			sum -= lookupBoxed( boxed );
+		}
+		long boxedLookup = System.nanoTime() - time;
+
+		if( sum != 0 ){
+			throw new IllegalStateException( "lookups differ" );
+		}
+
+		System.out.println( "maps: PlaceholderMap=" + compact.length + ", boxed=" + boxed.length + " (" + KEYS + " keys each)" );
+		System.out.println( "copy: PlaceholderMap=" + millis( compactCopy ) + " ms, boxed=" + millis( boxedCopy ) + " ms" );
+		System.out.println( "write: PlaceholderMap=" + millis( compactWrite ) + " ms, boxed=" + millis( boxedWrite ) + " ms (" + compactBytes + " bytes)" );
+		System.out.println( "lookup: PlaceholderMap=" + millis( compactLookup ) + " ms, boxed=" + millis( boxedLookup ) + " ms" );
+	}
+
+	private static PlaceholderMap createMap( int seed ){
+		PlaceholderMap map = new PlaceholderMap( new Path( "dock.PlaceholderList" ), 0 );
+		for( int i = 0; i < KEYS; i++ ){
+			Key key = map.newUniqueKey( new Path( "dock.single.item" + seed + "_" + i ) );
+			map.add( key );
+			map.putBoolean( key, "convert", true );
+			map.putArray( key, "convert-keys", new String[]{ "id", "index" } );
+			map.putString( key, "dock.id", "item" + i );
+			map.putInt( key, "dock.index", i );
+			map.putDouble( key, "dock.weight", i * 0.5 );
+			map.putLong( key, "dock.stamp", seed * 1000L + i );
+		}
+		return map;
+	}
+
+	private static Map<Key, Map<String, Object>> createBoxed( int seed ){
+		Map<Key, Map<String, Object>> map = new LinkedHashMap<Key, Map<String,Object>>();
+		for( int i = 0; i < KEYS; i++ ){
+			Map<String, Object> values = new LinkedHashMap<String, Object>();
+			map.put( KEY_FACTORY.newUniqueKey( new Path( "dock.single.item" + seed + "_" + i ) ), values );
+			values.put( "convert", Boolean.TRUE );
+			values.put( "convert-keys", new String[]{ "id", "index" } );
+			values.put( "dock.id", "item" + i );
+			values.put( "dock.index", Integer.valueOf( i ) );
+			values.put( "dock.weight", Double.valueOf( i * 0.5 ) );
+			values.put( "dock.stamp", Long.valueOf( seed * 1000L + i ) );
+		}
+		return map;
+	}
+
+	private static void copy( PlaceholderMap[] maps ){
+		for( PlaceholderMap map : maps ){
+			map.copy();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void copyBoxed( Object[] maps ){
+		for( Object item : maps ){
+			Map<Key, Map<String, Object>> map = (Map<Key, Map<String, Object>>)item;
+			Map<Key, Map<String, Object>> copy = new LinkedHashMap<Key, Map<String,Object>>();
+			for( Map.Entry<Key, Map<String, Object>> entry : map.entrySet() ){
+				Map<String, Object> values = new LinkedHashMap<String, Object>();
+				copy.put( KEY_FACTORY.copyKey( entry.getKey() ), values );
+				for( Map.Entry<String, Object> value : entry.getValue().entrySet() ){
+					values.put( value.getKey(), copyBoxed( value.getValue() ) );
+				}
+			}
+		}
+	}
+
+	private static Object copyBoxed( Object value ){
+		if( value instanceof Object[] ){
+			Object[] array = (Object[])value;
+			Object[] copy = new Object[ array.length ];
+			for( int i = 0; i < copy.length; i++ ){
+				copy[i] = copyBoxed( array[i] );
+			}
+			return copy;
+		}
+		return value;
+	}
+
+	private static long write( PlaceholderMap[] maps ) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		for( PlaceholderMap map : maps ){
+			map.write( out );
+		}
+		out.flush();
+		return bytes.size();
+	}
+
+	/**
+	 * Writes the boxed maps in the same format as {@link PlaceholderMap#write(DataOutputStream)}.
+	 */
+	@SuppressWarnings("unchecked")
+	private static long writeBoxed( Object[] maps ) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		for( Object item : maps ){
+			Map<Key, Map<String, Object>> map = (Map<Key, Map<String, Object>>)item;
+			Version.write( out, Version.VERSION_1_1_1a );
+			out.writeInt( 0 );
+			out.writeUTF( "dock.PlaceholderList" );
+			out.writeInt( map.size() );
+			for( Map.Entry<Key, Map<String, Object>> entry : map.entrySet() ){
+				Key key = entry.getKey();
+				out.writeBoolean( key.isShared() );
+				out.writeBoolean( false );
+				out.writeInt( key.getPlaceholders().length );
+				for( Path path : key.getPlaceholders() ){
+					out.writeUTF( path.toString() );
+				}
+				out.writeInt( entry.getValue().size() );
+				for( Map.Entry<String, Object> value : entry.getValue().entrySet() ){
+					out.writeUTF( value.getKey() );
+					writeBoxed( value.getValue(), out );
+				}
+			}
+		}
+		out.flush();
+		return bytes.size();
+	}
+
+	private static void writeBoxed( Object value, DataOutputStream out ) throws IOException{
+		if( value instanceof String ){
+			out.writeByte( 0 );
+			out.writeUTF( (String)value );
+		}
+		else if( value instanceof Integer ){
+			out.writeByte( 1 );
+			out.writeInt( (Integer)value );
+		}
+		else if( value instanceof Long ){
+			out.writeByte( 2 );
+			out.writeLong( (Long)value );
+		}
+		else if( value instanceof Double ){
+			out.writeByte( 3 );
+			out.writeDouble( (Double)value );
+		}
+		else if( value instanceof Boolean ){
+			out.writeByte( 4 );
+			out.writeBoolean( (Boolean)value );
+		}
+		else if( value instanceof Object[] ){
+			out.writeByte( 6 );
+			Object[] array = (Object[])value;
+			out.writeInt( array.length );
+			for( Object item : array ){
+				writeBoxed( item, out );
+			}
+		}
+		else{
+			throw new IOException( "unknown type: " + value.getClass() );
+		}
+	}
+
+	private static long lookup( PlaceholderMap[] maps ){
+		long sum = 0;
+		for( PlaceholderMap map : maps ){
+			for( Key key : map.getPlaceholders() ){
+				for( String name : NAMES ){
+					if( map.contains( key, name ) ){
+						sum++;
+					}
+				}
+				sum += map.getInt( key, "dock.index" );
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Searches the values the same way {@link PlaceholderMap} does, first the key and then the name.
+	 */
+	@SuppressWarnings("unchecked")
+	private static long lookupBoxed( Object[] maps ){
+		long sum = 0;
+		for( Object item : maps ){
+			Map<Key, Map<String, Object>> map = (Map<Key, Map<String, Object>>)item;
+			for( Key key : map.keySet().toArray( new Key[ map.size() ] ) ){
+				for( String name : NAMES ){
+					Map<String, Object> values = map.get( key );
+					if( values != null && values.containsKey( name ) ){
+						sum++;
+					}
+				}
+				sum += (Integer)map.get( key ).get( "dock.index" );
+			}
+		}
+		return sum;
+	}
+
+	private static long usedMemory(){
+		Runtime runtime = Runtime.getRuntime();
+		for( int i = 0; i < 3; i++ ){
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long millis( long nanos ){
+		return nanos / 1000000;
+	}
+}
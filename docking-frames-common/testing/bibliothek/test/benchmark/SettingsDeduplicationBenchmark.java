@@ -0,0 +1,131 @@
+package bibliothek.test.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import bibliothek.gui.DockFrontend;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.frontend.Setting;
+import bibliothek.gui.dock.station.split.SplitDockGrid;
+
+/**
+ * Stores many {@link Setting}s which differ only in a few {@link Dockable}s, once as full
+ * copies and once with {@link DockFrontend#setDeduplicateSettings(boolean) deduplication}, and
+ * compares the memory and the size of the file that is required. The settings are loaded once after
+ * they were saved, and again after they were written and read by a new frontend, to verify that
+ * they were not modified and were reconstructed correctly.
+ */
+public class SettingsDeduplicationBenchmark {
+	private static final int SETTINGS = 40;
+	private static final int DOCKABLES = 60;
+	private static final int COLUMNS = 6;
+	private static final int HIDDEN = 3;
+
+	public static void main( String[] args ) throws IOException{
+		System.out.println( "settings=" + SETTINGS + ", dockables=" + DOCKABLES + ", hidden per setting=" + HIDDEN );
+		run( false );
+		run( true );
+	}
+
+	private static void run( boolean deduplicate ) throws IOException{
+		Dockable[] dockables = new Dockable[ DOCKABLES ];
+		DockFrontend frontend = createFrontend( dockables );
+		frontend.setDeduplicateSettings( deduplicate );
+
+		long before = usedMemory();
+		long time = System.nanoTime();
+		for( int i = 0; i < SETTINGS; i++ ){
+			for( int j = 0; j < DOCKABLES; j++ ){
+				if( isHidden( i, j )){
+					frontend.hide( dockables[j] );
+				}
+				else{
+					frontend.show( dockables[j] );
+				}
+			}
+			frontend.save( "setting " + i );
+		}
+		long saveTime = System.nanoTime() - time;
+		long memory = usedMemory() - before;
+
+		// loading a shared setting must not modify the layouts of the other settings
+		int errors = check( frontend, dockables );
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		time = System.nanoTime();
+		frontend.write( out );
+		out.close();
+		long writeTime = System.nanoTime() - time;
+		frontend.getController().kill();
+
+		// read the file with a new frontend and check that each setting shows the expected dockables
+		frontend = createFrontend( dockables );
+		time = System.nanoTime();
+		frontend.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() )));
+		long readTime = System.nanoTime() - time;
+
+		errors += check( frontend, dockables );
+		frontend.getController().kill();
+
+		System.out.println( (deduplicate ? "deduplicated: " : "full copies:  ") + 
+				"memory=" + (memory / 1024) + " KiB, file=" + (bytes.size() / 1024) + " KiB, " +
+				"save=" + millis( saveTime ) + " ms, write=" + millis( writeTime ) + " ms, read=" + millis( readTime ) + " ms, " +
+				"errors=" + errors );
+	}
+
+	private static int check( DockFrontend frontend, Dockable[] dockables ){
+		int errors = 0;
+		for( int i = 0; i < SETTINGS; i++ ){
+			frontend.load( "setting " + i );
+			for( int j = 0; j < DOCKABLES; j++ ){
+				if( frontend.isShown( dockables[j] ) == isHidden( i, j )){
+					errors++;
+				}
+			}
+		}
+		return errors;
+	}
+
+	private static boolean isHidden( int setting, int dockable ){
+		for( int i = 0; i < HIDDEN; i++ ){
+			if( (setting * 7 + i * 13) % DOCKABLES == dockable ){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static DockFrontend createFrontend( Dockable[] dockables ){
+		DockFrontend frontend = new DockFrontend();
+		SplitDockStation station = new SplitDockStation();
+		frontend.addRoot( "root", station );
+
+		SplitDockGrid grid = new SplitDockGrid();
+		for( int i = 0; i < dockables.length; i++ ){
+			dockables[i] = new DefaultDockable( "dockable " + i );
+			frontend.addDockable( "dockable" + i, dockables[i] );
+			frontend.setHideable( dockables[i], true );
+			grid.addDockable( i % COLUMNS, i / COLUMNS, 1, 1, dockables[i] );
+		}
+		station.dropTree( grid.toTree() );
+		return frontend;
+	}
+
+	private static long usedMemory(){
+		Runtime runtime = Runtime.getRuntime();
+		for( int i = 0; i < 3; i++ ){
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long millis( long nanos ){
+		return nanos / 1000000;
+	}
+}
@@ -0,0 +1,244 @@
+package bibliothek.test.control;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.DefaultMultipleCDockable;
+import bibliothek.gui.dock.common.DefaultSingleCDockable;
+import bibliothek.gui.dock.common.EmptyMultipleCDockableFactory;
+import bibliothek.gui.dock.common.MultipleCDockable;
+import bibliothek.gui.dock.common.MultipleCDockableFactory;
+import bibliothek.gui.dock.common.event.CControlBulkListener;
+import bibliothek.gui.dock.common.event.CControlListener;
+import bibliothek.gui.dock.common.intern.CDockable;
+import bibliothek.gui.dock.common.intern.DefaultCControlRegister;
+
+/**
+ * Checks the indices of a {@link DefaultCControlRegister}: the {@link MultipleCDockable}s accessed by their unique
+ * identifier, and the {@link MultipleCDockable}s grouped by their factory. The indices must follow the elements
+ * that are added, removed and added again with another identifier. Elements without identifier must still be
+ * grouped by their factory. {@link CControl#addDockables(java.util.Collection)} must inform a
+ * {@link CControlBulkListener} once, and any other listener once per element.
+ */
+public class CControlRegisterIndexTest {
+	private CControl control;
+	private DefaultCControlRegister register;
+	private Factory factoryA = new Factory();
+	private Factory factoryB = new Factory();
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				CControlRegisterIndexTest test = new CControlRegisterIndexTest();
+				test.setup();
+				try{
+					test.checkAddRemove();
+					System.out.println( "the indices follow added and removed elements" );
+
+					test.checkReId();
+					System.out.println( "the indices follow elements added again with another identifier" );
+
+					test.checkWithoutId();
+					System.out.println( "elements without identifier are grouped by their factory" );
+
+					test.checkAddDockables();
+					System.out.println( "addDockables informs each listener once" );
+				}
+				finally{
+					test.control.destroy();
+				}
+			}
+		});
+	}
+
+	private void setup(){
+		control = new CControl();
+		control.addMultipleDockableFactory( "a", factoryA );
+		control.addMultipleDockableFactory( "b", factoryB );
+		register = (DefaultCControlRegister)control.getRegister();
+	}
+
+	private void checkAddRemove(){
+		MultipleCDockable a1 = control.addDockable( "a1", factoryA.createDockable() );
+		MultipleCDockable a2 = control.addDockable( "a2", factoryA.createDockable() );
+		MultipleCDockable b1 = control.addDockable( "b1", factoryB.createDockable() );
+
+		assertId( "a1", a1 );
+		assertId( "a2", a2 );
+		assertId( "b1", b1 );
+		assertBucket( factoryA, a1, a2 );
+		assertBucket( factoryB, b1 );
+
+		control.removeDockable( a1 );
+		assertId( "a1", null );
+		assertId( "a2", a2 );
+		assertBucket( factoryA, a2 );
+
+		control.removeDockable( a2 );
+		control.removeDockable( b1 );
+		assertId( "a2", null );
+		assertId( "b1", null );
+		assertBucket( factoryA );
+		assertBucket( factoryB );
+	}
+
+	private void checkReId(){
+		MultipleCDockable dockable = control.addDockable( "first", factoryA.createDockable() );
+		control.removeDockable( dockable );
+		control.addDockable( "second", dockable );
+
+		assertId( "first", null );
+		assertId( "second", dockable );
+		assertBucket( factoryA, dockable );
+
+		// the old identifier can be used by another element
+		MultipleCDockable other = control.addDockable( "first", factoryA.createDockable() );
+		assertId( "first", other );
+		assertBucket( factoryA, dockable, other );
+
+		control.removeDockable( dockable );
+		control.removeDockable( other );
+		assertId( "second", null );
+		assertId( "first", null );
+		assertBucket( factoryA );
+	}
+
+	private void checkWithoutId(){
+		// an element that is not registered at the control has no identifier
+		MultipleCDockable dockable = factoryB.createDockable();
+		register.addMultipleDockable( dockable );
+		assertBucket( factoryB, dockable );
+		if( !register.getMultipleDockables().contains( dockable ) ){
+			throw new AssertionError( "the element without identifier is not known" );
+		}
+
+		if( !register.removeMultipleDockable( dockable ) ){
+			throw new AssertionError( "the element without identifier could not be removed" );
+		}
+		assertBucket( factoryB );
+	}
+
+	private void checkAddDockables(){
+		final List<List<CDockable>> bulk = new ArrayList<List<CDockable>>();
+		final List<CDockable> single = new ArrayList<CDockable>();
+
+		Bulk bulkListener = new Bulk( bulk );
+		Listener singleListener = new Listener(){
+			@Override
+			public void added( CControl control, CDockable dockable ){
+				single.add( dockable );
+			}
+		};
+		control.addControlListener( bulkListener );
+		control.addControlListener( singleListener );
+
+		MultipleCDockable a = factoryA.createDockable();
+		MultipleCDockable b = factoryB.createDockable();
+		DefaultSingleCDockable s = new DefaultSingleCDockable( "single" );
+		List<CDockable> dockables = Arrays.<CDockable>asList( a, s, b );
+		control.addDockables( dockables );
+
+		if( bulk.size() != 1 ){
+			throw new AssertionError( "expected one bulk event but got " + bulk.size() );
+		}
+		if( !bulk.get( 0 ).equals( dockables ) ){
+			throw new AssertionError( "the bulk event contains " + bulk.get( 0 ) );
+		}
+		if( bulkListener.single != 0 ){
+			throw new AssertionError( "the bulk listener received " + bulkListener.single + " single events" );
+		}
+		if( !single.equals( dockables ) ){
+			throw new AssertionError( "the single listener received " + single );
+		}
+
+		assertBucket( factoryA, a );
+		assertBucket( factoryB, b );
+		assertId( uniqueId( a ), a );
+		assertId( uniqueId( b ), b );
+		if( register.getSingleDockable( "single" ) != s ){
+			throw new AssertionError( "the single element is not indexed" );
+		}
+
+		control.removeControlListener( bulkListener );
+		control.removeControlListener( singleListener );
+	}
+
+	private String uniqueId( MultipleCDockable dockable ){
+		return register.multiToNormalId( dockable.getControlAccess().access( dockable ).getUniqueId() );
+	}
+
+	private void assertId( String id, MultipleCDockable expected ){
+		if( control.getMultipleDockable( id ) != expected ){
+			throw new AssertionError( "the identifier '" + id + "' is mapped to " + control.getMultipleDockable( id ) + ", expected " + expected );
+		}
+		if( register.getMultipleDockable( id ) != expected ){
+			throw new AssertionError( "the register maps '" + id + "' to " + register.getMultipleDockable( id ) + ", expected " + expected );
+		}
+	}
+
+	private void assertBucket( MultipleCDockableFactory<?, ?> factory, MultipleCDockable... expected ){
+		List<MultipleCDockable> actual = register.listMultipleDockables( factory );
+		if( !actual.equals( Arrays.asList( expected ) ) ){
+			throw new AssertionError( "the factory " + register.getFactoryId( factory ) + " lists " + actual + ", expected " + Arrays.asList( expected ) );
+		}
+
+		// the index must be the same as a search through all the elements
+		List<MultipleCDockable> search = new ArrayList<MultipleCDockable>();
+		for( MultipleCDockable dockable : register.getMultipleDockables() ){
+			if( dockable.getFactory() == factory ){
+				search.add( dockable );
+			}
+		}
+		if( !actual.equals( search ) ){
+			throw new AssertionError( "the factory " + register.getFactoryId( factory ) + " lists " + actual + ", but a search finds " + search );
+		}
+	}
+
+	private static class Factory extends EmptyMultipleCDockableFactory<MultipleCDockable> {
+		@Override
+		public MultipleCDockable createDockable(){
+			return new DefaultMultipleCDockable( this );
+		}
+	}
+
+	private static class Listener implements CControlListener {
+		public void added( CControl control, CDockable dockable ){
+			// ignore
+		}
+
+		public void removed( CControl control, CDockable dockable ){
+			// ignore
+		}
+
+		public void opened( CControl control, CDockable dockable ){
+			// ignore
+		}
+
+		public void closed( CControl control, CDockable dockable ){
+			// ignore
+		}
+	}
+
+	private static class Bulk extends Listener implements CControlBulkListener {
+		private List<List<CDockable>> events;
+		private int single = 0;
+
+		public Bulk( List<List<CDockable>> events ){
+			this.events = events;
+		}
+
+		public void addedAll( CControl control, List<CDockable> dockables ){
+			events.add( new ArrayList<CDockable>( dockables ) );
+		}
+
+		@Override
+		public void added( CControl control, CDockable dockable ){
+			single++;
+		}
+	}
+}
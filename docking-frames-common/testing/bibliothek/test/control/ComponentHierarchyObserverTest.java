@@ -0,0 +1,216 @@
+package bibliothek.test.control;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.swing.JPanel;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.dock.control.ComponentHierarchyObserver;
+import bibliothek.gui.dock.event.ComponentHierarchyObserverEvent;
+import bibliothek.gui.dock.event.ComponentHierarchyObserverListener;
+
+/**
+ * Checks the events of a {@link ComponentHierarchyObserver} that coalesces changes, see
+ * {@link ComponentHierarchyObserver#COALESCE_EVENTS}. All the {@link Component}s that are added in one cycle
+ * of the {@link EventQueue} must be reported with one event, the same applies to the removed {@link Component}s.
+ * A {@link Component} that is added and removed again in the same cycle must not be reported at all. Changes
+ * made on another thread must be reported on the {@link EventQueue} like any other change.
+ */
+public class ComponentHierarchyObserverTest {
+	private DockController controller;
+	private ComponentHierarchyObserver observer;
+	private JPanel root;
+	private Recorder recorder;
+	private final JPanel a = new JPanel();
+	private final JPanel b = new JPanel();
+	private final JPanel child = new JPanel();
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		final ComponentHierarchyObserverTest test = new ComponentHierarchyObserverTest();
+		test.setup();
+
+		test.checkAdd();
+		System.out.println( "components added in one cycle are reported with one event" );
+
+		test.checkRemove();
+		System.out.println( "components removed in one cycle are reported with one event" );
+
+		test.checkAddRemove();
+		System.out.println( "a component added and removed in one cycle is not reported" );
+
+		test.checkOtherThread();
+		System.out.println( "changes made on another thread are reported on the EventQueue" );
+
+		onQueue( new Runnable(){
+			public void run(){
+				test.controller.kill();
+			}
+		});
+	}
+
+	private void setup() throws Exception{
+		onQueue( new Runnable(){
+			public void run(){
+				controller = new DockController();
+				controller.getProperties().set( ComponentHierarchyObserver.COALESCE_EVENTS, true );
+				observer = controller.getComponentHierarchyObserver();
+				if( !observer.isCoalescing() ){
+					throw new AssertionError( "the observer does not coalesce events" );
+				}
+				root = new JPanel();
+				observer.add( root );
+				recorder = new Recorder();
+				observer.addListener( recorder );
+			}
+		});
+	}
+
+	private void checkAdd() throws Exception{
+		onQueue( new Runnable(){
+			public void run(){
+				a.add( child );
+				root.add( a );
+				root.add( b );
+			}
+		});
+		flush();
+		recorder.assertEvents( 1, 0 );
+		recorder.assertAdded( a, b, child );
+		assertKnown( a, b, child );
+	}
+
+	private void checkRemove() throws Exception{
+		onQueue( new Runnable(){
+			public void run(){
+				root.remove( a );
+				root.remove( b );
+			}
+		});
+		flush();
+		recorder.assertEvents( 0, 1 );
+		recorder.assertRemoved( a, b, child );
+		assertUnknown( a, b, child );
+	}
+
+	private void checkAddRemove() throws Exception{
+		onQueue( new Runnable(){
+			public void run(){
+				root.add( a );
+				root.remove( a );
+			}
+		});
+		flush();
+		recorder.assertEvents( 0, 0 );
+		assertUnknown( a, child );
+	}
+
+	private void checkOtherThread() throws Exception{
+		// neither the component nor its parent are known, this change must be ignored
+		JPanel unrelated = new JPanel();
+		unrelated.add( new JPanel() );
+		flush();
+		recorder.assertEvents( 0, 0 );
+
+		root.add( b );
+		flush();
+		recorder.assertEvents( 1, 0 );
+		recorder.assertAdded( b );
+		assertKnown( b );
+	}
+
+	/**
+	 * Waits until the {@link EventQueue} handled all the events that are currently pending, including
+	 * the flush of the observer.
+	 */
+	private void flush() throws Exception{
+		onQueue( new Runnable(){
+			public void run(){
+				// nothing
+			}
+		});
+	}
+
+	private void assertKnown( Component... components ){
+		for( Component component : components ){
+			if( !observer.getComponents().contains( component ) ){
+				throw new AssertionError( "component is not known: " + component );
+			}
+		}
+	}
+
+	private void assertUnknown( Component... components ){
+		for( Component component : components ){
+			if( observer.getComponents().contains( component ) ){
+				throw new AssertionError( "component is still known: " + component );
+			}
+		}
+	}
+
+	private static void onQueue( Runnable run ) throws InterruptedException, InvocationTargetException{
+		EventQueue.invokeAndWait( run );
+	}
+
+	/**
+	 * Records the events of the observer, all events must be received on the {@link EventQueue}.
+	 */
+	private static class Recorder implements ComponentHierarchyObserverListener {
+		private List<ComponentHierarchyObserverEvent> added = new ArrayList<ComponentHierarchyObserverEvent>();
+		private List<ComponentHierarchyObserverEvent> removed = new ArrayList<ComponentHierarchyObserverEvent>();
+
+		public void added( ComponentHierarchyObserverEvent event ){
+			checkThread();
+			added.add( event );
+		}
+
+		public void removed( ComponentHierarchyObserverEvent event ){
+			checkThread();
+			removed.add( event );
+		}
+
+		private void checkThread(){
+			if( !EventQueue.isDispatchThread() ){
+				throw new AssertionError( "event received outside the EventQueue" );
+			}
+		}
+
+		/**
+		 * Checks the number of events received since the last call, the events remain stored
+		 * until {@link #assertAdded(Component...)} or {@link #assertRemoved(Component...)} is called.
+		 */
+		public void assertEvents( int addedEvents, int removedEvents ){
+			if( added.size() != addedEvents ){
+				throw new AssertionError( "expected " + addedEvents + " added events but got " + added.size() );
+			}
+			if( removed.size() != removedEvents ){
+				throw new AssertionError( "expected " + removedEvents + " removed events but got " + removed.size() );
+			}
+		}
+
+		public void assertAdded( Component... components ){
+			assertComponents( added, components );
+		}
+
+		public void assertRemoved( Component... components ){
+			assertComponents( removed, components );
+		}
+
+		private void assertComponents( List<ComponentHierarchyObserverEvent> events, Component... components ){
+			HashSet<Component> expected = new HashSet<Component>( Arrays.asList( components ) );
+			HashSet<Component> actual = new HashSet<Component>();
+			for( ComponentHierarchyObserverEvent event : events ){
+				actual.addAll( event.getComponents() );
+			}
+			if( !expected.equals( actual ) ){
+				throw new AssertionError( "expected " + expected.size() + " components but got " + actual.size() + " different ones" );
+			}
+			events.clear();
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package bibliothek.test.control;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.StackDockStation;
+import bibliothek.gui.dock.control.DockRegister;
+import bibliothek.gui.dock.control.focus.DefaultFocusRequest;
+import bibliothek.gui.dock.event.DockRegisterAdapter;
+import bibliothek.gui.dock.event.DockRegisterBatchListener;
+import bibliothek.gui.dock.event.DockRegisterListener;
+
+/**
+ * Checks the events of a {@link DockRegister} that is {@link DockRegister#setStalled(boolean) stalled}. A
+ * {@link DockRegisterBatchListener} must receive exactly one summary for all the elements that were added, and
+ * one for all the elements that were removed, each time the register is no longer stalled. Listeners that only
+ * know the single events must still receive one event per element. The summaries must be delivered even if another
+ * listener throws an exception, otherwise the {@link bibliothek.gui.dock.control.focus.DefaultFocusHistory} would
+ * keep elements that are no longer registered.
+ */
+public class DockRegisterBatchEventTest {
+	private DockController controller;
+	private DockRegister register;
+	private StackDockStation station;
+	private Recorder recorder;
+	private Legacy legacy;
+	private final Dockable a = new DefaultDockable( "a" );
+	private final Dockable b = new DefaultDockable( "b" );
+	private final Dockable c = new DefaultDockable( "c" );
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				DockRegisterBatchEventTest test = new DockRegisterBatchEventTest();
+				test.setup();
+				try{
+					test.checkAdd();
+					System.out.println( "elements added while stalled are summarized with one event" );
+
+					test.checkRemove();
+					System.out.println( "elements removed while stalled are summarized with one event" );
+
+					test.checkNested();
+					System.out.println( "nested stalls deliver the summary only once" );
+
+					test.checkUnstalled();
+					System.out.println( "changes outside a stall are not summarized" );
+
+					test.checkException();
+					System.out.println( "summaries are delivered even if a listener throws an exception" );
+				}
+				finally{
+					test.controller.kill();
+				}
+			}
+		});
+	}
+
+	private void setup(){
+		controller = new DockController();
+		register = controller.getRegister();
+		station = new StackDockStation();
+		controller.add( station );
+		recorder = new Recorder();
+		legacy = new Legacy();
+		register.addDockRegisterListener( recorder );
+		register.addDockRegisterListener( legacy );
+	}
+
+	private void checkAdd(){
+		register.setStalled( true );
+		station.drop( a );
+		station.drop( b );
+		station.drop( c );
+		recorder.assertEvents( "stalled", 0, 0 );
+		register.setStalled( false );
+
+		recorder.assertRegistered( a, b, c );
+		recorder.assertEvents( "add", 1, 0 );
+		recorder.assertSingle( 3, 0 );
+		legacy.assertSingle( 3, 0 );
+	}
+
+	private void checkRemove(){
+		register.setStalled( true );
+		station.drag( a );
+		station.drag( b );
+		recorder.assertEvents( "stalled", 0, 0 );
+		register.setStalled( false );
+
+		recorder.assertUnregistered( a, b );
+		recorder.assertEvents( "remove", 0, 1 );
+		recorder.assertSingle( 0, 2 );
+		legacy.assertSingle( 0, 2 );
+	}
+
+	private void checkNested(){
+		register.setStalled( true );
+		register.setStalled( true );
+		station.drop( a );
+		station.drag( c );
+		register.setStalled( false );
+		recorder.assertEvents( "nested", 0, 0 );
+		register.setStalled( false );
+
+		recorder.assertRegistered( a );
+		recorder.assertUnregistered( c );
+		recorder.assertEvents( "nested", 1, 1 );
+		recorder.assertSingle( 1, 1 );
+		legacy.assertSingle( 1, 1 );
+
+		// nothing is pending anymore
+		register.setStalled( true );
+		register.setStalled( false );
+		recorder.assertEvents( "empty", 0, 0 );
+		recorder.assertSingle( 0, 0 );
+	}
+
+	private void checkUnstalled(){
+		station.drop( c );
+		station.drag( c );
+		recorder.assertEvents( "unstalled", 0, 0 );
+		recorder.assertSingle( 1, 1 );
+		legacy.assertSingle( 1, 1 );
+	}
+
+	private void checkException(){
+		controller.setFocusedDockable( new DefaultFocusRequest( a, true ) );
+		if( !Arrays.asList( controller.getFocusHistory().getHistory() ).contains( a ) ){
+			throw new AssertionError( "the focus history does not know a" );
+		}
+
+		DockRegisterListener failing = new DockRegisterAdapter(){
+			@Override
+			public void dockableUnregistered( DockController controller, Dockable dockable ){
+				throw new IllegalStateException( "expected exception" );
+			}
+		};
+		register.addDockRegisterListener( failing );
+		try{
+			register.setStalled( true );
+			station.drop( c );
+			station.drag( a );
+			try{
+				register.setStalled( false );
+				throw new AssertionError( "the exception of the listener was not forwarded" );
+			}
+			catch( IllegalStateException e ){
+				// expected
+			}
+		}
+		finally{
+			register.removeDockRegisterListener( failing );
+		}
+
+		recorder.assertRegistered( c );
+		recorder.assertUnregistered( a );
+		recorder.assertEvents( "exception", 1, 1 );
+
+		if( Arrays.asList( controller.getFocusHistory().getHistory() ).contains( a ) ){
+			throw new AssertionError( "the focus history still knows the unregistered a" );
+		}
+		if( register.isFiringStalledEvents() ){
+			throw new AssertionError( "the register still claims to fire stalled events" );
+		}
+	}
+
+	/**
+	 * Records the summaries and the single events.
+	 */
+	private static class Recorder extends DockRegisterAdapter {
+		private List<Collection<Dockable>> registered = new ArrayList<Collection<Dockable>>();
+		private List<Collection<Dockable>> unregistered = new ArrayList<Collection<Dockable>>();
+		private int singleRegistered = 0;
+		private int singleUnregistered = 0;
+
+		@Override
+		public void dockableRegistered( DockController controller, Dockable dockable ){
+			singleRegistered++;
+		}
+
+		@Override
+		public void dockableUnregistered( DockController controller, Dockable dockable ){
+			singleUnregistered++;
+		}
+
+		@Override
+		public void dockablesRegistered( DockController controller, Collection<Dockable> dockables ){
+			registered.add( new ArrayList<Dockable>( dockables ) );
+		}
+
+		@Override
+		public void dockablesUnregistered( DockController controller, Collection<Dockable> dockables ){
+			unregistered.add( new ArrayList<Dockable>( dockables ) );
+		}
+
+		/**
+		 * Checks the number of summaries received since the last call and forgets them.
+		 */
+		public void assertEvents( String name, int registeredEvents, int unregisteredEvents ){
+			if( registered.size() != registeredEvents ){
+				throw new AssertionError( name + ": expected " + registeredEvents + " registered summaries but got " + registered.size() );
+			}
+			if( unregistered.size() != unregisteredEvents ){
+				throw new AssertionError( name + ": expected " + unregisteredEvents + " unregistered summaries but got " + unregistered.size() );
+			}
+			registered.clear();
+			unregistered.clear();
+		}
+
+		public void assertRegistered( Dockable... dockables ){
+			assertSummary( registered, dockables );
+		}
+
+		public void assertUnregistered( Dockable... dockables ){
+			assertSummary( unregistered, dockables );
+		}
+
+		private void assertSummary( List<Collection<Dockable>> summaries, Dockable... dockables ){
+			if( summaries.isEmpty() ){
+				throw new AssertionError( "no summary received" );
+			}
+			List<Dockable> expected = Arrays.asList( dockables );
+			if( !expected.equals( summaries.get( summaries.size() - 1 ) ) ){
+				throw new AssertionError( "expected summary " + expected + " but got " + summaries.get( summaries.size() - 1 ) );
+			}
+		}
+
+		public void assertSingle( int registeredEvents, int unregisteredEvents ){
+			if( singleRegistered != registeredEvents || singleUnregistered != unregisteredEvents ){
+				throw new AssertionError( "expected " + registeredEvents + "/" + unregisteredEvents + " single events but got " + singleRegistered + "/" + singleUnregistered );
+			}
+			singleRegistered = 0;
+			singleUnregistered = 0;
+		}
+	}
+
+	/**
+	 * A listener that does not know about the summaries.
+	 */
+	private static class Legacy implements DockRegisterListener {
+		private int registered = 0;
+		private int unregistered = 0;
+
+		public void dockableRegistered( DockController controller, Dockable dockable ){
+			registered++;
+		}
+
+		public void dockableUnregistered( DockController controller, Dockable dockable ){
+			unregistered++;
+		}
+
+		public void dockableRegistering( DockController controller, Dockable dockable ){
+			// ignore
+		}
+
+		public void dockStationRegistered( DockController controller, DockStation station ){
+			// ignore
+		}
+
+		public void dockStationRegistering( DockController controller, DockStation station ){
+			// ignore
+		}
+
+		public void dockStationUnregistered( DockController controller, DockStation station ){
+			// ignore
+		}
+
+		public void dockableCycledRegister( DockController controller, Dockable dockable ){
+			// ignore
+		}
+
+		public void registerStalled( DockController controller ){
+			// ignore
+		}
+
+		public void registerUnstalled( DockController controller ){
+			// ignore
+		}
+
+		public void assertSingle( int registeredEvents, int unregisteredEvents ){
+			if( registered != registeredEvents || unregistered != unregisteredEvents ){
+				throw new AssertionError( "legacy listener: expected " + registeredEvents + "/" + unregisteredEvents + " single events but got " + registered + "/" + unregistered );
+			}
+			registered = 0;
+			unregistered = 0;
+		}
+	}
+}
@@ -0,0 +1,332 @@
+package bibliothek.test.control;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Point;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.swing.JPanel;
+import javax.swing.event.MouseInputListener;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.DockElement;
+import bibliothek.gui.dock.DockElementRepresentative;
+import bibliothek.gui.dock.StackDockStation;
+
+/**
+ * Checks that the {@link DockElementRepresentative}s of a {@link DockController} can be found by their
+ * {@link DockElement}. The controller keeps a map from {@link Component} to representative, and the inverse map
+ * from element to representatives. After each change both maps must be in sync, and
+ * {@link DockController#getRepresentatives(DockElement)}, {@link DockController#getRepresentativeCount(DockElement)}
+ * and {@link DockController#getRepresentative(DockElement, int)} must find the same representatives as a search
+ * through all the representatives, which is how {@link DockController#getRepresentatives(DockElement)} used to work.
+ */
+public class RepresentativeIndexTest {
+	private DockController controller;
+	private List<DockElement> elements = new ArrayList<DockElement>();
+	/** the representatives created by this test, including the ones that are no longer registered */
+	private List<Representative> representatives = new ArrayList<Representative>();
+	private Random random;
+	private int step = 0;
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				RepresentativeIndexTest test = new RepresentativeIndexTest( 0 );
+				try{
+					test.checkSeveral();
+					System.out.println( "several representatives of one element are found" );
+				}
+				finally{
+					test.controller.kill();
+				}
+
+				int operations = 0;
+				for( int seed = 0; seed < 20; seed++ ){
+					test = new RepresentativeIndexTest( seed );
+					try{
+						operations += test.checkRandom( 500 );
+					}
+					finally{
+						test.controller.kill();
+					}
+				}
+				System.out.println( operations + " random changes keep the representatives in sync" );
+			}
+		});
+	}
+
+	public RepresentativeIndexTest( int seed ){
+		random = new Random( seed );
+		controller = new DockController();
+		StackDockStation station = new StackDockStation();
+		controller.add( station );
+		elements.add( station );
+		for( int i = 0; i < 4; i++ ){
+			DefaultDockable dockable = new DefaultDockable( "dockable " + i );
+			station.drop( dockable );
+			elements.add( dockable );
+		}
+		// an element that is not registered and has no representatives on its own
+		elements.add( new DefaultDockable( "free" ) );
+	}
+
+	private void checkSeveral(){
+		DockElement free = elements.get( elements.size() - 1 );
+		DockElement dockable = elements.get( 1 );
+		check();
+
+		Representative a = new Representative( free, new JPanel() );
+		Representative b = new Representative( free, new JPanel() );
+		Representative c = new Representative( dockable, new JPanel() );
+		controller.addRepresentative( a );
+		controller.addRepresentative( b );
+		controller.addRepresentative( c );
+		assertCount( free, 2 );
+		check();
+
+		controller.removeRepresentative( a );
+		assertCount( free, 1 );
+		check();
+
+		// removing the last representative removes the element from the index
+		controller.removeRepresentative( b );
+		assertCount( free, 0 );
+		if( inverse().containsKey( free ) ){
+			throw new AssertionError( "an element without representatives is still indexed" );
+		}
+		check();
+
+		// removing an unknown representative has no effect
+		controller.removeRepresentative( b );
+		check();
+
+		controller.addRepresentative( b );
+		assertCount( free, 1 );
+		check();
+
+		// a representative with the component of another representative replaces the old one
+		Representative replacement = new Representative( free, c.getComponent() );
+		controller.addRepresentative( replacement );
+		assertCount( free, 2 );
+		if( Arrays.asList( controller.getRepresentatives( dockable ) ).contains( c ) ){
+			throw new AssertionError( "a replaced representative is still found" );
+		}
+		check();
+
+		// removing the replaced representative must not remove its replacement
+		controller.removeRepresentative( c );
+		assertCount( free, 2 );
+		check();
+
+		controller.removeRepresentative( b );
+		controller.removeRepresentative( replacement );
+		assertCount( free, 0 );
+		check();
+	}
+
+	private int checkRandom( int operations ){
+		List<Representative> registered = new ArrayList<Representative>();
+		for( int i = 0; i < operations; i++ ){
+			step++;
+			switch( random.nextInt( 5 ) ){
+				case 0:
+				case 1: {
+					// a new representative
+					Representative representative = new Representative( element(), new JPanel() );
+					representatives.add( representative );
+					controller.addRepresentative( representative );
+					registered.add( representative );
+					break;
+				}
+				case 2: {
+					// a new representative replacing an existing one
+					if( !registered.isEmpty() ){
+						Representative old = registered.remove( random.nextInt( registered.size() ) );
+						Representative representative = new Representative( element(), old.getComponent() );
+						representatives.add( representative );
+						controller.addRepresentative( representative );
+						registered.add( representative );
+					}
+					break;
+				}
+				case 3:
+					if( !registered.isEmpty() ){
+						controller.removeRepresentative( registered.remove( random.nextInt( registered.size() ) ) );
+					}
+					break;
+				case 4:
+					// adding a representative again, or removing one that is not registered
+					if( !representatives.isEmpty() ){
+						Representative representative = representatives.get( random.nextInt( representatives.size() ) );
+						if( registered.contains( representative ) ){
+							controller.removeRepresentative( representative );
+							registered.remove( representative );
+						}
+						else if( random.nextBoolean() ){
+							controller.removeRepresentative( representative );
+						}
+						else{
+							for( Representative other : registered ){
+								if( other.getComponent() == representative.getComponent() ){
+									registered.remove( other );
+									break;
+								}
+							}
+							controller.addRepresentative( representative );
+							registered.add( representative );
+						}
+					}
+					break;
+			}
+			check();
+
+			for( Representative representative : representatives ){
+				boolean found = Arrays.asList( controller.getRepresentatives( representative.getElement() ) ).contains( representative );
+				if( found != registered.contains( representative ) ){
+					throw new AssertionError( "step " + step + ", a representative is " + (found ? "found but was removed" : "not found but was added") );
+				}
+			}
+		}
+		return operations;
+	}
+
+	private DockElement element(){
+		return elements.get( random.nextInt( elements.size() ) );
+	}
+
+	/**
+	 * Compares the index of the controller with a search through all the representatives.
+	 */
+	private void check(){
+		Map<Component, DockElementRepresentative> components = components();
+		Map<DockElement, List<DockElementRepresentative>> inverse = inverse();
+
+		for( DockElement element : elements ){
+			// the old implementation of getRepresentatives
+			Set<DockElementRepresentative> expected = new HashSet<DockElementRepresentative>();
+			for( DockElementRepresentative representative : components.values() ){
+				if( representative.getElement() == element ){
+					expected.add( representative );
+				}
+			}
+
+			DockElementRepresentative[] array = controller.getRepresentatives( element );
+			if( array.length != expected.size() || !expected.equals( new HashSet<DockElementRepresentative>( Arrays.asList( array ) ) ) ){
+				throw new AssertionError( "step " + step + ", getRepresentatives found " + array.length + " representatives, a search found " + expected.size() );
+			}
+
+			int count = controller.getRepresentativeCount( element );
+			if( count != expected.size() ){
+				throw new AssertionError( "step " + step + ", getRepresentativeCount is " + count + ", a search found " + expected.size() );
+			}
+			for( int i = 0; i < count; i++ ){
+				if( controller.getRepresentative( element, i ) != array[i] ){
+					throw new AssertionError( "step " + step + ", getRepresentative and getRepresentatives do not have the same order" );
+				}
+			}
+		}
+
+		int size = 0;
+		for( Map.Entry<DockElement, List<DockElementRepresentative>> entry : inverse.entrySet() ){
+			if( entry.getValue().isEmpty() ){
+				throw new AssertionError( "step " + step + ", an element without representatives is indexed" );
+			}
+			for( DockElementRepresentative representative : entry.getValue() ){
+				if( representative.getElement() != entry.getKey() ){
+					throw new AssertionError( "step " + step + ", a representative is indexed for the wrong element" );
+				}
+				if( components.get( representative.getComponent() ) != representative ){
+					throw new AssertionError( "step " + step + ", an indexed representative is not registered" );
+				}
+			}
+			size += entry.getValue().size();
+		}
+		if( size != components.size() ){
+			throw new AssertionError( "step " + step + ", " + components.size() + " representatives are registered, but " + size + " are indexed" );
+		}
+	}
+
+	private void assertCount( DockElement element, int count ){
+		if( controller.getRepresentativeCount( element ) != count ){
+			throw new AssertionError( "expected " + count + " representatives but found " + controller.getRepresentativeCount( element ) );
+		}
+	}
+
+	private Map<Component, DockElementRepresentative> components(){
+		return field( "componentToDockElements" );
+	}
+
+	private Map<DockElement, List<DockElementRepresentative>> inverse(){
+		return field( "dockElementToRepresentatives" );
+	}
+
+	/**
+	 * Reads a private map of the controller, the maps are not accessible otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T field( String name ){
+		try{
+			Field field = DockController.class.getDeclaredField( name );
+			field.setAccessible( true );
+			return (T)field.get( controller );
+		}
+		catch( Exception e ){
+			throw new IllegalStateException( e );
+		}
+	}
+
+	/**
+	 * A representative that is not used for anything.
+	 */
+	private static class Representative implements DockElementRepresentative {
+		private DockElement element;
+		private Component component;
+
+		public Representative( DockElement element, Component component ){
+			this.element = element;
+			this.component = component;
+		}
+
+		public Component getComponent(){
+			return component;
+		}
+
+		public DockElement getElement(){
+			return element;
+		}
+
+		public boolean isUsedAsTitle(){
+			return false;
+		}
+
+		public boolean shouldFocus(){
+			return false;
+		}
+
+		public boolean shouldTransfersFocus(){
+			return false;
+		}
+
+		public void addMouseInputListener( MouseInputListener listener ){
+			// ignore
+		}
+
+		public void removeMouseInputListener( MouseInputListener listener ){
+			// ignore
+		}
+
+		public Point getPopupLocation( Point click, boolean popupTrigger ){
+			return null;
+		}
+	}
+}
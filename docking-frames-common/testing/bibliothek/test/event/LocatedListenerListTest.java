@@ -0,0 +1,247 @@
+package bibliothek.test.event;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.DockElement;
+import bibliothek.gui.dock.StackDockStation;
+import bibliothek.gui.dock.event.LocatedListener;
+import bibliothek.gui.dock.event.LocatedListenerList;
+import bibliothek.gui.dock.util.DockUtilities;
+
+/**
+ * Compares {@link LocatedListenerList}, which stores its listeners in one bucket per location, with the
+ * original implementation, which searched all listeners and sorted them using
+ * {@link DockUtilities#isAncestor(DockElement, DockElement)}. Listeners are added and removed at random locations
+ * of a tree of nested {@link StackDockStation}s, and the locations of the listeners are moved within the tree.
+ * For every element of the tree both implementations must find the same listeners in the same order, and
+ * {@link LocatedListenerList#visit(DockElement, LocatedListenerList.Visitor)} must stop at the same listener.
+ */
+public class LocatedListenerListTest {
+	private Random random;
+	private DockController controller;
+	private List<DockStation> stations = new ArrayList<DockStation>();
+	/** the stations which can be moved, they never have a station as child */
+	private List<StackDockStation> movableStations = new ArrayList<StackDockStation>();
+	private List<DockElement> elements = new ArrayList<DockElement>();
+
+	private LocatedListenerList<Listener> list = new LocatedListenerList<Listener>();
+	/** the listeners in the order in which they were added, as the original implementation stored them */
+	private List<Listener> original = new ArrayList<Listener>();
+	private int step = 0;
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				int operations = 0;
+				for( int seed = 0; seed < 20; seed++ ){
+					operations += new LocatedListenerListTest( seed ).run( 300 );
+				}
+				System.out.println( operations + " random changes find the same listeners as the original implementation" );
+			}
+		});
+	}
+
+	public LocatedListenerListTest( int seed ){
+		random = new Random( seed );
+	}
+
+	private int run( int operations ){
+		setup();
+		try{
+			for( int i = 0; i < operations; i++ ){
+				step++;
+				operation();
+				check();
+			}
+			return operations;
+		}
+		finally{
+			controller.kill();
+		}
+	}
+
+	/**
+	 * Creates the tree: a root with two stations, the first station contains another station. Dockables
+	 * are spread over all the stations.
+	 */
+	private void setup(){
+		controller = new DockController();
+		StackDockStation root = station( "root", null );
+		controller.add( root );
+		StackDockStation a = station( "a", root );
+		station( "b", root );
+		StackDockStation c = station( "c", a );
+		movableStations.add( c );
+
+		for( int i = 0; i < 8; i++ ){
+			DefaultDockable dockable = new DefaultDockable( "dockable " + i );
+			stations.get( i % stations.size() ).drop( dockable );
+			elements.add( dockable );
+		}
+	}
+
+	private StackDockStation station( String name, StackDockStation parent ){
+		StackDockStation station = new StackDockStation();
+		station.setTitleText( name );
+		if( parent != null ){
+			parent.drop( station );
+		}
+		stations.add( station );
+		elements.add( station );
+		return station;
+	}
+
+	private void operation(){
+		switch( random.nextInt( 6 ) ){
+			case 0:
+			case 1: {
+				DockElement location = random.nextInt( 5 ) == 0 ? null : elements.get( random.nextInt( elements.size() ) );
+				Listener listener = new Listener( location );
+				list.addListener( listener );
+				original.add( listener );
+				break;
+			}
+			case 2:
+				if( !original.isEmpty() ){
+					Listener listener = original.remove( random.nextInt( original.size() ) );
+					list.removeListener( listener );
+				}
+				break;
+			case 3:
+			case 4: {
+				// moves a dockable, and the listeners located at the dockable, to another station
+				Dockable dockable = elements.get( random.nextInt( elements.size() ) ).asDockable();
+				if( dockable != null && dockable.asDockStation() == null ){
+					move( dockable, stations.get( random.nextInt( stations.size() ) ) );
+				}
+				break;
+			}
+			case 5: {
+				// moves a whole subtree
+				StackDockStation station = movableStations.get( random.nextInt( movableStations.size() ) );
+				DockStation parent = stations.get( random.nextInt( stations.size() ) );
+				if( parent != station ){
+					move( station, parent );
+				}
+				break;
+			}
+		}
+	}
+
+	private void move( Dockable dockable, DockStation parent ){
+		DockStation old = dockable.getDockParent();
+		if( old != null && old != parent ){
+			old.drag( dockable );
+			((StackDockStation)parent).drop( dockable );
+		}
+	}
+
+	private void check(){
+		if( list.size() != original.size() ){
+			throw new AssertionError( "step " + step + ", the list has " + list.size() + " listeners, expected " + original.size() );
+		}
+
+		List<DockElement> sources = new ArrayList<DockElement>( elements );
+		sources.add( null );
+		for( DockElement source : sources ){
+			List<Listener> expected = originalAffected( source );
+			List<Listener> actual = list.affected( source );
+			if( !expected.equals( actual ) ){
+				throw new AssertionError( "step " + step + ", for " + name( source ) + " the listeners " + actual + " were found, expected " + expected );
+			}
+
+			// a visitor stopping after some listeners
+			final int stop = expected.isEmpty() ? 0 : random.nextInt( expected.size() + 1 );
+			final List<Listener> visited = new ArrayList<Listener>();
+			boolean stopped = list.visit( source, new LocatedListenerList.Visitor<Listener>(){
+				public boolean visit( Listener listener ){
+					visited.add( listener );
+					return visited.size() == stop;
+				}
+			});
+			boolean expectedStop = stop > 0 && stop <= expected.size();
+			if( stopped != expectedStop ){
+				throw new AssertionError( "step " + step + ", visit returned " + stopped + ", expected " + expectedStop );
+			}
+			List<Listener> prefix = expectedStop ? expected.subList( 0, stop ) : expected;
+			if( !prefix.equals( visited ) ){
+				throw new AssertionError( "step " + step + ", for " + name( source ) + " the visitor saw " + visited + ", expected " + prefix );
+			}
+		}
+	}
+
+	/**
+	 * The implementation of {@link LocatedListenerList#affected(DockElement)} before the listeners were
+	 * stored in buckets.
+	 */
+	private List<Listener> originalAffected( DockElement element ){
+		List<Listener> list = new LinkedList<Listener>();
+		for( Listener listener : original ){
+			DockElement location = listener.getTreeLocation();
+			if( location == null )
+				list.add( listener );
+			else if( element != null && DockUtilities.isAncestor( location, element ))
+				list.add( listener );
+		}
+
+		Collections.sort( list, new Comparator<Listener>(){
+			public int compare( Listener o1, Listener o2 ) {
+				DockElement a = o1.getTreeLocation();
+				DockElement b = o2.getTreeLocation();
+
+				if( a == b )
+					return 0;
+
+				if( a == null )
+					return 1;
+
+				if( b == null )
+					return -1;
+
+				if( DockUtilities.isAncestor( a, b ))
+					return 1;
+
+				return -1;
+			}
+		});
+
+		return list;
+	}
+
+	private static String name( DockElement element ){
+		if( element == null ){
+			return "null";
+		}
+		return element.asDockable().getTitleText();
+	}
+
+	private static class Listener implements LocatedListener {
+		private static int count = 0;
+		private DockElement location;
+		private int id = count++;
+
+		public Listener( DockElement location ){
+			this.location = location;
+		}
+
+		public DockElement getTreeLocation(){
+			return location;
+		}
+
+		@Override
+		public String toString(){
+			return id + "@" + name( location );
+		}
+	}
+}
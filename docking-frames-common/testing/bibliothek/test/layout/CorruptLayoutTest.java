@@ -0,0 +1,203 @@
+package bibliothek.test.layout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+import bibliothek.gui.DockFrontend;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.DockFactory;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.frontend.Setting;
+import bibliothek.gui.dock.frontend.SettingsBlop;
+import bibliothek.gui.dock.layout.DockLayout;
+import bibliothek.gui.dock.layout.DockLayoutComposition;
+import bibliothek.gui.dock.layout.DockLayoutInfo;
+import bibliothek.gui.dock.layout.DockSituation;
+import bibliothek.gui.dock.layout.LocationEstimationMap;
+import bibliothek.gui.dock.perspective.PerspectiveDockable;
+import bibliothek.gui.dock.perspective.PerspectiveElement;
+import bibliothek.gui.dock.station.support.PlaceholderStrategy;
+import bibliothek.util.xml.XElement;
+
+/**
+ * Writes layouts containing an element whose {@link DockFactory} cannot read its own data again. The
+ * compositions are decoded lazily, hence {@link DockSituation#readComposition(DataInputStream)} succeeds, but
+ * {@link DockSituation#decode(DockLayoutComposition)}, {@link DockFrontend#read(DataInputStream)} and
+ * {@link DockFrontend#setSetting(Setting, boolean)} must report the corrupt payload before anything is changed.
+ */
+public class CorruptLayoutTest {
+	public static void main( String[] args ) throws IOException{
+		checkSituation();
+		System.out.println( "corrupt payloads are reported by decode" );
+
+		checkFrontend();
+		System.out.println( "corrupt payloads are reported before a setting is applied" );
+	}
+
+	private static void checkSituation() throws IOException{
+		DockSituation situation = new DockSituation( new MarkerFactory() );
+		DockLayoutInfo info = new DockLayoutInfo( new DockLayout<Boolean>( MarkerFactory.ID, Boolean.TRUE ) );
+		DockLayoutComposition composition = new DockLayoutComposition( info, null, new ArrayList<DockLayoutComposition>(), false );
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		situation.writeComposition( composition, out );
+		out.close();
+
+		DockLayoutComposition read = situation.readComposition( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() )));
+
+		try{
+			situation.decode( read );
+			throw new AssertionError( "decode did not report the corrupt payload" );
+		}
+		catch( IOException e ){
+			// expected
+		}
+
+		try{
+			read.getLayout();
+			throw new AssertionError( "getLayout did not report the corrupt payload" );
+		}
+		catch( IllegalStateException e ){
+			if( !(e.getCause() instanceof IOException) ){
+				throw new AssertionError( "the IOException is not the cause of the failure" );
+			}
+		}
+	}
+
+	private static void checkFrontend() throws IOException{
+		DockFrontend source = new DockFrontend();
+		source.registerFactory( new MarkerFactory() );
+		SplitDockStation sourceStation = new SplitDockStation();
+		source.addRoot( "root", sourceStation );
+		sourceStation.drop( new MarkerDockable( false ) );
+		sourceStation.drop( new MarkerDockable( true ) );
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		source.write( out );
+		out.close();
+		source.kill();
+
+		DockFrontend target = new DockFrontend();
+		target.registerFactory( new MarkerFactory() );
+		SplitDockStation targetStation = new SplitDockStation();
+		target.addRoot( "root", targetStation );
+		MarkerDockable existing = new MarkerDockable( false );
+		targetStation.drop( existing );
+
+		try{
+			target.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() )));
+			throw new AssertionError( "read did not report the corrupt payload" );
+		}
+		catch( IOException e ){
+			// expected
+		}
+		assertUnchanged( targetStation, existing );
+
+		SettingsBlop blop = target.readBlop( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() )));
+		try{
+			target.setSetting( blop.getCurrentSetting(), false );
+			throw new AssertionError( "setSetting did not report the corrupt payload" );
+		}
+		catch( IllegalArgumentException e ){
+			if( !(e.getCause() instanceof IOException) ){
+				throw new AssertionError( "the IOException is not the cause of the failure" );
+			}
+		}
+		assertUnchanged( targetStation, existing );
+
+		target.kill();
+	}
+
+	private static void assertUnchanged( SplitDockStation station, Dockable dockable ){
+		if( station.getDockableCount() != 1 || station.getDockable( 0 ) != dockable ){
+			throw new AssertionError( "the layout was changed although it could not be read" );
+		}
+	}
+
+	/**
+	 * A {@link Dockable} whose layout cannot be read again if it is marked as corrupt.
+	 */
+	private static class MarkerDockable extends DefaultDockable{
+		private final boolean corrupt;
+
+		public MarkerDockable( boolean corrupt ){
+			super( corrupt ? "corrupt" : "valid" );
+			this.corrupt = corrupt;
+			setFactoryID( MarkerFactory.ID );
+		}
+	}
+
+	/**
+	 * A factory writing whether a {@link MarkerDockable} is corrupt, and failing to read corrupt layouts.
+	 */
+	private static class MarkerFactory implements DockFactory<MarkerDockable, PerspectiveElement, Boolean>{
+		public static final String ID = "marker";
+
+		public String getID(){
+			return ID;
+		}
+
+		public Boolean getLayout( MarkerDockable element, Map<Dockable, Integer> children ){
+			return Boolean.valueOf( element.corrupt );
+		}
+
+		public Boolean getPerspectiveLayout( PerspectiveElement element, Map<PerspectiveDockable, Integer> children ){
+			return null;
+		}
+
+		public void setLayout( MarkerDockable element, Boolean layout, Map<Integer, Dockable> children, PlaceholderStrategy placeholders ){
+			// nothing to do
+		}
+
+		public void setLayout( MarkerDockable element, Boolean layout, PlaceholderStrategy placeholders ){
+			// nothing to do
+		}
+
+		public void write( Boolean layout, DataOutputStream out ) throws IOException{
+			out.writeBoolean( layout.booleanValue() );
+		}
+
+		public void write( Boolean layout, XElement element ){
+			element.setBoolean( layout.booleanValue() );
+		}
+
+		public Boolean read( DataInputStream in, PlaceholderStrategy placeholders ) throws IOException{
+			if( in.readBoolean() ){
+				throw new IOException( "corrupt payload" );
+			}
+			return Boolean.FALSE;
+		}
+
+		public Boolean read( XElement element, PlaceholderStrategy placeholders ){
+			return Boolean.valueOf( element.getBoolean() );
+		}
+
+		public void estimateLocations( Boolean layout, LocationEstimationMap children ){
+			// nothing to do
+		}
+
+		public MarkerDockable layout( Boolean layout, Map<Integer, Dockable> children, PlaceholderStrategy placeholders ){
+			return layout( layout, placeholders );
+		}
+
+		public MarkerDockable layout( Boolean layout, PlaceholderStrategy placeholders ){
+			return new MarkerDockable( layout.booleanValue() );
+		}
+
+		public PerspectiveElement layoutPerspective( Boolean layout, Map<Integer, PerspectiveDockable> children ){
+			return null;
+		}
+
+		public void layoutPerspective( PerspectiveElement perspective, Boolean layout, Map<Integer, PerspectiveDockable> children ){
+			// nothing to do
+		}
+	}
+}
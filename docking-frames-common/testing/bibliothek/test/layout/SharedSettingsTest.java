@@ -0,0 +1,206 @@
+package bibliothek.test.layout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockFrontend;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.DockFactory;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.frontend.Setting;
+import bibliothek.gui.dock.layout.DockLayoutComposition;
+import bibliothek.gui.dock.layout.DockLayoutInfo;
+import bibliothek.gui.dock.layout.LocationEstimationMap;
+import bibliothek.gui.dock.perspective.PerspectiveDockable;
+import bibliothek.gui.dock.perspective.PerspectiveElement;
+import bibliothek.gui.dock.station.support.PlaceholderStrategy;
+import bibliothek.util.xml.XElement;
+
+/**
+ * Stores equal {@link Setting}s in a {@link DockFrontend} which shares their layouts, and applies them with
+ * a {@link DockFactory} that modifies its layouts in place, like the factory of the stations of the
+ * common project does. Applying one setting must not change the layouts of any other setting, neither of
+ * settings that were saved nor of settings that were read from a stream.
+ */
+public class SharedSettingsTest {
+	public static void main( String[] args ) throws IOException{
+		DockController.disableCoreWarning();
+		checkSaved();
+		System.out.println( "applying a shared setting does not modify the other settings" );
+
+		checkRead();
+		System.out.println( "applying a setting that was read does not modify the other settings" );
+	}
+
+	private static void checkSaved(){
+		DockFrontend frontend = createFrontend();
+		frontend.save( "a" );
+		frontend.save( "b" );
+
+		for( int i = 0; i < 3; i++ ){
+			frontend.load( "a" );
+			frontend.load( "b" );
+		}
+
+		assertUnchanged( frontend.getSetting( "a" ), "a" );
+		assertUnchanged( frontend.getSetting( "b" ), "b" );
+		frontend.kill();
+	}
+
+	private static void checkRead() throws IOException{
+		DockFrontend source = createFrontend();
+		source.save( "a" );
+		source.save( "b" );
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes );
+		source.write( out );
+		out.close();
+		source.kill();
+
+		DockFrontend target = createFrontend();
+		target.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() )));
+		for( int i = 0; i < 3; i++ ){
+			target.load( "a" );
+			target.load( "b" );
+		}
+
+		assertUnchanged( target.getSetting( "a" ), "a" );
+		assertUnchanged( target.getSetting( "b" ), "b" );
+		target.kill();
+	}
+
+	private static DockFrontend createFrontend(){
+		DockFrontend frontend = new DockFrontend();
+		frontend.setDeduplicateSettings( true );
+		frontend.registerFactory( new CounterFactory() );
+		SplitDockStation station = new SplitDockStation();
+		frontend.addRoot( "root", station );
+
+		// the dockables are not registered, hence their layouts are stored by their own factory
+		for( int i = 0; i < 3; i++ ){
+			station.drop( new CounterDockable() );
+		}
+		return frontend;
+	}
+
+	private static void assertUnchanged( Setting setting, String name ){
+		if( setting == null ){
+			throw new AssertionError( "setting " + name + " is missing" );
+		}
+		int count = 0;
+		for( String root : setting.getRootKeys() ){
+			count += assertUnchanged( setting.getRoot( root ), name );
+		}
+		if( count != 3 ){
+			throw new AssertionError( "setting " + name + " contains " + count + " counters instead of 3" );
+		}
+	}
+
+	private static int assertUnchanged( DockLayoutComposition composition, String name ){
+		int count = 0;
+		DockLayoutInfo info = composition.getLayout();
+		if( info != null && info.getKind() == DockLayoutInfo.Data.DOCK_LAYOUT && info.getDataLayout().getData() instanceof Counter ){
+			Counter counter = (Counter)info.getDataLayout().getData();
+			if( counter.value != 0 ){
+				throw new AssertionError( "a layout of setting " + name + " was modified by applying a setting" );
+			}
+			count++;
+		}
+		for( DockLayoutComposition child : composition.getChildren() ){
+			count += assertUnchanged( child, name );
+		}
+		return count;
+	}
+
+	/**
+	 * The mutable layout of a {@link CounterDockable}.
+	 */
+	private static class Counter{
+		private int value;
+	}
+
+	/**
+	 * A {@link Dockable} whose layout is a {@link Counter}.
+	 */
+	private static class CounterDockable extends DefaultDockable{
+		public CounterDockable(){
+			super( "counter" );
+			setFactoryID( CounterFactory.ID );
+		}
+	}
+
+	/**
+	 * A factory that increments the {@link Counter}s it applies or estimates.
+	 */
+	private static class CounterFactory implements DockFactory<CounterDockable, PerspectiveElement, Counter>{
+		public static final String ID = "counter";
+
+		public String getID(){
+			return ID;
+		}
+
+		public Counter getLayout( CounterDockable element, Map<Dockable, Integer> children ){
+			return new Counter();
+		}
+
+		public Counter getPerspectiveLayout( PerspectiveElement element, Map<PerspectiveDockable, Integer> children ){
+			return null;
+		}
+
+		public void setLayout( CounterDockable element, Counter layout, Map<Integer, Dockable> children, PlaceholderStrategy placeholders ){
+			layout.value++;
+		}
+
+		public void setLayout( CounterDockable element, Counter layout, PlaceholderStrategy placeholders ){
+			layout.value++;
+		}
+
+		public void write( Counter layout, DataOutputStream out ) throws IOException{
+			out.writeInt( layout.value );
+		}
+
+		public void write( Counter layout, XElement element ){
+			element.setInt( layout.value );
+		}
+
+		public Counter read( DataInputStream in, PlaceholderStrategy placeholders ) throws IOException{
+			Counter counter = new Counter();
+			counter.value = in.readInt();
+			return counter;
+		}
+
+		public Counter read( XElement element, PlaceholderStrategy placeholders ){
+			Counter counter = new Counter();
+			counter.value = element.getInt();
+			return counter;
+		}
+
+		public void estimateLocations( Counter layout, LocationEstimationMap children ){
+			layout.value++;
+		}
+
+		public CounterDockable layout( Counter layout, Map<Integer, Dockable> children, PlaceholderStrategy placeholders ){
+			return layout( layout, placeholders );
+		}
+
+		public CounterDockable layout( Counter layout, PlaceholderStrategy placeholders ){
+			layout.value++;
+			return new CounterDockable();
+		}
+
+		public PerspectiveElement layoutPerspective( Counter layout, Map<Integer, PerspectiveDockable> children ){
+			return null;
+		}
+
+		public void layoutPerspective( PerspectiveElement perspective, Counter layout, Map<Integer, PerspectiveDockable> children ){
+			// nothing to do
+		}
+	}
+}
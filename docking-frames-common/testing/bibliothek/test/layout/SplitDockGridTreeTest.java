@@ -0,0 +1,160 @@
+package bibliothek.test.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.station.split.SplitDockGrid;
+
+/**
+ * Compares the trees that are built by {@link SplitDockGrid} with the trees built by the original
+ * algorithm, which merged nodes by searching the best pair again in each step. Grids with regular
+ * cells, random cells, overlapping cells, holes and dividing lines are tested. Afterwards the time
+ * needed by both algorithms for large grids is printed.
+ */
+public class SplitDockGridTreeTest {
+	public static void main( String[] args ){
+		Random random = new Random( 42 );
+		int tests = 0;
+
+		for( int size = 1; size <= 12; size++ ){
+			check( regular( size, size, false ), "regular " + size );
+			check( regular( size, size + 3, true ), "regular with lines " + size );
+			tests += 2;
+		}
+
+		for( int i = 0; i < 500; i++ ){
+			check( random( random, 1 + random.nextInt( 40 ), random.nextBoolean() ), "random " + i );
+			tests++;
+		}
+
+		System.out.println( tests + " grids produce the same trees" );
+
+		for( int size : new int[]{ 8, 12, 20 } ){
+			Grid grid = regular( size, size, true );
+			long time = System.nanoTime();
+			grid.reference();
+			long reference = System.nanoTime() - time;
+			time = System.nanoTime();
+			grid.queue();
+			long queue = System.nanoTime() - time;
+			System.out.println( (size * size) + " cells: reference " + (reference / 1000000) + " ms, queue " + (queue / 1000000) + " ms" );
+		}
+	}
+
+	private static Grid regular( int columns, int rows, boolean lines ){
+		Grid grid = new Grid();
+		for( int x = 0; x < columns; x++ ){
+			for( int y = 0; y < rows; y++ ){
+				grid.addDockable( x, y, 1, 1, dockable() );
+			}
+		}
+		if( lines ){
+			grid.addVerticalDivider( columns / 2, 0, rows );
+			grid.addHorizontalDivider( 0, columns, rows / 3 );
+		}
+		return grid;
+	}
+
+	private static Grid random( Random random, int cells, boolean lines ){
+		Grid grid = new Grid();
+		for( int i = 0; i < cells; i++ ){
+			int x = random.nextInt( 10 );
+			int y = random.nextInt( 10 );
+			int w = 1 + random.nextInt( 3 );
+			int h = 1 + random.nextInt( 3 );
+			if( random.nextInt( 10 ) == 0 ){
+				grid.addDockable( x, y, w, h, dockable(), dockable() );
+			}
+			else{
+				grid.addDockable( x, y, w, h, dockable() );
+			}
+		}
+		if( lines ){
+			for( int i = 0, n = random.nextInt( 4 ); i < n; i++ ){
+				grid.addVerticalDivider( random.nextInt( 10 ), 0, 5 + random.nextInt( 5 ) );
+				grid.addHorizontalDivider( random.nextInt( 5 ), 10, random.nextInt( 10 ) );
+			}
+		}
+		return grid;
+	}
+
+	private static Dockable dockable(){
+		return new DefaultDockable();
+	}
+
+	private static void check( Grid grid, String name ){
+		String reference = grid.reference();
+		String queue = grid.queue();
+		if( !reference.equals( queue ) ){
+			throw new AssertionError( name + ": trees differ\nreference: " + reference + "\nqueue:     " + queue );
+		}
+	}
+
+	/**
+	 * A grid offering the current and the original algorithm to build a tree.
+	 */
+	private static class Grid extends SplitDockGrid{
+		public String queue(){
+			return toString( tree() );
+		}
+
+		public String reference(){
+			List<Node<Dockable>> nodes = new ArrayList<Node<Dockable>>( getNodes() );
+
+			if( nodes.isEmpty() )
+				return toString( null );
+
+			while( nodes.size() > 1 ){
+				int size = nodes.size();
+
+				int bestA = 0, bestB = 0;
+				double bestDiff = Double.MAX_VALUE;
+
+				for( int i = 0; i < size; i++ ){
+					for( int j = i+1; j < size; j++ ){
+						double diff = diff( nodes.get( i ), nodes.get( j ) );
+						if( diff < bestDiff ){
+							bestDiff = diff;
+							bestA = i;
+							bestB = j;
+						}
+					}
+				}
+
+				Node<Dockable> node = combine( nodes.remove( bestB ), nodes.remove( bestA ));
+				nodes.add( node );
+			}
+
+			return toString( nodes.get( 0 ) );
+		}
+
+		private String toString( Node<Dockable> node ){
+			StringBuilder builder = new StringBuilder();
+			toString( node, builder );
+			return builder.toString();
+		}
+
+		private void toString( Node<Dockable> node, StringBuilder builder ){
+			if( node == null ){
+				builder.append( "null" );
+			}
+			else if( node.childA == null ){
+				builder.append( "[" );
+				for( Dockable dockable : node.dockables ){
+					builder.append( System.identityHashCode( dockable ) ).append( " " );
+				}
+				builder.append( node.x ).append( "," ).append( node.y ).append( "," ).append( node.width ).append( "," ).append( node.height ).append( "]" );
+			}
+			else{
+				builder.append( "(" ).append( node.horizontal ? "h " : "v " ).append( node.divider ).append( " " );
+				toString( node.childA, builder );
+				builder.append( " " );
+				toString( node.childB, builder );
+				builder.append( ")" );
+			}
+		}
+	}
+}
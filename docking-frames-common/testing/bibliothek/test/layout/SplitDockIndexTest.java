@@ -0,0 +1,235 @@
+package bibliothek.test.layout;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.layout.DockableProperty;
+import bibliothek.gui.dock.station.split.Leaf;
+import bibliothek.gui.dock.station.split.Node;
+import bibliothek.gui.dock.station.split.Placeholder;
+import bibliothek.gui.dock.station.split.Root;
+import bibliothek.gui.dock.station.split.SplitDockGrid;
+import bibliothek.gui.dock.station.split.SplitDockProperty;
+import bibliothek.gui.dock.station.split.SplitNode;
+import bibliothek.gui.dock.station.split.SplitNodeVisitor;
+import bibliothek.gui.dock.station.support.PlaceholderStrategy;
+import bibliothek.gui.dock.station.support.PlaceholderStrategyListener;
+import bibliothek.util.Path;
+
+/**
+ * Compares the nodes and indices found by the indices of a {@link SplitDockStation} with the nodes and
+ * indices found by walking through its tree. Random operations are applied to the station: dockables are
+ * dropped at random locations and onto the placeholders of removed dockables, they are removed, replaced,
+ * and sometimes the whole tree is exchanged. After each operation {@link SplitDockStation#getNode(long)},
+ * {@link Root#getLeaf(Dockable)} and {@link SplitDockStation#indexOfDockable(Dockable)} must give the same
+ * answers as a search through the tree, also for nodes and dockables that are no longer part of the station.
+ */
+public class SplitDockIndexTest {
+	private Random random;
+	private SplitDockStation station;
+	/** all the dockables that were ever created, including dockables that are no longer on the station */
+	private List<Dockable> created = new ArrayList<Dockable>();
+	/** the locations of dockables that were removed from the station */
+	private Map<Dockable, DockableProperty> removed = new HashMap<Dockable, DockableProperty>();
+	/** the ids of all the nodes that were ever seen */
+	private Set<Long> ids = new HashSet<Long>();
+	private int step = 0;
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		final int[] operations = { 0 };
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				for( int seed = 0; seed < 50; seed++ ){
+					SplitDockIndexTest test = new SplitDockIndexTest( seed );
+					operations[0] += test.run( 100 );
+				}
+			}
+		});
+		System.out.println( operations[0] + " random operations give the same nodes as a search through the tree" );
+	}
+
+	public SplitDockIndexTest( int seed ){
+		random = new Random( seed );
+	}
+
+	private int run( int operations ){
+		DockController controller = new DockController();
+		try{
+			controller.getProperties().set( PlaceholderStrategy.PLACEHOLDER_STRATEGY, new TestPlaceholderStrategy() );
+			station = new SplitDockStation();
+			controller.add( station );
+			for( int i = 0; i < operations; i++ ){
+				step++;
+				operation();
+				check();
+			}
+			return operations;
+		}
+		finally{
+			controller.kill();
+		}
+	}
+
+	private Dockable dockable(){
+		Dockable dockable = new DefaultDockable( "dockable " + created.size() );
+		created.add( dockable );
+		return dockable;
+	}
+
+	private void operation(){
+		int count = station.getDockableCount();
+		switch( random.nextInt( 8 ) ){
+			case 0:
+			case 1:
+				station.drop( dockable(), new SplitDockProperty( random.nextDouble(), random.nextDouble(), 0.1 + random.nextDouble() / 2, 0.1 + random.nextDouble() / 2 ) );
+				break;
+			case 2:
+				if( !removed.isEmpty() ){
+					// dropping a new dockable onto the placeholder of a removed dockable
+					List<Dockable> keys = new ArrayList<Dockable>( removed.keySet() );
+					Dockable old = keys.get( random.nextInt( keys.size() ) );
+					if( station.drop( old, removed.get( old ) ) ){
+						removed.remove( old );
+					}
+				}
+				break;
+			case 3:
+			case 4:
+				if( count > 0 ){
+					Dockable dockable = station.getDockable( random.nextInt( count ) );
+					removed.put( dockable, station.getDockableProperty( dockable, null ) );
+					if( random.nextBoolean() ){
+						station.drag( dockable );
+					}
+					else{
+						station.removeDockable( dockable );
+					}
+				}
+				break;
+			case 5:
+				if( count > 0 ){
+					station.replace( station.getDockable( random.nextInt( count ) ), dockable() );
+				}
+				break;
+			case 6:
+				if( random.nextInt( 4 ) == 0 ){
+					dropTree();
+				}
+				break;
+			case 7:
+				if( count > 1 ){
+					// moving a dockable within the station
+					Dockable dockable = station.getDockable( random.nextInt( count ) );
+					station.drag( dockable );
+					station.drop( dockable, new SplitDockProperty( random.nextDouble(), random.nextDouble(), 0.2, 0.2 ) );
+				}
+				break;
+		}
+	}
+
+	private void dropTree(){
+		SplitDockGrid grid = new SplitDockGrid();
+		int size = 1 + random.nextInt( 12 );
+		for( int i = 0; i < size; i++ ){
+			grid.addDockable( i % 4, i / 4, 1, 1, dockable() );
+		}
+		for( int i = 0, n = station.getDockableCount(); i < n; i++ ){
+			removed.put( station.getDockable( i ), station.getDockableProperty( station.getDockable( i ), null ) );
+		}
+		station.dropTree( grid.toTree() );
+	}
+
+	private void check(){
+		final Map<Long, SplitNode> nodes = new HashMap<Long, SplitNode>();
+		final Map<Dockable, Leaf> leafs = new HashMap<Dockable, Leaf>();
+		station.getRoot().visit( new SplitNodeVisitor(){
+			public void handleRoot( Root root ){
+				nodes.put( root.getId(), root );
+			}
+
+			public void handleNode( Node node ){
+				nodes.put( node.getId(), node );
+			}
+
+			public void handleLeaf( Leaf leaf ){
+				nodes.put( leaf.getId(), leaf );
+				leafs.put( leaf.getDockable(), leaf );
+			}
+
+			public void handlePlaceholder( Placeholder placeholder ){
+				nodes.put( placeholder.getId(), placeholder );
+			}
+		});
+		ids.addAll( nodes.keySet() );
+
+		for( long id : ids ){
+			assertSame( nodes.get( id ), station.getNode( id ), "node " + id );
+		}
+
+		for( Dockable dockable : created ){
+			assertSame( leafs.get( dockable ), station.getRoot().getLeaf( dockable ), "leaf of " + dockable.getTitleText() );
+
+			int index = -1;
+			for( int i = 0, n = station.getDockableCount(); i < n && index == -1; i++ ){
+				if( station.getDockable( i ) == dockable ){
+					index = i;
+				}
+			}
+			if( index != station.indexOfDockable( dockable ) ){
+				fail( "index of " + dockable.getTitleText() + ": expected " + index + " but was " + station.indexOfDockable( dockable ) );
+			}
+		}
+	}
+
+	private void assertSame( Object expected, Object actual, String message ){
+		if( expected != actual ){
+			fail( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	private void fail( String message ){
+		throw new AssertionError( "step " + step + ", " + message );
+	}
+
+	/**
+	 * Assigns a placeholder to each {@link DefaultDockable}, hence removed dockables leave
+	 * placeholders in the tree.
+	 */
+	private static class TestPlaceholderStrategy implements PlaceholderStrategy{
+		public void install( DockStation station ){
+			// ignore
+		}
+
+		public void uninstall( DockStation station ){
+			// ignore
+		}
+
+		public void addListener( PlaceholderStrategyListener listener ){
+			// ignore
+		}
+
+		public void removeListener( PlaceholderStrategyListener listener ){
+			// ignore
+		}
+
+		public Path getPlaceholderFor( Dockable dockable ){
+			return new Path( "test", dockable.getTitleText().replace( ' ', '_' ) );
+		}
+
+		public boolean isValidPlaceholder( Path placeholder ){
+			return true;
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package bibliothek.test.mode;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.CGrid;
+import bibliothek.gui.dock.common.CGridArea;
+import bibliothek.gui.dock.common.DefaultSingleCDockable;
+import bibliothek.gui.dock.common.location.CGridAreaLocation;
+import bibliothek.gui.dock.common.mode.CLocationModeManager;
+import bibliothek.gui.dock.support.mode.ModeManager;
+
+/**
+ * Checks when a {@link ModeManager} re-evaluates the modes of the {@link Dockable}s that were marked dirty.
+ * The dirty elements of a transaction must be refreshed exactly once when the outermost transaction ends,
+ * not when a nested transaction ends and not at all if the transaction is continuous. Elements that move
+ * or are registered outside of a transaction must be refreshed right away.<br>
+ * Only a {@link CGridArea} is used, the content area cannot be created without a screen.
+ */
+public class ModeManagerTransactionTest {
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				CControl control = new CControl();
+				try{
+					CGridArea area = control.createGridArea( "grid" );
+					List<DefaultSingleCDockable> dockables = setUp( control, area );
+					CLocationModeManager manager = control.getLocationManager();
+
+					checkOutermost( manager, dockables );
+					System.out.println( "dirty elements are refreshed once when the outermost transaction ends" );
+
+					checkContinuous( manager, dockables );
+					System.out.println( "continuous transactions leave dirty elements for refreshDirty" );
+
+					checkRecursive( manager, dockables );
+					System.out.println( "recursively marked elements are refreshed once" );
+
+					checkMoves( control, area, manager, dockables );
+					System.out.println( "moved elements are refreshed once per transaction" );
+
+					checkRegistration( control, area, manager );
+					System.out.println( "registered elements are refreshed right away" );
+				}
+				finally{
+					control.destroy();
+				}
+			}
+		});
+	}
+
+	private static List<DefaultSingleCDockable> setUp( CControl control, CGridArea area ){
+		List<DefaultSingleCDockable> dockables = new ArrayList<DefaultSingleCDockable>();
+		CGrid grid = new CGrid( control );
+		for( int i = 0; i < 6; i++ ){
+			DefaultSingleCDockable dockable = new DefaultSingleCDockable( "dockable" + i, "Dockable " + i );
+			dockables.add( dockable );
+		}
+		grid.add( 0, 0, 1, 1, dockables.get( 0 ), dockables.get( 1 ) );
+		for( int i = 2; i < dockables.size(); i++ ){
+			grid.add( i, 0, 1, 1, dockables.get( i ) );
+		}
+		area.deploy( grid );
+		return dockables;
+	}
+
+	private static void checkOutermost( final CLocationModeManager manager, final List<DefaultSingleCDockable> dockables ){
+		final long before = manager.getRefreshCount();
+
+		manager.runTransaction( new Runnable(){
+			public void run(){
+				for( DefaultSingleCDockable dockable : dockables ){
+					manager.markDirty( dockable.intern(), false );
+				}
+				manager.runTransaction( new Runnable(){
+					public void run(){
+						for( DefaultSingleCDockable dockable : dockables ){
+							manager.markDirty( dockable.intern(), false );
+						}
+					}
+				});
+				assertEquals( "refreshed by a nested transaction", before, manager.getRefreshCount() );
+				assertDirty( manager, dockables, true );
+			}
+		});
+
+		assertEquals( "refreshes of the outermost transaction", dockables.size(), manager.getLastTransactionRefreshCount() );
+		assertEquals( "total refreshes", before + dockables.size(), manager.getRefreshCount() );
+		assertDirty( manager, dockables, false );
+	}
+
+	private static void checkContinuous( final CLocationModeManager manager, final List<DefaultSingleCDockable> dockables ){
+		long before = manager.getRefreshCount();
+
+		manager.runTransaction( new Runnable(){
+			public void run(){
+				for( DefaultSingleCDockable dockable : dockables ){
+					manager.markDirty( dockable.intern(), false );
+				}
+				// a nested ordinary transaction must not refresh the elements either
+				manager.runTransaction( new Runnable(){
+					public void run(){
+						// nothing to do
+					}
+				});
+			}
+		}, true );
+
+		assertEquals( "refreshed by a continuous transaction", before, manager.getRefreshCount() );
+		assertEquals( "refreshes of the continuous transaction", 0, manager.getLastTransactionRefreshCount() );
+		assertDirty( manager, dockables, true );
+
+		manager.refreshDirty();
+		assertEquals( "refreshes of refreshDirty", before + dockables.size(), manager.getRefreshCount() );
+		assertDirty( manager, dockables, false );
+
+		manager.refreshDirty();
+		assertEquals( "refreshes of a second refreshDirty", before + dockables.size(), manager.getRefreshCount() );
+	}
+
+	private static void checkRecursive( final CLocationModeManager manager, final List<DefaultSingleCDockable> dockables ){
+		final Dockable first = dockables.get( 0 ).intern();
+		final Dockable stack = first.getDockParent().asDockable();
+		if( stack == null || stack.asDockStation().getDockableCount() != 2 ){
+			throw new AssertionError( "the first two dockables are not stacked" );
+		}
+
+		manager.runTransaction( new Runnable(){
+			public void run(){
+				manager.markDirty( first, true );
+				manager.markDirty( stack, true );
+			}
+		});
+
+		// the stack itself is not registered, only its two children are counted
+		assertEquals( "refreshes of a recursively marked stack", 2, manager.getLastTransactionRefreshCount() );
+	}
+
+	private static void checkMoves( CControl control, CGridArea area, final CLocationModeManager manager, final List<DefaultSingleCDockable> dockables ){
+		final CGridAreaLocation location = new CGridAreaLocation( area );
+		final DefaultSingleCDockable moved = dockables.get( dockables.size() - 1 );
+		final long[] during = new long[ 2 ];
+
+		manager.runTransaction( new Runnable(){
+			public void run(){
+				during[0] = manager.getRefreshCount();
+				moved.setLocation( location.north( 0.25 ) );
+				moved.setLocation( location.south( 0.25 ) );
+				moved.setLocation( location.west( 0.25 ) );
+				during[1] = manager.getRefreshCount();
+			}
+		});
+
+		assertEquals( "refreshed while moving", during[0], during[1] );
+		long refreshes = manager.getLastTransactionRefreshCount();
+		if( refreshes < 1 || refreshes > dockables.size() ){
+			throw new AssertionError( "each moved element must be refreshed once, but there were " + refreshes + " refreshes" );
+		}
+		assertDirty( manager, dockables, false );
+
+		// outside of a transaction the element is refreshed right away
+		long before = manager.getRefreshCount();
+		control.getController().getRegister().setStalled( true );
+		try{
+			moved.setLocation( location.east( 0.25 ) );
+		}
+		finally{
+			control.getController().getRegister().setStalled( false );
+		}
+		if( manager.getRefreshCount() == before ){
+			throw new AssertionError( "a moved element was not refreshed" );
+		}
+		assertDirty( manager, dockables, false );
+	}
+
+	private static void checkRegistration( CControl control, CGridArea area, CLocationModeManager manager ){
+		DefaultSingleCDockable added = new DefaultSingleCDockable( "added", "Added" );
+		control.addDockable( added );
+		long before = manager.getRefreshCount();
+		added.setLocation( new CGridAreaLocation( area ).north( 0.2 ) );
+		added.setVisible( true );
+
+		if( manager.getRefreshCount() == before ){
+			throw new AssertionError( "a registered element was not refreshed" );
+		}
+		if( manager.isDirty( added.intern() ) ){
+			throw new AssertionError( "a registered element is still dirty" );
+		}
+		if( manager.getCurrentMode( added.intern() ) == null ){
+			throw new AssertionError( "a registered element has no mode" );
+		}
+	}
+
+	private static void assertDirty( CLocationModeManager manager, List<DefaultSingleCDockable> dockables, boolean dirty ){
+		for( DefaultSingleCDockable dockable : dockables ){
+			if( manager.isDirty( dockable.intern() ) != dirty ){
+				throw new AssertionError( dockable.getUniqueId() + " is " + (dirty ? "not " : "") + "dirty" );
+			}
+		}
+	}
+
+	private static void assertEquals( String message, long expected, long actual ){
+		if( expected != actual ){
+			throw new AssertionError( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+}
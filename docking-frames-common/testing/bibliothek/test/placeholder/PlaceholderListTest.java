@@ -0,0 +1,429 @@
+package bibliothek.test.placeholder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import bibliothek.gui.dock.station.support.PlaceholderList;
+import bibliothek.gui.dock.station.support.PlaceholderList.Level;
+import bibliothek.gui.dock.station.support.PlaceholderListItem;
+import bibliothek.gui.dock.station.support.PlaceholderMap;
+import bibliothek.util.Path;
+
+/**
+ * Applies random operations to a {@link PlaceholderList} and to a plain reference list, and compares the
+ * two lists after each operation. Dockables are inserted, removed, replaced by placeholders, moved and put
+ * onto placeholders, and placeholders are added and removed directly or through the sets of the items.
+ * All the queries about indices and placeholders must give the same answers for both lists.
+ */
+public class PlaceholderListTest {
+	private Random random;
+	private TestList list = new TestList();
+	private List<Ref> reference = new ArrayList<Ref>();
+	private Path[] paths = new Path[ 12 ];
+	private int nextItem = 0;
+	private int step = 0;
+
+	public static void main( String[] args ){
+		int operations = 0;
+		for( int seed = 0; seed < 200; seed++ ){
+			PlaceholderListTest test = new PlaceholderListTest( seed );
+			for( int i = 0; i < 300; i++ ){
+				test.operation();
+				test.check();
+				operations++;
+			}
+		}
+		System.out.println( operations + " random operations give the same lists" );
+	}
+
+	public PlaceholderListTest( int seed ){
+		random = new Random( seed );
+		for( int i = 0; i < paths.length; i++ ){
+			paths[i] = new Path( "test", "p" + i );
+		}
+	}
+
+	private Path path(){
+		return paths[ random.nextInt( paths.length ) ];
+	}
+
+	private void operation(){
+		step++;
+		int dockables = count( true );
+		switch( random.nextInt( 12 ) ){
+			case 0:
+			case 1: {
+				int index = random.nextInt( dockables + 1 );
+				TestItem item = new TestItem();
+				list.dockables().add( index, item );
+				insert( index, Level.DOCKABLE, new Ref( item ) );
+				removeAll( item.placeholder );
+				break;
+			}
+			case 2: {
+				if( dockables > 0 ){
+					int index = random.nextInt( dockables );
+					list.dockables().remove( index );
+					reference.remove( toBase( index, Level.DOCKABLE ) );
+				}
+				break;
+			}
+			case 3: {
+				if( dockables > 0 ){
+					Ref ref = reference.get( toBase( random.nextInt( dockables ), Level.DOCKABLE ) );
+					Path placeholder = list.remove( ref.item );
+					assertEquals( ref.item.placeholder, placeholder, "placeholder of removed item" );
+					ref.placeholders.add( ref.item.placeholder );
+					ref.item = null;
+				}
+				break;
+			}
+			case 4: {
+				Path placeholder = path();
+				TestItem item = new TestItem();
+				int result = list.put( placeholder, item );
+				int base = first( placeholder );
+				int expected = -1;
+				if( base != -1 ){
+					Ref ref = reference.get( base );
+					ref.item = item;
+					removeAll( placeholder );
+					expected = toLevel( reference.indexOf( ref ), Level.DOCKABLE );
+				}
+				assertEquals( expected, result, "put placeholder" );
+				break;
+			}
+			case 5: {
+				if( dockables > 0 ){
+					Ref ref = reference.get( toBase( random.nextInt( dockables ), Level.DOCKABLE ) );
+					Path placeholder = path();
+					assertEquals( true, list.put( ref.item, placeholder ), "put dockable" );
+					removeAll( placeholder );
+					ref.placeholders.add( placeholder );
+				}
+				break;
+			}
+			case 6: {
+				Path placeholder = path();
+				list.removeAll( placeholder );
+				removeAll( placeholder );
+				break;
+			}
+			case 7: {
+				if( dockables > 0 ){
+					int source = random.nextInt( dockables );
+					int destination = random.nextInt( dockables );
+					list.dockables().move( source, destination );
+					move( source, destination, Level.DOCKABLE );
+				}
+				break;
+			}
+			case 8: {
+				if( !reference.isEmpty() ){
+					int source = random.nextInt( reference.size() );
+					int destination = random.nextInt( reference.size() );
+					list.list().move( source, destination );
+					move( source, destination, Level.BASE );
+				}
+				break;
+			}
+			case 9: {
+				int index = random.nextInt( dockables + 1 );
+				Path placeholder = path();
+				list.dockables().insertPlaceholder( index, placeholder );
+				Ref ref = new Ref( null );
+				ref.placeholders.add( placeholder );
+				insert( index, Level.DOCKABLE, ref );
+				break;
+			}
+			case 10: {
+				if( dockables > 0 ){
+					int index = random.nextInt( dockables );
+					Path placeholder = path();
+					list.dockables().addPlaceholder( index, placeholder );
+					Ref ref = reference.get( toBase( index, Level.DOCKABLE ) );
+					if( !ref.placeholders.contains( placeholder ) ){
+						removeAll( placeholder );
+						ref.placeholders.add( placeholder );
+					}
+				}
+				break;
+			}
+			case 11: {
+				if( !reference.isEmpty() ){
+					int index = random.nextInt( reference.size() );
+					Path placeholder = path();
+					PlaceholderList<TestItem, TestItem, TestItem>.Item item = list.list().get( index );
+					if( random.nextBoolean() ){
+						item.add( placeholder );
+						reference.get( index ).placeholders.add( placeholder );
+					}
+					else if( item.getPlaceholderSet() != null ){
+						item.getPlaceholderSet().remove( placeholder );
+						reference.get( index ).placeholders.remove( placeholder );
+					}
+				}
+				break;
+			}
+		}
+	}
+
+	private void check(){
+		assertEquals( reference.size(), list.size( Level.BASE ), "base size" );
+		assertEquals( count( true ), list.size( Level.DOCKABLE ), "dockable size" );
+		assertEquals( count( false ), list.size( Level.PLACEHOLDER ), "placeholder size" );
+
+		for( int i = 0; i < reference.size(); i++ ){
+			Ref ref = reference.get( i );
+			PlaceholderList<TestItem, TestItem, TestItem>.Item item = list.list().get( i );
+			assertSame( ref.item, item.getDockable(), "item at " + i );
+			Set<Path> placeholders = item.getPlaceholderSet();
+			if( placeholders == null ){
+				placeholders = new HashSet<Path>();
+			}
+			assertEquals( ref.placeholders, new HashSet<Path>( placeholders ), "placeholders at " + i );
+			assertEquals( toLevel( i, Level.DOCKABLE ), list.baseToLevel( i, Level.DOCKABLE ), "base to dockable " + i );
+			assertEquals( toLevel( i, Level.PLACEHOLDER ), list.baseToLevel( i, Level.PLACEHOLDER ), "base to placeholder " + i );
+		}
+
+		for( int i = 0, n = count( true ); i < n; i++ ){
+			int base = toBase( i, Level.DOCKABLE );
+			TestItem item = reference.get( base ).item;
+			assertEquals( base, list.levelToBase( i, Level.DOCKABLE ), "dockable to base " + i );
+			assertSame( item, list.dockables().get( i ), "dockable " + i );
+			assertEquals( i, list.dockables().indexOf( item ), "index of dockable " + i );
+			assertSame( list.list().get( base ), list.getItem( item ), "item of dockable " + i );
+		}
+		for( int i = 0, n = count( false ); i < n; i++ ){
+			assertEquals( toBase( i, Level.PLACEHOLDER ), list.levelToBase( i, Level.PLACEHOLDER ), "placeholder to base " + i );
+		}
+
+		for( Path placeholder : paths ){
+			int base = first( placeholder );
+			assertEquals( base != -1, list.hasPlaceholder( placeholder ), "has " + placeholder );
+			assertEquals( base, list.getListIndex( placeholder ), "list index of " + placeholder );
+			int dockableIndex = -1;
+			TestItem dockable = null;
+			if( base != -1 ){
+				dockable = reference.get( base ).item;
+				dockableIndex = count( true, base ) + (dockable == null ? 0 : 1);
+			}
+			assertEquals( dockableIndex, list.getDockableIndex( placeholder ), "dockable index of " + placeholder );
+			assertSame( dockable, list.getDockableAt( placeholder ), "dockable at " + placeholder );
+			assertEquals( firstInLevel( placeholder, true ), list.dockables().indexOfPlaceholder( placeholder ), "dockable with " + placeholder );
+			assertEquals( firstInLevel( placeholder, false ), list.purePlaceholders().indexOfPlaceholder( placeholder ), "placeholder with " + placeholder );
+		}
+	}
+
+	/**
+	 * Inserts <code>ref</code> like a sublist of {@link PlaceholderList} does: directly behind the
+	 * element in front of <code>index</code>.
+	 */
+	private void insert( int index, Level level, Ref ref ){
+		if( index == size( level ) ){
+			reference.add( ref );
+		}
+		else if( index == 0 ){
+			reference.add( 0, ref );
+		}
+		else{
+			reference.add( toBase( index - 1, level ) + 1, ref );
+		}
+	}
+
+	/**
+	 * Moves an element like {@link PlaceholderList.Filter#move(int, int)} does: behind the element
+	 * that is currently at <code>destination</code>, or in front of the element at <code>destination</code>
+	 * if the element moves to the front.
+	 */
+	private void move( int source, int destination, Level level ){
+		if( source == destination ){
+			return;
+		}
+		Ref ref = reference.get( toBase( source, level ) );
+		Ref predecessor = null;
+		if( destination > source ){
+			predecessor = reference.get( toBase( destination, level ) );
+		}
+		else if( destination > 0 ){
+			predecessor = reference.get( toBase( destination - 1, level ) );
+		}
+		reference.remove( ref );
+		reference.add( predecessor == null ? 0 : reference.indexOf( predecessor ) + 1, ref );
+	}
+
+	private void removeAll( Path placeholder ){
+		for( int i = reference.size() - 1; i >= 0; i-- ){
+			Ref ref = reference.get( i );
+			ref.placeholders.remove( placeholder );
+			if( ref.item == null && ref.placeholders.isEmpty() ){
+				reference.remove( i );
+			}
+		}
+	}
+
+	private int first( Path placeholder ){
+		for( int i = 0; i < reference.size(); i++ ){
+			if( reference.get( i ).placeholders.contains( placeholder ) ){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int firstInLevel( Path placeholder, boolean dockables ){
+		int index = 0;
+		for( Ref ref : reference ){
+			if( (ref.item != null) == dockables ){
+				if( ref.placeholders.contains( placeholder ) ){
+					return index;
+				}
+				index++;
+			}
+		}
+		return -1;
+	}
+
+	private int size( Level level ){
+		switch( level ){
+			case DOCKABLE: return count( true );
+			case PLACEHOLDER: return count( false );
+			default: return reference.size();
+		}
+	}
+
+	private int count( boolean dockables ){
+		return count( dockables, reference.size() );
+	}
+
+	private int count( boolean dockables, int end ){
+		int count = 0;
+		for( int i = 0; i < end; i++ ){
+			if( (reference.get( i ).item != null) == dockables ){
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private boolean visible( Ref ref, Level level ){
+		switch( level ){
+			case DOCKABLE: return ref.item != null;
+			case PLACEHOLDER: return ref.item == null;
+			default: return true;
+		}
+	}
+
+	private int toBase( int index, Level level ){
+		for( int i = 0; i < reference.size(); i++ ){
+			if( visible( reference.get( i ), level ) ){
+				if( index == 0 ){
+					return i;
+				}
+				index--;
+			}
+		}
+		throw new IndexOutOfBoundsException();
+	}
+
+	private int toLevel( int base, Level level ){
+		if( !visible( reference.get( base ), level ) ){
+			return -1;
+		}
+		int index = 0;
+		for( int i = 0; i < base; i++ ){
+			if( visible( reference.get( i ), level ) ){
+				index++;
+			}
+		}
+		return index;
+	}
+
+	private void assertEquals( Object expected, Object actual, String message ){
+		if( expected == null ? actual != null : !expected.equals( actual ) ){
+			fail( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	private void assertSame( Object expected, Object actual, String message ){
+		if( expected != actual ){
+			fail( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	private void fail( String message ){
+		throw new AssertionError( "step " + step + ", " + message + "\nreference: " + reference + "\nlist: " + list );
+	}
+
+	/**
+	 * One entry of the reference list.
+	 */
+	private static class Ref{
+		private TestItem item;
+		private Set<Path> placeholders = new HashSet<Path>();
+
+		public Ref( TestItem item ){
+			this.item = item;
+		}
+
+		@Override
+		public String toString(){
+			return item + placeholders.toString();
+		}
+	}
+
+	/**
+	 * An element of the list, each element has its own placeholder.
+	 */
+	private class TestItem implements PlaceholderListItem<TestItem>{
+		private int id = nextItem++;
+		private Path placeholder = paths[ id % paths.length ];
+
+		public TestItem asDockable(){
+			return this;
+		}
+
+		@Override
+		public String toString(){
+			return "item " + id;
+		}
+	}
+
+	/**
+	 * A list of {@link TestItem}s, none of which is a station.
+	 */
+	private static class TestList extends PlaceholderList<TestItem, TestItem, TestItem>{
+		@Override
+		protected Path getPlaceholder( TestItem dockable ){
+			return dockable.placeholder;
+		}
+
+		@Override
+		protected String toString( TestItem dockable ){
+			return dockable.toString();
+		}
+
+		@Override
+		protected TestItem toStation( TestItem dockable ){
+			return null;
+		}
+
+		@Override
+		protected PlaceholderMap getPlaceholders( TestItem station ){
+			return null;
+		}
+
+		@Override
+		protected void setPlaceholders( TestItem station, PlaceholderMap map ){
+			// ignore
+		}
+
+		@Override
+		protected TestItem[] getChildren( TestItem station ){
+			return new TestItem[0];
+		}
+	}
+}
@@ -0,0 +1,298 @@
+package bibliothek.test.relocator;
+
+import java.awt.Component;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.station.layer.BoundedDropLayer;
+import bibliothek.gui.dock.station.layer.DockStationDropLayer;
+import bibliothek.gui.dock.station.layer.DropLayerIndex;
+import bibliothek.gui.dock.station.layer.LayerPriority;
+import bibliothek.gui.dock.station.layer.OrderedLayerCollection;
+
+/**
+ * Compares the stations found by a {@link DropLayerIndex} with the stations found by searching all
+ * the stations, which is what the relocator does without index. Random trees of stations are built
+ * and then changed step by step: stations are added and removed, their layers move, and stations
+ * stop or start being candidates. Each layer is bounded by a {@link JPanel} that is not shown, moving
+ * the panel moves the layer and fires the same events a real station would fire.
+ */
+public class DropLayerIndexTest {
+	/** the size of the area in which layers are placed */
+	private static final int SIZE = 1000;
+	/** the priorities of the layers */
+	private static final LayerPriority[] PRIORITIES = { LayerPriority.OUTSIDE_LOW, LayerPriority.BASE, LayerPriority.OUTSIDE_HIGH, LayerPriority.FLOAT_FREE };
+
+	private Random random;
+	private DockController controller;
+	private List<TestStation> stations = new ArrayList<TestStation>();
+	private Set<DockStation> excluded = new HashSet<DockStation>();
+	private DropLayerIndex index;
+	private int queries = 0;
+
+	public static void main( String[] args ) throws Exception{
+		int layouts = 0;
+		for( int seed = 0; seed < 40; seed++ ){
+			DropLayerIndexTest test = new DropLayerIndexTest( seed );
+			test.run();
+			layouts++;
+		}
+		System.out.println( layouts + " random layouts produce the same stations" );
+	}
+
+	public DropLayerIndexTest( int seed ){
+		random = new Random( seed );
+	}
+
+	private void run() throws Exception{
+		onEDT( new Runnable(){
+			public void run(){
+				controller = new DockController(){
+					@Override
+					protected void showCoreWarning(){
+						// headless
+					}
+				};
+				// empty stations must not be removed
+				controller.setSingleParentRemover( null );
+				for( int i = 0, n = 10 + random.nextInt( 40 ); i < n; i++ ){
+					addStation();
+				}
+				index = new DropLayerIndex( controller ){
+					@Override
+					protected boolean isIndexed( DockStation station ){
+						return !excluded.contains( station );
+					}
+				};
+				index.bind();
+			}
+		} );
+
+		for( int step = 0; step < 60; step++ ){
+			onEDT( new Runnable(){
+				public void run(){
+					change();
+				}
+			} );
+			// the events fired by the panels are handled before the next runnable
+			onEDT( new Runnable(){
+				public void run(){
+					for( int i = 0; i < 20; i++ ){
+						check( random.nextInt( SIZE ), random.nextInt( SIZE ) );
+					}
+				}
+			} );
+		}
+
+		onEDT( new Runnable(){
+			public void run(){
+				index.unbind();
+				controller.kill();
+			}
+		} );
+	}
+
+	private void change(){
+		for( int i = 0, n = 1 + random.nextInt( 3 ); i < n; i++ ){
+			switch( random.nextInt( 5 ) ){
+				case 0:
+					addStation();
+					break;
+				case 1:
+					removeStation();
+					break;
+				case 2:
+				case 3:
+					TestStation station = stations.get( random.nextInt( stations.size() ) );
+					station.layers.get( random.nextInt( station.layers.size() ) ).moveRandomly();
+					break;
+				case 4:
+					DockStation candidate = stations.get( random.nextInt( stations.size() ) );
+					if( !excluded.remove( candidate ) ){
+						excluded.add( candidate );
+					}
+					break;
+			}
+		}
+	}
+
+	private void addStation(){
+		TestStation station = new TestStation();
+		if( stations.isEmpty() || random.nextInt( 5 ) == 0 ){
+			controller.add( station );
+		}
+		else{
+			stations.get( random.nextInt( stations.size() ) ).drop( station );
+		}
+		stations.add( station );
+	}
+
+	private void removeStation(){
+		TestStation station = stations.get( random.nextInt( stations.size() ) );
+		DockStation parent = station.getDockParent();
+		if( parent != null ){
+			parent.drag( station );
+			removeTree( station );
+		}
+	}
+
+	private void removeTree( DockStation station ){
+		stations.remove( station );
+		excluded.remove( station );
+		for( int i = 0, n = station.getDockableCount(); i < n; i++ ){
+			DockStation child = station.getDockable( i ).asDockStation();
+			if( child != null ){
+				removeTree( child );
+			}
+		}
+	}
+
+	private void check( int x, int y ){
+		OrderedLayerCollection collection = new OrderedLayerCollection();
+		for( DockStation station : controller.getRegister().listDockStations() ){
+			if( !excluded.contains( station ) ){
+				collection.add( station );
+			}
+		}
+		List<DockStation> linear = collection.sort( x, y );
+		List<DockStation> indexed = index.sortLayers( index.getLayersAt( x, y ) );
+
+		if( !linear.equals( indexed ) ){
+			throw new AssertionError( "query " + queries + " at " + x + "/" + y + ": expected " + linear + " but was " + indexed );
+		}
+		queries++;
+	}
+
+	private void onEDT( Runnable run ) throws Exception{
+		SwingUtilities.invokeAndWait( run );
+	}
+
+	/**
+	 * A station whose layers are described by {@link LayerSpec}s. Like a real station, new layers are
+	 * created every time {@link #getLayers()} is called.
+	 */
+	private class TestStation extends SplitDockStation{
+		private List<LayerSpec> layers = new ArrayList<LayerSpec>();
+		private final int id = stations.size();
+
+		public TestStation(){
+			for( int i = 0, n = 1 + random.nextInt( 2 ); i < n; i++ ){
+				layers.add( new LayerSpec() );
+			}
+		}
+
+		@Override
+		public boolean isStationShowing(){
+			return true;
+		}
+
+		@Override
+		public DockStationDropLayer[] getLayers(){
+			DockStationDropLayer[] result = new DockStationDropLayer[ layers.size() ];
+			for( int i = 0; i < result.length; i++ ){
+				result[i] = new TestLayer( this, layers.get( i ) );
+			}
+			return result;
+		}
+
+		@Override
+		public String toString(){
+			return "station " + id;
+		}
+	}
+
+	/**
+	 * The properties of one layer: its bounds, priority and rank among layers with the same priority.
+	 */
+	private class LayerSpec{
+		private JPanel panel = new JPanel();
+		private boolean bounded = random.nextInt( 8 ) != 0;
+		private boolean modifying = random.nextBoolean();
+		private LayerPriority priority = PRIORITIES[ random.nextInt( PRIORITIES.length ) ];
+		private int rank = random.nextInt();
+
+		public LayerSpec(){
+			moveRandomly();
+		}
+
+		public void moveRandomly(){
+			int width = 1 + random.nextInt( random.nextInt( 10 ) == 0 ? SIZE : SIZE / 5 );
+			int height = 1 + random.nextInt( random.nextInt( 10 ) == 0 ? SIZE : SIZE / 5 );
+			panel.setBounds( random.nextInt( SIZE ) - width / 2, random.nextInt( SIZE ) - height / 2, width, height );
+		}
+	}
+
+	/**
+	 * A layer covering the bounds of the panel of a {@link LayerSpec}. Layers are compared by their
+	 * priority and then by their rank, hence the order of the stations does not depend on the order
+	 * in which the layers were found.
+	 */
+	private static class TestLayer implements DockStationDropLayer, BoundedDropLayer{
+		private TestStation station;
+		private LayerSpec spec;
+		private LayerPriority priority;
+
+		public TestLayer( TestStation station, LayerSpec spec ){
+			this.station = station;
+			this.spec = spec;
+			this.priority = spec.priority;
+		}
+
+		public DockStation getStation(){
+			return station;
+		}
+
+		public Component getComponent(){
+			return spec.panel;
+		}
+
+		public Rectangle getScreenBounds(){
+			if( spec.bounded ){
+				return spec.panel.getBounds();
+			}
+			return null;
+		}
+
+		public DockStationDropLayer modify( DockStationDropLayer child ){
+			if( spec.modifying ){
+				child.setPriority( getPriority().merge( child.getPriority() ) );
+			}
+			return child;
+		}
+
+		public boolean contains( int x, int y ){
+			return spec.panel.getBounds().contains( x, y );
+		}
+
+		public LayerPriority getPriority(){
+			return priority;
+		}
+
+		public void setPriority( LayerPriority priority ){
+			this.priority = priority;
+		}
+
+		public boolean canCompare( DockStationDropLayer level ){
+			return level instanceof TestLayer;
+		}
+
+		public int compare( DockStationDropLayer level ){
+			TestLayer other = (TestLayer)level;
+			int result = priority.compareTo( other.priority );
+			if( result == 0 ){
+				result = spec.rank < other.spec.rank ? -1 : (spec.rank == other.spec.rank ? 0 : 1);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,380 @@
+package bibliothek.test.screen;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JPanel;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.ScreenDockStation;
+import bibliothek.gui.dock.station.DockableDisplayer;
+import bibliothek.gui.dock.station.screen.ScreenDockFullscreenStrategy;
+import bibliothek.gui.dock.station.screen.ScreenDockWindow;
+import bibliothek.gui.dock.station.screen.ScreenDockWindowFactory;
+import bibliothek.gui.dock.station.screen.ScreenDockWindowListener;
+import bibliothek.gui.dock.station.screen.window.DefaultScreenDockWindowConfiguration;
+import bibliothek.gui.dock.station.screen.window.ScreenDockWindowPool;
+import bibliothek.gui.dock.station.screen.window.WindowConfiguration;
+import bibliothek.gui.dock.station.support.CombinerTarget;
+import bibliothek.gui.dock.util.NullWindowProvider;
+
+/**
+ * Uses a {@link ScreenDockWindowPool} together with a {@link ScreenDockStation}. A {@link Dockable} is externalized,
+ * removed and externalized again, the second window must be the window of the first {@link Dockable}. Checks that
+ * the station puts its windows into the pool when they are no longer needed, that fullscreen windows are never pooled,
+ * and that the pooled windows are destroyed if the station replaces its windows, uses another pool or is removed from
+ * its {@link DockController}.
+ */
+public class ScreenDockStationWindowPoolTest {
+	private DockController controller;
+	private ScreenDockStation station;
+	private ScreenDockWindowPool pool;
+	private Factory factory;
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				ScreenDockStationWindowPoolTest test = new ScreenDockStationWindowPoolTest();
+				test.setup();
+				try{
+					test.checkReuse();
+					System.out.println( "removed windows are pooled and reused" );
+
+					test.checkFullscreen();
+					System.out.println( "fullscreen windows are not pooled" );
+
+					test.checkUpdateWindows();
+					System.out.println( "replacing the windows clears the pool" );
+
+					test.checkPoolChanged();
+					System.out.println( "replacing the pool clears the old pool" );
+
+					test.checkStationRemoved();
+					System.out.println( "removing the station clears the pool" );
+				}
+				finally{
+					test.controller.kill();
+				}
+			}
+		});
+	}
+
+	private void setup(){
+		controller = new DockController();
+		factory = new Factory();
+		pool = new ScreenDockWindowPool( 5, 0 );
+		controller.getProperties().set( ScreenDockStation.WINDOW_FACTORY, factory );
+		controller.getProperties().set( ScreenDockStation.WINDOW_POOL, pool );
+
+		station = new ScreenDockStation( new NullWindowProvider() );
+		controller.add( station );
+		station.setShowing( true );
+	}
+
+	private void checkReuse(){
+		Dockable first = new DefaultDockable( "first" );
+		station.addDockable( first, new Rectangle( 10, 20, 300, 200 ) );
+		Window window = window( first );
+		assertCounters( "first window", 0, 1, 0 );
+		assertEquals( "created windows", 1, factory.created.size() );
+		assertTrue( "first window is visible", window.visible );
+
+		station.removeDockable( first );
+		assertCounters( "removed window", 0, 1, 1 );
+		assertTrue( "pooled window was destroyed", !window.destroyed );
+		assertTrue( "pooled window is visible", !window.visible );
+		assertTrue( "pooled window still shows a dockable", window.dockable == null );
+		assertTrue( "pooled window still has a controller", window.controller == null );
+
+		Dockable second = new DefaultDockable( "second" );
+		station.addDockable( second, new Rectangle( 50, 60, 200, 100 ) );
+		assertCounters( "second window", 1, 1, 0 );
+		assertEquals( "created windows", 1, factory.created.size() );
+		if( window( second ) != window ){
+			throw new AssertionError( "the pooled window was not reused" );
+		}
+		assertTrue( "reused window is destroyed", !window.destroyed );
+		assertTrue( "reused window is not visible", window.visible );
+		assertTrue( "reused window shows the wrong dockable", window.dockable == second );
+		assertTrue( "reused window has no controller", window.controller == controller );
+		assertTrue( "reused window has the old bounds", window.bounds.equals( new Rectangle( 50, 60, 200, 100 ) ) );
+
+		station.removeDockable( second );
+		assertCounters( "removed reused window", 1, 1, 1 );
+	}
+
+	private void checkFullscreen(){
+		pool.resetCounters();
+		Dockable dockable = new DefaultDockable( "fullscreen" );
+		station.addDockable( dockable, new Rectangle( 0, 0, 100, 100 ) );
+		Window window = window( dockable );
+		assertCounters( "fullscreen window", 1, 0, 0 );
+
+		station.setFullscreen( dockable, true );
+		station.removeDockable( dockable );
+		assertCounters( "removed fullscreen window", 1, 0, 0 );
+		assertTrue( "fullscreen window was not destroyed", window.destroyed );
+	}
+
+	private void checkUpdateWindows(){
+		Dockable dockable = new DefaultDockable( "visible" );
+		station.addDockable( dockable, new Rectangle( 0, 0, 100, 100 ) );
+		Window old = window( dockable );
+		Window pooled = release( "update" );
+		assertEquals( "pooled windows", 1, pool.getSize() );
+
+		// forces the station to replace all its windows
+		station.setWindowConfiguration( new DefaultScreenDockWindowConfiguration( null ) );
+		assertEquals( "pooled windows after update", 0, pool.getSize() );
+		assertTrue( "pooled window was not destroyed", pooled.destroyed );
+		Window replacement = window( dockable );
+		assertTrue( "the window was not replaced by a new window", replacement != old && replacement != pooled );
+		assertTrue( "the replaced window was not destroyed", old.destroyed );
+		assertTrue( "the replacement is not visible", replacement.visible );
+
+		station.removeDockable( dockable );
+		assertTrue( "the replacement was not pooled", !replacement.destroyed && pool.getSize() == 1 );
+	}
+
+	private void checkPoolChanged(){
+		Window pooled = release( "pool" );
+		assertEquals( "pooled windows", 1, pool.getSize() );
+
+		ScreenDockWindowPool next = new ScreenDockWindowPool( 5, 0 );
+		controller.getProperties().set( ScreenDockStation.WINDOW_POOL, next );
+		assertEquals( "windows in the old pool", 0, pool.getSize() );
+		assertTrue( "window of the old pool was not destroyed", pooled.destroyed );
+
+		Window window = release( "next" );
+		assertEquals( "windows in the new pool", 1, next.getSize() );
+		assertTrue( "window of the new pool was destroyed", !window.destroyed );
+		pool = next;
+	}
+
+	private void checkStationRemoved(){
+		// a pool and factory set directly are not reset when the station leaves its controller
+		station.setWindowPool( pool );
+		station.setWindowFactory( factory );
+		Window pooled = release( "removed" );
+		assertEquals( "pooled windows", 1, pool.getSize() );
+
+		controller.remove( station );
+		assertEquals( "pooled windows after removing the station", 0, pool.getSize() );
+		assertTrue( "pooled window was not destroyed", pooled.destroyed );
+	}
+
+	/**
+	 * Externalizes and removes a new {@link Dockable}, the window of the {@link Dockable} is put into the pool.
+	 */
+	private Window release( String name ){
+		Dockable dockable = new DefaultDockable( name );
+		station.addDockable( dockable, new Rectangle( 0, 0, 100, 100 ) );
+		Window window = window( dockable );
+		station.removeDockable( dockable );
+		return window;
+	}
+
+	private Window window( Dockable dockable ){
+		return (Window)station.getWindow( dockable );
+	}
+
+	private void assertCounters( String name, int hits, int misses, int size ){
+		assertEquals( name + ", hits", hits, pool.getHits() );
+		assertEquals( name + ", misses", misses, pool.getMisses() );
+		assertEquals( name + ", size", size, pool.getSize() );
+	}
+
+	private static void assertTrue( String message, boolean value ){
+		if( !value ){
+			throw new AssertionError( message );
+		}
+	}
+
+	private static void assertEquals( String message, int expected, int actual ){
+		if( expected != actual ){
+			throw new AssertionError( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	/**
+	 * Creates {@link Window}s.
+	 */
+	private static class Factory implements ScreenDockWindowFactory {
+		private List<Window> created = new ArrayList<Window>();
+
+		public ScreenDockWindow createWindow( ScreenDockStation station, WindowConfiguration configuration ){
+			Window window = new Window( station );
+			created.add( window );
+			return window;
+		}
+
+		public ScreenDockWindow updateWindow( ScreenDockWindow window, WindowConfiguration configuration, ScreenDockStation station ){
+			return window;
+		}
+	}
+
+	/**
+	 * A window that is never shown on screen, it only remembers its state.
+	 */
+	private static class Window implements ScreenDockWindow {
+		private ScreenDockStation station;
+		private DockController controller;
+		private Dockable dockable;
+		private boolean visible;
+		private boolean fullscreen;
+		private boolean destroyed;
+		private Rectangle bounds = new Rectangle( 0, 0, 100, 100 );
+		private Rectangle normalBounds;
+		private JPanel component = new JPanel();
+
+		public Window( ScreenDockStation station ){
+			this.station = station;
+		}
+
+		public void addScreenDockWindowListener( ScreenDockWindowListener listener ){
+			// ignore
+		}
+
+		public void removeScreenDockWindowListener( ScreenDockWindowListener listener ){
+			// ignore
+		}
+
+		public void setController( DockController controller ){
+			this.controller = controller;
+		}
+
+		public ScreenDockStation getStation(){
+			return station;
+		}
+
+		public void setDockable( Dockable dockable ){
+			this.dockable = dockable;
+		}
+
+		public Dockable getDockable(){
+			return dockable;
+		}
+
+		public DockableDisplayer getDockableDisplayer(){
+			return null;
+		}
+
+		public Point getTitleCenter(){
+			return null;
+		}
+
+		public void toFront(){
+			// ignore
+		}
+
+		public void setFullscreenStrategy( ScreenDockFullscreenStrategy strategy ){
+			// ignore
+		}
+
+		public void setFullscreen( boolean fullscreen ){
+			if( fullscreen && !this.fullscreen ){
+				normalBounds = bounds;
+			}
+			this.fullscreen = fullscreen;
+		}
+
+		public boolean isFullscreen(){
+			return fullscreen;
+		}
+
+		public void setVisible( boolean visible ){
+			if( destroyed && visible ){
+				throw new AssertionError( "a destroyed window is shown" );
+			}
+			this.visible = visible;
+		}
+
+		public boolean isVisible(){
+			return visible;
+		}
+
+		public void setPreventFocusStealing( boolean prevent ){
+			// ignore
+		}
+
+		public void destroy(){
+			if( destroyed ){
+				throw new AssertionError( "a window is destroyed twice" );
+			}
+			destroyed = true;
+		}
+
+		public void setPaintCombining( CombinerTarget target ){
+			// ignore
+		}
+
+		public void setPaintRemoval( boolean removal ){
+			// ignore
+		}
+
+		public Rectangle getWindowBounds(){
+			return new Rectangle( bounds );
+		}
+
+		public void setWindowBounds( Rectangle bounds ){
+			this.bounds = new Rectangle( bounds );
+		}
+
+		public void setNormalBounds( Rectangle bounds ){
+			normalBounds = bounds;
+		}
+
+		public Rectangle getNormalBounds(){
+			return normalBounds;
+		}
+
+		public Dimension getMinimumWindowSize(){
+			return new Dimension( 0, 0 );
+		}
+
+		public void checkWindowBounds(){
+			// ignore
+		}
+
+		public void validate(){
+			// ignore
+		}
+
+		public Component getComponent(){
+			return component;
+		}
+
+		public Insets getDockableInsets(){
+			return new Insets( 0, 0, 0, 0 );
+		}
+
+		public Point getOffsetMove(){
+			return null;
+		}
+
+		public Point getOffsetDrop(){
+			return null;
+		}
+
+		public boolean inCombineArea( int x, int y ){
+			return false;
+		}
+
+		public boolean inTitleArea( int x, int y ){
+			return false;
+		}
+
+		public boolean contains( int x, int y ){
+			return false;
+		}
+	}
+}
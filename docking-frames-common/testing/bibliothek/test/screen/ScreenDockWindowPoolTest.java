@@ -0,0 +1,237 @@
+package bibliothek.test.screen;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+import bibliothek.gui.dock.ScreenDockStation;
+import bibliothek.gui.dock.station.screen.ScreenDockWindow;
+import bibliothek.gui.dock.station.screen.window.ScreenDockWindowPool;
+import bibliothek.gui.dock.station.screen.window.ScreenWindowShape;
+import bibliothek.gui.dock.station.screen.window.ScreenWindowShapeCallback;
+import bibliothek.gui.dock.station.screen.window.WindowConfiguration;
+import bibliothek.gui.dock.util.NullWindowProvider;
+
+/**
+ * Puts fake {@link ScreenDockWindow}s into a {@link ScreenDockWindowPool} and takes them out again. Checks
+ * that windows are only reused for the same station and an equal {@link WindowConfiguration}, that
+ * the capacity is respected, that old windows are evicted and that the counters match.
+ */
+public class ScreenDockWindowPoolTest {
+	/** all the windows that were destroyed */
+	private static Set<ScreenDockWindow> destroyed = new HashSet<ScreenDockWindow>();
+
+	public static void main( String[] args ) throws Exception{
+		checkAcquireRelease();
+		System.out.println( "windows are reused for the same station and configuration" );
+
+		checkConfigurations();
+		System.out.println( "shapes and subclasses of WindowConfiguration are respected" );
+
+		checkCapacity();
+		System.out.println( "the capacity is respected" );
+
+		checkIdleTimeout();
+		System.out.println( "old windows are evicted" );
+	}
+
+	private static void checkAcquireRelease(){
+		ScreenDockStation stationA = new ScreenDockStation( new NullWindowProvider() );
+		ScreenDockStation stationB = new ScreenDockStation( new NullWindowProvider() );
+		ScreenDockWindowPool pool = new ScreenDockWindowPool( 5, 0 );
+
+		ScreenDockWindow window = window();
+		assertSame( null, pool.acquire( stationA, new WindowConfiguration() ), "empty pool" );
+		assertTrue( pool.release( stationA, new WindowConfiguration(), window ), "release" );
+		assertEquals( 1, pool.getSize(), "size after release" );
+
+		assertSame( null, pool.acquire( stationB, new WindowConfiguration() ), "other station" );
+		WindowConfiguration resizeable = new WindowConfiguration();
+		resizeable.setResizeable( false );
+		assertSame( null, pool.acquire( stationA, resizeable ), "other configuration" );
+		assertSame( window, pool.acquire( stationA, new WindowConfiguration() ), "equal configuration" );
+		assertEquals( 0, pool.getSize(), "size after acquire" );
+		assertSame( null, pool.acquire( stationA, new WindowConfiguration() ), "window already taken" );
+
+		assertEquals( 1, pool.getHits(), "hits" );
+		assertEquals( 4, pool.getMisses(), "misses" );
+		assertEquals( 0, pool.getEvictions(), "evictions" );
+		assertTrue( !destroyed.contains( window ), "reused window destroyed" );
+
+		pool.release( stationA, new WindowConfiguration(), window );
+		pool.clear( stationB );
+		assertEquals( 1, pool.getSize(), "clear other station" );
+		pool.clear( stationA );
+		assertEquals( 0, pool.getSize(), "clear station" );
+		assertTrue( destroyed.contains( window ), "cleared window not destroyed" );
+		assertEquals( 0, pool.getEvictions(), "evictions after clear" );
+
+		pool.resetCounters();
+		assertEquals( 0, pool.getHits(), "hits after reset" );
+		assertEquals( 0, pool.getMisses(), "misses after reset" );
+	}
+
+	private static void checkConfigurations(){
+		ScreenDockStation station = new ScreenDockStation( new NullWindowProvider() );
+		ScreenDockWindowPool pool = new ScreenDockWindowPool( 5, 0 );
+
+		ScreenWindowShape shape = new Shape();
+		WindowConfiguration shaped = new WindowConfiguration();
+		shaped.setShape( shape );
+		ScreenDockWindow window = window();
+		pool.release( station, shaped, window );
+
+		WindowConfiguration otherShape = new WindowConfiguration();
+		otherShape.setShape( new Shape() );
+		assertSame( null, pool.acquire( station, otherShape ), "other shape of the same class" );
+		assertSame( null, pool.acquire( station, new WindowConfiguration() ), "no shape" );
+
+		WindowConfiguration sameShape = new WindowConfiguration();
+		sameShape.setShape( shape );
+		assertSame( window, pool.acquire( station, sameShape ), "same shape" );
+
+		pool.release( station, new NamedConfiguration( "a" ), window );
+		assertSame( null, pool.acquire( station, new WindowConfiguration() ), "subclass" );
+		assertSame( null, pool.acquire( station, new NamedConfiguration( "b" ) ), "other name" );
+		assertSame( window, pool.acquire( station, new NamedConfiguration( "a" ) ), "same name" );
+	}
+
+	private static void checkCapacity(){
+		ScreenDockStation station = new ScreenDockStation( new NullWindowProvider() );
+		ScreenDockWindowPool pool = new ScreenDockWindowPool( 2, 0 );
+
+		ScreenDockWindow first = window();
+		ScreenDockWindow second = window();
+		ScreenDockWindow third = window();
+
+		pool.release( station, new WindowConfiguration(), first );
+		pool.release( station, new WindowConfiguration(), second );
+		pool.release( station, new WindowConfiguration(), third );
+
+		assertEquals( 2, pool.getSize(), "size" );
+		assertEquals( 1, pool.getEvictions(), "evictions" );
+		assertTrue( destroyed.contains( first ), "oldest window not destroyed" );
+		assertSame( third, pool.acquire( station, new WindowConfiguration() ), "newest window first" );
+		assertSame( second, pool.acquire( station, new WindowConfiguration() ), "older window second" );
+
+		ScreenDockWindowPool empty = new ScreenDockWindowPool( 0, 0 );
+		assertTrue( !empty.release( station, new WindowConfiguration(), first ), "pool without capacity" );
+		assertEquals( 0, empty.getEvictions(), "evictions without capacity" );
+	}
+
+	private static void checkIdleTimeout() throws Exception{
+		final ScreenDockStation station = new ScreenDockStation( new NullWindowProvider() );
+		final ScreenDockWindowPool pool = new ScreenDockWindowPool( 5, 50 );
+		final ScreenDockWindow window = window();
+
+		SwingUtilities.invokeAndWait( new Runnable(){
+			public void run(){
+				pool.release( station, new WindowConfiguration(), window );
+			}
+		} );
+
+		long end = System.currentTimeMillis() + 5000;
+		while( pool.getEvictions() == 0 && System.currentTimeMillis() < end ){
+			Thread.sleep( 20 );
+		}
+
+		SwingUtilities.invokeAndWait( new Runnable(){
+			public void run(){
+				assertEquals( 0, pool.getSize(), "size after timeout" );
+				assertEquals( 1, pool.getEvictions(), "evictions after timeout" );
+				assertTrue( destroyed.contains( window ), "old window not destroyed" );
+			}
+		} );
+
+		pool.clear( station );
+	}
+
+	private static ScreenDockWindow window(){
+		return (ScreenDockWindow)Proxy.newProxyInstance( ScreenDockWindow.class.getClassLoader(), new Class<?>[]{ ScreenDockWindow.class }, new InvocationHandler(){
+			public Object invoke( Object proxy, Method method, Object[] args ){
+				String name = method.getName();
+				if( name.equals( "destroy" )){
+					destroyed.add( (ScreenDockWindow)proxy );
+					return null;
+				}
+				if( name.equals( "equals" )){
+					return proxy == args[0];
+				}
+				if( name.equals( "hashCode" )){
+					return System.identityHashCode( proxy );
+				}
+				if( name.equals( "toString" )){
+					return "window@" + System.identityHashCode( proxy );
+				}
+				Class<?> type = method.getReturnType();
+				if( type == boolean.class ){
+					return false;
+				}
+				if( type == int.class ){
+					return 0;
+				}
+				return null;
+			}
+		} );
+	}
+
+	private static void assertTrue( boolean value, String message ){
+		if( !value ){
+			throw new AssertionError( message );
+		}
+	}
+
+	private static void assertEquals( int expected, int actual, String message ){
+		if( expected != actual ){
+			throw new AssertionError( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	private static void assertSame( Object expected, Object actual, String message ){
+		if( expected != actual ){
+			throw new AssertionError( message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	/**
+	 * A shape that only equals itself.
+	 */
+	private static class Shape implements ScreenWindowShape{
+		public void setCallback( ScreenWindowShapeCallback callback ){
+			// ignore
+		}
+
+		public void onResize(){
+			// ignore
+		}
+
+		public void onShown(){
+			// ignore
+		}
+	}
+
+	/**
+	 * A configuration with an additional property.
+	 */
+	private static class NamedConfiguration extends WindowConfiguration{
+		private String name;
+
+		public NamedConfiguration( String name ){
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode(){
+			return super.hashCode() * 31 + name.hashCode();
+		}
+
+		@Override
+		public boolean equals( Object obj ){
+			return super.equals( obj ) && name.equals( ((NamedConfiguration)obj).name );
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package bibliothek.test.stack;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+import javax.swing.plaf.nimbus.NimbusLookAndFeel;
+
+import bibliothek.extension.gui.dock.theme.EclipseTheme;
+import bibliothek.extension.gui.dock.theme.eclipse.stack.EclipseTabPane;
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.DockTheme;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.StackDockStation;
+import bibliothek.gui.dock.event.DockStationAdapter;
+import bibliothek.gui.dock.station.stack.CombinedStackDockComponent;
+import bibliothek.gui.dock.station.stack.DefaultStackDockComponent;
+import bibliothek.gui.dock.station.stack.StackDockComponent;
+import bibliothek.gui.dock.station.stack.StackDockProperty;
+import bibliothek.gui.dock.themes.BasicTheme;
+
+/**
+ * Applies random changes to a {@link StackDockStation} while {@link StackDockStation#DETACH_INACTIVE_CONTENT}
+ * is toggled. The station uses a {@link DefaultStackDockComponent} once, and an {@link EclipseTabPane}, which is a
+ * {@link CombinedStackDockComponent}, once. Tabs are selected, inserted, removed and moved. After each change
+ * the events reported to the {@link bibliothek.gui.dock.event.DockStationListener}s must tell that exactly the
+ * selected child is showing. If content is detached, then the content of inactive tabs must not be part of the
+ * station, while the content of the selected tab must be attached and visible. A detached content must also
+ * follow a change of the {@link javax.swing.LookAndFeel} once it is attached again.
+ */
+public class DetachInactiveContentTest {
+	private Random random;
+	private DockController controller;
+	private StackDockStation station;
+	/** the last showing state that was reported for each child */
+	private Map<Dockable, Boolean> showing = new HashMap<Dockable, Boolean>();
+	/** all the children that were ever added */
+	private List<Dockable> created = new ArrayList<Dockable>();
+	private int step = 0;
+
+	public static void main( String[] args ) throws Exception{
+		DockController.disableCoreWarning();
+		UIManager.setLookAndFeel( new MetalLookAndFeel() );
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				int operations = 0;
+				for( int seed = 0; seed < 20; seed++ ){
+					operations += new DetachInactiveContentTest( seed ).run( new BasicTheme(), DefaultStackDockComponent.class, 200 );
+				}
+				System.out.println( operations + " random changes keep the contents and events of a DefaultStackDockComponent correct" );
+
+				operations = 0;
+				for( int seed = 0; seed < 20; seed++ ){
+					operations += new DetachInactiveContentTest( seed ).run( new EclipseTheme(), EclipseTabPane.class, 200 );
+				}
+				System.out.println( operations + " random changes keep the contents and events of an EclipseTabPane correct" );
+
+				new DetachInactiveContentTest( 0 ).checkLookAndFeel( new BasicTheme() );
+				new DetachInactiveContentTest( 0 ).checkLookAndFeel( new EclipseTheme() );
+				System.out.println( "detached contents follow a change of the LookAndFeel" );
+			}
+		});
+	}
+
+	public DetachInactiveContentTest( int seed ){
+		random = new Random( seed );
+	}
+
+	private void setup( DockTheme theme ){
+		controller = new DockController();
+		controller.setTheme( theme );
+		station = new StackDockStation(){
+			@Override
+			public boolean isStationVisible(){
+				// the station is not shown on screen, but the visibility of its children must still be tracked
+				return true;
+			}
+		};
+		station.addDockStationListener( new DockStationAdapter(){
+			@Override
+			public void dockableShowingChanged( DockStation station, Dockable dockable, boolean visible ){
+				showing.put( dockable, visible );
+			}
+
+			@Override
+			public void dockableRemoved( DockStation station, Dockable dockable ){
+				if( showing.get( dockable ) == Boolean.TRUE ){
+					throw new AssertionError( "step " + step + ", a removed child was still reported to be showing" );
+				}
+				showing.remove( dockable );
+			}
+		});
+		controller.add( station );
+		station.setDetachInactiveContent( true );
+	}
+
+	private int run( DockTheme theme, Class<?> componentType, int operations ){
+		setup( theme );
+		try{
+			for( int i = 0; i < 3; i++ ){
+				station.drop( dockable() );
+			}
+			StackDockComponent component = station.getStackComponent();
+			if( !componentType.isInstance( component ) ){
+				throw new AssertionError( "expected a " + componentType.getSimpleName() + " but got " + component.getClass().getSimpleName() );
+			}
+
+			for( int i = 0; i < operations; i++ ){
+				step++;
+				operation();
+				check();
+			}
+			return operations;
+		}
+		finally{
+			controller.kill();
+		}
+	}
+
+	private Dockable dockable(){
+		DefaultDockable dockable = new DefaultDockable( "dockable " + created.size() );
+		dockable.add( new JLabel( "content " + created.size() ) );
+		created.add( dockable );
+		return dockable;
+	}
+
+	private void operation(){
+		int count = station.getDockableCount();
+		switch( random.nextInt( 8 ) ){
+			case 0:
+				if( count < 12 ){
+					station.drop( dockable(), new StackDockProperty( random.nextInt( count + 1 ) ) );
+				}
+				break;
+			case 1:
+				if( count > 0 ){
+					station.remove( random.nextInt( count ) );
+				}
+				break;
+			case 2:
+			case 3:
+				if( count > 0 ){
+					station.setFrontDockable( station.getDockable( random.nextInt( count ) ) );
+				}
+				break;
+			case 4:
+				if( count > 1 ){
+					Dockable dockable = station.getDockable( random.nextInt( count ) );
+					station.move( dockable, new StackDockProperty( random.nextInt( count ) ) );
+				}
+				break;
+			case 5:
+				// turning the mode off and on again through the station and through the properties
+				if( random.nextBoolean() ){
+					station.setDetachInactiveContent( !station.isDetachInactiveContent() );
+				}
+				else{
+					controller.getProperties().set( StackDockStation.DETACH_INACTIVE_CONTENT, !station.isDetachInactiveContent() );
+					station.setDetachInactiveContent( null );
+				}
+				break;
+			case 6:
+			case 7:
+				if( count == 0 ){
+					station.drop( dockable() );
+				}
+				break;
+		}
+	}
+
+	private void check(){
+		Dockable selected = station.getFrontDockable();
+		boolean detached = station.isDetachInactiveContent();
+		boolean tabbed = station.getDockableCount() > 1;
+		Component root = station.getComponent();
+
+		if( tabbed && detachedMode( station.getStackComponent() ) != detached ){
+			throw new AssertionError( message( "the stack component does not follow the detach property" ) );
+		}
+
+		for( int i = 0, n = station.getDockableCount(); i < n; i++ ){
+			Dockable dockable = station.getDockable( i );
+			boolean expected = dockable == selected;
+
+			Boolean reported = showing.get( dockable );
+			if( reported == null || reported.booleanValue() != expected ){
+				throw new AssertionError( message( dockable.getTitleText() + " reported as showing=" + reported + ", expected " + expected ) );
+			}
+			if( station.isChildShowing( dockable ) != expected ){
+				throw new AssertionError( message( dockable.getTitleText() + " has a wrong showing state" ) );
+			}
+
+			Component content = dockable.getComponent();
+			boolean attached = SwingUtilities.isDescendingFrom( content, root );
+			if( expected ){
+				if( !attached ){
+					throw new AssertionError( message( "the selected content is not attached" ) );
+				}
+				if( !isVisible( content, root ) ){
+					throw new AssertionError( message( "the selected content is not visible" ) );
+				}
+			}
+			else if( detached ){
+				if( attached ){
+					throw new AssertionError( message( "the content of an inactive tab is still attached" ) );
+				}
+				if( top( content ).getParent() != null ){
+					throw new AssertionError( message( "the content of an inactive tab still has a parent" ) );
+				}
+			}
+			else{
+				if( !attached ){
+					throw new AssertionError( message( "the content of an inactive tab is not attached although detaching is off" ) );
+				}
+				if( isVisible( content, root ) ){
+					throw new AssertionError( message( "the content of an inactive tab is visible" ) );
+				}
+			}
+		}
+
+		for( Dockable dockable : created ){
+			if( dockable.getDockParent() != station && showing.containsKey( dockable ) ){
+				throw new AssertionError( message( dockable.getTitleText() + " was removed but its showing state is still known" ) );
+			}
+		}
+	}
+
+	/**
+	 * Changes the {@link javax.swing.LookAndFeel} while the content of a tab is detached, and checks that the
+	 * content is updated once it is attached again.
+	 */
+	private void checkLookAndFeel( DockTheme theme ){
+		setup( theme );
+		try{
+			Dockable first = dockable();
+			Dockable second = dockable();
+			station.drop( first );
+			station.drop( second );
+			station.setFrontDockable( second );
+
+			JLabel label = (JLabel)((DefaultDockable)first).getContentPane().getComponent( 0 );
+			if( SwingUtilities.isDescendingFrom( label, station.getComponent() ) ){
+				throw new AssertionError( "the first content is not detached" );
+			}
+
+			try{
+				UIManager.setLookAndFeel( new NimbusLookAndFeel() );
+				// this is how applications update their components, it does not reach the detached content
+				SwingUtilities.updateComponentTreeUI( station.getComponent() );
+				station.setFrontDockable( first );
+				if( !label.getUI().getClass().getName().contains( "Synth" ) ){
+					throw new AssertionError( "the attached content did not follow the LookAndFeel, its UI is " + label.getUI().getClass().getName() );
+				}
+			}
+			finally{
+				UIManager.setLookAndFeel( new MetalLookAndFeel() );
+			}
+		}
+		catch( javax.swing.UnsupportedLookAndFeelException e ){
+			throw new IllegalStateException( e );
+		}
+		finally{
+			controller.kill();
+		}
+	}
+
+	private boolean detachedMode( StackDockComponent component ){
+		if( component instanceof DefaultStackDockComponent ){
+			return ((DefaultStackDockComponent)component).isDetachInactiveContent();
+		}
+		if( component instanceof CombinedStackDockComponent<?, ?, ?> ){
+			return ((CombinedStackDockComponent<?, ?, ?>)component).isDetachInactiveContent();
+		}
+		throw new AssertionError( "unknown stack component " + component );
+	}
+
+	private Component top( Component component ){
+		while( component.getParent() != null ){
+			component = component.getParent();
+		}
+		return component;
+	}
+
+	/**
+	 * Tells whether <code>component</code> and all its parents up to <code>root</code> are visible.
+	 */
+	private boolean isVisible( Component component, Component root ){
+		while( component != null && component != root ){
+			if( !component.isVisible() ){
+				return false;
+			}
+			component = component.getParent();
+		}
+		return component == root;
+	}
+
+	private String message( String message ){
+		return "step " + step + ", " + message;
+	}
+}
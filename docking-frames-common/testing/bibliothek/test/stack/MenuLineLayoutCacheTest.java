@@ -0,0 +1,426 @@
+package bibliothek.test.stack;
+
+import java.awt.Dimension;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.station.stack.tab.AbstractTabPane;
+import bibliothek.gui.dock.station.stack.tab.LonelyTabPaneComponent;
+import bibliothek.gui.dock.station.stack.tab.MenuLineLayout;
+import bibliothek.gui.dock.station.stack.tab.MenuLineLayoutPane;
+import bibliothek.gui.dock.station.stack.tab.Tab;
+import bibliothek.gui.dock.station.stack.tab.TabMenu;
+import bibliothek.gui.dock.station.stack.tab.TabMenuListener;
+import bibliothek.gui.dock.station.stack.tab.TabPane;
+import bibliothek.gui.dock.station.stack.tab.TabPaneComponent;
+import bibliothek.gui.dock.station.stack.tab.layouting.ComponentLayoutBlock;
+import bibliothek.gui.dock.station.stack.tab.layouting.LayoutBlock;
+import bibliothek.gui.dock.station.stack.tab.layouting.TabPlacement;
+
+/**
+ * Applies the same random changes to two {@link TabPane}s that are layed out by a {@link MenuLineLayout}.
+ * Some of the changes are reported by the panes, others, like the new size of a tab or of the menu, are not.
+ * The first pane uses the cache of its {@link MenuLineLayoutPane}, the cache of the second pane is discarded
+ * before each layout. Both panes must always show the same layout, even if the boundaries of their tabs, menus
+ * and info components were changed by some other code.
+ */
+public class MenuLineLayoutCacheTest {
+	private Random random;
+	/** the pane using its cache */
+	private TestPane cached;
+	/** the pane whose cache is always discarded */
+	private TestPane uncached;
+	/** the sizes of the tabs of both panes */
+	private Map<Dockable, Sizes> tabSizes = new HashMap<Dockable, Sizes>();
+	/** the size of the menus of both panes */
+	private Sizes menuSizes;
+	private int step = 0;
+
+	public static void main( String[] args ){
+		DockController.disableCoreWarning();
+		int operations = 0;
+		for( int seed = 0; seed < 50; seed++ ){
+			operations += new MenuLineLayoutCacheTest( seed ).run( 200 );
+		}
+		System.out.println( operations + " random changes give the same layout with and without the cache" );
+	}
+
+	public MenuLineLayoutCacheTest( int seed ){
+		random = new Random( seed );
+	}
+
+	private int run( int operations ){
+		menuSizes = new Sizes( random );
+		cached = new TestPane();
+		cached.setLayoutManager( new MenuLineLayout() );
+		uncached = new TestPane();
+		uncached.setLayoutManager( new MenuLineLayout() );
+
+		for( int i = 0; i < operations; i++ ){
+			step++;
+			operation();
+			check();
+		}
+		return operations;
+	}
+
+	private void operation(){
+		int count = cached.getDockableCount();
+		switch( random.nextInt( 10 ) ){
+			case 0:
+			case 1:
+				Dockable dockable = new DefaultDockable( "dockable" );
+				tabSizes.put( dockable, new Sizes( random ) );
+				int index = random.nextInt( count+1 );
+				cached.insert( index, dockable );
+				uncached.insert( index, dockable );
+				break;
+			case 2:
+				if( count > 0 ){
+					index = random.nextInt( count );
+					cached.remove( index );
+					uncached.remove( index );
+				}
+				break;
+			case 3:
+				if( count > 0 ){
+					index = random.nextInt( count );
+					cached.setSelectedDockable( cached.getDockable( index ) );
+					uncached.setSelectedDockable( uncached.getDockable( index ) );
+				}
+				break;
+			case 4:
+				if( count > 0 ){
+					// not reported by the panes
+					tabSizes.get( cached.getDockable( random.nextInt( count ) ) ).resize( random );
+				}
+				break;
+			case 5:
+				Rectangle area = new Rectangle( 0, 0, 20 + random.nextInt( 600 ), 20 + random.nextInt( 600 ) );
+				cached.area = area;
+				uncached.area = area;
+				break;
+			case 6:
+				TabPlacement placement = TabPlacement.values()[ random.nextInt( TabPlacement.values().length ) ];
+				cached.setDockTabPlacement( placement );
+				uncached.setDockTabPlacement( placement );
+				break;
+			case 7:
+				// not reported by the panes
+				menuSizes.resize( random );
+				break;
+			case 8:
+				if( cached.getInfoComponent() == null || random.nextInt( 3 ) == 0 ){
+					if( random.nextBoolean() ){
+						Sizes sizes = new Sizes( random );
+						cached.setInfoComponent( new TestInfo( cached, sizes ) );
+						uncached.setInfoComponent( new TestInfo( uncached, sizes ) );
+					}
+					else{
+						cached.setInfoComponent( null );
+						uncached.setInfoComponent( null );
+					}
+				}
+				else{
+					// not reported by the panes
+					((TestComponent)cached.getInfoComponent()).sizes.resize( random );
+				}
+				break;
+			case 9:
+				if( count > 1 ){
+					int source = random.nextInt( count );
+					int destination = random.nextInt( count );
+					cached.move( source, destination );
+					uncached.move( source, destination );
+				}
+				break;
+		}
+	}
+
+	private void check(){
+		layout();
+		assertEquals( snapshot( uncached ), snapshot( cached ), "layout" );
+
+		// boundaries changed by some other code must be corrected
+		scramble( cached );
+		scramble( uncached );
+		layout();
+		assertEquals( snapshot( uncached ), snapshot( cached ), "layout applied again" );
+	}
+
+	private void layout(){
+		cached.doLayout();
+		uncached.invalidateLayout();
+		uncached.doLayout();
+	}
+
+	private void scramble( TestPane pane ){
+		Rectangle bounds = new Rectangle( -5, -5, 1, 1 );
+		for( Tab tab : pane.getTabs() ){
+			tab.setBounds( bounds );
+		}
+		for( TestMenu menu : pane.getMenuList() ){
+			menu.setBounds( bounds );
+		}
+		if( pane.getInfoComponent() != null ){
+			pane.getInfoComponent().setBounds( bounds );
+		}
+		pane.setSelectedBounds( bounds );
+	}
+
+	/**
+	 * Collects the visibility of all the components of <code>pane</code>, and the boundaries of the
+	 * visible components.
+	 * @param pane the pane whose layout is collected
+	 * @return the current layout of <code>pane</code>
+	 */
+	private List<Object> snapshot( TestPane pane ){
+		List<Object> result = new ArrayList<Object>();
+		result.add( pane.getPreferredSize() );
+		result.add( pane.getMinimumSize() );
+		result.add( pane.getSelectedBounds() );
+		for( Dockable dockable : pane.getDockables() ){
+			Tab tab = pane.getOnTab( dockable );
+			if( tab == null ){
+				result.add( null );
+			}
+			else{
+				result.add( tab.isPaneVisible() );
+				if( tab.isPaneVisible() ){
+					result.add( tab.getBounds() );
+				}
+			}
+			result.add( pane.getMenuList().indexOf( pane.getMenu( dockable ) ) );
+		}
+		for( TestMenu menu : pane.getMenuList() ){
+			result.add( menu.isPaneVisible() );
+			if( menu.isPaneVisible() ){
+				result.add( menu.getBounds() );
+			}
+		}
+		if( pane.getInfoComponent() != null ){
+			result.add( pane.getInfoComponent().getBounds() );
+		}
+		return result;
+	}
+
+	private void assertEquals( List<Object> expected, List<Object> actual, String message ){
+		if( !expected.equals( actual )){
+			throw new AssertionError( "step " + step + ", " + message + ": expected " + expected + " but was " + actual );
+		}
+	}
+
+	/**
+	 * The minimum and preferred size of a {@link TestComponent}, can be changed without informing anyone.
+	 */
+	private static class Sizes{
+		private Dimension minimum;
+		private Dimension preferred;
+
+		public Sizes( Random random ){
+			resize( random );
+		}
+
+		public void resize( Random random ){
+			minimum = new Dimension( 5 + random.nextInt( 20 ), 5 + random.nextInt( 20 ) );
+			preferred = new Dimension( minimum.width + random.nextInt( 80 ), minimum.height + random.nextInt( 20 ) );
+		}
+	}
+
+	/**
+	 * A {@link TabPane} whose components have the sizes chosen by the test, and which does not update its
+	 * layout on its own.
+	 */
+	private class TestPane extends AbstractTabPane<TestTab, TestMenu, TestInfo>{
+		private Rectangle area = new Rectangle( 0, 0, 300, 200 );
+		private Rectangle selectedBounds = new Rectangle();
+
+		@Override
+		public void revalidate(){
+			// the test calls doLayout
+		}
+
+		public Dimension getMinimumSize( Dockable dockable ){
+			return new Dimension( 10, 10 );
+		}
+
+		public Dimension getPreferredSize( Dockable dockable ){
+			return new Dimension( 50, 40 );
+		}
+
+		public Rectangle getAvailableArea(){
+			return new Rectangle( area );
+		}
+
+		public Rectangle getSelectedBounds(){
+			return new Rectangle( selectedBounds );
+		}
+
+		public void setSelectedBounds( Rectangle bounds ){
+			selectedBounds = new Rectangle( bounds );
+		}
+
+		@Override
+		protected TestTab newTab( Dockable dockable ){
+			return new TestTab( this, dockable, tabSizes.get( dockable ) );
+		}
+
+		@Override
+		public TestMenu newMenu(){
+			return new TestMenu( this, menuSizes );
+		}
+
+		@Override
+		protected void addToMenu( TestMenu menu, Dockable dockable ){
+			menu.dockables.add( dockable );
+		}
+
+		@Override
+		protected void removeFromMenu( TestMenu menu, Dockable dockable ){
+			menu.dockables.remove( dockable );
+		}
+
+		@Override
+		protected void tabRemoved( TestTab tab ){
+			// ignore
+		}
+
+		@Override
+		protected void menuRemoved( TestMenu menu ){
+			// ignore
+		}
+	}
+
+	/**
+	 * A {@link TabPaneComponent} whose size is stored in a {@link Sizes}.
+	 */
+	private static class TestComponent implements TabPaneComponent{
+		private TabPane parent;
+		private Sizes sizes;
+		private Rectangle bounds = new Rectangle();
+		private boolean visible = false;
+		private int zOrder = 0;
+
+		public TestComponent( TabPane parent, Sizes sizes ){
+			this.parent = parent;
+			this.sizes = sizes;
+		}
+
+		public TabPane getTabParent(){
+			return parent;
+		}
+
+		public Rectangle getBounds(){
+			return new Rectangle( bounds );
+		}
+
+		public void setBounds( Rectangle bounds ){
+			this.bounds = new Rectangle( bounds );
+		}
+
+		public void setZOrder( int order ){
+			zOrder = order;
+		}
+
+		public int getZOrder(){
+			return zOrder;
+		}
+
+		public Insets getOverlap( TabPaneComponent other ){
+			return new Insets( 0, 0, 0, 0 );
+		}
+
+		public Dimension getMinimumSize(){
+			return new Dimension( sizes.minimum );
+		}
+
+		public Dimension getPreferredSize(){
+			return new Dimension( sizes.preferred );
+		}
+
+		public Dimension getMaximumSize(){
+			return new Dimension( sizes.preferred );
+		}
+
+		public void setPaneVisible( boolean visible ){
+			this.visible = visible;
+		}
+
+		public boolean isPaneVisible(){
+			return visible;
+		}
+
+		public void setOrientation( TabPlacement orientation ){
+			// ignore
+		}
+	}
+
+	private static class TestTab extends TestComponent implements Tab{
+		private Dockable dockable;
+
+		public TestTab( TabPane parent, Dockable dockable, Sizes sizes ){
+			super( parent, sizes );
+			this.dockable = dockable;
+		}
+
+		public Dockable getDockable(){
+			return dockable;
+		}
+
+		public Dimension getMinimumSize( Tab[] tabs ){
+			return getMinimumSize();
+		}
+
+		public Dimension getPreferredSize( Tab[] tabs ){
+			return getPreferredSize();
+		}
+	}
+
+	private static class TestMenu extends TestComponent implements TabMenu{
+		private List<Dockable> dockables = new ArrayList<Dockable>();
+
+		public TestMenu( TabPane parent, Sizes sizes ){
+			super( parent, sizes );
+		}
+
+		public Dockable[] getDockables(){
+			return dockables.toArray( new Dockable[ dockables.size() ] );
+		}
+
+		public Dockable getDockable( int index ){
+			return dockables.get( index );
+		}
+
+		public int getDockableCount(){
+			return dockables.size();
+		}
+
+		public void addTabMenuListener( TabMenuListener listener ){
+			// ignore
+		}
+
+		public void removeTabMenuListener( TabMenuListener listener ){
+			// ignore
+		}
+	}
+
+	private static class TestInfo extends TestComponent implements LonelyTabPaneComponent{
+		public TestInfo( TabPane parent, Sizes sizes ){
+			super( parent, sizes );
+		}
+
+		public LayoutBlock toLayoutBlock(){
+			ComponentLayoutBlock<TestInfo> block = new ComponentLayoutBlock<TestInfo>();
+			block.setComponent( this );
+			return block;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package bibliothek.test.util;
+
+import bibliothek.gui.dock.util.Priority;
+import bibliothek.gui.dock.util.UIBridge;
+import bibliothek.gui.dock.util.UIProperties;
+import bibliothek.gui.dock.util.UIValue;
+import bibliothek.util.Path;
+
+/**
+ * Checks which {@link UIValue}s are informed by an {@link UIProperties} when resources and bridges change.
+ * Only the values observing a changed resource, or using a changed bridge or a bridge of a parent path,
+ * must be informed. A transaction must inform each affected value exactly once when the outermost
+ * transaction ends, while {@link UIProperties#lockUpdate()} still informs all the values. Values that
+ * were removed must not be informed at all.
+ */
+public class UIPropertiesTest {
+	private static final Path BASE = new Path( "base" );
+	private static final Path CHILD = new Path( "base", "child" );
+	private static final Path OTHER = new Path( "other" );
+
+	public static void main( String[] args ){
+		checkPut();
+		System.out.println( "a resource informs only the values observing it" );
+
+		checkBridge();
+		System.out.println( "a bridge informs only the values using its path or a child path" );
+
+		checkTransaction();
+		System.out.println( "a transaction informs each affected value once when it ends" );
+
+		checkLock();
+		System.out.println( "lockUpdate informs all the values" );
+
+		checkRemove();
+		System.out.println( "removed values are not informed" );
+	}
+
+	private static void checkPut(){
+		UIProperties<String, Counter, Suffix> properties = new UIProperties<String, Counter, Suffix>( null );
+		Counter a = add( properties, "a", BASE );
+		Counter b = add( properties, "b", BASE );
+		Counter other = add( properties, "a", OTHER );
+
+		properties.put( Priority.CLIENT, "a", "1" );
+		assertCount( a, 1, "1" );
+		assertCount( other, 1, "1" );
+		assertCount( b, 0, null );
+
+		properties.put( Priority.CLIENT, "b", "2" );
+		assertCount( a, 1, "1" );
+		assertCount( b, 1, "2" );
+	}
+
+	private static void checkBridge(){
+		UIProperties<String, Counter, Suffix> properties = new UIProperties<String, Counter, Suffix>( null );
+		properties.put( Priority.CLIENT, "a", "1" );
+		Counter base = add( properties, "a", BASE );
+		Counter child = add( properties, "a", CHILD );
+		Counter other = add( properties, "a", OTHER );
+
+		properties.publish( Priority.CLIENT, BASE, new Suffix( "!" ) );
+		assertCount( base, 1, "1!" );
+		assertCount( child, 1, "1!" );
+		assertCount( other, 0, "1" );
+
+		properties.publish( Priority.CLIENT, CHILD, new Suffix( "?" ) );
+		assertCount( base, 1, "1!" );
+		assertCount( child, 2, "1?" );
+		assertCount( other, 0, "1" );
+
+		properties.unpublish( Priority.CLIENT, BASE );
+		assertCount( base, 2, "1" );
+		assertCount( child, 2, "1?" );
+		assertCount( other, 0, "1" );
+	}
+
+	private static void checkTransaction(){
+		UIProperties<String, Counter, Suffix> properties = new UIProperties<String, Counter, Suffix>( null );
+		Counter a = add( properties, "a", BASE );
+		Counter b = add( properties, "b", CHILD );
+		Counter c = add( properties, "c", OTHER );
+
+		properties.beginTransaction();
+		properties.put( Priority.CLIENT, "a", "1" );
+		properties.put( Priority.CLIENT, "a", "2" );
+		properties.beginTransaction();
+		properties.put( Priority.CLIENT, "b", "3" );
+		properties.publish( Priority.CLIENT, BASE, new Suffix( "!" ) );
+		properties.endTransaction();
+
+		assertCount( a, 0, null );
+		assertCount( b, 0, null );
+		assertCount( c, 0, null );
+
+		properties.endTransaction();
+		assertCount( a, 1, "2!" );
+		assertCount( b, 1, "3!" );
+		assertCount( c, 0, null );
+	}
+
+	private static void checkLock(){
+		UIProperties<String, Counter, Suffix> properties = new UIProperties<String, Counter, Suffix>( null );
+		Counter a = add( properties, "a", BASE );
+		Counter b = add( properties, "b", OTHER );
+
+		properties.lockUpdate();
+		properties.put( Priority.CLIENT, "a", "1" );
+		assertCount( a, 0, null );
+		properties.unlockUpdate();
+
+		assertCount( a, 1, "1" );
+		assertCount( b, 1, null );
+	}
+
+	private static void checkRemove(){
+		UIProperties<String, Counter, Suffix> properties = new UIProperties<String, Counter, Suffix>( null );
+		Counter a = add( properties, "a", BASE );
+		Counter b = add( properties, "a", BASE );
+
+		properties.remove( a );
+		properties.put( Priority.CLIENT, "a", "1" );
+		properties.publish( Priority.CLIENT, BASE, new Suffix( "!" ) );
+		assertCount( a, 0, null );
+		assertCount( b, 2, "1!" );
+
+		if( !properties.isObserved( "a" ) ){
+			throw new AssertionError( "resource a is no longer observed although b observes it" );
+		}
+		properties.remove( b );
+		if( properties.isObserved( "a" ) ){
+			throw new AssertionError( "resource a is still observed after all its values were removed" );
+		}
+	}
+
+	/**
+	 * Adds a new {@link Counter} to <code>properties</code>, the update caused by adding
+	 * the counter is not counted.
+	 */
+	private static Counter add( UIProperties<String, Counter, Suffix> properties, String id, Path path ){
+		Counter counter = new Counter();
+		properties.add( id, path, counter );
+		counter.count = 0;
+		return counter;
+	}
+
+	private static void assertCount( Counter counter, int count, String value ){
+		if( counter.count != count ){
+			throw new AssertionError( "expected " + count + " updates but got " + counter.count );
+		}
+		if( value == null ? counter.value != null : !value.equals( counter.value ) ){
+			throw new AssertionError( "expected value " + value + " but got " + counter.value );
+		}
+	}
+
+	/**
+	 * Counts how often it was informed about a new value.
+	 */
+	private static class Counter implements UIValue<String>{
+		private int count;
+		private String value;
+
+		public void set( String value ){
+			this.value = value;
+			count++;
+		}
+	}
+
+	/**
+	 * Appends a suffix to each value.
+	 */
+	private static class Suffix implements UIBridge<String, Counter>{
+		private String suffix;
+
+		public Suffix( String suffix ){
+			this.suffix = suffix;
+		}
+
+		public void add( String id, Counter uiValue ){
+			// ignore
+		}
+
+		public void remove( String id, Counter uiValue ){
+			// ignore
+		}
+
+		public void set( String id, String value, Counter uiValue ){
+			uiValue.set( value == null ? null : value + suffix );
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package bibliothek.test.workspace;
+
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.CGrid;
+import bibliothek.gui.dock.common.CGridArea;
+import bibliothek.gui.dock.common.CLocation;
+import bibliothek.gui.dock.common.CMinimizeArea;
+import bibliothek.gui.dock.common.CWorkingArea;
+import bibliothek.gui.dock.common.DefaultMultipleCDockable;
+import bibliothek.gui.dock.common.DefaultSingleCDockable;
+import bibliothek.gui.dock.common.EmptyMultipleCDockableFactory;
+import bibliothek.gui.dock.common.intern.CDockable;
+
+/**
+ * A workspace created by a {@link WorkspaceGenerator}. The workspace is built in several steps, each step
+ * can be executed (and measured) on its own: {@link #register()}, {@link #deploy()}, {@link #distribute()} and
+ * {@link #churn(int)}.
+ */
+public class GeneratedWorkspace {
+	public static final String FACTORY_ID = "generated";
+
+	private WorkspaceGenerator generator;
+	private Random random;
+	private CControl control;
+	private CGridArea root;
+	private List<CWorkingArea> workingAreas = new ArrayList<CWorkingArea>();
+	private CMinimizeArea minimizeArea;
+	private Factory factory = new Factory();
+
+	private List<DefaultSingleCDockable> singles = new ArrayList<DefaultSingleCDockable>();
+	private List<DefaultMultipleCDockable> multiples = new ArrayList<DefaultMultipleCDockable>();
+	private int nextMultiple = 0;
+
+	GeneratedWorkspace( WorkspaceGenerator generator ){
+		this.generator = generator;
+		random = new Random( generator.getSeed() );
+
+		control = new CControl();
+		control.addMultipleDockableFactory( FACTORY_ID, factory );
+		root = control.createGridArea( "root" );
+		for( int i = 1; i < generator.getDepth(); i++ ){
+			workingAreas.add( control.createWorkingArea( "work" + i ) );
+		}
+		if( !GraphicsEnvironment.isHeadless() ){
+			minimizeArea = control.createMinimizeArea( "minimize" );
+		}
+	}
+
+	public CControl getControl(){
+		return control;
+	}
+
+	public CGridArea getRootArea(){
+		return root;
+	}
+
+	public List<CWorkingArea> getWorkingAreas(){
+		return Collections.unmodifiableList( workingAreas );
+	}
+
+	/**
+	 * Gets the area which shows the minimized dockables.
+	 * @return the area, <code>null</code> in headless mode
+	 */
+	public CMinimizeArea getMinimizeArea(){
+		return minimizeArea;
+	}
+
+	/**
+	 * Gets all the dockables of this workspace, the single dockables first.
+	 * @return all the dockables
+	 */
+	public List<CDockable> getDockables(){
+		List<CDockable> result = new ArrayList<CDockable>( singles.size() + multiples.size() );
+		result.addAll( singles );
+		result.addAll( multiples );
+		return result;
+	}
+
+	/**
+	 * Creates all the dockables and adds them to the {@link CControl}, the dockables remain invisible.
+	 */
+	public void register(){
+		List<CDockable> dockables = new ArrayList<CDockable>();
+		for( int i = 0; i < generator.getSingleDockables(); i++ ){
+			DefaultSingleCDockable dockable = new DefaultSingleCDockable( "single" + i, "Single " + i );
+			singles.add( dockable );
+			dockables.add( dockable );
+		}
+		control.addDockables( dockables );
+
+		for( int i = 0; i < generator.getMultipleDockables(); i++ ){
+			multiples.add( control.addDockable( "multiple" + (nextMultiple++), createMultiple() ));
+		}
+	}
+
+	/**
+	 * Puts all dockables into grids and deploys the grids on the root area and on the nested
+	 * working areas. Every third cell gets a stack of two dockables.
+	 */
+	public void deploy(){
+		List<CDockable> dockables = getDockables();
+		int depth = generator.getDepth();
+
+		List<List<CDockable>> levels = new ArrayList<List<CDockable>>( depth );
+		for( int i = 0; i < depth; i++ ){
+			levels.add( new ArrayList<CDockable>() );
+		}
+		for( int i = 0, n = dockables.size(); i < n; i++ ){
+			levels.get( i % depth ).add( dockables.get( i ) );
+		}
+
+		for( int i = 0; i < depth; i++ ){
+			CGrid grid = createGrid( levels.get( i ) );
+			if( i + 1 < depth ){
+				// the next working area gets its own column, it cannot be stacked
+				int columns = columns( levels.get( i ).size() );
+				grid.add( columns, 0, 1, columns, workingAreas.get( i ) );
+			}
+			if( i == 0 ){
+				root.deploy( grid );
+			}
+			else{
+				workingAreas.get( i - 1 ).deploy( grid );
+			}
+		}
+	}
+
+	private CGrid createGrid( List<CDockable> dockables ){
+		CGrid grid = new CGrid( control );
+		int columns = columns( dockables.size() );
+		int cell = 0;
+		boolean stacked = false;
+		for( CDockable dockable : dockables ){
+			grid.add( cell % columns, cell / columns, 1, 1, dockable );
+			if( cell % 3 == 0 && !stacked ){
+				stacked = true;
+			}
+			else{
+				stacked = false;
+				cell++;
+			}
+		}
+		return grid;
+	}
+
+	private int columns( int dockables ){
+		return Math.max( 1, (int)Math.ceil( Math.sqrt( dockables ) ) );
+	}
+
+	/**
+	 * Moves some of the dockables to the minimize area and, if not in headless mode, to the
+	 * externalize area.
+	 */
+	public void distribute(){
+		List<CDockable> dockables = getDockables();
+		int minimized = (int)(dockables.size() * generator.getMinimized());
+		int externalized = (int)(dockables.size() * generator.getExternalized());
+
+		for( int i = 0; i < minimized + externalized; i++ ){
+			CDockable dockable = dockables.get( random.nextInt( dockables.size() ) );
+			if( i < minimized ){
+				dockable.setLocation( minimizeArea.getStationLocation() );
+			}
+			else{
+				dockable.setLocation( CLocation.external( 20 * (i % 20), 20 * (i % 20), 300, 200 ) );
+			}
+		}
+	}
+
+	/**
+	 * Makes <code>rounds</code> random changes. A change either hides and shows a single dockable, or
+	 * replaces a multiple dockable by a new dockable. Each change leaves a placeholder in the layout.
+	 * @param rounds the number of changes
+	 */
+	public void churn( int rounds ){
+		for( int i = 0; i < rounds; i++ ){
+			if( multiples.isEmpty() || (random.nextBoolean() && !singles.isEmpty()) ){
+				DefaultSingleCDockable dockable = singles.get( random.nextInt( singles.size() ) );
+				if( dockable.isVisible() ){
+					dockable.setVisible( false );
+					dockable.setVisible( true );
+				}
+			}
+			else{
+				int index = random.nextInt( multiples.size() );
+				DefaultMultipleCDockable old = multiples.get( index );
+				CDockable neighbour = old.isVisible() ? old : null;
+				DefaultMultipleCDockable replacement = control.addDockable( "multiple" + (nextMultiple++), createMultiple() );
+				if( neighbour != null ){
+					replacement.setWorkingArea( neighbour.getWorkingArea() );
+					replacement.setLocationsAside( neighbour );
+					replacement.setVisible( true );
+				}
+				control.removeDockable( old );
+				multiples.set( index, replacement );
+			}
+		}
+	}
+
+	/**
+	 * Destroys the {@link CControl} of this workspace.
+	 */
+	public void destroy(){
+		control.destroy();
+	}
+
+	private DefaultMultipleCDockable createMultiple(){
+		DefaultMultipleCDockable dockable = new DefaultMultipleCDockable( factory );
+		dockable.setTitleText( "Multiple " + nextMultiple );
+		dockable.setRemoveOnClose( true );
+		return dockable;
+	}
+
+	private class Factory extends EmptyMultipleCDockableFactory<DefaultMultipleCDockable>{
+		@Override
+		public DefaultMultipleCDockable createDockable(){
+			return createMultiple();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package bibliothek.test.workspace;
+
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import bibliothek.gui.Dockable;
+import bibliothek.gui.DockController;
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.intern.CDockable;
+import bibliothek.gui.dock.common.mode.ExtendedMode;
+import bibliothek.util.xml.XElement;
+
+/**
+ * Measures how the cost of the most important operations of a {@link CControl} grows with the number
+ * of dockables. For each size a {@link GeneratedWorkspace} is built and the time needed to register the
+ * dockables, to apply the layout, to save and load the layout, to maximize and normalize a dockable and
+ * to switch the focus is measured.<br>
+ * Between two sizes an operation may not grow faster than <code>n^limit</code>, otherwise an {@link AssertionError}
+ * is thrown. The sizes are given as arguments, the limit can be set with the system property
+ * <code>scaling.limit</code>, the default is 1.5.
+ */
+public class ScalingHarness {
+	/** the names of the measured operations */
+	private static final String[] OPERATIONS = { "register", "layout", "save", "load", "maximize", "focus" };
+
+	/** durations below this value are rounded up, otherwise noise would dominate the small sizes */
+	private static final long MIN_NANOS = 10 * 1000000L;
+
+	/** how often the short operations are repeated */
+	private static final int REPEAT = 10;
+
+	public static void main( String[] args ) throws Exception{
+		int[] sizes;
+		if( args.length == 0 ){
+			sizes = new int[]{ 10, 100, 1000, 10000 };
+		}
+		else{
+			sizes = new int[ args.length ];
+			for( int i = 0; i < args.length; i++ ){
+				sizes[i] = Integer.parseInt( args[i] );
+			}
+		}
+		double limit = Double.parseDouble( System.getProperty( "scaling.limit", "1.5" ) );
+
+		DockController.disableCoreWarning();
+
+		// warm up
+		measure( 50 );
+
+		List<long[]> results = new ArrayList<long[]>();
+		System.out.print( pad( "n", 8 ) );
+		for( String operation : OPERATIONS ){
+			System.out.print( pad( operation, 12 ) );
+		}
+		System.out.println();
+
+		for( int size : sizes ){
+			long[] result = measure( size );
+			results.add( result );
+			System.out.print( pad( String.valueOf( size ), 8 ) );
+			for( long nanos : result ){
+				System.out.print( pad( String.format( "%.2f ms", nanos / 1000000.0 ), 12 ) );
+			}
+			System.out.println();
+		}
+
+		List<String> failures = new ArrayList<String>();
+		for( int i = 1; i < sizes.length; i++ ){
+			for( int j = 0; j < OPERATIONS.length; j++ ){
+				double exponent = exponent( sizes[i-1], results.get( i-1 )[j], sizes[i], results.get( i )[j] );
+				if( exponent > limit ){
+					failures.add( OPERATIONS[j] + " from " + sizes[i-1] + " to " + sizes[i] + ": n^" + String.format( "%.2f", exponent ) );
+				}
+			}
+		}
+
+		if( !failures.isEmpty() ){
+			throw new AssertionError( "superlinear scaling (limit n^" + limit + "): " + failures );
+		}
+		System.out.println( "all operations scale with at most n^" + limit );
+		System.exit( 0 );
+	}
+
+	/**
+	 * Builds a workspace with <code>size</code> dockables and measures all operations.
+	 * @param size the number of dockables
+	 * @return the time each operation required, in nanoseconds
+	 */
+	private static long[] measure( final int size ) throws InterruptedException, InvocationTargetException{
+		final long[] result = new long[ OPERATIONS.length ];
+		EventQueue.invokeAndWait( new Runnable(){
+			public void run(){
+				WorkspaceGenerator generator = WorkspaceGenerator.mixed( size );
+				GeneratedWorkspace workspace = generator.create();
+				try{
+					long time = System.nanoTime();
+					workspace.register();
+					result[0] = System.nanoTime() - time;
+
+					time = System.nanoTime();
+					workspace.deploy();
+					workspace.distribute();
+					result[1] = System.nanoTime() - time;
+
+					workspace.churn( generator.getChurn() );
+					CControl control = workspace.getControl();
+
+					time = System.nanoTime();
+					XElement root = new XElement( "root" );
+					control.writeXML( root );
+					result[2] = System.nanoTime() - time;
+
+					time = System.nanoTime();
+					control.readXML( root );
+					result[3] = System.nanoTime() - time;
+
+					List<CDockable> visible = new ArrayList<CDockable>();
+					for( CDockable dockable : workspace.getDockables() ){
+						if( dockable.isVisible() && dockable.getExtendedMode() == ExtendedMode.NORMALIZED ){
+							visible.add( dockable );
+						}
+					}
+
+					time = System.nanoTime();
+					for( int i = 0; i < REPEAT && i < visible.size(); i++ ){
+						CDockable dockable = visible.get( i * visible.size() / REPEAT );
+						dockable.setExtendedMode( ExtendedMode.MAXIMIZED );
+						dockable.setExtendedMode( ExtendedMode.NORMALIZED );
+					}
+					result[4] = System.nanoTime() - time;
+
+					DockController controller = control.getController();
+					time = System.nanoTime();
+					for( int i = 0; i < REPEAT && i < visible.size(); i++ ){
+						Dockable dockable = visible.get( (i * 7 % REPEAT) * visible.size() / REPEAT ).intern();
+						controller.setFocusedDockable( dockable, true );
+					}
+					result[5] = System.nanoTime() - time;
+				}
+				finally{
+					workspace.destroy();
+				}
+			}
+		});
+		return result;
+	}
+
+	private static double exponent( int n1, long t1, int n2, long t2 ){
+		t1 = Math.max( t1, MIN_NANOS );
+		t2 = Math.max( t2, MIN_NANOS );
+		return Math.log( t2 / (double)t1 ) / Math.log( n2 / (double)n1 );
+	}
+
+	private static String pad( String text, int length ){
+		StringBuilder builder = new StringBuilder( text );
+		while( builder.length() < length ){
+			builder.append( ' ' );
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,155 @@
+package bibliothek.test.workspace;
+
+import java.awt.GraphicsEnvironment;
+
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.CGridArea;
+import bibliothek.gui.dock.common.CWorkingArea;
+
+/**
+ * Describes a synthetic workspace with many single and multiple dockables, and creates
+ * {@link GeneratedWorkspace}s that follow this description. The dockables are distributed on a
+ * {@link CGridArea} and on a chain of nested {@link CWorkingArea}s, some of them are minimized or
+ * externalized. The generator does not need a content area, hence it can be used in headless
+ * mode, where minimized and externalized dockables are not supported.<br>
+ * All methods of the generated workspaces should be called from the EDT.
+ */
+public class WorkspaceGenerator {
+	private int singleDockables = 10;
+	private int multipleDockables = 0;
+	private int depth = 1;
+	private double minimized = 0.0;
+	private double externalized = 0.0;
+	private int churn = 0;
+	private long seed = 42;
+
+	public WorkspaceGenerator(){
+		// nothing
+	}
+
+	/**
+	 * Creates a generator with <code>dockables</code> elements of which a quarter are multiple dockables,
+	 * two levels of nesting and a few minimized and externalized dockables.
+	 * @param dockables the total number of dockables
+	 * @return the new generator
+	 */
+	public static WorkspaceGenerator mixed( int dockables ){
+		WorkspaceGenerator generator = new WorkspaceGenerator();
+		generator.setMultipleDockables( dockables / 4 );
+		generator.setSingleDockables( dockables - dockables / 4 );
+		generator.setDepth( 2 );
+		generator.setMinimized( 0.05 );
+		generator.setExternalized( 0.02 );
+		generator.setChurn( dockables / 2 );
+		return generator;
+	}
+
+	public void setSingleDockables( int singleDockables ){
+		this.singleDockables = singleDockables;
+	}
+
+	public int getSingleDockables(){
+		return singleDockables;
+	}
+
+	public void setMultipleDockables( int multipleDockables ){
+		this.multipleDockables = multipleDockables;
+	}
+
+	public int getMultipleDockables(){
+		return multipleDockables;
+	}
+
+	/**
+	 * Sets the number of nested areas, a depth of 1 means that all dockables are on one {@link CGridArea},
+	 * each additional level adds a {@link CWorkingArea} to the previous level.
+	 * @param depth the nesting depth, at least 1
+	 */
+	public void setDepth( int depth ){
+		if( depth < 1 ){
+			throw new IllegalArgumentException( "depth must be at least 1: " + depth );
+		}
+		this.depth = depth;
+	}
+
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Sets the ratio of dockables that are minimized. This property is ignored in headless mode.
+	 * @param minimized a value between 0 and 1
+	 */
+	public void setMinimized( double minimized ){
+		this.minimized = minimized;
+	}
+
+	public double getMinimized(){
+		if( GraphicsEnvironment.isHeadless() ){
+			return 0.0;
+		}
+		return minimized;
+	}
+
+	/**
+	 * Sets the ratio of dockables that are externalized. This property is ignored in headless mode.
+	 * @param externalized a value between 0 and 1
+	 */
+	public void setExternalized( double externalized ){
+		this.externalized = externalized;
+	}
+
+	public double getExternalized(){
+		if( GraphicsEnvironment.isHeadless() ){
+			return 0.0;
+		}
+		return externalized;
+	}
+
+	/**
+	 * Sets how many random changes are made after the workspace was built. Each change either hides and shows
+	 * a single dockable, or replaces a multiple dockable by a new one. Both leave placeholders behind.
+	 * @param churn the number of changes
+	 */
+	public void setChurn( int churn ){
+		this.churn = churn;
+	}
+
+	public int getChurn(){
+		return churn;
+	}
+
+	/**
+	 * Sets the seed of the random number generator, generators with the same properties and the same
+	 * seed create equal workspaces.
+	 * @param seed the seed
+	 */
+	public void setSeed( long seed ){
+		this.seed = seed;
+	}
+
+	public long getSeed(){
+		return seed;
+	}
+
+	/**
+	 * Creates a new {@link CControl} and the areas of a workspace, but does not yet add any dockable.
+	 * @return the new workspace
+	 */
+	public GeneratedWorkspace create(){
+		return new GeneratedWorkspace( this );
+	}
+
+	/**
+	 * Creates a new workspace and executes all the steps to fill it.
+	 * @return the new workspace
+	 */
+	public GeneratedWorkspace generate(){
+		GeneratedWorkspace workspace = create();
+		workspace.register();
+		workspace.deploy();
+		workspace.distribute();
+		workspace.churn( churn );
+		return workspace;
+	}
+}
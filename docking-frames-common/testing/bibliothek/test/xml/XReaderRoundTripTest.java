@@ -0,0 +1,156 @@
+package bibliothek.test.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import javax.xml.stream.XMLStreamException;
+
+import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XIO;
+import bibliothek.util.xml.XReader;
+import bibliothek.util.xml.XWriter;
+
+/**
+ * Writes random trees of {@link XElement}s with {@link XIO} and with {@link XWriter}, both must
+ * produce the same text. The text is then read with {@link XIO} and with {@link XReader}, both
+ * must produce the same trees. Afterwards the indices of {@link XElement} are checked while elements and attributes
+ * are renamed.
+ */
+public class XReaderRoundTripTest {
+	private static final String[] NAMES = { "a", "b", "layout", "entry", "placeholder", "x" };
+	private static final String[] VALUES = { "", "value", "1234", "a < b & c > d", "'quoted' \"twice\"", "\u00e4\u00f6\u00fc \u20ac", "  padded  " };
+	
+	public static void main( String[] args ) throws IOException{
+		Random random = new Random( 42 );
+		
+		for( int i = 0; i < 500; i++ ){
+			check( random( random, 0 ), "tree " + i );
+		}
+		
+		System.out.println( "500 trees read and written identically" );
+		
+		checkRenames();
+		System.out.println( "indices follow renamed elements and attributes" );
+		
+		checkMalformed();
+		System.out.println( "errors of the parser are kept as cause" );
+	}
+	
+	private static XElement random( Random random, int depth ){
+		XElement element = new XElement( NAMES[ random.nextInt( NAMES.length )] );
+		int attributes = random.nextInt( 12 );
+		for( int i = 0; i < attributes; i++ ){
+			element.addString( "attr" + i, VALUES[ random.nextInt( VALUES.length )] );
+		}
+		if( depth < 4 ){
+			int children = random.nextInt( depth == 0 ? 12 : 6 );
+			for( int i = 0; i < children; i++ ){
+				element.addElement( random( random, depth+1 ) );
+			}
+		}
+		if( element.children().length == 0 && random.nextBoolean() ){
+			element.setString( VALUES[ random.nextInt( VALUES.length )].trim() );
+		}
+		return element;
+	}
+	
+	private static void check( XElement element, String name ) throws IOException{
+		StringBuilder xio = new StringBuilder();
+		XIO.write( element, xio );
+		
+		StringBuilder streamed = new StringBuilder();
+		XWriter writer = new XWriter( streamed );
+		writer.element( element );
+		writer.finish();
+		
+		if( !xio.toString().equals( streamed.toString() )){
+			throw new AssertionError( name + ": XWriter differs from XIO\n" + xio + "\n" + streamed );
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		XIO.writeUTF( element, out );
+		byte[] bytes = out.toByteArray();
+		
+		XElement readXIO = XIO.readUTF( new ByteArrayInputStream( bytes ) );
+		
+		XReader reader = new XReader( new ByteArrayInputStream( bytes ), "UTF-8" );
+		if( !reader.nextElement() ){
+			throw new AssertionError( name + ": XReader found no root" );
+		}
+		XElement readStreamed = reader.readElement();
+		if( reader.nextElement() ){
+			throw new AssertionError( name + ": XReader found a second root" );
+		}
+		reader.close();
+		
+		String expected = toString( readXIO );
+		if( !expected.equals( toString( readStreamed ))){
+			throw new AssertionError( name + ": XReader differs from XIO\n" + expected + "\n" + toString( readStreamed ) );
+		}
+	}
+	
+	private static void checkRenames(){
+		XElement root = new XElement( "root" );
+		for( int i = 0; i < 10; i++ ){
+			root.addElement( "child" + i );
+			root.addInt( "attr" + i, i );
+		}
+		XElement other = new XElement( "other" );
+		for( int i = 0; i < 10; i++ ){
+			other.addElement( "child" + i );
+		}
+		
+		// build the indices
+		assertSame( root.getElement( "child3" ), root.children()[3] );
+		assertSame( root.getAttribute( "attr3" ), root.attributes()[3] );
+		assertSame( other.getElement( "child3" ), other.children()[3] );
+		
+		XElement child = root.getElement( "child3" );
+		child.setName( "renamed" );
+		assertSame( root.getElement( "child3" ), null );
+		assertSame( root.getElement( "renamed" ), child );
+		
+		root.getAttribute( "attr4" ).setName( "attr" );
+		assertSame( root.getAttribute( "attr4" ), null );
+		assertSame( root.getAttribute( "attr" ), root.attributes()[4] );
+		
+		// renaming a child of root does not concern other
+		assertSame( other.getElement( "child3" ), other.children()[3] );
+		
+		root.removeElement( child );
+		child.setName( "child5" );
+		assertSame( root.getElement( "child5" ), root.children()[4] );
+		if( root.getElements( "child5" ).length != 1 ){
+			throw new AssertionError( "removed element still indexed" );
+		}
+	}
+	
+	private static void checkMalformed() throws IOException{
+		XReader reader = new XReader( new StringReader( "<root><a></b></root>" ) );
+		try{
+			reader.nextElement();
+			reader.readElement();
+			throw new AssertionError( "malformed document was read" );
+		}
+		catch( IOException e ){
+			if( !(e.getCause() instanceof XMLStreamException) ){
+				throw new AssertionError( "cause missing: " + e.getCause() );
+			}
+		}
+	}
+	
+	private static void assertSame( Object actual, Object expected ){
+		if( actual != expected ){
+			throw new AssertionError( "expected " + expected + " but was " + actual );
+		}
+	}
+	
+	private static String toString( XElement element ) throws IOException{
+		StringBuilder builder = new StringBuilder();
+		XIO.write( element, builder );
+		return builder.toString();
+	}
+}
@@ -37,6 +37,7 @@ import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -238,6 +239,9 @@ public class DockController {
     /** tells which {@link Component} represents which {@link DockElement} */
     private Map<Component, DockElementRepresentative> componentToDockElements = 
     	new HashMap<Component, DockElementRepresentative>();
+    /** tells which {@link DockElementRepresentative}s belong to which {@link DockElement}, the inverse of {@link #componentToDockElements} */
+    private Map<DockElement, List<DockElementRepresentative>> dockElementToRepresentatives =
+    	new HashMap<DockElement, List<DockElementRepresentative>>();
     /** a list of listeners listening for changes in {@link #componentToDockElements} */
     private List<DockControllerRepresentativeListener> componentToDockElementsListeners =
         new ArrayList<DockControllerRepresentativeListener>();
@@ -449,6 +453,9 @@ public class DockController {
     public void kill(){
     	setRootWindowProvider( null );
     	focusObserver.kill();
+    	if( componentHierarchyObserver != null ){
+    		componentHierarchyObserver.kill();
+    	}
 	    register.kill();
 	    keyboardController.kill();
 	    theme.kill();
@@ -845,7 +852,9 @@ public class DockController {
     /**
      * Informs this controller about a new representative for a {@link DockElement}.
      * Note that each {@link DockElementRepresentative} of this {@link DockController}
-     * must have another {@link DockElementRepresentative#getComponent() component}.
+     * must have another {@link DockElementRepresentative#getComponent() component}, and that
+     * the {@link DockElementRepresentative#getElement() element} of <code>representative</code>
+     * must not change while <code>representative</code> is registered.
      * @param representative the new representative
      * @see #searchElement(Component)
      */
@@ -854,6 +863,10 @@ public class DockController {
                 .toArray( new DockControllerRepresentativeListener[componentToDockElementsListeners.size()] );
         
         DockElementRepresentative old = componentToDockElements.put( representative.getComponent(), representative );
+        if( old != null ){
+        	unlinkRepresentative( old );
+        }
+        linkRepresentative( representative );
     	
     	if( old != null ){
     	    for( DockControllerRepresentativeListener listener : listeners ){
@@ -867,12 +880,16 @@ public class DockController {
     }
     
     /**
-     * Removes <code>representative</code> from this controller.
+     * Removes <code>representative</code> from this controller. Nothing happens if <code>representative</code>
+     * was already replaced by another representative with the same {@link DockElementRepresentative#getComponent() component}.
      * @param representative the element to remove
      * @see #addRepresentative(DockElementRepresentative)
      */
     public void removeRepresentative( DockElementRepresentative representative ){
-        if( componentToDockElements.remove( representative.getComponent() ) != null ){
+        DockElementRepresentative old = componentToDockElements.get( representative.getComponent() );
+        if( old == representative ){
+        	componentToDockElements.remove( representative.getComponent() );
+        	unlinkRepresentative( old );
             DockControllerRepresentativeListener[] listeners = componentToDockElementsListeners
                 .toArray( new DockControllerRepresentativeListener[componentToDockElementsListeners.size()] );
         
@@ -910,13 +927,82 @@ public class DockController {
      * @return the representatives, may include <code>element</code> as well
      */
     public DockElementRepresentative[] getRepresentatives( DockElement element ){
-    	List<DockElementRepresentative> result = new ArrayList<DockElementRepresentative>();
-    	for( DockElementRepresentative representative : componentToDockElements.values() ){
-    		if( representative.getElement() == element ){
-    			result.add( representative );
+    	List<DockElementRepresentative> list = dockElementToRepresentatives.get( element );
+    	if( list == null ){
+    		return new DockElementRepresentative[]{};
+    	}
+    	return list.toArray( new DockElementRepresentative[ list.size() ] );
+    }
+    
+    /**
+     * Tells how many {@link DockElementRepresentative}s are registered for <code>element</code>. Together
+     * with {@link #getRepresentative(DockElement, int)} this method allows to visit all the representatives
+     * of an element without creating new objects.
+     * @param element the element whose {@link DockElementRepresentative}s are counted
+     * @return the number of representatives, may include <code>element</code> as well
+     */
+    public int getRepresentativeCount( DockElement element ){
+    	List<DockElementRepresentative> list = dockElementToRepresentatives.get( element );
+    	if( list == null ){
+    		return 0;
+    	}
+    	return list.size();
+    }
+    
+    /**
+     * Gets the <code>index</code>'th {@link DockElementRepresentative} whose element is <code>element</code>.
+     * @param element the element whose {@link DockElementRepresentative} is searched
+     * @param index the index of the representative, between 0 and {@link #getRepresentativeCount(DockElement)}
+     * @return the representative
+     * @throws IndexOutOfBoundsException if <code>index</code> is not valid
+     */
+    public DockElementRepresentative getRepresentative( DockElement element, int index ){
+    	List<DockElementRepresentative> list = dockElementToRepresentatives.get( element );
+    	if( list == null ){
+    		throw new IndexOutOfBoundsException( "no representatives for element: " + element );
+    	}
+    	return list.get( index );
+    }
+    
+    /**
+     * Adds <code>representative</code> to {@link #dockElementToRepresentatives}.
+     * @param representative the new representative
+     */
+    private void linkRepresentative( DockElementRepresentative representative ){
+    	DockElement element = representative.getElement();
+    	List<DockElementRepresentative> list = dockElementToRepresentatives.get( element );
+    	if( list == null ){
+    		list = new ArrayList<DockElementRepresentative>( 2 );
+    		dockElementToRepresentatives.put( element, list );
+    	}
+    	list.add( representative );
+    }
+    
+    /**
+     * Removes <code>representative</code> from {@link #dockElementToRepresentatives}.
+     * @param representative the removed representative
+     */
+    private void unlinkRepresentative( DockElementRepresentative representative ){
+    	DockElement element = representative.getElement();
+    	List<DockElementRepresentative> list = dockElementToRepresentatives.get( element );
+    	if( list != null && list.remove( representative )){
+    		if( list.isEmpty() ){
+    			dockElementToRepresentatives.remove( element );
+    		}
+    		return;
+    	}
+    	
+    	// the element of the representative has changed, the slow way has to be taken
+    	Iterator<List<DockElementRepresentative>> iterator = dockElementToRepresentatives.values().iterator();
+    	while( iterator.hasNext() ){
+    		list = iterator.next();
+    		if( list.remove( representative )){
+    			if( list.isEmpty() ){
+    				iterator.remove();
+    			}
+    			return;
     		}
     	}
-    	return result.toArray( new DockElementRepresentative[ result.size() ] );
     }
     
     /**
@@ -27,6 +27,7 @@
 package bibliothek.gui;
 
 import java.awt.Window;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -36,6 +37,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +77,7 @@ import bibliothek.gui.dock.frontend.SettingsBlop;
 import bibliothek.gui.dock.frontend.VetoManager;
 import bibliothek.gui.dock.layout.AdjacentDockFactory;
 import bibliothek.gui.dock.layout.DockLayoutComposition;
+import bibliothek.gui.dock.layout.DockLayoutCompositionPool;
 import bibliothek.gui.dock.layout.DockLayoutInfo;
 import bibliothek.gui.dock.layout.DockSituation;
 import bibliothek.gui.dock.layout.DockSituationIgnore;
@@ -108,6 +111,8 @@ import bibliothek.util.Version;
 import bibliothek.util.xml.XAttribute;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XReader;
+import bibliothek.util.xml.XWriter;
 
 /**
  * A DockFrontend provides some methods to handle the storage of various layouts.
@@ -166,6 +171,8 @@ public class DockFrontend {
     
     /** The locations of the known Dockables */
     private Map<String, DockInfo> dockables = new HashMap<String, DockInfo>();
+    /** The same {@link DockInfo}s as in {@link #dockables}, accessed by their {@link Dockable} */
+    private Map<Dockable, DockInfo> dockableInfos = new IdentityHashMap<Dockable, DockInfo>();
     /** the identifiers of the {@link DockInfo}s which should stay around even if their dockable is removed */
     private Set<String> empty = new HashSet<String>();
     
@@ -244,6 +251,24 @@ public class DockFrontend {
      */
     private Setting lastAppliedEntrySetting = null;
     
+    /** whether {@link Setting}s share equal parts of their layouts, see {@link #setDeduplicateSettings(boolean)} */
+    private boolean deduplicateSettings = false;
+    
+    /** the pool in which the layouts of the saved {@link Setting}s are stored if {@link #deduplicateSettings} is set */
+    private DockLayoutCompositionPool settingsPool;
+    
+    /** the pool that is used while reading or writing {@link Setting}s, can be <code>null</code> */
+    private DockLayoutCompositionPool compositionPool;
+    
+    /** the stored {@link Setting}s whose layouts are shared with other settings, and whether they are entries */
+    private Map<Setting, Boolean> pooledSettings = new IdentityHashMap<Setting, Boolean>();
+    
+    /** how many shared {@link Setting}s were removed since {@link #settingsPool} was created */
+    private int discardedPooledSettings = 0;
+    
+    /** the version with which {@link #writeBlop(SettingsBlop, DataOutputStream)} marks settings that share a pool */
+    private static final Version POOLED_FORMAT = Version.VERSION_1_1_2;
+    
     /**
      * Constructs a new frontend, creates a new controller.
      */
@@ -572,6 +597,7 @@ public class DockFrontend {
         else{
             info = new DockInfo( dockable, id );
             dockables.put( id, info );    
+            dockableInfos.put( dockable, info );
         }
         
         DockLayoutComposition layout = info.getLayout();
@@ -682,11 +708,8 @@ public class DockFrontend {
         if( dockable == null )
             throw new NullPointerException( "dockable is null" );
         
-        for( Map.Entry<String, DockInfo> entry : dockables.entrySet() ){
-            if( entry.getValue().dockable == dockable )
-                return entry.getKey();
-        }
-        return null;
+        DockInfo info = dockableInfos.get( dockable );
+        return info == null ? null : info.getKey();
     }
     
     /**
@@ -839,6 +862,9 @@ public class DockFrontend {
             }
             else{
                 dockables.remove( info.getKey() );
+                if( dockableInfos.get( dockable ) == info ){
+                	dockableInfos.remove( dockable );
+                }
                 fireRemoved( dockable );
             }
         }
@@ -1088,7 +1114,7 @@ public class DockFrontend {
     	if( setting == null ){
     		throw new IllegalArgumentException( "setting is null" );
     	}
-    	settings.put( name, setting );
+    	discardPooled( settings.put( name, setting ) );
     }
     
     /**
@@ -1240,6 +1266,34 @@ public class DockFrontend {
         return defaultEntryLayout;
     }
     
+    /**
+     * Sets whether the {@link Setting}s of this frontend should share the parts of their layouts
+     * that are equal. If set, then {@link #save(String, boolean)} stores the layouts of a new
+     * {@link Setting} in a {@link DockLayoutCompositionPool}, and {@link #writeBlop(SettingsBlop, DataOutputStream)}
+     * writes each distinct part of the layouts only once. Applications storing many settings that differ only
+     * in a few {@link Dockable}s require much less memory and much smaller files this way. Files written with 
+     * this option can be read by {@link #read(DataInputStream)} regardless of this option, but not by older 
+     * versions of the framework.<br>
+     * The layouts of the shared {@link Setting}s must not be modified, hence {@link #setSetting(Setting, boolean)}
+     * applies a private copy of such a setting. Once many shared settings were deleted or replaced, the
+     * remaining settings are moved into a new pool and the old pool is released.<br>
+     * The xml format is not affected by this property.
+     * @param deduplicateSettings whether to share equal parts of the layouts
+     */
+    public void setDeduplicateSettings( boolean deduplicateSettings ){
+		this.deduplicateSettings = deduplicateSettings;
+		settingsPool = null;
+	}
+    
+    /**
+     * Tells whether the {@link Setting}s share equal parts of their layouts.
+     * @return whether layouts are deduplicated
+     * @see #setDeduplicateSettings(boolean)
+     */
+    public boolean isDeduplicateSettings(){
+		return deduplicateSettings;
+	}
+    
     /**
      * Sets whether the layout of <code>dockable</code> should be stored
      * for <code>entry</code> {@link Setting}s.
@@ -1498,6 +1552,8 @@ public class DockFrontend {
      * @param name the name for the setting
      * @param entry whether only the normal "entry" inforation should be saved, or all the information. The default
      * value should be <code>true</code>
+     * @throws IllegalArgumentException if {@link #setDeduplicateSettings(boolean) deduplication} is enabled and the layout
+     * cannot be stored
      * @see #getPerspective(boolean) 
      */
     public void save( String name, boolean entry ){
@@ -1505,6 +1561,14 @@ public class DockFrontend {
     		throw new IllegalArgumentException( "name must not be null" );
     	
     	Setting setting = getSetting( entry );
+    	if( deduplicateSettings ){
+    		try{
+    			setting = deduplicate( setting, entry );
+    		}
+    		catch( IOException ex ){
+    			throw new IllegalArgumentException( "Cannot store Setting", ex );
+    		}
+    	}
     	setSetting( name, setting );
         currentSetting = name;
         fireSaved( name );
@@ -1597,6 +1661,19 @@ public class DockFrontend {
      * be the same as was used when {@link #getSetting(boolean)} was called.
      */
     public void setSetting( Setting setting, boolean entry ){
+    	decodeSetting( setting, entry );
+    	
+    	Boolean pooledEntry = pooledSettings.get( setting );
+    	if( pooledEntry != null ){
+    		// the layouts are shared with other settings and must not be modified
+    		try{
+    			setting = copy( setting, pooledEntry.booleanValue() );
+    		}
+    		catch( IOException e ){
+    			throw new IllegalArgumentException( "Cannot set Setting", e );
+    		}
+    	}
+    	
         try{
             onAutoFire++;
             controller.getRegister().setStalled( true );
@@ -1629,6 +1706,23 @@ public class DockFrontend {
         }
     }
     
+    /**
+     * Decodes all the layouts of <code>setting</code> which were read from a stream but not yet
+     * converted into objects. Called by {@link #setSetting(Setting, boolean)} before anything is changed,
+     * this way a corrupt layout does not leave behind a partially applied {@link Setting}.
+     * @param setting the setting that is about to be applied
+     * @param entry whether <code>setting</code> is an ordinary entry
+     * @throws IllegalArgumentException if a layout of <code>setting</code> cannot be read
+     */
+    protected void decodeSetting( Setting setting, boolean entry ){
+    	try{
+    		setting.decode( layoutChangeStrategy.createSituation( new Internals(), entry ) );
+    	}
+    	catch( IOException e ){
+    		throw new IllegalArgumentException( "Cannot set Setting", e );
+    	}
+    }
+    
     /**
      * Creates and returns a new {@link Perspective} which can be used to read, write and convert
      * {@link PerspectiveElement}s. This method creates a new {@link DefaultFrontendPerspectiveCache}.<br>
@@ -1885,6 +1979,8 @@ public class DockFrontend {
      * @see #delete(String)
      */
     public int deleteAll(){
+    	// all shared settings are removed, there is no need to move them into a new pool
+    	pooledSettings.clear();
     	int count = 0;
     	Set<String> settings = getSettings();
     	String[] array = settings.toArray( new String[ settings.size() ] );
@@ -1893,6 +1989,9 @@ public class DockFrontend {
     			count++;
     		}
     	}
+    	// the nodes of the pool are no longer used
+    	settingsPool = null;
+    	discardedPooledSettings = 0;
     	return count;
     }
     
@@ -1907,8 +2006,10 @@ public class DockFrontend {
     	if( name == null )
     		throw new IllegalArgumentException( "name must not be null" );
     	
-        boolean deleted = settings.remove( name ) != null;
+        Setting removed = settings.remove( name );
+        boolean deleted = removed != null;
         if( deleted ){
+        	discardPooled( removed );
         	if( name.equals( currentSetting ))
         		currentSetting = null;
         	
@@ -1934,8 +2035,38 @@ public class DockFrontend {
      * @throws IOException if there are any problems
      */
     public void writeBlop( SettingsBlop blop, DataOutputStream out ) throws IOException{
-    	Version.write( out, Version.VERSION_1_1_1a );
+    	if( !deduplicateSettings ){
+    		Version.write( out, Version.VERSION_1_1_1a );
+    		writeBlopContent( blop, out );
+    		return;
+    	}
+    	
+    	// the settings are written first, the pool is only complete afterwards
+    	DockLayoutCompositionPool pool = new DockLayoutCompositionPool();
+    	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    	DataOutputStream content = new DataOutputStream( bytes );
+    	DockLayoutCompositionPool previous = compositionPool;
+    	compositionPool = pool;
+    	try{
+    		writeBlopContent( blop, content );
+    	}
+    	finally{
+    		compositionPool = previous;
+    	}
+    	content.flush();
     	
+    	Version.write( out, POOLED_FORMAT );
+    	pool.write( out );
+    	bytes.writeTo( out );
+    }
+    
+    /**
+     * Writes the names and the {@link Setting}s of <code>blop</code> into <code>out</code>.
+     * @param blop the {@link Setting}s to write
+     * @param out the stream to write into
+     * @throws IOException if there are any problems
+     */
+    private void writeBlopContent( SettingsBlop blop, DataOutputStream out ) throws IOException{
     	String currentSetting = blop.getCurrentName();
     	
         if( currentSetting == null )
@@ -1966,6 +2097,7 @@ public class DockFrontend {
     protected void write( Setting setting, boolean entry, DataOutputStream out ) throws IOException{
     	Internals internals = new Internals();
         DockSituation situation = layoutChangeStrategy.createSituation( internals, entry );
+        situation.setCompositionPool( compositionPool );
         PropertyTransformer properties = layoutChangeStrategy.createTransformer( internals );
         setting.write( situation, properties, entry, out );
     }
@@ -1990,7 +2122,10 @@ public class DockFrontend {
      * @throws IOException if there are any problems
      */
     public void read( DataInputStream in, boolean keepExistingSettings ) throws IOException{
-	    readBlop( readBlop( in ), keepExistingSettings );
+    	SettingsBlop blop = readBlop( in );
+    	// the current setting is applied right away, a corrupt layout has to be reported before anything changes
+    	blop.getCurrentSetting().decode( layoutChangeStrategy.createSituation( new Internals(), false ) );
+	    readBlop( blop, keepExistingSettings );
     }
     
     /**
@@ -2006,6 +2141,31 @@ public class DockFrontend {
     	Version version = Version.read( in );
         version.checkCurrent();
         
+        if( POOLED_FORMAT.compareTo( version ) > 0 ){
+        	readBlopContent( blop, in );
+        	return blop;
+        }
+        
+        DockLayoutCompositionPool pool = DockLayoutCompositionPool.read( in );
+        DockLayoutCompositionPool previous = compositionPool;
+        compositionPool = pool;
+        try{
+        	readBlopContent( blop, in );
+        }
+        finally{
+        	compositionPool = previous;
+        }
+        blop.setCompositionPool( pool );
+        return blop;
+    }
+    
+    /**
+     * Reads the names and the {@link Setting}s that were written by {@link #writeBlopContent(SettingsBlop, DataOutputStream)}.
+     * @param blop the blop to fill
+     * @param in the stream to read from
+     * @throws IOException if <code>in</code> cannot be read properbly
+     */
+    private void readBlopContent( SettingsBlop blop, DataInputStream in ) throws IOException{
         String currentSetting = null;
         
         if( in.readBoolean() )
@@ -2019,7 +2179,6 @@ public class DockFrontend {
         }
         
         blop.setCurrent( currentSetting, read( false, in ) );
-        return blop;
     }
     
     /**
@@ -2036,11 +2195,92 @@ public class DockFrontend {
         Setting setting = createSetting();
         Internals internals = new Internals();
         DockSituation situation = layoutChangeStrategy.createSituation( internals, entry );
+        situation.setCompositionPool( compositionPool );
         PropertyTransformer properties = layoutChangeStrategy.createTransformer( internals );
         setting.read( situation, properties, entry, in );
         return setting;
     }
     
+    /**
+     * Stores the layouts of <code>setting</code> in the pool of this frontend and replaces them by the
+     * layouts of the pool, this way equal layouts of different {@link Setting}s are represented by the
+     * same objects. Afterwards the layouts of <code>setting</code> must no longer be modified.
+     * @param setting the setting to deduplicate
+     * @param entry whether <code>setting</code> is an ordinary entry
+     * @return <code>setting</code>
+     * @throws IOException if the layouts of <code>setting</code> cannot be written into the pool
+     * @see #setDeduplicateSettings(boolean)
+     */
+    protected Setting deduplicate( Setting setting, boolean entry ) throws IOException{
+    	if( settingsPool == null ){
+    		settingsPool = new DockLayoutCompositionPool();
+    	}
+    	
+    	DockSituation situation = layoutChangeStrategy.createSituation( new Internals(), entry );
+    	situation.setCompositionPool( settingsPool );
+    	setting.share( situation );
+    	pooledSettings.put( setting, Boolean.valueOf( entry ) );
+    	return setting;
+    }
+    
+    /**
+     * Creates a copy of <code>setting</code> whose layouts are not shared with any other {@link Setting}.
+     * The layouts are decoded again from the pool they were shared through, hence the {@link DockFactory}s
+     * can modify the layouts of the copy while it is applied without affecting any other setting.
+     * @param setting the setting to copy
+     * @param entry whether <code>setting</code> is an ordinary entry
+     * @return the copy
+     * @throws IOException if a layout cannot be decoded again
+     */
+    private Setting copy( Setting setting, boolean entry ) throws IOException{
+    	Setting copy = createSetting();
+    	copy.copyFrom( setting, layoutChangeStrategy.createSituation( new Internals(), entry ) );
+    	return copy;
+    }
+    
+    /**
+     * Called after <code>setting</code> was removed from the map of stored {@link Setting}s. If 
+     * <code>setting</code> was shared and more shared settings were removed than there are left, then 
+     * the remaining shared settings are moved into a new pool.
+     * @param setting the setting that was removed, can be <code>null</code>
+     */
+    private void discardPooled( Setting setting ){
+    	if( setting == null || settings.containsValue( setting )){
+    		return;
+    	}
+    	if( pooledSettings.remove( setting ) != null ){
+    		discardedPooledSettings++;
+    		if( discardedPooledSettings > pooledSettings.size() ){
+    			compactSettingsPool();
+    		}
+    	}
+    }
+    
+    /**
+     * Moves all the shared {@link Setting}s into a new pool, the nodes of the old pool that are no
+     * longer used by any setting are released this way.
+     */
+    private void compactSettingsPool(){
+    	discardedPooledSettings = 0;
+    	settingsPool = null;
+    	if( !deduplicateSettings ){
+    		// the remaining settings keep their shared layouts, but the old pool is no longer required
+    		return;
+    	}
+    	
+    	List<Map.Entry<Setting, Boolean>> pooled = new ArrayList<Map.Entry<Setting, Boolean>>( pooledSettings.entrySet() );
+    	for( Map.Entry<Setting, Boolean> entry : pooled ){
+    		try{
+    			deduplicate( entry.getKey(), entry.getValue().booleanValue() );
+    		}
+    		catch( IOException ex ){
+    			// the setting was written into the old pool before, this can only fail if a factory was removed
+    			// since then. The setting keeps its old layouts, which are still valid and not modified, it just
+    			// does not share them with the settings that are stored later.
+    		}
+    	}
+    }
+    
     /**
      * Writes all properties of this frontend into an xml element.
      * @param element the element to write into, this method will not
@@ -2078,6 +2318,49 @@ public class DockFrontend {
         writeXML( blop.getCurrentSetting(), false, xcurrent );
     }
     
+    /**
+     * Writes all properties of this frontend into <code>writer</code>. The output is the same as
+     * the output of {@link #writeXML(XElement)}, but only one {@link Setting} is converted into a
+     * tree of {@link XElement}s at any time.
+     * @param writer the writer to write into, the new elements are children of the element that
+     * is currently open in <code>writer</code>
+     * @throws IOException if <code>writer</code> cannot write
+     */
+    public void writeXML( XWriter writer ) throws IOException{
+    	writeBlopXML( writeBlop(), writer );
+    }
+    
+    /**
+     * Writes all the {@link Setting}s of <code>blop</code> into <code>writer</code>, the output is
+     * the same as the output of {@link #writeBlopXML(SettingsBlop, XElement)}.
+     * @param blop the settings to write
+     * @param writer the writer to write into, the new elements are children of the element that
+     * is currently open in <code>writer</code>
+     * @throws IOException if <code>writer</code> cannot write
+     */
+    public void writeBlopXML( SettingsBlop blop, XWriter writer ) throws IOException{
+    	String[] names = blop.getNames();
+    	
+    	if( names.length > 0 ){
+    		writer.startElement( "settings" );
+    		for( String name : names ){
+    			XElement xsetting = new XElement( "setting" );
+    			xsetting.addString( "name", name );
+    			writeXML( blop.getSetting( name ), true, xsetting );
+    			writer.element( xsetting );
+    		}
+    		writer.endElement();
+    	}
+    	
+    	XElement xcurrent = new XElement( "current" );
+    	String current = blop.getCurrentName();
+    	if( current != null )
+    		xcurrent.addString( "name", current );
+    	
+    	writeXML( blop.getCurrentSetting(), false, xcurrent );
+    	writer.element( xcurrent );
+    }
+    
     /**
      * Calls {@link Setting#writeXML(DockSituation, PropertyTransformer, boolean, XElement)}.
      * @param setting the setting to write
@@ -2112,6 +2395,73 @@ public class DockFrontend {
     	readBlop( readBlopXML( element ), keepExistingSettings );
     }
     
+    /**
+     * Reads the contents of this frontend from <code>reader</code>. All existing settings
+     * are deleted (see {@link #deleteAll()}) by this method.
+     * @param reader the reader whose cursor is at the beginning of the element that was written
+     * by {@link #writeXML(XWriter)} or {@link #writeXML(XElement)}, the element is closed afterwards 
+     * @throws IOException if <code>reader</code> cannot read
+     */
+    public void readXML( XReader reader ) throws IOException{
+    	readXML( reader, false );
+    }
+    
+    /**
+     * Reads the contents of this frontend from <code>reader</code>.
+     * @param reader the reader whose cursor is at the beginning of the element that was written
+     * by {@link #writeXML(XWriter)} or {@link #writeXML(XElement)}, the element is closed afterwards 
+     * @param keepExistingSettings whether to keep or to delete (see {@link #deleteAll()}) the
+     * existing settings.
+     * @throws IOException if <code>reader</code> cannot read
+     */
+    public void readXML( XReader reader, boolean keepExistingSettings ) throws IOException{
+    	readBlop( readBlopXML( reader ), keepExistingSettings );
+    }
+    
+    /**
+     * Reads the contents of <code>reader</code> using all the factories installed on this
+     * {@link DockFrontend}, without actually changing any property of this frontend. Only one
+     * {@link Setting} is converted into a tree of {@link XElement}s at any time.
+     * @param reader the reader whose cursor is at the beginning of the element that was written
+     * by {@link #writeXML(XWriter)} or {@link #writeXML(XElement)}, the element is closed afterwards 
+     * @return all the layouts stored in <code>reader</code>
+     * @throws IOException if <code>reader</code> cannot read
+     */
+    public SettingsBlop readBlopXML( XReader reader ) throws IOException{
+    	SettingsBlop blop = new SettingsBlop();
+    	
+    	while( reader.nextElement() ){
+    		String name = reader.getName();
+    		if( "settings".equals( name )){
+    			while( reader.nextElement() ){
+    				if( "setting".equals( reader.getName() )){
+    					XElement xsetting = reader.readElement();
+    					String key = xsetting.getString( "name" );
+    					Setting setting = readXML( true, xsetting );
+    					blop.put( key, setting );
+    				}
+    				else{
+    					reader.skipElement();
+    				}
+    			}
+    		}
+    		else if( "current".equals( name )){
+    			XElement xcurrent = reader.readElement();
+    			XAttribute xname = xcurrent.getAttribute( "name" );
+    			String current = null;
+    			if( xname != null ){
+    				current = xname.getString();
+    			}
+    			
+    			blop.setCurrent( current, readXML( false, xcurrent ) );
+    		}
+    		else{
+    			reader.skipElement();
+    		}
+    	}
+    	return blop;
+    }
+    
     /**
      * Reads the contents of <code>element</code> using all the facotries installed on this
      * {@link DockFrontend}, without actually changing any property of this frontend.
@@ -2185,12 +2535,31 @@ public class DockFrontend {
     	if( !keepExistingSettings ){
     		deleteAll();
     	}
+    	if( deduplicateSettings && blop.getCompositionPool() != null && (settingsPool == null || !keepExistingSettings)){
+    		// new settings can share the layouts that were read
+    		settingsPool = blop.getCompositionPool();
+    	}
+    	boolean pooled = blop.getCompositionPool() != null;
     	for( String name : blop.getNames() ){
-    		settings.put( name, blop.getSetting( name ) );
+    		Setting setting = blop.getSetting( name );
+    		if( pooled ){
+    			pooledSettings.put( setting, Boolean.TRUE );
+    		}
+    		discardPooled( settings.put( name, setting ) );
     		fireRead( name );
     	}
     	currentSetting = blop.getCurrentName();
-    	setSetting( blop.getCurrentSetting(), false );
+    	Setting current = blop.getCurrentSetting();
+    	if( pooled ){
+    		// the current setting shares its layouts with the other settings of the blop
+    		try{
+    			current = copy( current, false );
+    		}
+    		catch( IOException e ){
+    			throw new IllegalArgumentException( "Cannot set Setting", e );
+    		}
+    	}
+    	setSetting( current, false );
     }
     
     /**
@@ -2230,11 +2599,7 @@ public class DockFrontend {
         if( dockable == null )
             throw new NullPointerException( "dockable is null" );
         
-        for( DockInfo info : dockables.values() )
-            if( info.getDockable() == dockable )
-                return info;
-        
-        return null;
+        return dockableInfos.get( dockable );
     }
     
     /**
@@ -2592,6 +2957,14 @@ public class DockFrontend {
          * @param dockable the new dockable, can be <code>null</code>
          */
         public void setDockable( Dockable dockable ) {
+        	if( this.dockable != dockable && dockables.get( key ) == this ){
+        		if( this.dockable != null && dockableInfos.get( this.dockable ) == this ){
+        			dockableInfos.remove( this.dockable );
+        		}
+        		if( dockable != null ){
+        			dockableInfos.put( dockable, this );
+        		}
+        	}
             this.dockable = dockable;
         }
         
@@ -95,6 +95,7 @@ import bibliothek.gui.dock.station.screen.window.DefaultScreenDockWindowConfigur
 import bibliothek.gui.dock.station.screen.window.DefaultScreenDockWindowFactory;
 import bibliothek.gui.dock.station.screen.window.ScreenDockWindowClosingStrategy;
 import bibliothek.gui.dock.station.screen.window.ScreenDockWindowHandle;
+import bibliothek.gui.dock.station.screen.window.ScreenDockWindowPool;
 import bibliothek.gui.dock.station.screen.window.WindowConfiguration;
 import bibliothek.gui.dock.station.support.CombinerSource;
 import bibliothek.gui.dock.station.support.CombinerSourceWrapper;
@@ -190,6 +191,13 @@ public class ScreenDockStation extends AbstractDockStation {
     				}
     			}, true);
     
+    /** 
+     * A key for a property telling where to keep {@link ScreenDockWindow}s that are no longer used, such that they
+     * can be reused later. The default value is <code>null</code>, meaning that windows are always destroyed.
+     */
+    public static final PropertyKey<ScreenDockWindowPool> WINDOW_POOL =
+    		new PropertyKey<ScreenDockWindowPool>( "ScreenDockStation.window_pool" );
+    
     /** a key for a property telling how to handle fullscreen mode */
     public static final PropertyKey<ScreenDockFullscreenStrategy> FULL_SCREEN_STRATEGY =
     	new PropertyKey<ScreenDockFullscreenStrategy>( "ScreenDockStation.full_screen_strategy",
@@ -300,6 +308,17 @@ public class ScreenDockStation extends AbstractDockStation {
             }
     };
     
+    /** a pool of unused windows, can be <code>null</code> */
+    private PropertyValue<ScreenDockWindowPool> windowPool =
+    	new PropertyValue<ScreenDockWindowPool>( ScreenDockStation.WINDOW_POOL ){
+    		@Override
+    		protected void valueChanged( ScreenDockWindowPool oldValue, ScreenDockWindowPool newValue ){
+    			if( oldValue != null ){
+    				oldValue.clear( ScreenDockStation.this );
+    			}
+    		}
+    };
+    
     /** a factory used to create new windows for this station */
     private PropertyValue<ScreenDockWindowFactory> windowFactory =
         new PropertyValue<ScreenDockWindowFactory>( ScreenDockStation.WINDOW_FACTORY ){
@@ -631,6 +650,13 @@ public class ScreenDockStation extends AbstractDockStation {
     public void setController( DockController controller ) {
     	DockController old = getController();
     	if( old != null ){
+    		if( old != controller ){
+    			// the pool references this station, it must not keep the station alive
+    			ScreenDockWindowPool pool = getWindowPool();
+    			if( pool != null ){
+    				pool.clear( this );
+    			}
+    		}
     		if( expandOnDoubleClick.getValue() ){
     			old.getDoubleClickController().removeListener( doubleClickListener );
     		}
@@ -662,6 +688,7 @@ public class ScreenDockStation extends AbstractDockStation {
         restriction.setProperties( controller );
         windowFactory.setProperties( controller );
         windowConfiguration.setProperties( controller );
+        windowPool.setProperties( controller );
         fullscreenStrategy.setProperties( controller );
         placeholderStrategy.setProperties( controller );
         magnet.setController( controller );
@@ -1857,6 +1884,7 @@ public class ScreenDockStation extends AbstractDockStation {
             frontWindow = null;
         
         int index = indexOf( window.getDockable() );
+        WindowConfiguration configuration = dockables.dockables().get( index ).getConfiguration();
         
         PlaceholderMetaMap map = dockables.dockables().getMetaMap( index );
         Rectangle bounds = null;
@@ -1883,7 +1911,7 @@ public class ScreenDockStation extends AbstractDockStation {
         	listener.windowDeregistering( this, dockable, window );
         }
         
-        window.destroy();
+        destroyWindow( window, configuration );
     }
     
     /**
@@ -1906,7 +1934,27 @@ public class ScreenDockStation extends AbstractDockStation {
      * @return the new window
      */
     protected ScreenDockWindow createWindow( WindowConfiguration configuration ){
-    	return getWindowFactory().createWindow( this, configuration );
+    	ScreenDockWindowPool pool = getWindowPool();
+    	if( pool != null ){
+    		ScreenDockWindow window = pool.acquire( this, configuration );
+    		if( window != null ){
+    			return window;
+    		}
+    	}
+    	return getWindowFactory().createWindow( this, configuration );
+    }
+    
+    /**
+     * Called when <code>window</code> is no longer used. If there is a {@link #getWindowPool() pool}, then 
+     * <code>window</code> is put into the pool, otherwise <code>window</code> is {@link ScreenDockWindow#destroy() destroyed}.
+     * @param window the window that is no longer used, it is already hidden
+     * @param configuration the configuration that was used to create <code>window</code>
+     */
+    protected void destroyWindow( ScreenDockWindow window, WindowConfiguration configuration ){
+    	ScreenDockWindowPool pool = getWindowPool();
+    	if( pool == null || window.isFullscreen() || window.isVisible() || !pool.release( this, configuration, window )){
+    		window.destroy();
+    	}
     }
     
     /**
@@ -1926,6 +1974,12 @@ public class ScreenDockStation extends AbstractDockStation {
     protected void updateWindows( boolean force ){
     	ScreenDockWindowFactory factory = getWindowFactory();
     	
+    	// pooled windows were created for another factory, configuration or owner
+    	ScreenDockWindowPool pool = getWindowPool();
+    	if( pool != null ){
+    		pool.clear( this );
+    	}
+    	
     	Integer delay = PREVENT_FOCUS_STEALING_DELAY.getDefault( null );
     	DockController controller = getController();
     	if( controller != null ){
@@ -2068,6 +2122,23 @@ public class ScreenDockStation extends AbstractDockStation {
     	windowConfiguration.setValue( configuration );
     }
     
+    /**
+     * Gets the pool in which unused windows are stored.
+     * @return the pool, can be <code>null</code>
+     */
+    public ScreenDockWindowPool getWindowPool(){
+    	return windowPool.getValue();
+    }
+    
+    /**
+     * Sets the pool in which unused windows are stored, such that they can be reused later. 
+     * @param pool the new pool or <code>null</code> to use the default value, which is no pool at all
+     * @see #WINDOW_POOL
+     */
+    public void setWindowPool( ScreenDockWindowPool pool ){
+    	windowPool.setValue( pool );
+    }
+    
     /**
      * Gets the current fullscreen strategy.
      * @return the strategy, not <code>null</code>
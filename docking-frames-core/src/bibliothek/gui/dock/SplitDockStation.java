@@ -40,6 +40,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -104,6 +105,7 @@ import bibliothek.gui.dock.station.split.DefaultSplitDividerStrategy;
 import bibliothek.gui.dock.station.split.DefaultSplitLayoutManager;
 import bibliothek.gui.dock.station.split.DefaultSplitNodeFactory;
 import bibliothek.gui.dock.station.split.DockableSplitDockTree;
+import bibliothek.gui.dock.station.split.IndexedSplitDockAccess;
 import bibliothek.gui.dock.station.split.Leaf;
 import bibliothek.gui.dock.station.split.Node;
 import bibliothek.gui.dock.station.split.Placeholder;
@@ -111,7 +113,6 @@ import bibliothek.gui.dock.station.split.PutInfo;
 import bibliothek.gui.dock.station.split.PutInfo.Put;
 import bibliothek.gui.dock.station.split.Root;
 import bibliothek.gui.dock.station.split.SplitDividerStrategy;
-import bibliothek.gui.dock.station.split.SplitDockAccess;
 import bibliothek.gui.dock.station.split.SplitDockCombinerSource;
 import bibliothek.gui.dock.station.split.SplitDockFullScreenProperty;
 import bibliothek.gui.dock.station.split.SplitDockGrid;
@@ -132,6 +133,7 @@ import bibliothek.gui.dock.station.split.SplitPlaceholderConverter;
 import bibliothek.gui.dock.station.split.SplitPlaceholderSet;
 import bibliothek.gui.dock.station.split.SplitSpanStrategy;
 import bibliothek.gui.dock.station.split.SplitTreeFactory;
+import bibliothek.gui.dock.station.split.SplitTreeIndex;
 import bibliothek.gui.dock.station.split.SplitTreePathFactory;
 import bibliothek.gui.dock.station.split.layer.SideSnapDropLayer;
 import bibliothek.gui.dock.station.split.layer.SplitOverrideDropLayer;
@@ -364,6 +366,9 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 
 	/** The list of {@link Dockable Dockables} which are shown on this station */
 	private List<StationChildHandle> dockables = new ArrayList<StationChildHandle>();
+	
+	/** The location of each {@link Dockable} in {@link #dockables}, <code>null</code> if not yet calculated */
+	private Map<Dockable, Integer> dockableIndices;
 
 	/** The {@link Dockable} which has the focus */
 	private Dockable frontDockable;
@@ -403,6 +408,9 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 	/** The root of the tree which determines the structure of this station */
 	private Root root;
 	
+	/** Allows fast access to the nodes of the tree starting at {@link #root} */
+	private SplitTreeIndex treeIndex = new SplitTreeIndex();
+	
 	/** The factory responsible for creating new {@link SplitNode}s */
 	private SplitNodeFactory nodeFactory = new DefaultSplitNodeFactory();
 
@@ -567,6 +575,7 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 	protected final Root root(){
 		if( root == null ) {
 			root = access.createRoot( -1 );
+			treeIndex.setRoot( root );
 		}
 		return root;
 	}
@@ -2893,6 +2902,9 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 			}
 	
 			dockables.add(handle);
+			if( dockableIndices != null ){
+				dockableIndices.put( dockable, dockables.size()-1 );
+			}
 			dockable.setDockParent(this);
 	
 			handle.updateDisplayer();
@@ -2943,11 +2955,18 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 	 * @return the index or -1 if the child was not found
 	 */
 	public int indexOfDockable( Dockable dockable ){
-		for( int i = 0, n = dockables.size(); i < n; i++ )
-			if( dockables.get(i).getDockable() == dockable )
-				return i;
-
-		return -1;
+		if( dockableIndices == null ){
+			dockableIndices = new IdentityHashMap<Dockable, Integer>();
+			for( int i = 0, n = dockables.size(); i < n; i++ ){
+				dockableIndices.put( dockables.get( i ).getDockable(), i );
+			}
+		}
+		
+		Integer index = dockableIndices.get( dockable );
+		if( index == null ){
+			return -1;
+		}
+		return index;
 	}
 
 	/**
@@ -3093,6 +3112,12 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 				dockStationListeners.fireDockableRemoving(dockable);
 	
 			dockables.remove(index);
+			if( dockableIndices != null ){
+				dockableIndices.remove( dockable );
+				for( int i = index, n = dockables.size(); i < n; i++ ){
+					dockableIndices.put( dockables.get( i ).getDockable(), i );
+				}
+			}
 	
 			DockableDisplayer displayer = handle.getDisplayer();
 	
@@ -3140,42 +3165,11 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 	 * @param id the id to search
 	 * @return the node with the id <code>id</code>
 	 */
-	public SplitNode getNode( final long id ){
-		class Visitor implements SplitNodeVisitor {
-			private SplitNode result;
-
-			public void handleRoot( Root root ){
-				if( root.getId() == id ) {
-					result = root;
-				}
-			}
-
-			public void handleLeaf( Leaf leaf ){
-				if( leaf.getId() == id ) {
-					result = leaf;
-				}
-			}
-
-			public void handlePlaceholder( Placeholder placeholder ){
-				if( placeholder.getId() == id ) {
-					result = placeholder;
-				}
-			}
-
-			public void handleNode( Node node ){
-				if( node.getId() == id ) {
-					result = node;
-				}
-			}
-		}
-		;
-
+	public SplitNode getNode( long id ){
 		if( root == null )
 			return null;
 
-		Visitor visitor = new Visitor();
-		getRoot().visit(visitor);
-		return visitor.result;
+		return treeIndex.getNode( id );
 	}
 
 	public String getFactoryID(){
@@ -3341,7 +3335,7 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 	 * Access to this {@link SplitDockStation}.
 	 * @author Benjamin Sigg
 	 */
-	protected class Access implements SplitDockAccess{
+	protected class Access implements IndexedSplitDockAccess{
 		private long lastUniqueId = -1;
 		private int repositionedArm = 0;
 		private Set<Dockable> repositioned = new HashSet<Dockable>();
@@ -3464,6 +3458,10 @@ public class SplitDockStation extends SecureContainer implements Dockable, DockS
 			}
 		}
 
+		public SplitTreeIndex getTreeIndex(){
+			return treeIndex;
+		}
+		
 		public long uniqueID(){
 			long id = System.currentTimeMillis();
 			if( id <= lastUniqueId ) {
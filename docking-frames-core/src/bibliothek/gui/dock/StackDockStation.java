@@ -77,6 +77,7 @@ import bibliothek.gui.dock.station.StationDropOperation;
 import bibliothek.gui.dock.station.StationPaint;
 import bibliothek.gui.dock.station.layer.DefaultDropLayer;
 import bibliothek.gui.dock.station.layer.DockStationDropLayer;
+import bibliothek.gui.dock.station.stack.CombinedStackDockComponent;
 import bibliothek.gui.dock.station.stack.DefaultStackDockComponent;
 import bibliothek.gui.dock.station.stack.DndAutoSelectStrategy;
 import bibliothek.gui.dock.station.stack.StackDnDAutoSelectSupport;
@@ -153,6 +154,18 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
     public static final PropertyKey<TabContentFilter> TAB_CONTENT_FILTER =
     	new PropertyKey<TabContentFilter>( "stack dock tab content filter" );
     
+    /**
+     * If set to <code>true</code>, then only the {@link Component} of the selected {@link Dockable} is added
+     * to the {@link StackDockComponent}, the other children are represented only by their tabs. The content of
+     * a tab is attached lazily once the tab is selected. This property reduces the costs of layouting and of
+     * updating the look and feel for stations with many heavy children.<br>
+     * This property is supported by {@link DefaultStackDockComponent} and {@link CombinedStackDockComponent},
+     * other {@link StackDockComponent}s ignore it.
+     */
+    public static final PropertyKey<Boolean> DETACH_INACTIVE_CONTENT =
+    	new PropertyKey<Boolean>( "stack dock detach inactive content",
+    			new ConstantPropertyFactory<Boolean>( false ), true );
+    
     /** 
      * If set to <code>true</code>, then dropping a {@link Dockable} onto a {@link StackDockStation} won't
      * change the currently selected item.<br>
@@ -237,6 +250,14 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
     /** Where to put tabs */
     private PropertyValue<TabPlacement> tabPlacement;
     
+    /** Whether only the selected child is attached to {@link #stackComponent} */
+    private PropertyValue<Boolean> detachInactiveContent = new PropertyValue<Boolean>( DETACH_INACTIVE_CONTENT ){
+    	@Override
+    	protected void valueChanged( Boolean oldValue, Boolean newValue ){
+    		updateDetachInactiveContent();
+    	}
+    };
+    
     /** The version of titles which should be used for this station */
     private DockTitleVersion title;
     
@@ -401,6 +422,7 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
         };
         
         stackComponent = createStackDockComponent();
+        updateDetachInactiveContent();
         stackComponent.addStackDockComponentListener( visibleListener );
         
         stackComponentRepresentative = new StackDockComponentRepresentative();
@@ -469,6 +491,38 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
     	return tabPlacement.getValue();
     }
     
+    /**
+     * Tells this station whether only the {@link Component} of the selected child should be added
+     * to the {@link StackDockComponent}.
+     * @param detach whether to detach the content of inactive tabs or <code>null</code> to use the default value
+     * @see #DETACH_INACTIVE_CONTENT
+     */
+    public void setDetachInactiveContent( Boolean detach ){
+    	detachInactiveContent.setValue( detach );
+    }
+    
+    /**
+     * Tells whether only the {@link Component} of the selected child is added to the {@link StackDockComponent}.
+     * @return whether the content of inactive tabs is detached
+     */
+    public boolean isDetachInactiveContent(){
+    	return detachInactiveContent.getValue();
+    }
+    
+    /**
+     * Forwards the value of {@link #DETACH_INACTIVE_CONTENT} to the current {@link StackDockComponent}, if
+     * the component supports detaching its content.
+     */
+    private void updateDetachInactiveContent(){
+    	boolean detach = detachInactiveContent.getValue();
+    	if( stackComponent instanceof DefaultStackDockComponent ){
+    		((DefaultStackDockComponent)stackComponent).setDetachInactiveContent( detach );
+    	}
+    	else if( stackComponent instanceof CombinedStackDockComponent<?, ?, ?> ){
+    		((CombinedStackDockComponent<?, ?, ?>)stackComponent).setDetachInactiveContent( detach );
+    	}
+    }
+    
     /**
      * Sets the filter that tells this station how to set the content of the tabs. 
      * @param filter the filter, can be <code>null</code>
@@ -537,6 +591,7 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
             
             this.stackComponent = stackComponent;
             stackComponent.setDockTabPlacement( tabPlacement.getValue() );
+            updateDetachInactiveContent();
             stackComponentRepresentative.setComponent( stackComponent );
             
             if( getDockableCount() < 2 && !singleTabStackDockComponent() ){
@@ -634,6 +689,7 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
             super.setController(controller);
             stackComponent.setController( controller );
             tabPlacement.setProperties( controller );
+            detachInactiveContent.setProperties( controller );
             placeholderStrategy.setProperties( controller );
             tabContentFilter.setProperties( controller );
             stackComponentRepresentative.setController( controller );
@@ -1553,6 +1609,8 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
 	        	Dockable next = controller.getFocusHistory().getNewestOn( this );
 	        	if( next != null && next.getDockParent() == this ){
 	        		stackComponent.setSelectedIndex( indexOf( next ) );
+	        		// the stack component may already have selected "next" while changes were ignored
+	        		visibility.fire();
 	        		return;
 	        	}
 	        }
@@ -27,20 +27,32 @@
 package bibliothek.gui.dock.action;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import bibliothek.gui.dock.action.actions.SeparatorAction;
 import bibliothek.gui.dock.event.DockActionSourceListener;
 
 /**
  * A {@link DockActionSource} that combines various sources in one source.
- * This source behaves like a list of {@link DockActionSource DockActionSources}.
+ * This source behaves like a list of {@link DockActionSource DockActionSources}.<br>
+ * While this source has listeners, it observes its children and caches the
+ * number of actions of each child. Without listeners nothing is cached.
  * @author Benjamin Sigg
  */
 public class MultiDockActionSource extends AbstractDockActionSource {
     private List<DockActionSource> sources = new ArrayList<DockActionSource>();
     private List<SeparatorSource> separators = new ArrayList<SeparatorSource>();
+    
+    /**
+     * The number of actions of the children with index 0 (incl) to <code>i</code> (excl) is stored
+     * at <code>counts[i]</code>, can be <code>null</code> if not yet calculated.
+     */
+    private int[] counts;
+    /** tells for each action the index of the first child containing the action, can be <code>null</code> */
+    private Map<DockAction, Integer> actionSources;
     
     private Listener listener;
     private boolean separateSources = false;
@@ -126,6 +138,7 @@ public class MultiDockActionSource extends AbstractDockActionSource {
     	if( !empty && listeners.isEmpty() ){
     		for( DockActionSource source : sources )
     			source.removeDockActionSourceListener( this.listener );
+    		invalidate();
     	}
     }
     
@@ -185,6 +198,7 @@ public class MultiDockActionSource extends AbstractDockActionSource {
         sources.add( source );
         sources.add( separator );
         separators.add( separator );
+        invalidate();
         
         if( !listeners.isEmpty() ){
         	source.addDockActionSourceListener( listener );
@@ -211,11 +225,12 @@ public class MultiDockActionSource extends AbstractDockActionSource {
     	SeparatorSource separator = (SeparatorSource)sources.get( index+1 );
     	
     	int actionIndex = getDockActionCountUntil( index, false );
-    	int length = source.getDockActionCount();
+    	int length = source.getDockActionCount() + separator.getDockActionCount();
     	
     	sources.remove( index+1 );
     	sources.remove( index );
     	separators.remove( separator );
+    	invalidate();
     	
     	if( !listeners.isEmpty() ){
     		source.removeDockActionSourceListener( listener );
@@ -223,7 +238,7 @@ public class MultiDockActionSource extends AbstractDockActionSource {
     	}
     	
     	if( length > 0 ){
-    		fireRemoved( actionIndex, index+length-1 );
+    		fireRemoved( actionIndex, actionIndex+length-1 );
     	}
     	
     	updateSeparators();
@@ -244,6 +259,7 @@ public class MultiDockActionSource extends AbstractDockActionSource {
     	}
     	separators.clear();
     	sources.clear();
+    	invalidate();
     	
     	if( length > 0 ){
     		fireRemoved( 0, length-1 );
@@ -268,15 +284,25 @@ public class MultiDockActionSource extends AbstractDockActionSource {
      * @return the index of the source which contains the action or -1
      */
     protected int getSource( DockAction action ){
-        for( int i = 0, n = sources.size(); i<n; i++ ){
-            DockActionSource source = sources.get( i );
-            for( int j = 0, m = source.getDockActionCount(); j<m; j++ ){
-                if( source.getDockAction( j ) == action )
-                    return i;
-            }
-        }
-        
-        return -1;
+    	Map<DockAction, Integer> map = actionSources;
+    	if( map == null ){
+    		map = new IdentityHashMap<DockAction, Integer>();
+    		for( int i = 0, n = sources.size(); i<n; i++ ){
+    			DockActionSource source = sources.get( i );
+    			for( int j = 0, m = source.getDockActionCount(); j<m; j++ ){
+    				DockAction next = source.getDockAction( j );
+    				if( !map.containsKey( next ))
+    					map.put( next, i );
+    			}
+    		}
+    		if( !listeners.isEmpty() )
+    			actionSources = map;
+    	}
+    	
+    	Integer index = map.get( action );
+    	if( index == null )
+    		return -1;
+    	return index;
     }
     
     /**
@@ -292,28 +318,59 @@ public class MultiDockActionSource extends AbstractDockActionSource {
     	if( allowUpdate && listeners.isEmpty() )
     		updateSeparators();
     	
-        int sum = 0;
-        
-        for( int i = 0; i < index; i++ )
-            sum += sources.get( i ).getDockActionCount();
-        
-        return sum;
+    	if( index <= 0 )
+    		return 0;
+    	
+    	return counts()[ index ];
     }
 
     public DockAction getDockAction( int index ) {
     	if( listeners.isEmpty() )
     		updateSeparators();
     	
-    	int sum = 0;
-        for( int i = 0, n = sources.size(); i<n; i++ ){
-            int length = sources.get( i ).getDockActionCount();
-            if( sum <= index && index < sum + length )
-                return sources.get( i ).getDockAction( index - sum );
-            
-            sum += length;
-        }
-        
-        throw new ArrayIndexOutOfBoundsException();
+    	int[] counts = counts();
+    	if( index < 0 || index >= counts[ counts.length-1 ] )
+    		throw new ArrayIndexOutOfBoundsException();
+    	
+    	// search the last source starting at or before index, that source cannot be empty
+    	int low = 0;
+    	int high = counts.length-2;
+    	while( low < high ){
+    		int mid = (low + high + 1) >>> 1;
+    		if( counts[ mid ] <= index )
+    			low = mid;
+    		else
+    			high = mid-1;
+    	}
+    	
+    	return sources.get( low ).getDockAction( index - counts[ low ] );
+    }
+    
+    /**
+     * Gets the number of actions of the children with index 0 (incl) to <code>i</code> (excl) at
+     * index <code>i</code> of the result. The result is cached as long as the children are observed.
+     * @return the prefix sums of the number of actions of the children
+     */
+    private int[] counts(){
+    	int[] result = counts;
+    	if( result == null ){
+    		int size = sources.size();
+    		result = new int[ size+1 ];
+    		for( int i = 0; i < size; i++ ){
+    			result[i+1] = result[i] + sources.get( i ).getDockActionCount();
+    		}
+    		if( !listeners.isEmpty() )
+    			counts = result;
+    	}
+    	return result;
+    }
+    
+    /**
+     * Discards any cached information about the children of this source.
+     */
+    private void invalidate(){
+    	counts = null;
+    	actionSources = null;
     }
     
     /**
@@ -334,12 +391,14 @@ public class MultiDockActionSource extends AbstractDockActionSource {
      */
     private class Listener implements DockActionSourceListener{
         public void actionsAdded( DockActionSource source, int firstIndex, int lastIndex ) {
+            invalidate();
             int index = getDockActionCountUntil( sources.indexOf( source ), false );
             fireAdded( firstIndex + index, lastIndex + index );
             updateSeparators();
         }
 
         public void actionsRemoved( DockActionSource source, int firstIndex, int lastIndex ) {
+            invalidate();
             int index = getDockActionCountUntil( sources.indexOf( source ), false );
             fireRemoved( firstIndex + index, lastIndex + index );
             updateSeparators();
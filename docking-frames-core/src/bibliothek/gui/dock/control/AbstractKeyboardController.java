@@ -52,6 +52,9 @@ public abstract class AbstractKeyboardController implements KeyboardController{
 	/** the controller in whose realm this {@link KeyboardController} works */
 	private DockController controller;
 	
+	/** forwards events to the {@link #keyListeners}, reused to avoid allocations */
+	private Forwarder forwarder = new Forwarder();
+	
 	/**
 	 * Creates a new {@link KeyboardController}.
 	 * @param controller the controller in whose realm this <code>KeyBoardController</code>
@@ -98,12 +101,8 @@ public abstract class AbstractKeyboardController implements KeyboardController{
     		if( representative != null ){
     		    DockElement element = representative.getElement();
     		    
-        		List<KeyboardListener> list = keyListeners.affected( element );
-        		loop:for( KeyboardListener listener : list ){
-        			if( listener.keyPressed( element, event )){
-        				event.consume();
-        				break loop;
-        			}
+        		if( forward( element, event, KeyEvent.KEY_PRESSED )){
+        			event.consume();
         		}
     		}
 		}
@@ -125,12 +124,8 @@ public abstract class AbstractKeyboardController implements KeyboardController{
     		if( representative != null ){
     		    DockElement element = representative.getElement();
     		    
-        		List<KeyboardListener> list = keyListeners.affected( element );
-        		loop:for( KeyboardListener listener : list ){
-        			if( listener.keyReleased( element, event )){
-        				event.consume();
-        				break loop;
-        			}
+        		if( forward( element, event, KeyEvent.KEY_RELEASED )){
+        			event.consume();
         		}
     		}
 		}
@@ -151,12 +146,8 @@ public abstract class AbstractKeyboardController implements KeyboardController{
 			DockElementRepresentative representative = controller.searchElement( event.getComponent() );
     		if( representative != null ){
     		    DockElement element = representative.getElement();
-        		List<KeyboardListener> list = keyListeners.affected( element );
-        		loop:for( KeyboardListener listener : list ){
-        			if( listener.keyTyped( element, event )){
-        				event.consume();
-        				break loop;
-        			}
+        		if( forward( element, event, KeyEvent.KEY_TYPED )){
+        			event.consume();
         		}
     		}
 		}
@@ -165,4 +156,58 @@ public abstract class AbstractKeyboardController implements KeyboardController{
 		    listener.keyTyped( event );
 		}
 	}
+	
+	/**
+	 * Forwards <code>event</code> to the {@link KeyboardListener}s whose location is
+	 * <code>element</code> or a parent of <code>element</code>, until one listener
+	 * consumes the event.
+	 * @param element the element on which the event occurred
+	 * @param event the event to forward
+	 * @param id the kind of event, one of {@link KeyEvent#KEY_PRESSED}, {@link KeyEvent#KEY_RELEASED}
+	 * or {@link KeyEvent#KEY_TYPED}
+	 * @return <code>true</code> if a listener consumed the event
+	 */
+	private boolean forward( DockElement element, KeyEvent event, int id ){
+		Forwarder forwarder = this.forwarder;
+		if( forwarder.event != null ){
+			// nested event, the shared forwarder is still in use
+			forwarder = new Forwarder();
+		}
+		try{
+			forwarder.element = element;
+			forwarder.event = event;
+			forwarder.id = id;
+			return keyListeners.visit( element, forwarder );
+		}
+		finally{
+			forwarder.element = null;
+			forwarder.event = null;
+		}
+	}
+	
+	/**
+	 * Calls one method of each visited {@link KeyboardListener}.
+	 * @author Benjamin Sigg
+	 */
+	private static class Forwarder implements LocatedListenerList.Visitor<KeyboardListener>{
+		/** the element on which the event occurred */
+		private DockElement element;
+		/** the event to forward, <code>null</code> if this forwarder is not in use */
+		private KeyEvent event;
+		/** the kind of {@link #event} */
+		private int id;
+		
+		public boolean visit( KeyboardListener listener ){
+			switch( id ){
+				case KeyEvent.KEY_PRESSED:
+					return listener.keyPressed( element, event );
+				case KeyEvent.KEY_RELEASED:
+					return listener.keyReleased( element, event );
+				case KeyEvent.KEY_TYPED:
+					return listener.keyTyped( element, event );
+				default:
+					return false;
+			}
+		}
+	}
 }
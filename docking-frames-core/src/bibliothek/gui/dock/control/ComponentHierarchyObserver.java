@@ -25,10 +25,15 @@
  */
 package bibliothek.gui.dock.control;
 
+import java.awt.AWTEvent;
 import java.awt.Component;
 import java.awt.Container;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
 import java.awt.event.ContainerEvent;
 import java.awt.event.ContainerListener;
+import java.awt.event.HierarchyEvent;
 import java.util.*;
 
 import bibliothek.gui.DockController;
@@ -37,6 +42,9 @@ import bibliothek.gui.dock.DockElementRepresentative;
 import bibliothek.gui.dock.event.ComponentHierarchyObserverEvent;
 import bibliothek.gui.dock.event.ComponentHierarchyObserverListener;
 import bibliothek.gui.dock.event.DockControllerRepresentativeListener;
+import bibliothek.gui.dock.util.PropertyKey;
+import bibliothek.gui.dock.util.PropertyValue;
+import bibliothek.gui.dock.util.property.ConstantPropertyFactory;
 
 /**
  * A class collecting all {@link Component}s which are somehow used on or with
@@ -44,10 +52,23 @@ import bibliothek.gui.dock.event.DockControllerRepresentativeListener;
  * A global instance of {@link ComponentHierarchyObserver} can be obtained
  * through {@link DockController#getComponentHierarchyObserver()}.<br>
  * Note that a hierarchy observer may also know {@link Component}s which are
- * not directly associated with {@link Dockable}s.
+ * not directly associated with {@link Dockable}s.<br>
+ * If the property {@link #COALESCE_EVENTS} is set, then the observer does not add a {@link ContainerListener}
+ * to each {@link Container}, but uses one global {@link AWTEventListener} to receive {@link HierarchyEvent}s.
+ * All the changes that happen until the {@link EventQueue} is idle again are collected and reported by at
+ * most two events. In this mode {@link #getComponents()} may be slightly outdated while the hierarchy is
+ * changing.
  * @author Benjamin Sigg
  */
 public class ComponentHierarchyObserver {
+	/**
+	 * Whether changes in the hierarchy of {@link Component}s are collected and reported once per cycle of
+	 * the {@link EventQueue}, the default value is <code>false</code>. In a restricted environment this
+	 * property has no effect.
+	 */
+	public static final PropertyKey<Boolean> COALESCE_EVENTS = new PropertyKey<Boolean>( "dock.componentHierarchyObserver.coalesce",
+			new ConstantPropertyFactory<Boolean>( false ), true );
+	
     /**
      * The set of components which were explicitly added to this observer and
      * will not be removed implicitly.
@@ -60,6 +81,26 @@ public class ComponentHierarchyObserver {
     /** a listener to all {@link Container}s */
     private Listener listener = new Listener();
     
+    /** whether {@link #listener} is added to the known {@link Container}s */
+    private boolean containerListening = true;
+    
+    /** the global listener used if events are coalesced, can be <code>null</code> */
+    private AWTEventListener hierarchyListener;
+    
+    /** the {@link Component}s whose parent changed since the last {@link #flush()} */
+    private Set<Component> pending = new LinkedHashSet<Component>();
+    
+    /** whether a call to {@link #flush()} is already scheduled */
+    private boolean flushScheduled = false;
+    
+    /** whether changes are coalesced */
+    private PropertyValue<Boolean> coalesce = new PropertyValue<Boolean>( COALESCE_EVENTS ){
+    	@Override
+    	protected void valueChanged( Boolean oldValue, Boolean newValue ){
+    		setCoalescing( newValue );
+    	}
+    };
+    
     /** the controller in whose realm this observer works */
     private DockController controller;
     
@@ -82,6 +123,75 @@ public class ComponentHierarchyObserver {
                 remove( representative.getComponent() );
             }
         });
+        
+        coalesce.setProperties( controller );
+        setCoalescing( coalesce.getValue() );
+    }
+    
+    /**
+     * Disposes all resources used by this observer. This method is called by the {@link DockController}
+     * when it gets killed.
+     */
+    public void kill(){
+    	coalesce.setProperties( (DockController)null );
+    	setCoalescing( false );
+    }
+    
+    /**
+     * Tells whether this observer currently collects changes and reports them once per cycle of the
+     * {@link EventQueue}.
+     * @return whether events are coalesced
+     * @see #COALESCE_EVENTS
+     */
+    public boolean isCoalescing(){
+    	return hierarchyListener != null;
+    }
+    
+    private void setCoalescing( Boolean coalescing ){
+    	boolean value = coalescing != null && coalescing.booleanValue();
+    	if( value == isCoalescing() ){
+    		return;
+    	}
+    	
+    	if( value ){
+    		AWTEventListener listener = new HierarchyListener();
+    		try{
+    			Toolkit.getDefaultToolkit().addAWTEventListener( listener, AWTEvent.HIERARCHY_EVENT_MASK );
+    		}
+    		catch( SecurityException ex ){
+    			// restricted environment, keep the ContainerListeners
+    			return;
+    		}
+    		hierarchyListener = listener;
+    		setContainerListening( false );
+    	}
+    	else{
+    		try{
+    			Toolkit.getDefaultToolkit().removeAWTEventListener( hierarchyListener );
+    		}
+    		catch( SecurityException ex ){
+    			// ignore
+    		}
+    		hierarchyListener = null;
+    		flush();
+    		setContainerListening( true );
+    	}
+    }
+    
+    private void setContainerListening( boolean listening ){
+    	if( containerListening != listening ){
+    		containerListening = listening;
+    		for( Component component : components ){
+    			if( component instanceof Container ){
+    				if( listening ){
+    					((Container)component).addContainerListener( listener );
+    				}
+    				else{
+    					((Container)component).removeContainerListener( listener );
+    				}
+    			}
+    		}
+    	}
     }
     
     /**
@@ -155,13 +265,15 @@ public class ComponentHierarchyObserver {
     private void add( Component component, List<Component> list ){
         boolean fire = list == null;
         if( fire )
-            list = new LinkedList<Component>();
+            list = new ArrayList<Component>();
         
         if( components.add( component )){
             list.add( component );
             if( component instanceof Container ){
                 Container container = (Container)component;
-                container.addContainerListener( listener );
+                if( containerListening ){
+                	container.addContainerListener( listener );
+                }
                 for( int i = 0, n = container.getComponentCount(); i<n; i++ ){
                     add( container.getComponent( i ), list );
                 }
@@ -169,10 +281,7 @@ public class ComponentHierarchyObserver {
         }
         
         if( fire && !list.isEmpty() ){
-            list = Collections.unmodifiableList( list );
-            ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list );
-            for( ComponentHierarchyObserverListener listener : listeners() )
-                listener.added( event );
+            fireAdded( list );
         }
     }
     
@@ -199,13 +308,15 @@ public class ComponentHierarchyObserver {
         if( !roots.contains( component )){
             boolean fire = list == null;
             if( fire )
-                list = new LinkedList<Component>();
+                list = new ArrayList<Component>();
             
             if( components.remove( component )){
                 list.add( component );
                 if( component instanceof Container ){
                     Container container = (Container)component;
-                    container.removeContainerListener( listener );
+                    if( containerListening ){
+                    	container.removeContainerListener( listener );
+                    }
                     for( int i = 0, n = container.getComponentCount(); i<n; i++ ){
                         remove( container.getComponent( i ), list );
                     }
@@ -213,14 +324,89 @@ public class ComponentHierarchyObserver {
             }
             
             if( fire && !list.isEmpty() ){
-                list = Collections.unmodifiableList( list );
-                ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list );
-                for( ComponentHierarchyObserverListener listener : listeners() )
-                    listener.removed( event );
+                fireRemoved( list );
             }
         }
     }
     
+    private void fireAdded( List<Component> list ){
+    	ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list.toArray( new Component[ list.size() ] ) );
+        for( ComponentHierarchyObserverListener listener : listeners() )
+            listener.added( event );
+    }
+    
+    private void fireRemoved( List<Component> list ){
+    	ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list.toArray( new Component[ list.size() ] ) );
+    	for( ComponentHierarchyObserverListener listener : listeners() )
+    		listener.removed( event );
+    }
+    
+    /**
+     * Called if the parent of <code>component</code> changed while events are coalesced. Schedules
+     * a call to {@link #flush()} if necessary.
+     * @param component the component whose parent changed
+     */
+    private void parentChanged( Component component ){
+    	synchronized( pending ){
+    		pending.add( component );
+    		if( flushScheduled ){
+    			return;
+    		}
+    		flushScheduled = true;
+    	}
+    	EventQueue.invokeLater( new Runnable(){
+    		public void run(){
+    			flush();
+    		}
+    	});
+    }
+    
+    /**
+     * Handles all the {@link Component}s whose parent changed since the last call to this method, and
+     * informs the observers about the changes with at most two events.
+     */
+    private void flush(){
+    	Component[] changed;
+    	synchronized( pending ){
+    		flushScheduled = false;
+    		if( pending.isEmpty() ){
+    			return;
+    		}
+    		changed = pending.toArray( new Component[ pending.size() ] );
+    		pending.clear();
+    	}
+    	
+    	List<Component> added = new ArrayList<Component>();
+    	List<Component> removed = new ArrayList<Component>();
+    	
+    	for( Component component : changed ){
+    		Container parent = component.getParent();
+    		if( parent != null && components.contains( parent )){
+    			add( component, added );
+    		}
+    		else if( components.contains( component )){
+    			remove( component, removed );
+    		}
+    	}
+    	
+    	if( !added.isEmpty() && !removed.isEmpty() ){
+    		// components that were removed and added again, or added and removed again, did not change
+    		Set<Component> both = new HashSet<Component>( added );
+    		both.retainAll( removed );
+    		if( !both.isEmpty() ){
+    			added.removeAll( both );
+    			removed.removeAll( both );
+    		}
+    	}
+    	
+    	if( !removed.isEmpty() ){
+    		fireRemoved( removed );
+    	}
+    	if( !added.isEmpty() ){
+    		fireAdded( added );
+    	}
+    }
+    
     /**
      * A listener to {@link Container}s, triggered when {@link Component}s
      * are added or removed.
@@ -235,6 +421,35 @@ public class ComponentHierarchyObserver {
             remove( e.getChild(), null );
         }
     }
+    
+    /**
+     * A listener to all {@link HierarchyEvent}s, used if events are coalesced. This listener is called for
+     * any {@link Component} of the application, on whatever thread modifies the {@link Component}.
+     * @author Benjamin Sigg
+     */
+    private class HierarchyListener implements AWTEventListener{
+    	public void eventDispatched( AWTEvent event ){
+    		if( event instanceof HierarchyEvent ){
+    			HierarchyEvent hierarchy = (HierarchyEvent)event;
+    			if( (hierarchy.getChangeFlags() & HierarchyEvent.PARENT_CHANGED) != 0 ){
+    				Component changed = hierarchy.getChanged();
+    				// the event is forwarded to all children, only the changed component is of interest
+    				if( changed == hierarchy.getComponent() ){
+    					if( !EventQueue.isDispatchThread() ){
+    						// the set of known components must only be read on the EventQueue, flush will filter the component
+    						parentChanged( changed );
+    					}
+    					else{
+    						Container parent = hierarchy.getChangedParent();
+    						if( components.contains( changed ) || (parent != null && components.contains( parent ))){
+    							parentChanged( changed );
+    						}
+    					}
+    				}
+    			}
+    		}
+    	}
+    }
 }
 
 
@@ -30,6 +30,7 @@ import java.util.*;
 import bibliothek.gui.DockController;
 import bibliothek.gui.DockStation;
 import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.event.DockRegisterBatchListener;
 import bibliothek.gui.dock.event.DockRegisterListener;
 import bibliothek.gui.dock.event.DockStationAdapter;
 import bibliothek.gui.dock.event.DockStationListener;
@@ -47,9 +48,14 @@ public class DockRegister {
 	/** these protected stations can never be removed through a drag and drop operation */
 	private Set<DockStation> protectedStations = new HashSet<DockStation>();
 	/** the known stations */
-    private List<DockStation> stations = new ArrayList<DockStation>();
+    private Set<DockStation> stations = new LinkedHashSet<DockStation>();
     /** the known dockables */
-    private List<Dockable> dockables = new ArrayList<Dockable>();
+    private Set<Dockable> dockables = new LinkedHashSet<Dockable>();
+    
+    /** {@link #stations} as array, <code>null</code> if not yet created or if {@link #stations} changed */
+    private DockStation[] stationArray;
+    /** {@link #dockables} as array, <code>null</code> if not yet created or if {@link #dockables} changed */
+    private Dockable[] dockableArray;
     
     /** The controller for which the dockables and stations are stored */
     private DockController controller;
@@ -57,6 +63,14 @@ public class DockRegister {
     /** a list of registerListeners which are informed whenever the registered dockables and stations change */
     private List<DockRegisterListener> registerListeners = new ArrayList<DockRegisterListener>();
     
+    /** {@link #registerListeners} as array, <code>null</code> if not yet created or if {@link #registerListeners} changed */
+    private DockRegisterListener[] registerListenerArray;
+    
+    /** the {@link Dockable}s that were registered while the stalled events were fired, <code>null</code> if not firing */
+    private List<Dockable> batchRegistered;
+    /** the {@link Dockable}s that were unregistered while the stalled events were fired, <code>null</code> if not firing */
+    private List<Dockable> batchUnregistered;
+    
     /** an observer of the stations */
     private StationListener stationListener = new StationListener();
     
@@ -97,6 +111,7 @@ public class DockRegister {
      */
     public void addDockRegisterListener( DockRegisterListener listener ){
     	registerListeners.add( listener );
+    	registerListenerArray = null;
     }
     
     /**
@@ -105,7 +120,9 @@ public class DockRegister {
      * @see #addDockRegisterListener(DockRegisterListener)
      */
     public void removeDockRegisterListener( DockRegisterListener listener ){
-    	registerListeners.remove( listener );
+    	if( registerListeners.remove( listener )){
+    		registerListenerArray = null;
+    	}
     }
     
     /**
@@ -247,7 +264,7 @@ public class DockRegister {
      * @return the station
      */
     public DockStation getStation( int index ){
-        return stations.get( index );
+        return stationArray()[ index ];
     }
     
     /**
@@ -255,7 +272,29 @@ public class DockRegister {
      * @return the modifiable array of stations
      */
     public DockStation[] listDockStations(){
-    	return stations.toArray( new DockStation[ stations.size() ] );
+    	return stationArray().clone();
+    }
+    
+    /**
+     * Gets {@link #stations} as array, the array is cached until {@link #stations} changes.
+     * @return the array, must not be modified
+     */
+    private DockStation[] stationArray(){
+    	if( stationArray == null ){
+    		stationArray = stations.toArray( new DockStation[ stations.size() ] );
+    	}
+    	return stationArray;
+    }
+    
+    /**
+     * Gets {@link #dockables} as array, the array is cached until {@link #dockables} changes.
+     * @return the array, must not be modified
+     */
+    private Dockable[] dockableArray(){
+    	if( dockableArray == null ){
+    		dockableArray = dockables.toArray( new Dockable[ dockables.size() ] );
+    	}
+    	return dockableArray;
     }
 
     /**
@@ -288,7 +327,7 @@ public class DockRegister {
      * @return the element
      */
     public Dockable getDockable( int index ){
-        return dockables.get( index );
+        return dockableArray()[ index ];
     }
     
     /**
@@ -330,7 +369,19 @@ public class DockRegister {
      * @return the list of Dockables
      */
     public Dockable[] listDockables(){
-    	return dockables.toArray( new Dockable[ dockables.size() ] );
+    	return dockableArray().clone();
+    }
+    
+    /**
+     * Tells whether this register is currently firing the events that were collected while
+     * it was {@link #isStalled() stalled}. Once all these events are fired, the {@link DockRegisterBatchListener}s
+     * receive a summary through {@link DockRegisterBatchListener#dockablesRegistered(DockController, Collection)} and
+     * {@link DockRegisterBatchListener#dockablesUnregistered(DockController, Collection)}. Listeners which are only 
+     * interested in the summary can ignore the single events while this method returns <code>true</code>.
+     * @return whether stalled events are currently fired
+     */
+    public boolean isFiringStalledEvents(){
+    	return batchRegistered != null;
     }
     
     /**
@@ -344,8 +395,12 @@ public class DockRegister {
             fireDockableRegistering( dockable );
             
             dockables.add( dockable );
+            dockableArray = null;
             dockable.setController( controller );
             
+            if( batchRegistered != null ){
+            	batchRegistered.add( dockable );
+            }
             fireDockableRegistered( dockable );
         }
     }
@@ -358,8 +413,12 @@ public class DockRegister {
      */
     protected void unregister( Dockable dockable ){
         if( dockables.remove( dockable ) ){
+        	dockableArray = null;
             dockable.setController( null );
             
+            if( batchUnregistered != null ){
+            	batchUnregistered.add( dockable );
+            }
             fireDockableUnregistered( dockable );
         }
     }
@@ -378,6 +437,7 @@ public class DockRegister {
         	fireDockStationRegistering( station );
             
             stations.add( station );
+            stationArray = null;
             
             station.setController( controller );
             station.updateTheme();
@@ -398,6 +458,7 @@ public class DockRegister {
      */
     protected void unregister( DockStation station ){
         if( stations.remove( station ) ){
+        	stationArray = null;
         	station.setController( null );
             station.removeDockStationListener( stationListener );
             
@@ -406,11 +467,16 @@ public class DockRegister {
     }
 
     /**
-     * Gets a list of all registerListeners which are registered.
+     * Gets a list of all registerListeners which are registered. This list is used by all the
+     * <code>fire</code> methods. The default implementation returns an array that is cached until
+     * a listener is added or removed, hence the array must not be modified.
      * @return the list of registerListeners
      */
     protected DockRegisterListener[] listDockRegisterListeners(){
-    	return registerListeners.toArray( new DockRegisterListener[ registerListeners.size() ] );
+    	if( registerListenerArray == null ){
+    		registerListenerArray = registerListeners.toArray( new DockRegisterListener[ registerListeners.size() ] );
+    	}
+    	return registerListenerArray;
     }
     
     /**
@@ -478,6 +544,32 @@ public class DockRegister {
             listener.dockableCycledRegister( controller, dockable );
     }
     
+    /**
+     * Informs all registerListeners that <code>dockables</code> have been registered
+     * while the stalled events were fired.
+     * @param dockables the registered elements, not modifiable
+     */
+    protected void fireDockablesRegistered( Collection<Dockable> dockables ){
+    	for( DockRegisterListener listener : listDockRegisterListeners() ){
+    		if( listener instanceof DockRegisterBatchListener ){
+    			((DockRegisterBatchListener)listener).dockablesRegistered( controller, dockables );
+    		}
+    	}
+    }
+    
+    /**
+     * Informs all registerListeners that <code>dockables</code> have been unregistered
+     * while the stalled events were fired.
+     * @param dockables the unregistered elements, not modifiable
+     */
+    protected void fireDockablesUnregistered( Collection<Dockable> dockables ){
+    	for( DockRegisterListener listener : listDockRegisterListeners() ){
+    		if( listener instanceof DockRegisterBatchListener ){
+    			((DockRegisterBatchListener)listener).dockablesUnregistered( controller, dockables );
+    		}
+    	}
+    }
+    
     /**
      * Informs all {@link DockRegisterListener} that this {@link DockRegister} is
      * stalled.
@@ -560,8 +652,13 @@ public class DockRegister {
         
         public void fire(){
             if( !firing ){
+            	List<Dockable> registered = new ArrayList<Dockable>();
+            	List<Dockable> unregistered = new ArrayList<Dockable>();
+            	
                 try{
                     firing = true;
+                    batchRegistered = registered;
+                    batchUnregistered = unregistered;
                     
                     while( !changeQueue.isEmpty() ){
                     	Dockable next = changeQueue.removeFirst();
@@ -583,6 +680,20 @@ public class DockRegister {
                 }
                 finally{
                     firing = false;
+                    batchRegistered = null;
+                    batchUnregistered = null;
+                    
+                    // listeners ignoring the single events rely on the summary, even if a listener threw an exception
+                    try{
+                        if( !registered.isEmpty() ){
+                            fireDockablesRegistered( Collections.unmodifiableList( registered ) );
+                        }
+                    }
+                    finally{
+                        if( !unregistered.isEmpty() ){
+                            fireDockablesUnregistered( Collections.unmodifiableList( unregistered ) );
+                        }
+                    }
                 }
             }
         }
@@ -25,8 +25,12 @@
  */
 package bibliothek.gui.dock.control.focus;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import bibliothek.gui.DockController;
 import bibliothek.gui.DockStation;
@@ -102,7 +106,21 @@ public class DefaultFocusHistory implements FocusHistory{
 	 */
 	private class Listener extends DockRegisterAdapter implements DockableFocusListener{
 		public void dockableUnregistered( DockController controller, Dockable dockable ){
-			history.remove( dockable );
+			if( !controller.getRegister().isFiringStalledEvents() ){
+				history.remove( dockable );
+			}
+		}
+		
+		@Override
+		public void dockablesUnregistered( DockController controller, Collection<Dockable> dockables ){
+			Set<Dockable> removed = new HashSet<Dockable>( dockables );
+			Iterator<Dockable> iterator = history.iterator();
+			while( iterator.hasNext() ){
+				Dockable next = iterator.next();
+				if( removed.contains( next ) && !controller.getRegister().isRegistered( next )){
+					iterator.remove();
+				}
+			}
 		}
 		
 		public void dockableFocused( DockableFocusEvent event ){
@@ -36,6 +36,7 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +63,8 @@ import bibliothek.gui.dock.event.DockControllerRepresentativeListener;
 import bibliothek.gui.dock.station.StationDragOperation;
 import bibliothek.gui.dock.station.StationDropItem;
 import bibliothek.gui.dock.station.StationDropOperation;
+import bibliothek.gui.dock.station.layer.DockStationDropLayer;
+import bibliothek.gui.dock.station.layer.DropLayerIndex;
 import bibliothek.gui.dock.station.layer.OrderedLayerCollection;
 import bibliothek.gui.dock.title.DockTitle;
 import bibliothek.gui.dock.util.DockUtilities;
@@ -108,6 +111,12 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
     /** information about the last dragged dockable */
     private StationDropItem lastItem;
     
+    /** index of all the drop layers, only available while a drag and drop operation is running */
+    private DropLayerIndex layerIndex;
+    
+    /** the layers found by {@link #layerIndex}, reused for every movement of the mouse */
+    private List<DockStationDropLayer> indexedLayers = new ArrayList<DockStationDropLayer>();
+    
 	/**
 	 * Creates a new manager.
 	 * @param controller the controller whose dockables are moved
@@ -374,6 +383,10 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
      * @return a list of stations
      */
     protected List<DockStation> listStationsOrdered( int x, int y, Dockable moved ){
+    	if( layerIndex != null ){
+    		return listStationsIndexed( x, y, moved );
+    	}
+    	
     	DockController controller = getController();
     	DisablingStrategy disabling = controller.getProperties().get( DisablingStrategy.STRATEGY );
     	OrderedLayerCollection collection = new OrderedLayerCollection();
@@ -382,12 +395,8 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
 	        DockStation movedStation = moved.asDockStation();
 	        if( !isCancelLocation( x, y, moved )){
 	        	for( DockStation station : controller.getRegister().listDockStations() ){
-	        		if( disabling == null || !disabling.isDisabled( station )){
-		        		if( movedStation == null || (!DockUtilities.isAncestor( movedStation, station ) && movedStation != station )){
-		        			if( station.isStationShowing() && isStationValid( station ) ){
-		        				collection.add( station );
-			                }
-			            }
+	        		if( isStationCandidate( station, movedStation, disabling )){
+	        			collection.add( station );
 	        		}
 		        }
 	        }
@@ -395,6 +404,84 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
 	    return collection.sort( x, y );
     }
     
+    /**
+     * Does the same as {@link #listStationsOrdered(int, int, Dockable)}, but uses the {@link DropLayerIndex} 
+     * of the current drag and drop operation to visit only the stations whose layers contain <code>x/y</code>. The
+     * index checks whether these stations are candidates, see {@link #createDropLayerIndex(Dockable)}.
+     * @param x x-coordinate on the screen
+     * @param y y-coordinate on the screen
+     * @param moved a Dockable which is dragged
+     * @return a list of stations
+     */
+    private List<DockStation> listStationsIndexed( int x, int y, Dockable moved ){
+    	DisablingStrategy disabling = getController().getProperties().get( DisablingStrategy.STRATEGY );
+    	
+    	if( disabling != null && disabling.isDisabled( moved )){
+    		return new ArrayList<DockStation>();
+    	}
+    	if( isCancelLocation( x, y, moved )){
+    		return new ArrayList<DockStation>();
+    	}
+    	
+    	try{
+	    	layerIndex.getLayersAt( x, y, indexedLayers );
+	    	return layerIndex.sortLayers( indexedLayers );
+    	}
+    	finally{
+    		indexedLayers.clear();
+    	}
+    }
+    
+    /**
+     * Tells whether <code>station</code> may be the new parent of the dragged element.
+     * @param station the station to check
+     * @param movedStation the dragged element, can be <code>null</code> if the element is not a station
+     * @param disabling the current {@link DisablingStrategy}, can be <code>null</code>
+     * @return <code>true</code> if <code>station</code> can be the target of the drop operation
+     */
+    private boolean isStationCandidate( DockStation station, DockStation movedStation, DisablingStrategy disabling ){
+    	if( disabling != null && disabling.isDisabled( station )){
+    		return false;
+    	}
+    	if( movedStation != null && (DockUtilities.isAncestor( movedStation, station ) || movedStation == station )){
+    		return false;
+    	}
+    	return station.isStationShowing() && isStationValid( station );
+    }
+    
+    /**
+     * Creates a new {@link DropLayerIndex} which is used to find the possible targets of a drag and drop
+     * operation. This method is called once every time a new drag and drop operation starts. Subclasses may
+     * return <code>null</code>, in which case all the registered stations are searched for every movement
+     * of the mouse.<br>
+     * The index must only accept the stations which are candidates for <code>moved</code>, as the
+     * {@link bibliothek.gui.dock.station.layer.DockStationDropLayer}s of the other stations must not modify
+     * the layers of their children. The index asks for each search, hence the candidates may change while
+     * the operation is running.
+     * @param moved the element that is going to be dragged
+     * @return the new index or <code>null</code>
+     */
+    protected DropLayerIndex createDropLayerIndex( Dockable moved ){
+    	final DockStation movedStation = moved.asDockStation();
+    	return new DropLayerIndex( getController() ){
+    		@Override
+    		protected boolean isIndexed( DockStation station ){
+    			DisablingStrategy disabling = getController().getProperties().get( DisablingStrategy.STRATEGY );
+    			return isStationCandidate( station, movedStation, disabling );
+    		}
+    	};
+    }
+    
+    /**
+     * Releases the current {@link DropLayerIndex}, if there is one.
+     */
+    private void releaseDropLayerIndex(){
+    	if( layerIndex != null ){
+    		layerIndex.unbind();
+    		layerIndex = null;
+    	}
+    }
+    
     /**
      * Checks whether the mouse is at a location that cancels a drag and drop operation. This method just calls
      * {@link #isCancelLocation(int, int, DockElementRepresentative)} with all the {@link DockElementRepresentative}
@@ -409,8 +496,8 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
     		return true;
     	}
     	DockController controller = moved.getController();
-    	for( DockElementRepresentative item : controller.getRepresentatives( moved ) ){
-    		if( isCancelLocation( x, y, item )){
+    	for( int i = 0, n = controller.getRepresentativeCount( moved ); i < n; i++ ){
+    		if( isCancelLocation( x, y, controller.getRepresentative( moved, i ) )){
     			return true;
     		}
     	}
@@ -634,6 +721,12 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
             
             onMove = true;
             
+            releaseDropLayerIndex();
+            layerIndex = createDropLayerIndex( dockable );
+            if( layerIndex != null ){
+            	layerIndex.bind();
+            }
+            
             DockStation parent = dockable.getDockParent();
             if( dragOperation != null ){
         		dragOperation.canceled();
@@ -871,6 +964,7 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
             	dragOperation = null;
             }
 
+            releaseDropLayerIndex();
             movingImageWindow = null;
             pressPointScreen = null;
             pressPointLocal = null;
@@ -938,6 +1032,7 @@ public class DefaultDockRelocator extends AbstractDockRelocator{
 	        if( movingImageWindow != null )
 	            movingImageWindow.close();
 	        
+	        releaseDropLayerIndex();
 	        lastItem = null;
 	        movingImageWindow = null;
 	        pressPointScreen = null;
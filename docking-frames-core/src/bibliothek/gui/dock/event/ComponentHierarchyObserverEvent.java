@@ -26,6 +26,8 @@
 package bibliothek.gui.dock.event;
 
 import java.awt.Component;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import bibliothek.gui.DockController;
@@ -51,6 +53,16 @@ public class ComponentHierarchyObserverEvent {
         this.components = components;
     }
     
+    /**
+     * Creates a new event
+     * @param source the source of the event
+     * @param components the components that have been added or removed, this array
+     * is used directly and must not be modified afterwards
+     */
+    public ComponentHierarchyObserverEvent( DockController source, Component[] components ){
+    	this( source, Collections.unmodifiableList( Arrays.asList( components ) ) );
+    }
+    
     /**
      * Gets the source of the event.
      * @return the source
@@ -25,15 +25,18 @@
  */
 package bibliothek.gui.dock.event;
 
+import java.util.Collection;
+
 import bibliothek.gui.DockController;
 import bibliothek.gui.DockStation;
 import bibliothek.gui.Dockable;
 
 /**
- * A {@link DockRegisterListener} that contains only empty methods.
+ * A {@link DockRegisterListener} that contains only empty methods. The adapter implements
+ * {@link DockRegisterBatchListener} too, subclasses can override the methods they need.
  * @author Benjamin Sigg
  */
-public class DockRegisterAdapter implements DockRegisterListener{
+public class DockRegisterAdapter implements DockRegisterBatchListener{
 	public void registerStalled( DockController controller ){
 		// do nothing
 	}
@@ -69,4 +72,12 @@ public class DockRegisterAdapter implements DockRegisterListener{
     public void dockableUnregistered( DockController controller, Dockable dockable ) {
         // do nothing
     }
+    
+    public void dockablesRegistered( DockController controller, Collection<Dockable> dockables ){
+    	// do nothing
+    }
+    
+    public void dockablesUnregistered( DockController controller, Collection<Dockable> dockables ){
+    	// do nothing
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.event;
+
+import java.util.Collection;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.control.DockRegister;
+
+/**
+ * A {@link DockRegisterListener} that is also informed about all the {@link Dockable}s that were
+ * added or removed while the {@link DockRegister} was {@link DockRegister#isStalled() stalled}. The
+ * {@link DockRegister} calls these additional methods only for listeners implementing this interface.
+ * @author Benjamin Sigg
+ */
+public interface DockRegisterBatchListener extends DockRegisterListener{
+    /**
+     * Invoked after the {@link DockRegister} fired all the events that were collected while it was
+     * {@link DockRegister#isStalled() stalled}, and some of these events were about new {@link Dockable}s.
+     * The single events, like {@link #dockableRegistered(DockController, Dockable)}, have already been
+     * fired. Listeners can check {@link DockRegister#isFiringStalledEvents()} to ignore the single events
+     * and handle all the elements at once in this method.
+     * @param controller the controller where the elements were added
+     * @param dockables all the {@link Dockable}s that were registered, in the order in which they were registered
+     */
+    public void dockablesRegistered( DockController controller, Collection<Dockable> dockables );
+    
+    /**
+     * Invoked after the {@link DockRegister} fired all the events that were collected while it was
+     * {@link DockRegister#isStalled() stalled}, and some of these events were about removed {@link Dockable}s.
+     * The single events, like {@link #dockableUnregistered(DockController, Dockable)}, have already been
+     * fired.
+     * @param controller the controller from where the elements were removed
+     * @param dockables all the {@link Dockable}s that were unregistered, in the order in which they were unregistered
+     * @see #dockablesRegistered(DockController, Collection)
+     */
+    public void dockablesUnregistered( DockController controller, Collection<Dockable> dockables );
+}
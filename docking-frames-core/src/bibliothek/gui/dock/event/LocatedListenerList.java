@@ -27,30 +27,54 @@
 package bibliothek.gui.dock.event;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.DockElement;
-import bibliothek.gui.dock.util.DockUtilities;
 
 /**
  * An object that can hold some {@link LocatedListener}s and order and filter
- * them regarding to one element of the tree.
+ * them regarding to one element of the tree.<br>
+ * The listeners are stored in buckets, one bucket for each {@link LocatedListener#getTreeLocation() location}.
+ * To find the listeners affected by an event only the parents of the source of the event
+ * need to be visited. The location of a listener is read when the listener is added, it 
+ * must not change as long as the listener is stored in this list.
  * @param <L> the type of listeners in this list
  * @author Benjamin Sigg
  */
 public class LocatedListenerList<L extends LocatedListener> {
-	/** the listener of listeners known to this list */
-	private List<L> listeners = new ArrayList<L>();
+	/** the listeners with a location, stored by their location */
+	private Map<DockElement, Object[]> buckets = new IdentityHashMap<DockElement, Object[]>();
+	
+	/** the listeners whose location is <code>null</code> */
+	private Object[] rootListeners = new Object[0];
+	
+	/** the total number of listeners */
+	private int size = 0;
 
 	/**
 	 * Adds a listener to the list of listeners.
 	 * @param listener the new listener
 	 */
 	public void addListener( L listener ){
-		listeners.add( listener );
+		DockElement location = listener.getTreeLocation();
+		if( location == null ){
+			rootListeners = append( rootListeners, listener );
+		}
+		else{
+			Object[] bucket = buckets.get( location );
+			if( bucket == null ){
+				bucket = new Object[]{ listener };
+			}
+			else{
+				bucket = append( bucket, listener );
+			}
+			buckets.put( location, bucket );
+		}
+		size++;
 	}
 	
 	/**
@@ -58,7 +82,25 @@ public class LocatedListenerList<L extends LocatedListener> {
 	 * @param listener the listener to remove
 	 */
 	public void removeListener( L listener ){
-		listeners.remove( listener );
+		DockElement location = listener.getTreeLocation();
+		if( location == null ){
+			if( removeRoot( listener )){
+				return;
+			}
+		}
+		else if( removeFromBucket( location, listener )){
+			return;
+		}
+		
+		// the location of the listener changed since it was added
+		if( location != null && removeRoot( listener )){
+			return;
+		}
+		for( DockElement key : buckets.keySet() ){
+			if( key != location && removeFromBucket( key, listener )){
+				return;
+			}
+		}
 	}
 	
 	/**
@@ -66,7 +108,7 @@ public class LocatedListenerList<L extends LocatedListener> {
 	 * @return the number of listeners
 	 */
 	public int size(){
-		return listeners.size();
+		return size;
 	}
 	
     /**
@@ -75,38 +117,124 @@ public class LocatedListenerList<L extends LocatedListener> {
      * by the distance of the listeners to <code>element</code>.
      * @param element the element which is the source of an event
      * @return the ordered list of observers
+     * @see #visit(DockElement, Visitor)
      */
     public List<L> affected( DockElement element ){
-        List<L> list = new LinkedList<L>();
-        for( L listener : listeners ){
-            DockElement location = listener.getTreeLocation();
-            if( location == null )
-                list.add( listener );
-            else if( element != null && DockUtilities.isAncestor( location, element ))
-                list.add( listener );
-        }
-        
-        Collections.sort( list, new Comparator<L>(){
-            public int compare( L o1, L o2 ) {
-                DockElement a = o1.getTreeLocation();
-                DockElement b = o2.getTreeLocation();
-                
-                if( a == b )
-                    return 0;
-                
-                if( a == null )
-                    return 1;
-                
-                if( b == null )
-                    return -1;
-                
-                if( DockUtilities.isAncestor( a, b ))
-                    return 1;
-                
-                return -1;
-            }
+        final List<L> list = new ArrayList<L>();
+        visit( element, new Visitor<L>(){
+        	public boolean visit( L listener ){
+        		list.add( listener );
+        		return false;
+        	}
         });
-        
         return list;
     }
+    
+    /**
+     * Calls <code>visitor</code> for all the {@link LocatedListener}s which are affected by
+     * an event which occurs on <code>element</code>. The listeners are visited in the same
+     * order as they appear in the result of {@link #affected(DockElement)}: first the listeners
+     * of <code>element</code>, then the listeners of its parents, and finally the listeners
+     * without location. This method does not allocate any memory.
+     * @param element the element which is the source of an event, can be <code>null</code>
+     * @param visitor the visitor which is called for each listener
+     * @return <code>true</code> if <code>visitor</code> stopped the iteration, <code>false</code>
+     * if all listeners were visited
+     */
+    public boolean visit( DockElement element, Visitor<? super L> visitor ){
+    	if( element != null && !buckets.isEmpty() ){
+    		Dockable dockable = element.asDockable();
+    		DockStation station = null;
+    		
+    		while( dockable != null ){
+    			if( visit( buckets.get( dockable ), visitor )){
+    				return true;
+    			}
+    			station = dockable.getDockParent();
+    			dockable = station == null ? null : station.asDockable();
+    		}
+    		
+    		if( station != null ){
+    			if( visit( buckets.get( station ), visitor )){
+    				return true;
+    			}
+    		}
+    	}
+    	
+    	return visit( rootListeners, visitor );
+    }
+    
+    @SuppressWarnings("unchecked")
+	private boolean visit( Object[] listeners, Visitor<? super L> visitor ){
+    	if( listeners != null ){
+    		for( Object listener : listeners ){
+    			if( visitor.visit( (L)listener )){
+    				return true;
+    			}
+    		}
+    	}
+    	return false;
+    }
+    
+    private boolean removeRoot( L listener ){
+    	Object[] result = remove( rootListeners, listener );
+    	if( result == null ){
+    		return false;
+    	}
+    	rootListeners = result;
+    	size--;
+    	return true;
+    }
+    
+    private boolean removeFromBucket( DockElement location, L listener ){
+    	Object[] bucket = buckets.get( location );
+    	if( bucket == null ){
+    		return false;
+    	}
+    	Object[] result = remove( bucket, listener );
+    	if( result == null ){
+    		return false;
+    	}
+    	if( result.length == 0 ){
+    		buckets.remove( location );
+    	}
+    	else{
+    		buckets.put( location, result );
+    	}
+    	size--;
+    	return true;
+    }
+    
+    private static Object[] append( Object[] array, Object item ){
+    	Object[] result = new Object[ array.length+1 ];
+    	System.arraycopy( array, 0, result, 0, array.length );
+    	result[ array.length ] = item;
+    	return result;
+    }
+    
+    private static Object[] remove( Object[] array, Object item ){
+    	for( int i = 0; i < array.length; i++ ){
+    		if( array[i].equals( item )){
+    			Object[] result = new Object[ array.length-1 ];
+    			System.arraycopy( array, 0, result, 0, i );
+    			System.arraycopy( array, i+1, result, i, result.length-i );
+    			return result;
+    		}
+    	}
+    	return null;
+    }
+    
+    /**
+     * A visitor used by {@link LocatedListenerList#visit(DockElement, Visitor)}.
+     * @author Benjamin Sigg
+     * @param <L> the kind of listeners this visitor handles
+     */
+    public static interface Visitor<L>{
+    	/**
+    	 * Called for one affected listener.
+    	 * @param listener the listener
+    	 * @return <code>true</code> if no further listeners should be visited
+    	 */
+    	public boolean visit( L listener );
+    }
 }
@@ -157,6 +157,61 @@ public class Setting{
         }
     }
     
+    /**
+     * Replaces all the layouts of this setting by the layouts that are shared by the pool of
+     * <code>situation</code>, see {@link DockSituation#share(DockLayoutComposition)}. Afterwards the
+     * layouts of this setting must no longer be modified.
+     * @param situation the situation whose pool is used
+     * @throws IOException if some layout cannot be written into the pool
+     */
+    public void share( DockSituation situation ) throws IOException{
+    	for( Map.Entry<String, DockLayoutComposition> entry : roots.entrySet() ){
+    		entry.setValue( situation.share( entry.getValue() ) );
+    	}
+    	for( Invisible invisible : dockables ){
+    		if( invisible.layout != null ){
+    			invisible.layout = situation.share( invisible.layout );
+    		}
+    	}
+    }
+    
+    /**
+     * Replaces the content of this setting by a copy of the content of <code>setting</code>. The layouts
+     * are {@link DockSituation#copy(DockLayoutComposition) copied}, layouts shared through a pool are decoded
+     * again, and the locations are copied as well. Hence the content of this setting can be modified without
+     * affecting <code>setting</code>. Subclasses storing additional properties should override this method.
+     * @param setting the setting to copy
+     * @param situation the situation used to decode the layouts again
+     * @throws IOException if some layout cannot be decoded again
+     */
+    public void copyFrom( Setting setting, DockSituation situation ) throws IOException{
+    	roots.clear();
+    	for( Map.Entry<String, DockLayoutComposition> entry : setting.roots.entrySet() ){
+    		roots.put( entry.getKey(), situation.copy( entry.getValue() ) );
+    	}
+    	dockables.clear();
+    	for( Invisible invisible : setting.dockables ){
+    		DockLayoutComposition layout = invisible.layout;
+    		DockableProperty location = invisible.location;
+    		addInvisible( invisible.key, invisible.root, layout == null ? null : situation.copy( layout ), location == null ? null : location.copy() );
+    	}
+    }
+    
+    /**
+     * Ensures that all the layouts of this setting are decoded, see
+     * {@link DockSituation#decode(DockLayoutComposition)}.
+     * @param situation the situation used to decode the layouts
+     * @throws IOException if some layout cannot be read
+     */
+    public void decode( DockSituation situation ) throws IOException{
+    	for( DockLayoutComposition layout : roots.values() ){
+    		situation.decode( layout );
+    	}
+    	for( Invisible invisible : dockables ){
+    		situation.decode( invisible.layout );
+    	}
+    }
+    
     /**
      * Writes the properties of this setting into <code>out</code>.
      * @param situation can be used to write {@link DockLayout}s
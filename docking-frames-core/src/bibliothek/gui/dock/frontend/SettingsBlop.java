@@ -30,6 +30,7 @@ import java.util.Map;
 
 import bibliothek.gui.DockFrontend;
 import bibliothek.gui.dock.DockElement;
+import bibliothek.gui.dock.layout.DockLayoutCompositionPool;
 
 /**
  * A set of {@link Setting}s, represents the content of the file that is used by
@@ -48,6 +49,9 @@ public class SettingsBlop {
 	/** the setting that is selected and whose layout is shown */
 	private Setting currentSetting;
 	
+	/** the pool which contains the layouts of the settings, can be <code>null</code> */
+	private DockLayoutCompositionPool compositionPool;
+	
 	/**
 	 * Stores <code>setting</code> in a {@link Map} using <code>name</code> as key.
 	 * @param name the key of <code>setting</code>
@@ -116,4 +120,22 @@ public class SettingsBlop {
 	public Setting getCurrentSetting(){
 		return currentSetting;
 	}
+	
+	/**
+	 * Sets the pool in which the layouts of the {@link Setting}s of this blop are stored. The
+	 * pool is set if the settings were written with {@link DockFrontend#setDeduplicateSettings(boolean)
+	 * deduplication} enabled.
+	 * @param compositionPool the pool, can be <code>null</code>
+	 */
+	public void setCompositionPool( DockLayoutCompositionPool compositionPool ){
+		this.compositionPool = compositionPool;
+	}
+	
+	/**
+	 * Gets the pool in which the layouts of the {@link Setting}s of this blop are stored.
+	 * @return the pool, can be <code>null</code>
+	 */
+	public DockLayoutCompositionPool getCompositionPool(){
+		return compositionPool;
+	}
 }
@@ -65,17 +65,26 @@ public class DockLayoutComposition {
     }
     
     /**
-     * Gets the layout which describes the element of this composition.
+     * Gets the layout which describes the element of this composition.<br>
+     * Compositions read by {@link DockSituation#readComposition(java.io.DataInputStream)} decode their
+     * layout only when this method is called for the first time. If the data of the layout cannot be
+     * read, then an {@link IllegalStateException} is thrown. Clients can call
+     * {@link DockSituation#decode(DockLayoutComposition)} to decode all layouts in advance and get
+     * an {@link java.io.IOException} instead.
      * @return the layout, can be <code>null</code> to indicate that this composition
      * was not loaded properly
+     * @throws IllegalStateException if the layout was not yet decoded and cannot be read
      */
     public DockLayoutInfo getLayout() {
         return layout;
     }
     
     /**
-     * Gets the additional information about the element.
+     * Gets the additional information about the element.<br>
+     * Like {@link #getLayout()}, compositions read by {@link DockSituation#readComposition(java.io.DataInputStream)}
+     * decode this information only when it is accessed for the first time.
      * @return the additional information or <code>null</code>
+     * @throws IllegalStateException if the information was not yet decoded and cannot be read
      */
     public List<DockLayout<?>> getAdjacent() {
         return adjacent;
@@ -87,6 +96,7 @@ public class DockLayoutComposition {
      * @return the matching layout or <code>null</code> if not found
      */
     public DockLayout<?> getAdjacent( String factoryId ){
+    	List<DockLayout<?>> adjacent = getAdjacent();
     	if( adjacent != null ){
 	    	for( DockLayout<?> layout : adjacent ){
 	    		if( layout.getFactoryID().equals( factoryId )){
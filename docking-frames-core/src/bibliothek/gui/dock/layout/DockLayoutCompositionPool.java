@@ -0,0 +1,389 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.layout;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import bibliothek.gui.DockFrontend;
+import bibliothek.util.Version;
+
+/**
+ * A pool of {@link DockLayoutComposition}s whose subtrees are stored only once. Each node of a
+ * composition is written into the pool together with the identifiers of its children, hence two
+ * compositions that contain equal subtrees share the same nodes in the pool. A {@link DockSituation}
+ * which has a pool {@link DockSituation#setCompositionPool(DockLayoutCompositionPool) set} writes only
+ * the identifier of the pooled node into a stream, and reads compositions by looking up these identifiers.<br>
+ * When reading a composition, the layouts of a node are decoded only once and then shared by all the
+ * {@link DockLayoutComposition}s that reference the node. This way many layouts that differ only in
+ * a few elements, like the settings of a {@link DockFrontend}, require much less memory and storage.
+ * The layouts must not be modified once they were read, clients should read a private copy of a composition
+ * without pool before modifying it.<br>
+ * Compositions can also be shared without writing and reading them: {@link DockSituation#share(DockLayoutComposition)}
+ * puts a composition into the pool and returns the one instance that represents all compositions with
+ * the same content.<br>
+ * Nodes are never removed from a pool, clients should move the compositions that are still used into a new
+ * pool if most of its nodes are no longer used.
+ * @author Benjamin Sigg
+ */
+public class DockLayoutCompositionPool {
+	/** the content of all the nodes */
+	private LayoutOutputBuffer buffer = new LayoutOutputBuffer();
+	
+	/** the position of each node in {@link #buffer}, followed by the end of the last node */
+	private int[] offsets = new int[ 17 ];
+	
+	/** the number of nodes in this pool */
+	private int size = 0;
+	
+	/** the identifiers of all nodes, used to find equal nodes */
+	private Map<Node, Integer> index = new HashMap<Node, Integer>();
+	
+	/** how many times a node was put into this pool, including the duplicates */
+	private int references = 0;
+	
+	/** a view of {@link #buffer} that can be used to read the nodes */
+	private LayoutInputBuffer input;
+	
+	/** the number of nodes that are visible to {@link #input} */
+	private int inputSize = 0;
+	
+	/** the decoded layouts of the nodes */
+	private DockLayoutInfo[] layouts = new DockLayoutInfo[ 16 ];
+	
+	/** the decoded adjacent layouts of the nodes */
+	private Object[] adjacent = new Object[ 16 ];
+	
+	/** whether the layouts of a node are already decoded */
+	private boolean[] decoded = new boolean[ 16 ];
+	
+	/** the compositions that are shared by all the users of a node, see {@link DockSituation#share(DockLayoutComposition)} */
+	private DockLayoutComposition[] shared = new DockLayoutComposition[ 16 ];
+	
+	/** the version of the format in which pools are written */
+	private static final Version FORMAT = Version.VERSION_1_1_2;
+	
+	/**
+	 * Reads a pool that was written by {@link #write(DataOutputStream)}. New nodes can be added
+	 * to the pool that is returned.
+	 * @param in the stream to read from
+	 * @return the new pool
+	 * @throws IOException if <code>in</code> cannot be read
+	 */
+	public static DockLayoutCompositionPool read( DataInputStream in ) throws IOException{
+		Version version = Version.read( in );
+		version.checkCurrent();
+		if( FORMAT.compareTo( version ) > 0 ){
+			throw new IOException( "unknown format of pool: " + version );
+		}
+		
+		DockLayoutCompositionPool pool = new DockLayoutCompositionPool();
+		
+		LayoutInputBuffer content = LayoutInputBuffer.read( in );
+		int count = in.readInt();
+		if( count < 0 ){
+			throw new IOException( "illegal number of nodes: " + count );
+		}
+		
+		LayoutOutputBuffer buffer = pool.buffer;
+		int stringCount = content.getStringCount();
+		for( int i = 0; i < stringCount; i++ ){
+			buffer.getString( content.getString( i ) );
+		}
+		byte[] bytes = content.getContent();
+		buffer.write( bytes, 0, bytes.length );
+		
+		int offset = 0;
+		for( int i = 0; i < count; i++ ){
+			int length = in.readInt();
+			if( length < 0 || offset + length > bytes.length ){
+				throw new IOException( "illegal length of node: " + length );
+			}
+			pool.add( offset, offset + length );
+			offset += length;
+		}
+		return pool;
+	}
+	
+	/**
+	 * Gets the number of distinct nodes that are stored in this pool.
+	 * @return the number of nodes
+	 */
+	public int getNodeCount(){
+		return size;
+	}
+	
+	/**
+	 * Gets the number of nodes that were put into this pool, including the nodes that were
+	 * already present.
+	 * @return the number of references to nodes
+	 */
+	public int getReferenceCount(){
+		return references;
+	}
+	
+	/**
+	 * Gets the number of bytes that are used to store the nodes.
+	 * @return the size of the content
+	 */
+	public int getContentSize(){
+		return buffer.size();
+	}
+	
+	/**
+	 * Writes all the nodes of this pool into <code>out</code>.
+	 * @param out the stream to write into
+	 * @throws IOException if <code>out</code> throws an exception
+	 */
+	public void write( DataOutputStream out ) throws IOException{
+		Version.write( out, FORMAT );
+		buffer.writeAll( out );
+		out.writeInt( size );
+		for( int i = 0; i < size; i++ ){
+			out.writeInt( offsets[i+1] - offsets[i] );
+		}
+	}
+	
+	/**
+	 * Gets the buffer into which new nodes are written.
+	 * @return the buffer
+	 */
+	LayoutOutputBuffer getBuffer(){
+		return buffer;
+	}
+	
+	/**
+	 * Starts writing a new node into {@link #getBuffer() the buffer}.
+	 * @return the position of the new node
+	 */
+	int beginNode(){
+		return buffer.size();
+	}
+	
+	/**
+	 * Finishes writing a node. If an equal node is already stored, then the bytes of the new
+	 * node are removed again.
+	 * @param position the result of {@link #beginNode()}
+	 * @return the identifier of the node
+	 */
+	int endNode( int position ){
+		references++;
+		int end = buffer.size();
+		Integer existing = index.get( new Node( position, end ) );
+		if( existing != null ){
+			buffer.truncate( position );
+			return existing.intValue();
+		}
+		return add( position, end );
+	}
+	
+	/**
+	 * Adds the node that is stored in the range <code>begin</code> to <code>end</code>.
+	 * @param begin the first byte of the node
+	 * @param end the first byte after the node
+	 * @return the identifier of the node
+	 */
+	private int add( int begin, int end ){
+		if( size + 2 > offsets.length ){
+			int[] temp = new int[ offsets.length * 2 ];
+			System.arraycopy( offsets, 0, temp, 0, offsets.length );
+			offsets = temp;
+		}
+		int id = size++;
+		offsets[ id ] = begin;
+		offsets[ size ] = end;
+		index.put( new Node( begin, end ), id );
+		return id;
+	}
+	
+	/**
+	 * Gets a buffer which is positioned at the beginning of the node <code>id</code>.
+	 * @param id the identifier of a node
+	 * @return the buffer to read from
+	 * @throws IOException if there is no node <code>id</code>
+	 */
+	LayoutInputBuffer getInput( int id ) throws IOException{
+		if( id < 0 || id >= size ){
+			throw new IOException( "unknown node: " + id );
+		}
+		if( input == null || inputSize != size ){
+			// the array is not modified at the positions of existing nodes, hence no copy is required
+			input = new LayoutInputBuffer( buffer.getStrings(), buffer.getContent() );
+			inputSize = size;
+		}
+		input.setPosition( offsets[ id ] );
+		return input;
+	}
+	
+	/**
+	 * Tells whether the layouts of node <code>id</code> were already decoded.
+	 * @param id the identifier of a node
+	 * @return whether {@link #getLayout(int)} and {@link #getAdjacent(int)} are valid
+	 */
+	boolean isDecoded( int id ){
+		return id < decoded.length && decoded[ id ];
+	}
+	
+	/**
+	 * Gets the decoded layout of node <code>id</code>.
+	 * @param id the identifier of a node
+	 * @return the layout, may be <code>null</code>
+	 */
+	DockLayoutInfo getLayout( int id ){
+		return layouts[ id ];
+	}
+	
+	/**
+	 * Gets the decoded adjacent layouts of node <code>id</code>.
+	 * @param id the identifier of a node
+	 * @return the adjacent layouts, may be <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	List<DockLayout<?>> getAdjacent( int id ){
+		return (List<DockLayout<?>>)adjacent[ id ];
+	}
+	
+	/**
+	 * Stores the decoded layouts of node <code>id</code>.
+	 * @param id the identifier of a node
+	 * @param layout the layout of the node, may be <code>null</code>
+	 * @param adjacentLayouts the adjacent layouts of the node, may be <code>null</code>
+	 */
+	void setDecoded( int id, DockLayoutInfo layout, List<DockLayout<?>> adjacentLayouts ){
+		if( id >= decoded.length ){
+			int length = Math.max( decoded.length * 2, id + 1 );
+			
+			DockLayoutInfo[] tempLayouts = new DockLayoutInfo[ length ];
+			System.arraycopy( layouts, 0, tempLayouts, 0, layouts.length );
+			layouts = tempLayouts;
+			
+			Object[] tempAdjacent = new Object[ length ];
+			System.arraycopy( adjacent, 0, tempAdjacent, 0, adjacent.length );
+			adjacent = tempAdjacent;
+			
+			boolean[] tempDecoded = new boolean[ length ];
+			System.arraycopy( decoded, 0, tempDecoded, 0, decoded.length );
+			decoded = tempDecoded;
+		}
+		layouts[ id ] = layout;
+		adjacent[ id ] = adjacentLayouts;
+		decoded[ id ] = true;
+	}
+	
+	/**
+	 * Removes the bytes that were written since <code>position</code>, used if writing a node failed.
+	 * @param position the result of {@link #beginNode()}
+	 */
+	void abortNode( int position ){
+		buffer.truncate( position );
+	}
+	
+	/**
+	 * Gets the composition that is shared by all the users of node <code>id</code>.
+	 * @param id the identifier of a node
+	 * @return the shared composition or <code>null</code> if not yet set
+	 */
+	DockLayoutComposition getShared( int id ){
+		if( id >= shared.length ){
+			return null;
+		}
+		return shared[ id ];
+	}
+	
+	/**
+	 * Sets the composition that is shared by all the users of node <code>id</code>.
+	 * @param id the identifier of a node
+	 * @param composition the shared composition
+	 */
+	void setShared( int id, DockLayoutComposition composition ){
+		if( id >= shared.length ){
+			DockLayoutComposition[] temp = new DockLayoutComposition[ Math.max( shared.length * 2, id + 1 ) ];
+			System.arraycopy( shared, 0, temp, 0, shared.length );
+			shared = temp;
+		}
+		shared[ id ] = composition;
+	}
+	
+	/**
+	 * A key describing the bytes of one node in {@link DockLayoutCompositionPool#buffer}.
+	 * @author Benjamin Sigg
+	 */
+	private class Node{
+		/** the first byte of the node */
+		private final int begin;
+		/** the first byte after the node */
+		private final int end;
+		/** the hash code of the content */
+		private final int hash;
+		
+		/**
+		 * Creates a new key.
+		 * @param begin the first byte of the node
+		 * @param end the first byte after the node
+		 */
+		public Node( int begin, int end ){
+			this.begin = begin;
+			this.end = end;
+			
+			byte[] content = buffer.getContent();
+			int hash = 1;
+			for( int i = begin; i < end; i++ ){
+				hash = 31 * hash + content[i];
+			}
+			this.hash = hash;
+		}
+		
+		@Override
+		public int hashCode(){
+			return hash;
+		}
+		
+		@Override
+		public boolean equals( Object obj ){
+			if( this == obj ){
+				return true;
+			}
+			if( !(obj instanceof Node) ){
+				return false;
+			}
+			Node other = (Node)obj;
+			if( other.hash != hash || other.end - other.begin != end - begin ){
+				return false;
+			}
+			byte[] content = buffer.getContent();
+			for( int i = begin, j = other.begin; i < end; i++, j++ ){
+				if( content[i] != content[j] ){
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -66,6 +66,8 @@ import bibliothek.util.Todo.Priority;
 import bibliothek.util.xml.XAttribute;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XReader;
+import bibliothek.util.xml.XWriter;
 
 /**
  * A <code>DockSituation</code> is a converter: the relationship of {@link DockStation}s and {@link Dockable}s,
@@ -103,6 +105,24 @@ public class DockSituation {
     
     /** strategy used to filter placeholders when converting the intermediate format to real {@link DockElement}s */
     private PlaceholderStrategy placeholders;
+    
+    /** the version with which {@link #writeComposition(DockLayoutComposition, DataOutputStream)} marks the indexed binary format */
+    private static final Version INDEXED_FORMAT = Version.VERSION_1_1_2;
+    
+    /** 
+     * buffers that are currently not used by {@link #writeComposition(DockLayoutComposition, DataOutputStream)}, they
+     * are shared by all situations because a new situation is created for almost every write operation
+     */
+    private static final List<LayoutOutputBuffer> BUFFERS = new ArrayList<LayoutOutputBuffer>();
+    
+    /** the maximum number of buffers in {@link #BUFFERS} */
+    private static final int MAX_POOLED_BUFFERS = 4;
+    
+    /** buffers larger than this number of bytes are not reused */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+    
+    /** if not <code>null</code>, then compositions are written into and read from this pool */
+    private DockLayoutCompositionPool compositionPool;
 
     /**
      * Constructs a new DockSituation and sets some factories which are
@@ -213,6 +233,141 @@ public class DockSituation {
 		return intermediatePlaceholders;
 	}
     
+    /**
+     * Sets the pool into which {@link #writeComposition(DockLayoutComposition, DataOutputStream)} writes
+     * the nodes of a composition, and from which {@link #readComposition(DataInputStream)} reads them. If a pool is
+     * set, then only the identifier of a composition is written into the stream, hence the stream can only be
+     * read again with the same pool.
+     * @param compositionPool the pool to use, can be <code>null</code>
+     */
+    public void setCompositionPool( DockLayoutCompositionPool compositionPool ){
+		this.compositionPool = compositionPool;
+	}
+    
+    /**
+     * Gets the pool that is used to store {@link DockLayoutComposition}s.
+     * @return the pool, can be <code>null</code>
+     * @see #setCompositionPool(DockLayoutCompositionPool)
+     */
+    public DockLayoutCompositionPool getCompositionPool(){
+		return compositionPool;
+	}
+    
+    /**
+     * Puts <code>composition</code> into the {@link #setCompositionPool(DockLayoutCompositionPool) pool} of this
+     * situation and returns the composition which represents all the compositions of the pool with the same
+     * content. Two equal compositions are shared without writing and reading them, only their bytes are
+     * compared. The layouts of the result are shared and must not be modified, clients should apply a
+     * {@link #copy(DockLayoutComposition) copy} of the result instead. The locations of the
+     * {@link DockLayoutInfo}s are not part of the content and are not shared.
+     * @param composition the composition to share
+     * @return the shared composition
+     * @throws IOException if <code>composition</code> cannot be written
+     * @throws IllegalStateException if no pool is set
+     */
+    public DockLayoutComposition share( DockLayoutComposition composition ) throws IOException{
+    	if( compositionPool == null ){
+    		throw new IllegalStateException( "no composition pool set" );
+    	}
+    	return compositionPool.getShared( writeCompositionPool( composition, compositionPool, true ) );
+    }
+    
+    /**
+     * Creates a copy of <code>composition</code> which can be modified without affecting <code>composition</code>.
+     * The layouts of compositions that were {@link #share(DockLayoutComposition) shared} or read from a
+     * {@link #setCompositionPool(DockLayoutCompositionPool) pool} are decoded again from the bytes of the pool,
+     * hence the copy does not share any data with the other compositions of the pool. The factories of this
+     * situation are used for decoding. The data of compositions that do not belong to a pool is not copied.
+     * @param composition the composition to copy
+     * @return the copy
+     * @throws IOException if a layout cannot be decoded again
+     */
+    public DockLayoutComposition copy( DockLayoutComposition composition ) throws IOException{
+    	if( composition instanceof PooledComposition ){
+    		PooledComposition pooled = (PooledComposition)composition;
+    		return copyPooled( pooled.pool, pooled.id, composition.getLayout().getLocation() );
+    	}
+    	
+    	DockLayoutInfo layout = composition.getLayout();
+    	DockLayoutInfo info = null;
+    	if( layout != null ){
+    		info = copyInfo( layout );
+    		if( layout.getLocation() != null ){
+    			info.setLocation( layout.getLocation().copy() );
+    		}
+    	}
+    	List<DockLayout<?>> adjacentLayouts = composition.getAdjacent();
+    	if( adjacentLayouts != null ){
+    		adjacentLayouts = new ArrayList<DockLayout<?>>( adjacentLayouts );
+    	}
+    	List<DockLayoutComposition> children = new ArrayList<DockLayoutComposition>();
+    	for( DockLayoutComposition child : composition.getChildren() ){
+    		children.add( copy( child ) );
+    	}
+    	return new DockLayoutComposition( info, adjacentLayouts, children, composition.isIgnoreChildren() );
+    }
+    
+    /**
+     * Creates a new {@link DockLayoutInfo} with the same data and placeholder as <code>info</code>, but
+     * without location.
+     * @param info the info to copy
+     * @return the new info
+     */
+    private DockLayoutInfo copyInfo( DockLayoutInfo info ){
+    	DockLayoutInfo result;
+    	switch( info.getKind() ){
+    		case BYTE:
+    			result = new DockLayoutInfo( info.getDataByte() );
+    			break;
+    		case XML:
+    			result = new DockLayoutInfo( info.getDataXML() );
+    			break;
+    		case DOCK_LAYOUT:
+    			result = new DockLayoutInfo( info.getDataLayout() );
+    			break;
+    		default:
+    			result = new DockLayoutInfo();
+    			break;
+    	}
+    	result.setPlaceholder( info.getPlaceholder() );
+    	return result;
+    }
+    
+    /**
+     * Decodes the node <code>id</code> and all its children from <code>pool</code> without using or storing the
+     * decoded layouts of <code>pool</code>, hence the result does not share any data with other compositions.
+     * @param pool the pool to read from
+     * @param id the identifier of the node
+     * @param location the location of the new composition, will be copied, can be <code>null</code>
+     * @return the new composition
+     * @throws IOException if an I/O-error occurs
+     */
+    private DockLayoutComposition copyPooled( DockLayoutCompositionPool pool, int id, DockableProperty location ) throws IOException{
+    	LayoutInputBuffer buffer = pool.getInput( id );
+    	DataInputStream in = buffer.getInput();
+    	
+    	Path entryPlaceholder = readPlaceholderBuffer( buffer );
+    	DockLayoutInfo info = readEntryBuffer( buffer, entryPlaceholder );
+    	List<DockLayout<?>> adjacentLayouts = readAdjacentBuffer( buffer );
+    	boolean ignore = in.readBoolean();
+    	
+    	int count = in.readInt();
+    	int[] childIds = new int[ count ];
+    	for( int i = 0; i < count; i++ ){
+    		childIds[i] = in.readInt();
+    	}
+    	
+    	if( info != null && location != null ){
+    		info.setLocation( location.copy() );
+    	}
+    	
+    	List<DockLayoutComposition> children = new ArrayList<DockLayoutComposition>( count );
+    	for( int childId : childIds ){
+    		children.add( copyPooled( pool, childId, null ) );
+    	}
+    	return new DockLayoutComposition( info, adjacentLayouts, children, ignore );
+    }
+    
     /**
      * Gets a placeholder for <code>element</code> using the current {@link PlaceholderStrategy}.
      * @param element some element, not <code>null</code>
@@ -434,8 +589,50 @@ public class DockSituation {
      * @throws IOException if an I/O-error occurs
      */
     public void writeComposition( DockLayoutComposition composition, DataOutputStream out ) throws IOException{
-        Version.write( out, Version.VERSION_1_0_8 );
-        writeCompositionStream( composition, out );
+    	if( compositionPool != null ){
+    		out.writeInt( writeCompositionPool( composition, compositionPool, false ) );
+    		return;
+    	}
+    	
+        Version.write( out, INDEXED_FORMAT );
+        
+        LayoutOutputBuffer buffer = acquireBuffer();
+        try{
+        	writeCompositionStream( composition, buffer );
+        	buffer.writeAll( out );
+        }
+        finally{
+        	releaseBuffer( buffer );
+        }
+    }
+    
+    /**
+     * Gets an empty buffer that is currently not used.
+     * @return the buffer, not <code>null</code>
+     */
+    private static LayoutOutputBuffer acquireBuffer(){
+    	synchronized( BUFFERS ){
+    		if( BUFFERS.isEmpty() ){
+    			return new LayoutOutputBuffer();
+    		}
+    		return BUFFERS.remove( BUFFERS.size()-1 );
+    	}
+    }
+    
+    /**
+     * Clears <code>buffer</code> and stores it for later use, unless it is too big or
+     * enough buffers are stored already.
+     * @param buffer the buffer that is no longer used
+     */
+    private static void releaseBuffer( LayoutOutputBuffer buffer ){
+    	if( buffer.getCapacity() <= MAX_POOLED_BUFFER_SIZE ){
+    		buffer.clear();
+    		synchronized( BUFFERS ){
+    			if( BUFFERS.size() < MAX_POOLED_BUFFERS ){
+    				BUFFERS.add( buffer );
+    			}
+    		}
+    	}
     }
 
     /**
@@ -444,23 +641,110 @@ public class DockSituation {
      * @param composition the composition to write, should be created by
      * <code>this</code> {@link DockSituation} or a <code>DockSituation</code> with
      * similar properties.
-     * @param out the stream to write into
+     * @param buffer the buffer to write into
+     * @throws IOException if an I/O-error occurs
+     */
+    private void writeCompositionStream( DockLayoutComposition composition, LayoutOutputBuffer buffer ) throws IOException{
+        DataOutputStream out = buffer.getOutput();
+        // the length of the element, allows readers to skip the element
+        int elementLength = buffer.beginLength();
+        
+        writeElementStream( composition, buffer );
+
+        // children
+        List<DockLayoutComposition> children = composition.getChildren();
+        out.writeInt( children.size() );
+        for( DockLayoutComposition child : children ){
+            writeCompositionStream( child, buffer );
+        }
+        
+        buffer.endLength( elementLength );
+    }
+    
+    /**
+     * Writes the contents of <code>composition</code> into <code>pool</code>. First the children
+     * are written, then <code>composition</code> itself together with the identifiers of the children.
+     * @param composition the composition to write
+     * @param pool the pool to write into
+     * @param share whether to create the {@link DockLayoutCompositionPool#getShared(int) shared} composition of
+     * the node if not yet present
+     * @return the identifier of <code>composition</code> in <code>pool</code>
+     * @throws IOException if an I/O-error occurs
+     */
+    private int writeCompositionPool( DockLayoutComposition composition, DockLayoutCompositionPool pool, boolean share ) throws IOException{
+    	List<DockLayoutComposition> children = composition.getChildren();
+    	int[] childIds = new int[ children.size() ];
+    	for( int i = 0; i < childIds.length; i++ ){
+    		childIds[i] = writeCompositionPool( children.get( i ), pool, share );
+    	}
+    	
+    	LayoutOutputBuffer buffer = pool.getBuffer();
+    	DataOutputStream out = buffer.getOutput();
+    	int node = pool.beginNode();
+    	
+    	boolean written = false;
+    	try{
+	    	writeElementStream( composition, buffer );
+	    	
+	    	out.writeInt( childIds.length );
+	    	for( int childId : childIds ){
+	    		out.writeInt( childId );
+	    	}
+	    	written = true;
+    	}
+    	finally{
+    		if( !written ){
+    			// do not leave an incomplete node behind, it would become part of the next node
+    			pool.abortNode( node );
+    		}
+    	}
+    	
+    	int id = pool.endNode( node );
+    	if( share && pool.getShared( id ) == null ){
+    		// the location is not part of the node, hence it cannot be shared
+    		DockLayoutInfo layout = copyInfo( composition.getLayout() );
+    		
+    		List<DockLayout<?>> adjacent = composition.getAdjacent();
+    		if( adjacent != null ){
+    			adjacent = new ArrayList<DockLayout<?>>( adjacent );
+    		}
+    		
+    		List<DockLayoutComposition> sharedChildren = new ArrayList<DockLayoutComposition>( childIds.length );
+    		for( int childId : childIds ){
+    			sharedChildren.add( pool.getShared( childId ) );
+    		}
+    		pool.setShared( id, new PooledComposition( pool, id, layout, adjacent, sharedChildren, composition.isIgnoreChildren() ) );
+    	}
+    	return id;
+    }
+    
+    /**
+     * Writes the placeholder, the layout, the adjacent layouts and the ignore flag of
+     * <code>composition</code>, but not its children.
+     * @param composition the composition to write
+     * @param buffer the buffer to write into
      * @throws IOException if an I/O-error occurs
      */
     @SuppressWarnings("unchecked")
-    private void writeCompositionStream( DockLayoutComposition composition, DataOutputStream out ) throws IOException{
+    private void writeElementStream( DockLayoutComposition composition, LayoutOutputBuffer buffer ) throws IOException{
+        DataOutputStream out = buffer.getOutput();
         DockLayoutInfo info = composition.getLayout();
         
         // placeholder
         Path placeholder = info.getPlaceholder();
-        out.writeBoolean( placeholder != null );
-        if( placeholder != null ){
-        	out.writeUTF( placeholder.toString() );
+        if( placeholder == null ){
+        	out.writeInt( -1 );
+        }
+        else{
+        	out.writeInt( buffer.getString( placeholder.toString() ) );
         }
     	
         if( info.getKind() == DockLayoutInfo.Data.BYTE ){
             // data
-            out.write( info.getDataByte() );
+        	byte[] data = info.getDataByte();
+        	out.writeBoolean( false );
+        	out.writeInt( data.length );
+            out.write( data );
         }
         else if( info.getKind() == DockLayoutInfo.Data.DOCK_LAYOUT ){
             DockLayout<?> layout = info.getDataLayout();
@@ -469,16 +753,13 @@ public class DockSituation {
                 throw new IOException( "Missing factory: " + layout.getFactoryID() );
             
             // factory
-            out.writeUTF( getID( factory ) );
+            out.writeBoolean( true );
+            out.writeInt( buffer.getString( getID( factory ) ) );
             
             // contents
-            ByteArrayOutputStream bout = new ByteArrayOutputStream();
-            DataOutputStream dout = new DataOutputStream( bout );
-            factory.write( layout.getData(), dout );
-            dout.close();
-
-            out.writeInt( bout.size() );
-            bout.writeTo( out );
+            int length = buffer.beginLength();
+            factory.write( layout.getData(), out );
+            buffer.endLength( length );
         }
         else{
             // there is nothing to write...
@@ -497,26 +778,15 @@ public class DockSituation {
                 if( adjacentFactory == null )
                     throw new IOException( "Missing adjacent factory: " + adjacentLayout.getFactoryID() );
 
-                ByteArrayOutputStream adjacentBOut = new ByteArrayOutputStream();
-                DataOutputStream adjacentOut = new DataOutputStream( adjacentBOut );
-                adjacentFactory.write( adjacentLayout.getData(), adjacentOut );
-                adjacentOut.close();
-
-                out.writeUTF( getAdjacentID( adjacentFactory ) );
-                out.writeInt( adjacentBOut.size() );
-                adjacentBOut.writeTo( out );
+                out.writeInt( buffer.getString( getAdjacentID( adjacentFactory ) ) );
+                int length = buffer.beginLength();
+                adjacentFactory.write( adjacentLayout.getData(), out );
+                buffer.endLength( length );
             }
         }
 
         // ignore
         out.writeBoolean( composition.isIgnoreChildren() );
-
-        // children
-        List<DockLayoutComposition> children = composition.getChildren();
-        out.writeInt( children.size() );
-        for( DockLayoutComposition child : children ){
-            writeCompositionStream( child, out );
-        }
     }
 
     /**
@@ -526,11 +796,448 @@ public class DockSituation {
      * @throws IOException if an I/O-error occurs
      */
     public DockLayoutComposition readComposition( DataInputStream in ) throws IOException{
+    	if( compositionPool != null ){
+    		return readCompositionPool( compositionPool, in.readInt() );
+    	}
+    	
         Version version = Version.read( in );
         version.checkCurrent();
+        
+        if( INDEXED_FORMAT.compareTo( version ) <= 0 ){
+        	LayoutInputBuffer buffer = LayoutInputBuffer.read( in );
+        	int length = buffer.getInput().readInt();
+        	DockLayoutComposition result = new LazyComposition( buffer, buffer.getPosition(), length );
+        	if( buffer.getPosition() != buffer.getContent().length ){
+        		throw new IOException( "unexpected data after the layout" );
+        	}
+        	return result;
+        }
         return readCompositionStream( in, version );
     }
 
+    /**
+     * Ensures that the layouts of <code>composition</code> and of all its children are decoded. The 
+     * compositions returned by {@link #readComposition(DataInputStream)} call their {@link DockFactory}s
+     * and {@link AdjacentDockFactory}s only when their layouts are accessed for the first time, a payload 
+     * that cannot be read then results in an {@link IllegalStateException}. Clients that are about to
+     * apply <code>composition</code> should call this method first, this way a corrupt payload is reported
+     * before anything is changed. Compositions that are already decoded are not affected by this method.
+     * @param composition the composition to decode, can be <code>null</code>
+     * @throws IOException if the layout of an element cannot be read
+     */
+    public void decode( DockLayoutComposition composition ) throws IOException{
+    	if( composition instanceof LazyComposition ){
+    		((LazyComposition)composition).decode();
+    	}
+    	else if( composition != null ){
+    		for( DockLayoutComposition child : composition.getChildren() ){
+    			decode( child );
+    		}
+    	}
+    }
+    
+    /**
+     * Reads the node <code>id</code> and all its children from <code>pool</code>. The layouts
+     * of each node are decoded only once and then shared by all the compositions which are created
+     * for the node.
+     * @param pool the pool to read from
+     * @param id the identifier of the node
+     * @return the new composition
+     * @throws IOException if an I/O-error occurs
+     */
+    private DockLayoutComposition readCompositionPool( DockLayoutCompositionPool pool, int id ) throws IOException{
+    	LayoutInputBuffer buffer = pool.getInput( id );
+    	DataInputStream in = buffer.getInput();
+    	
+    	Path entryPlaceholder = readPlaceholderBuffer( buffer );
+    	
+    	DockLayoutInfo info;
+    	List<DockLayout<?>> adjacentLayouts;
+    	
+    	if( pool.isDecoded( id )){
+    		info = pool.getLayout( id );
+    		adjacentLayouts = pool.getAdjacent( id );
+    		
+    		// skip layout and adjacent layouts
+    		if( in.readBoolean() ){
+    			in.readInt();
+    		}
+    		buffer.skipRange( in.readInt() );
+    		int layoutCount = in.readInt();
+    		for( int i = 0; i < layoutCount; i++ ){
+    			in.readInt();
+    			buffer.skipRange( in.readInt() );
+    		}
+    	}
+    	else{
+    		info = readEntryBuffer( buffer, entryPlaceholder );
+    		adjacentLayouts = readAdjacentBuffer( buffer );
+    		pool.setDecoded( id, info, adjacentLayouts );
+    	}
+    	
+    	boolean ignore = in.readBoolean();
+    	
+    	int count = in.readInt();
+    	int[] childIds = new int[ count ];
+    	for( int i = 0; i < count; i++ ){
+    		childIds[i] = in.readInt();
+    	}
+    	
+    	// the node itself is shared, but each composition gets its own info which may be modified
+    	if( info != null ){
+    		DockLayoutInfo copy;
+    		if( info.getKind() == DockLayoutInfo.Data.BYTE ){
+    			copy = new DockLayoutInfo( info.getDataByte() );
+    		}
+    		else{
+    			copy = new DockLayoutInfo( info.getDataLayout() );
+    		}
+    		copy.setPlaceholder( info.getPlaceholder() );
+    		info = copy;
+    	}
+    	if( adjacentLayouts != null ){
+    		adjacentLayouts = new ArrayList<DockLayout<?>>( adjacentLayouts );
+    	}
+    	
+    	List<DockLayoutComposition> children = new ArrayList<DockLayoutComposition>( count );
+    	for( int childId : childIds ){
+    		children.add( readCompositionPool( pool, childId ) );
+    	}
+    	
+    	return new PooledComposition( pool, id, info, adjacentLayouts, children, ignore );
+    }
+    
+    /**
+     * A {@link DockLayoutComposition} whose layouts are shared with all the other compositions that represent
+     * the same node of a {@link DockLayoutCompositionPool}. The composition remembers its node, this way 
+     * {@link DockSituation#copy(DockLayoutComposition)} can decode private layouts again.
+     * @author Benjamin Sigg
+     */
+    private static class PooledComposition extends DockLayoutComposition{
+    	/** the pool in which the node is stored */
+    	private final DockLayoutCompositionPool pool;
+    	/** the identifier of the node */
+    	private final int id;
+    	
+    	/**
+    	 * Creates a new composition.
+    	 * @param pool the pool in which the node is stored
+    	 * @param id the identifier of the node
+    	 * @param layout the layout of the element, can be <code>null</code>
+    	 * @param adjacent the adjacent layouts, can be <code>null</code>
+    	 * @param children the children of the element
+    	 * @param ignoreChildren whether the children were ignored
+    	 */
+    	public PooledComposition( DockLayoutCompositionPool pool, int id, DockLayoutInfo layout, List<DockLayout<?>> adjacent, List<DockLayoutComposition> children, boolean ignoreChildren ){
+    		super( layout, adjacent, children, ignoreChildren );
+    		this.pool = pool;
+    		this.id = id;
+    	}
+    }
+    
+    /**
+     * Reads the name of the placeholder of an element from <code>buffer</code>.
+     * @param buffer the buffer to read from
+     * @return the placeholder, can be <code>null</code>
+     * @throws IOException if an I/O-error occurs
+     */
+    private Path readPlaceholderBuffer( LayoutInputBuffer buffer ) throws IOException{
+    	int placeholder = buffer.getInput().readInt();
+    	if( placeholder == -1 ){
+    		return null;
+    	}
+    	return new Path( buffer.getString( placeholder ) );
+    }
+    
+    /**
+     * Reads the {@link DockLayoutInfo} of an element from <code>buffer</code>.
+     * @param buffer the buffer to read from
+     * @param entryPlaceholder the placeholder of the element, can be <code>null</code>
+     * @return the layout, may be <code>null</code>
+     * @throws IOException if an I/O-error occurs
+     */
+    private DockLayoutInfo readEntryBuffer( LayoutInputBuffer buffer, Path entryPlaceholder ) throws IOException{
+    	DataInputStream in = buffer.getInput();
+    	DockLayoutInfo info;
+    	if( in.readBoolean() ){
+    		String factoryId = buffer.getString( in.readInt() );
+    		int count = in.readInt();
+    		int offset = buffer.getPosition();
+    		info = readEntry( factoryId, buffer.getRange( count ), count, entryPlaceholder, null, buffer.getContent(), offset );
+    	}
+    	else{
+    		int count = in.readInt();
+    		byte[] entry = new byte[ count ];
+    		in.readFully( entry );
+    		info = readEntry( entry, entryPlaceholder );
+    	}
+    	return info;
+    }
+    
+    /**
+     * Reads the adjacent layouts of an element from <code>buffer</code>.
+     * @param buffer the buffer to read from
+     * @return the adjacent layouts, may be <code>null</code>
+     * @throws IOException if an I/O-error occurs
+     */
+    private List<DockLayout<?>> readAdjacentBuffer( LayoutInputBuffer buffer ) throws IOException{
+    	DataInputStream in = buffer.getInput();
+    	List<DockLayout<?>> adjacentLayouts = null;
+    	int layoutCount = in.readInt();
+    	if( layoutCount > 0 ){
+    		adjacentLayouts = new ArrayList<DockLayout<?>>( layoutCount );
+    		
+    		for( int i = 0; i < layoutCount; i++ ){
+    			String adjacentFactoryId = buffer.getString( in.readInt() );
+    			int adjacentCount = in.readInt();
+    			Object data = readAdjacent( adjacentFactoryId, buffer.getRange( adjacentCount ), adjacentCount );
+    			
+    			if( data != null ){
+    				adjacentLayouts.add( new DockLayout<Object>( adjacentFactoryId, data ) );
+    			}
+    		}
+    	}
+    	return adjacentLayouts;
+    }
+    
+    /**
+     * Reads the data of one {@link AdjacentDockFactory}.
+     * @param adjacentFactoryId the unique identifier of the factory that wrote the data
+     * @param in the stream to read from
+     * @param count the number of bytes in <code>in</code>
+     * @return the data or <code>null</code> if the factory is missing
+     * @throws IOException if <code>in</code> has not the correct format
+     */
+    @SuppressWarnings("unchecked")
+    private Object readAdjacent( String adjacentFactoryId, DataInputStream in, int count ) throws IOException{
+    	AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( adjacentFactoryId );
+    	if( adjacentFactory == null ){
+    		if( missingAdjacent == null ){
+    			return null;
+    		}
+    		return missingAdjacent.read( getAdjacentFactoryID( adjacentFactoryId ), in, count );
+    	}
+    	return adjacentFactory.read( in, intermediatePlaceholders );
+    }
+    
+    /**
+     * A {@link DockLayoutComposition} that was read from a {@link LayoutInputBuffer} but whose
+     * layouts are not yet decoded. The structure of the element and of all its children is read
+     * and validated when the composition is created, only the {@link DockFactory}s and
+     * {@link AdjacentDockFactory}s are called when the layouts are accessed for the first time.
+     * Each layout is decoded from its own view into the content of the buffer, hence the order
+     * in which layouts are accessed does not matter. If a factory cannot read its data, then
+     * {@link #getLayout()} and {@link #getAdjacent()} throw an {@link IllegalStateException},
+     * {@link DockSituation#decode(DockLayoutComposition)} reports the same failure as {@link IOException}.
+     * @author Benjamin Sigg
+     */
+    private class LazyComposition extends DockLayoutComposition{
+    	/** the content of the buffer this element was read from */
+    	private byte[] content;
+    	
+    	/** the placeholder of this element */
+    	private Path placeholder;
+    	/** the identifier of the factory that wrote the layout, <code>null</code> if the layout is stored as raw entry */
+    	private String factoryId;
+    	/** the position of the layout in {@link #content} */
+    	private int layoutOffset;
+    	/** the number of bytes of the layout */
+    	private int layoutLength;
+    	
+    	/** the identifiers of the factories that wrote the adjacent layouts */
+    	private String[] adjacentIds;
+    	/** the positions of the adjacent layouts in {@link #content} */
+    	private int[] adjacentOffsets;
+    	/** the number of bytes of each adjacent layout */
+    	private int[] adjacentLengths;
+    	
+    	/** whether the children are to be ignored */
+    	private boolean ignore;
+    	/** the children of this element */
+    	private List<DockLayoutComposition> children;
+    	
+    	/** whether {@link #layout} is already decoded */
+    	private boolean layoutRead = false;
+    	/** the decoded layout */
+    	private DockLayoutInfo layout;
+    	/** whether {@link #adjacent} is already decoded */
+    	private boolean adjacentRead = false;
+    	/** the decoded adjacent layouts */
+    	private List<DockLayout<?>> adjacent;
+    	
+    	/**
+    	 * Creates a new composition, reads the header of the element and of all its children.
+    	 * @param buffer the buffer containing the element
+    	 * @param position the position of the element in <code>buffer</code>, after its length
+    	 * @param length the number of bytes of the element
+    	 * @throws IOException if the element or one of its children is not valid
+    	 */
+    	public LazyComposition( LayoutInputBuffer buffer, int position, int length ) throws IOException{
+    		super( null, null, Collections.<DockLayoutComposition>emptyList(), false );
+    		content = buffer.getContent();
+    		
+    		if( length < 0 || length > content.length - position ){
+    			throw new IOException( "illegal length of element: " + length );
+    		}
+    		int end = position + length;
+    		
+    		DataInputStream in = buffer.getInput();
+    		buffer.setPosition( position );
+    		
+    		placeholder = readPlaceholderBuffer( buffer );
+    		
+    		if( in.readBoolean() ){
+    			factoryId = buffer.getString( in.readInt() );
+    			layoutLength = in.readInt();
+    			layoutOffset = buffer.getPosition();
+    			buffer.skipRange( layoutLength );
+    		}
+    		else{
+    			layoutLength = in.readInt();
+    			layoutOffset = buffer.getPosition();
+    			DataInputStream entry = buffer.getRange( layoutLength );
+    			entry.readUTF();
+    			int count = entry.readInt();
+    			if( count < 0 || count > entry.available() ){
+    				throw new IOException( "illegal length of layout: " + count );
+    			}
+    		}
+    		
+    		int adjacentCount = in.readInt();
+    		if( adjacentCount < 0 || adjacentCount > (end - buffer.getPosition()) / 8 ){
+    			throw new IOException( "illegal number of adjacent layouts: " + adjacentCount );
+    		}
+    		adjacentIds = new String[ adjacentCount ];
+    		adjacentOffsets = new int[ adjacentCount ];
+    		adjacentLengths = new int[ adjacentCount ];
+    		for( int i = 0; i < adjacentCount; i++ ){
+    			adjacentIds[i] = buffer.getString( in.readInt() );
+    			adjacentLengths[i] = in.readInt();
+    			adjacentOffsets[i] = buffer.getPosition();
+    			buffer.skipRange( adjacentLengths[i] );
+    		}
+    		
+    		ignore = in.readBoolean();
+    		int childrenCount = in.readInt();
+    		if( childrenCount < 0 || childrenCount > (end - buffer.getPosition()) / 4 ){
+    			throw new IOException( "illegal number of children: " + childrenCount );
+    		}
+    		
+    		List<DockLayoutComposition> result = new ArrayList<DockLayoutComposition>( childrenCount );
+    		for( int i = 0; i < childrenCount; i++ ){
+    			if( buffer.getPosition() > end - 4 ){
+    				throw new IOException( "element exceeds its length" );
+    			}
+    			int childLength = in.readInt();
+    			int childPosition = buffer.getPosition();
+    			if( childLength < 0 || childLength > end - childPosition ){
+    				throw new IOException( "child exceeds the length of its parent" );
+    			}
+    			result.add( new LazyComposition( buffer, childPosition, childLength ) );
+    			buffer.setPosition( childPosition + childLength );
+    		}
+    		children = result;
+    		
+    		if( buffer.getPosition() != end ){
+    			throw new IOException( "element does not match its length" );
+    		}
+    	}
+    	
+    	/**
+    	 * Decodes the layout and the adjacent layouts of this element and of all its children
+    	 * unless they were already decoded.
+    	 * @throws IOException if a {@link DockFactory} or an {@link AdjacentDockFactory} cannot read its data
+    	 */
+    	public void decode() throws IOException{
+    		decodeLayout();
+    		decodeAdjacent();
+    		for( DockLayoutComposition child : children ){
+    			((LazyComposition)child).decode();
+    		}
+    	}
+    	
+    	/**
+    	 * Decodes the layout of this element if not yet done.
+    	 * @throws IOException if the {@link DockFactory} cannot read its data
+    	 */
+    	private void decodeLayout() throws IOException{
+    		if( !layoutRead ){
+    			if( factoryId == null ){
+    				byte[] entry = new byte[ layoutLength ];
+    				System.arraycopy( content, layoutOffset, entry, 0, layoutLength );
+    				layout = readEntry( entry, placeholder );
+    			}
+    			else{
+    				layout = readEntry( factoryId, range( layoutOffset, layoutLength ), layoutLength, placeholder, null, content, layoutOffset );
+    			}
+    			layoutRead = true;
+    		}
+    	}
+    	
+    	/**
+    	 * Decodes the adjacent layouts of this element if not yet done.
+    	 * @throws IOException if an {@link AdjacentDockFactory} cannot read its data
+    	 */
+    	private void decodeAdjacent() throws IOException{
+    		if( !adjacentRead ){
+    			List<DockLayout<?>> result = null;
+    			if( adjacentIds.length > 0 ){
+    				result = new ArrayList<DockLayout<?>>( adjacentIds.length );
+    				for( int i = 0; i < adjacentIds.length; i++ ){
+    					Object data = readAdjacent( adjacentIds[i], range( adjacentOffsets[i], adjacentLengths[i] ), adjacentLengths[i] );
+    					if( data != null ){
+    						result.add( new DockLayout<Object>( adjacentIds[i], data ) );
+    					}
+    				}
+    			}
+    			adjacent = result;
+    			adjacentRead = true;
+    		}
+    	}
+    	
+    	@Override
+    	public DockLayoutInfo getLayout(){
+    		try{
+    			decodeLayout();
+    		}
+    		catch( IOException e ){
+    			throw new IllegalStateException( "unable to read layout", e );
+    		}
+    		return layout;
+    	}
+    	
+    	@Override
+    	public List<DockLayout<?>> getAdjacent(){
+    		try{
+    			decodeAdjacent();
+    		}
+    		catch( IOException e ){
+    			throw new IllegalStateException( "unable to read adjacent layouts", e );
+    		}
+    		return adjacent;
+    	}
+    	
+    	/**
+    	 * Creates a new stream reading <code>length</code> bytes of {@link #content}.
+    	 * @param offset the first byte to read
+    	 * @param length the number of bytes to read
+    	 * @return the new stream
+    	 */
+    	private DataInputStream range( int offset, int length ){
+    		return new DataInputStream( new ByteArrayInputStream( content, offset, length ) );
+    	}
+    	
+    	@Override
+    	public List<DockLayoutComposition> getChildren(){
+    		return children;
+    	}
+    	
+    	@Override
+    	public boolean isIgnoreChildren(){
+    		return ignore;
+    	}
+    }
+
     /**
      * Reads one {@link DockLayoutComposition} and all its children.
      * @param in the stream to read from
@@ -620,17 +1327,33 @@ public class DockSituation {
      * @return the information that was obtained, may be <code>null</code>
      * @throws IOException if <code>entry</code> has not the correct format
      */
-    @SuppressWarnings("unchecked")
     private DockLayoutInfo readEntry( byte[] entry, Path placeholder ) throws IOException{
         DataInputStream entryIn = new DataInputStream( new ByteArrayInputStream( entry ));
         
         String factoryId = entryIn.readUTF();
+        int count = entryIn.readInt();
         
+        return readEntry( factoryId, entryIn, count, placeholder, entry, null, 0 );
+    }
+    
+    /**
+     * Reads the data of a {@link DockFactory} from <code>entryIn</code>.
+     * @param factoryId the unique identifier of the factory that wrote the data
+     * @param entryIn the stream to read from
+     * @param count the number of bytes in <code>entryIn</code>
+     * @param placeholder the placeholder which is associated with this element
+     * @param entry the whole entry as described in {@link #readEntry(byte[], Path)}, can be <code>null</code> 
+     * @param content if <code>entry</code> is <code>null</code>, the array containing the bytes of <code>entryIn</code>
+     * @param offset the index of the first byte of <code>entryIn</code> in <code>content</code>
+     * @return the information that was obtained, may be <code>null</code>
+     * @throws IOException if <code>entryIn</code> has not the correct format
+     */
+    @SuppressWarnings("unchecked")
+    private DockLayoutInfo readEntry( String factoryId, DataInputStream entryIn, int count, Path placeholder, byte[] entry, byte[] content, int offset ) throws IOException{
         DockFactory<DockElement,?,Object> factory = (DockFactory<DockElement,?,Object>)getFactory( factoryId );
 
         // contents
         DockLayoutInfo info;
-        int count = entryIn.readInt();
 
         if( factory == null ){
             // try read
@@ -647,6 +1370,15 @@ public class DockSituation {
             }
 
             if( info == null ){
+            	if( entry == null ){
+            		ByteArrayOutputStream out = new ByteArrayOutputStream( factoryId.length()*4 + 4 + count );
+            		DataOutputStream dout = new DataOutputStream( out );
+            		dout.writeUTF( factoryId );
+            		dout.writeInt( count );
+            		dout.write( content, offset, count );
+            		dout.close();
+            		entry = out.toByteArray();
+            	}
                 info = new DockLayoutInfo( entry );
                 info.setPlaceholder( placeholder );
             }
@@ -800,6 +1532,7 @@ public class DockSituation {
         for( int i = 0; i < count; i++ ){
             String key = in.readUTF();
             DockLayoutComposition composition = readComposition( in );
+            decode( composition );
             DockElement element = composition == null ? null : convert( composition );
             DockStation station = element == null ? null : element.asDockStation();
             if( station != null ){
@@ -1048,6 +1781,234 @@ public class DockSituation {
         return result;
     }
     
+    /**
+     * Writes all locations and relationships of the {@link DockStation}s
+     * <code>stations</code> and their children as xml. Other than {@link #writeXML(Map, XElement)}
+     * this method does not build a tree of {@link XElement}s, only the output of the single
+     * {@link DockFactory}s is stored in {@link XElement}s.
+     * @param stations The stations to store, only the roots are needed.
+     * @param writer the writer to write into, the new elements are children of the element that
+     * is currently open in <code>writer</code>
+     * @throws IOException if <code>writer</code> cannot write
+     */
+    public void writeXML( Map<String, DockStation> stations, XWriter writer ) throws IOException{
+    	for( Map.Entry<String, DockStation> entry : stations.entrySet() ){
+    		DockLayoutComposition composition = convert( entry.getValue() );
+    		if( composition != null ){
+    			writer.startElement( "element" );
+    			writer.addString( "name", entry.getKey() );
+    			writeCompositionXML( composition, writer );
+    			writer.endElement();
+    		}
+    	}
+    }
+    
+    /**
+     * Writes the contents of <code>stations</code> into <code>writer</code>, the output is the same
+     * as the output of {@link #writeCompositionsXML(Map, XElement)}.
+     * @param stations the items to write
+     * @param writer the writer to write into, the new elements are children of the element that
+     * is currently open in <code>writer</code>
+     * @throws IOException if <code>writer</code> cannot write
+     */
+    public void writeCompositionsXML( Map<String, DockLayoutComposition> stations, XWriter writer ) throws IOException{
+    	for( Map.Entry<String, DockLayoutComposition> entry : stations.entrySet() ){
+    		writer.startElement( "element" );
+    		writer.addString( "name", entry.getKey() );
+    		writeCompositionXML( entry.getValue(), writer );
+    		writer.endElement();
+    	}
+    }
+    
+    /**
+     * Writes the contents of <code>composition</code> into the element that is currently open
+     * in <code>writer</code>, the output is the same as the output of 
+     * {@link #writeCompositionXML(DockLayoutComposition, XElement)}.
+     * @param composition the composition to write
+     * @param writer the writer to write into
+     * @throws IOException if <code>writer</code> cannot write
+     * @throws IllegalArgumentException if a factory is missing
+     */
+    @SuppressWarnings("unchecked")
+    public void writeCompositionXML( DockLayoutComposition composition, XWriter writer ) throws IOException{
+        DockLayoutInfo info = composition.getLayout();
+        if( info.getKind() == DockLayoutInfo.Data.XML ){
+            writer.element( info.getDataXML() );
+        }
+        else if( info.getKind() == DockLayoutInfo.Data.DOCK_LAYOUT ){
+            DockLayout<?> layout = info.getDataLayout();
+
+            DockFactory<DockElement,?,Object> factory = (DockFactory<DockElement,?,Object>)getFactory( layout.getFactoryID() );
+            if( factory == null )
+                throw new IllegalArgumentException( "Missing factory: " + layout.getFactoryID() );
+
+            XElement xfactory = new XElement( "layout" );
+            xfactory.addString( "factory", getID( factory ) );
+            Path placeholder = info.getPlaceholder();
+            if( placeholder != null ){
+            	xfactory.addString( "placeholder", placeholder.toString() );
+            }
+            factory.write( layout.getData(), xfactory );
+            writer.element( xfactory );
+        }
+        else{
+            // there is nothing to write...
+            throw new IllegalArgumentException( "Cannot store layout as XML: it was never translated and its raw format is not XML" );
+        }
+
+        List<DockLayout<?>> adjacentLayouts = composition.getAdjacent();
+        if( adjacentLayouts != null ){
+            writer.startElement( "adjacent" );
+
+            for( DockLayout<?> adjacentLayout : adjacentLayouts ){
+                AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( adjacentLayout.getFactoryID() );
+                if( adjacentFactory == null )
+                    throw new IllegalArgumentException( "Missing adjacent factory: " + adjacentLayout.getFactoryID() );
+
+                XElement xlayout = new XElement( "layout" );
+                xlayout.addString( "factory", getAdjacentID( adjacentFactory ) );
+                adjacentFactory.write( adjacentLayout.getData(), xlayout );
+                writer.element( xlayout );
+            }
+            
+            writer.endElement();
+        }
+
+        writer.startElement( "children" );
+        writer.addBoolean( "ignore", composition.isIgnoreChildren() );
+
+        for( DockLayoutComposition child : composition.getChildren() ){
+            writer.startElement( "child" );
+            writeCompositionXML( child, writer );
+            writer.endElement();
+        }
+        
+        writer.endElement();
+    }
+    
+    /**
+     * Reads a set of {@link DockStation}s that were stored earlier. Other than {@link #readXML(XElement)}
+     * this method does not build a tree of {@link XElement}s, only the input of the single
+     * {@link DockFactory}s is stored in {@link XElement}s.
+     * @param reader the reader to read from, the cursor must be at the beginning of the element which
+     * was used as root when writing. After this method returns that element is closed.
+     * @return the set of station
+     * @throws IOException if <code>reader</code> cannot read
+     * @throws XException if something is missing or malformed in <code>reader</code>
+     */
+    public Map<String, DockStation> readXML( XReader reader ) throws IOException{
+    	Map<String, DockStation> result = new HashMap<String, DockStation>();
+    	while( reader.nextElement() ){
+    		if( reader.getName().equals( "element" )){
+    			String name = reader.getString( "name" );
+    			DockLayoutComposition composition = readCompositionXML( reader );
+    			DockElement element = composition == null ? null : convert( composition );
+    			DockStation station = element == null ? null : element.asDockStation();
+    			if( station != null )
+    				result.put( name, station );
+    		}
+    		else{
+    			reader.skipElement();
+    		}
+    	}
+    	return result;
+    }
+    
+    /**
+     * Reads a set of {@link DockLayoutComposition}s that were stored earlier.
+     * @param reader the reader to read from, the cursor must be at the beginning of the element which
+     * was used as root when writing. After this method returns that element is closed.
+     * @return the set of compositions
+     * @throws IOException if <code>reader</code> cannot read
+     * @throws XException if something is missing or malformed in <code>reader</code>
+     * @see #readCompositionsXML(XElement)
+     */
+    public Map<String, DockLayoutComposition> readCompositionsXML( XReader reader ) throws IOException{
+    	Map<String, DockLayoutComposition> result = new HashMap<String, DockLayoutComposition>();
+    	while( reader.nextElement() ){
+    		if( reader.getName().equals( "element" )){
+    			String name = reader.getString( "name" );
+    			DockLayoutComposition composition = readCompositionXML( reader );
+    			if( composition != null ){
+    				result.put( name, composition );
+    			}
+    		}
+    		else{
+    			reader.skipElement();
+    		}
+    	}
+    	return result;
+    }
+    
+    /**
+     * Reads a {@link DockLayoutComposition} from <code>reader</code>.
+     * @param reader the reader to read from, the cursor must be at the beginning of the element
+     * which was used to write the composition. After this method returns that element is closed. 
+     * @return the composition that was read
+     * @throws IOException if <code>reader</code> cannot read
+     * @throws XException if something is missing or malformed in <code>reader</code>
+     * @see #readCompositionXML(XElement)
+     */
+    @SuppressWarnings("unchecked")
+    public DockLayoutComposition readCompositionXML( XReader reader ) throws IOException{
+    	DockLayoutInfo layout = null;
+    	boolean layoutRead = false;
+    	List<DockLayout<?>> adjacentLayouts = null;
+    	boolean ignore = true;
+    	boolean childrenRead = false;
+    	List<DockLayoutComposition> children = new ArrayList<DockLayoutComposition>();
+    	
+    	while( reader.nextElement() ){
+    		String name = reader.getName();
+    		if( name.equals( "layout" ) && !layoutRead ){
+    			layout = readEntry( reader.readElement() );
+    			layoutRead = true;
+    		}
+    		else if( name.equals( "adjacent" ) && adjacentLayouts == null ){
+    			adjacentLayouts = new ArrayList<DockLayout<?>>();
+    			while( reader.nextElement() ){
+    				if( reader.getName().equals( "layout" )){
+    					XElement xlayout = reader.readElement();
+    					String factoryId = xlayout.getString( "factory" );
+    					AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( factoryId );
+    					if( adjacentFactory != null ){
+    						Object data = adjacentFactory.read( xlayout, intermediatePlaceholders );
+    						if( data != null ){
+    							adjacentLayouts.add( new DockLayout<Object>( factoryId, data ));
+    						}
+    					}
+    					else if( missingAdjacent != null ){
+    						Object data = missingAdjacent.readXML( getAdjacentFactoryID( factoryId ), xlayout );
+    						if( data != null ){
+    							adjacentLayouts.add( new DockLayout<Object>( factoryId, data ) );
+    						}
+    					}
+    				}
+    				else{
+    					reader.skipElement();
+    				}
+    			}
+    		}
+    		else if( name.equals( "children" ) && !childrenRead ){
+    			childrenRead = true;
+    			ignore = reader.getBoolean( "ignore" );
+    			while( reader.nextElement() ){
+    				if( reader.getName().equals( "child" )){
+    					children.add( readCompositionXML( reader ) );
+    				}
+    				else{
+    					reader.skipElement();
+    				}
+    			}
+    		}
+    		else{
+    			reader.skipElement();
+    		}
+    	}
+    	
+    	return new DockLayoutComposition( layout, adjacentLayouts, children, ignore );
+    }
+    
     /**
      * Using the factories currently known to this {@link DockSituation}, this
      * method tries to fill gaps in <code>composition</code>. It checks
@@ -0,0 +1,172 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.layout;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * The counterpart to {@link LayoutOutputBuffer}: reads the table of strings and the content
+ * that was written by a {@link LayoutOutputBuffer}. The content is read at once, the data of
+ * the single factories is then offered as views into the content, without copying it.
+ * @author Benjamin Sigg
+ */
+class LayoutInputBuffer extends ByteArrayInputStream{
+	/** the stream reading from this buffer */
+	private DataInputStream input = new DataInputStream( this );
+	
+	/** the table of strings */
+	private String[] strings;
+	
+	/**
+	 * Reads a table of strings and content from <code>in</code>.
+	 * @param in the stream to read from
+	 * @return the buffer containing the content
+	 * @throws IOException if <code>in</code> cannot be read
+	 */
+	public static LayoutInputBuffer read( DataInputStream in ) throws IOException{
+		int stringCount = in.readInt();
+		if( stringCount < 0 ){
+			throw new IOException( "illegal number of strings: " + stringCount );
+		}
+		String[] strings = new String[ stringCount ];
+		for( int i = 0; i < stringCount; i++ ){
+			strings[i] = in.readUTF();
+		}
+		
+		int length = in.readInt();
+		if( length < 0 ){
+			throw new IOException( "illegal length: " + length );
+		}
+		byte[] content = new byte[ length ];
+		in.readFully( content );
+		
+		return new LayoutInputBuffer( strings, content );
+	}
+	
+	/**
+	 * Creates a new buffer.
+	 * @param strings the table of strings
+	 * @param content the content to read
+	 */
+	public LayoutInputBuffer( String[] strings, byte[] content ){
+		super( content );
+		this.strings = strings;
+	}
+	
+	/**
+	 * Gets a stream reading directly from this buffer.
+	 * @return the stream, not <code>null</code>
+	 */
+	public DataInputStream getInput(){
+		return input;
+	}
+	
+	/**
+	 * Gets the string with index <code>index</code>.
+	 * @param index the index of the string
+	 * @return the string
+	 * @throws IOException if there is no such string
+	 */
+	public String getString( int index ) throws IOException{
+		if( index < 0 || index >= strings.length ){
+			throw new IOException( "no string with index " + index );
+		}
+		return strings[ index ];
+	}
+	
+	/**
+	 * Gets the number of strings in the table of strings.
+	 * @return the number of strings
+	 */
+	public int getStringCount(){
+		return strings.length;
+	}
+	
+	/**
+	 * Gets the content of this buffer. Together with {@link #getPosition()} this array
+	 * can be used to access the content without copying it.
+	 * @return the content, must not be modified
+	 */
+	public byte[] getContent(){
+		return buf;
+	}
+	
+	/**
+	 * Gets the index of the next byte that will be read.
+	 * @return the index of the next byte
+	 */
+	public int getPosition(){
+		return pos;
+	}
+	
+	/**
+	 * Sets the index of the next byte that will be read.
+	 * @param position the index of the next byte
+	 * @throws IOException if <code>position</code> is not within the content
+	 */
+	public void setPosition( int position ) throws IOException{
+		if( position < 0 || position > count ){
+			throw new IOException( "position out of bounds: " + position );
+		}
+		pos = position;
+	}
+	
+	/**
+	 * Creates a new stream that reads the next <code>length</code> bytes of this
+	 * buffer, this buffer itself skips the bytes.
+	 * @param length the number of bytes the new stream can read
+	 * @return the new stream
+	 * @throws IOException if there are not enough bytes left
+	 */
+	public DataInputStream getRange( int length ) throws IOException{
+		checkRange( length );
+		DataInputStream result = new DataInputStream( new ByteArrayInputStream( buf, pos, length ) );
+		pos += length;
+		return result;
+	}
+	
+	/**
+	 * Skips the next <code>length</code> bytes.
+	 * @param length the number of bytes to skip
+	 * @throws IOException if there are not enough bytes left
+	 */
+	public void skipRange( int length ) throws IOException{
+		checkRange( length );
+		pos += length;
+	}
+	
+	private void checkRange( int length ) throws IOException{
+		if( length < 0 ){
+			throw new IOException( "illegal length: " + length );
+		}
+		if( length > count - pos ){
+			throw new EOFException();
+		}
+	}
+}
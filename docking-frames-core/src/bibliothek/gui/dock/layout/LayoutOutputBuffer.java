@@ -0,0 +1,168 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.layout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A growing buffer used by the {@link DockSituation} to write a whole {@link DockLayoutComposition}
+ * in one pass. Length prefixes are reserved with {@link #beginLength()} and filled in later by
+ * {@link #endLength(int)}, hence the data of a factory does not have to be copied. Strings like
+ * factory identifiers are not written into the buffer but collected in a table, only their index is 
+ * written. Buffers can be {@link #clear() cleared} and reused.
+ * @author Benjamin Sigg
+ */
+class LayoutOutputBuffer extends ByteArrayOutputStream{
+	/** the stream writing into this buffer */
+	private DataOutputStream output = new DataOutputStream( this );
+	
+	/** all the strings that were added to this buffer */
+	private List<String> strings = new ArrayList<String>();
+	
+	/** the index of each string in {@link #strings} */
+	private Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+	
+	/**
+	 * Creates a new buffer.
+	 */
+	public LayoutOutputBuffer(){
+		super( 1024 );
+	}
+	
+	/**
+	 * Gets a stream which writes directly into this buffer.
+	 * @return the stream, not <code>null</code>
+	 */
+	public DataOutputStream getOutput(){
+		return output;
+	}
+	
+	/**
+	 * Adds <code>value</code> to the table of strings of this buffer. 
+	 * @param value the string to add
+	 * @return the index of <code>value</code> in the table
+	 */
+	public int getString( String value ){
+		Integer index = stringIndices.get( value );
+		if( index == null ){
+			index = strings.size();
+			strings.add( value );
+			stringIndices.put( value, index );
+		}
+		return index;
+	}
+	
+	/**
+	 * Writes a placeholder for an <code>int</code> that will later be replaced by the number
+	 * of bytes that were written between this call and {@link #endLength(int)}.
+	 * @return the location of the placeholder
+	 * @throws IOException if the placeholder cannot be written
+	 */
+	public int beginLength() throws IOException{
+		int position = count;
+		output.writeInt( 0 );
+		return position;
+	}
+	
+	/**
+	 * Replaces the placeholder at <code>position</code> by the number of bytes that
+	 * were written since the placeholder was created.
+	 * @param position the result of {@link #beginLength()}
+	 */
+	public void endLength( int position ){
+		int length = count - position - 4;
+		buf[ position ] = (byte)(length >>> 24);
+		buf[ position+1 ] = (byte)(length >>> 16);
+		buf[ position+2 ] = (byte)(length >>> 8);
+		buf[ position+3 ] = (byte)length;
+	}
+	
+	/**
+	 * Writes the table of strings followed by the content of this buffer into <code>out</code>.
+	 * @param out the stream to write into
+	 * @throws IOException if <code>out</code> throws an exception
+	 */
+	public void writeAll( DataOutputStream out ) throws IOException{
+		out.writeInt( strings.size() );
+		for( String value : strings ){
+			out.writeUTF( value );
+		}
+		out.writeInt( count );
+		out.write( buf, 0, count );
+	}
+	
+	/**
+	 * Gets the array into which this buffer currently writes. Only the first {@link #size()}
+	 * bytes are valid, the array is replaced when the buffer grows.
+	 * @return the content, must not be modified
+	 */
+	public byte[] getContent(){
+		return buf;
+	}
+	
+	/**
+	 * Removes all the bytes that were written after <code>position</code>. The table of
+	 * strings is not changed.
+	 * @param position the new size of this buffer
+	 */
+	public void truncate( int position ){
+		if( position < 0 || position > count ){
+			throw new IllegalArgumentException( "position out of bounds: " + position );
+		}
+		count = position;
+	}
+	
+	/**
+	 * Gets a copy of the table of strings.
+	 * @return the strings in the order of their index
+	 */
+	public String[] getStrings(){
+		return strings.toArray( new String[ strings.size() ] );
+	}
+	
+	/**
+	 * Gets the number of bytes this buffer can store without growing.
+	 * @return the capacity
+	 */
+	public int getCapacity(){
+		return buf.length;
+	}
+	
+	/**
+	 * Removes all content from this buffer, but keeps the allocated memory.
+	 */
+	public void clear(){
+		reset();
+		strings.clear();
+		stringIndices.clear();
+	}
+}
@@ -25,6 +25,8 @@
  */
 package bibliothek.gui.dock.station.flap.layer;
 
+import java.awt.Rectangle;
+
 import bibliothek.gui.dock.FlapDockStation;
 import bibliothek.gui.dock.station.flap.FlapWindow;
 import bibliothek.gui.dock.station.layer.DefaultDropLayer;
@@ -57,6 +59,12 @@ public class WindowDropLayer extends DefaultDropLayer{
 		return false;
 	}
 	
+	@Override
+	public Rectangle getScreenBounds(){
+		// the window may appear at any time
+		return null;
+	}
+	
 	@Override
 	public DockStationDropLayer modify( DockStationDropLayer child ){
 		child.setPriority( getPriority().merge( child.getPriority() ));
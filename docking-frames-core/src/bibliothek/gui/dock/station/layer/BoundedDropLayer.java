@@ -0,0 +1,45 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.station.layer;
+
+import java.awt.Rectangle;
+
+/**
+ * A {@link BoundedDropLayer} is a {@link DockStationDropLayer} that knows a rectangle on the screen
+ * outside of which {@link #contains(int, int)} never returns <code>true</code>. These bounds allow
+ * a {@link DropLayerIndex} to ignore the layer for most of the locations of the mouse.
+ * @author Benjamin Sigg
+ */
+public interface BoundedDropLayer extends DockStationDropLayer{
+	/**
+	 * Gets the area of the screen which contains all the points for which {@link #contains(int, int)}
+	 * may return <code>true</code>. The bounds must not be smaller than the area of the layer, but
+	 * they may be larger.
+	 * @return the bounds of this layer in screen coordinates, or <code>null</code> if the bounds are
+	 * unknown, e.g. because the {@link #getComponent() component} of this layer is not showing
+	 */
+	public Rectangle getScreenBounds();
+}
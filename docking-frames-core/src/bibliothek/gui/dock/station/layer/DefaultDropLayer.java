@@ -27,6 +27,7 @@ package bibliothek.gui.dock.station.layer;
 
 import java.awt.Component;
 import java.awt.Point;
+import java.awt.Rectangle;
 
 import javax.swing.SwingUtilities;
 
@@ -36,10 +37,12 @@ import bibliothek.gui.Dockable;
 /**
  * This {@link DockStationDropLayer} represents the base area of a {@link DockStation}, the area
  * with priority {@link LayerPriority#BASE} and whose {@link Component} is the component is the result of
- * {@link Dockable#getComponent()} (assuming the station is also a dockable). 
+ * {@link Dockable#getComponent()} (assuming the station is also a dockable).<br>
+ * Subclasses overriding {@link #contains(int, int)} must make sure that the layer does not
+ * grow beyond its {@link #getScreenBounds() bounds}.
  * @author Benjamin Sigg
  */
-public class DefaultDropLayer implements DockStationDropLayer{
+public class DefaultDropLayer implements BoundedDropLayer{
 	private DockStation station;
 	private LayerPriority priority = LayerPriority.BASE;
 	
@@ -69,6 +72,15 @@ public class DefaultDropLayer implements DockStationDropLayer{
 		return component.contains( point );
 	}
 	
+	public Rectangle getScreenBounds(){
+		Component component = getComponent();
+		if( component == null || !component.isShowing() ){
+			return null;
+		}
+		Point location = component.getLocationOnScreen();
+		return new Rectangle( location.x, location.y, component.getWidth(), component.getHeight() );
+	}
+	
 	public Component getComponent(){
 		Dockable dockable = station.asDockable();
 		if( dockable == null ){
@@ -0,0 +1,809 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.station.layer;
+
+import java.awt.Component;
+import java.awt.Rectangle;
+import java.awt.Window;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyBoundsListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.control.DockRegister;
+import bibliothek.gui.dock.event.DockRegisterAdapter;
+
+/**
+ * A {@link DropLayerIndex} is a spatial index over the {@link DockStationDropLayer}s of all the
+ * {@link DockStation}s known to a {@link DockRegister}. The index is meant to live as long as a drag and drop
+ * operation: it is created once when the operation starts, and then answers the question "which stations
+ * contain the mouse, in which order" for each movement of the mouse without visiting all the stations.<br>
+ * {@link BoundedDropLayer}s are put into a uniform grid covering the screen, all the other layers are checked
+ * for every location. The index observes the {@link DockRegister} and the {@link Component}s of the stations and
+ * of their layers, including the windows of stations that are not {@link Dockable}s. If a station is added, removed,
+ * shown, hidden, moved or resized, only the layers of that station are collected again and only the cells covered
+ * by that station are updated. Moving or resizing any ancestor of a station, e.g. a divider of a split pane or a
+ * scroll pane, is noticed as well.<br>
+ * {@link #isIndexed(DockStation)} is asked each time the index is searched, subclasses can use that
+ * method to exclude stations that cannot be the target of the current operation.
+ * @author Benjamin Sigg
+ */
+public class DropLayerIndex {
+	/** the maximum number of cells in one row or column of the grid */
+	private static final int MAX_GRID_SIZE = 64;
+	
+	/** the controller whose stations are indexed */
+	private DockController controller;
+	
+	/** all the stations known to this index */
+	private Map<DockStation, StationEntry> stations = new HashMap<DockStation, StationEntry>();
+	
+	/** the stations whose layers have to be collected again */
+	private Set<StationEntry> dirty = new LinkedHashSet<StationEntry>();
+	
+	/** the parent of each registered {@link Dockable}, the parent has to be updated if the dockable is removed */
+	private Map<Dockable, DockStation> parents = new HashMap<Dockable, DockStation>();
+	
+	/** the stations which have to be updated if a {@link Component} changes */
+	private Map<Component, List<StationEntry>> observed = new HashMap<Component, List<StationEntry>>();
+	
+	/** the layers whose bounds are unknown and which must be checked for every location, ordered */
+	private List<Entry> unbounded = new ArrayList<Entry>();
+	
+	/** the cells of the grid, each cell contains the bounded layers touching the cell in their order */
+	private Cell[] cells;
+	
+	/** the area covered by {@link #cells} */
+	private Rectangle gridBounds;
+	
+	/** the number of columns of the grid */
+	private int gridColumns;
+	
+	/** the number of rows of the grid */
+	private int gridRows;
+	
+	/** the number of bounded layers */
+	private int boundedCount;
+	
+	/** if {@link #boundedCount} grows beyond this value, then the grid is built again with smaller cells */
+	private int gridCapacity;
+	
+	/** whether the grid needs to be rebuilt */
+	private boolean gridInvalid = true;
+	
+	/** the order of the next {@link StationEntry} */
+	private int nextOrder = 0;
+	
+	/** incremented every time the index is searched, used to cache the result of {@link #isIndexed(DockStation)} */
+	private int query = 0;
+	
+	/** the layers found by the current search, reused for every search */
+	private List<Entry> hits = new ArrayList<Entry>();
+	
+	/** the algorithm ordering the stations */
+	private OrderedLayerCollection collection = new OrderedLayerCollection();
+	
+	/** whether this index is connected to {@link #controller} */
+	private boolean bound = false;
+	
+	/** updates the stations whenever a station or a dockable is added or removed */
+	private DockRegisterAdapter registerListener = new DockRegisterAdapter(){
+		@Override
+		public void dockStationRegistered( DockController controller, DockStation station ){
+			addStation( station );
+		}
+		
+		@Override
+		public void dockStationUnregistered( DockController controller, DockStation station ){
+			removeStation( station );
+		}
+		
+		@Override
+		public void dockableRegistered( DockController controller, Dockable dockable ){
+			DockStation parent = dockable.getDockParent();
+			parents.put( dockable, parent );
+			markDirty( parent );
+		}
+		
+		@Override
+		public void dockableUnregistered( DockController controller, Dockable dockable ){
+			markDirty( parents.remove( dockable ) );
+		}
+		
+		@Override
+		public void dockableCycledRegister( DockController controller, Dockable dockable ){
+			DockStation parent = dockable.getDockParent();
+			markDirty( parents.put( dockable, parent ) );
+			markDirty( parent );
+		}
+	};
+	
+	/** 
+	 * marks a station as dirty whenever the station, one of its ancestors or one of its layers moves, changes
+	 * its size or its visibility
+	 */
+	private ComponentObserver componentListener = new ComponentObserver();
+	
+	/**
+	 * Creates a new index. The index does not observe anything until {@link #bind()} is called.
+	 * @param controller the controller whose stations are indexed, not <code>null</code>
+	 */
+	public DropLayerIndex( DockController controller ){
+		if( controller == null ){
+			throw new IllegalArgumentException( "controller must not be null" );
+		}
+		this.controller = controller;
+	}
+	
+	/**
+	 * Starts observing the {@link DockRegister} of the controller and the {@link Component}s
+	 * of the stations.
+	 */
+	public void bind(){
+		if( !bound ){
+			bound = true;
+			DockRegister register = controller.getRegister();
+			register.addDockRegisterListener( registerListener );
+			for( DockStation station : register.listDockStations() ){
+				addStation( station );
+			}
+			for( Dockable dockable : register.listDockables() ){
+				parents.put( dockable, dockable.getDockParent() );
+			}
+		}
+	}
+	
+	/**
+	 * Stops observing the {@link DockRegister} and any {@link Component}, and releases all
+	 * the resources of this index.
+	 */
+	public void unbind(){
+		if( bound ){
+			bound = false;
+			controller.getRegister().removeDockRegisterListener( registerListener );
+			for( Component component : observed.keySet() ){
+				component.removeComponentListener( componentListener );
+				component.removeHierarchyBoundsListener( componentListener );
+				component.removeHierarchyListener( componentListener );
+			}
+			observed.clear();
+			stations.clear();
+			dirty.clear();
+			parents.clear();
+			unbounded.clear();
+			hits.clear();
+			cells = null;
+			gridBounds = null;
+			boundedCount = 0;
+			gridInvalid = true;
+		}
+	}
+	
+	/**
+	 * Tells whether this index is currently bound, see {@link #bind()}.
+	 * @return whether the index is bound
+	 */
+	public boolean isBound(){
+		return bound;
+	}
+	
+	/**
+	 * Gets all the {@link DockStationDropLayer}s which contain the point <code>x/y</code>. The
+	 * layers are returned unordered, {@link #sortLayers(List)} can be used to order them.
+	 * @param x the x-coordinate of the mouse on the screen
+	 * @param y the y-coordinate of the mouse on the screen
+	 * @return all the layers containing <code>x/y</code>, may be empty
+	 */
+	public List<DockStationDropLayer> getLayersAt( int x, int y ){
+		List<DockStationDropLayer> result = new ArrayList<DockStationDropLayer>();
+		getLayersAt( x, y, result );
+		return result;
+	}
+	
+	/**
+	 * Adds all the {@link DockStationDropLayer}s which contain the point <code>x/y</code> to <code>result</code>. 
+	 * Only the layers of stations accepted by {@link #isIndexed(DockStation)} are added, and these layers
+	 * are {@link DockStationDropLayer#modify(DockStationDropLayer) modified} by the layers of those ancestors
+	 * that are accepted by {@link #isIndexed(DockStation)} as well.
+	 * @param x the x-coordinate of the mouse on the screen
+	 * @param y the y-coordinate of the mouse on the screen
+	 * @param result the list to fill, the layers are added unordered
+	 */
+	public void getLayersAt( int x, int y, List<DockStationDropLayer> result ){
+		validate();
+		query++;
+		
+		while( search( x, y ) ){
+			// some layers were modified by ancestors that are no longer indexed, or the other way around
+			validate();
+		}
+		
+		for( Entry hit : hits ){
+			result.add( hit.layer );
+		}
+		hits.clear();
+	}
+	
+	/**
+	 * Fills {@link #hits} with the layers containing <code>x/y</code>.
+	 * @param x the x-coordinate of the mouse on the screen
+	 * @param y the y-coordinate of the mouse on the screen
+	 * @return <code>true</code> if some of the layers are outdated and the search has to be repeated
+	 */
+	private boolean search( int x, int y ){
+		hits.clear();
+		boolean outdated = false;
+		
+		List<Entry> cell = getCell( x, y );
+		
+		// merge the cell and the unbounded layers, both lists are ordered
+		int c = 0, u = 0;
+		int cLength = cell == null ? 0 : cell.size();
+		int uLength = unbounded.size();
+		
+		while( c < cLength || u < uLength ){
+			Entry next;
+			if( c == cLength ){
+				next = unbounded.get( u++ );
+			}
+			else if( u == uLength ){
+				next = cell.get( c++ );
+			}
+			else if( cell.get( c ).compareTo( unbounded.get( u ) ) < 0 ){
+				next = cell.get( c++ );
+			}
+			else{
+				next = unbounded.get( u++ );
+			}
+			
+			if( next.bounds == null || next.bounds.contains( x, y )){
+				StationEntry station = next.station;
+				if( isCandidate( station )){
+					if( !isModified( station )){
+						dirty.add( station );
+						outdated = true;
+					}
+					else if( !outdated && next.layer.contains( x, y )){
+						hits.add( next );
+					}
+				}
+			}
+		}
+		
+		return outdated;
+	}
+	
+	/**
+	 * Orders <code>layers</code> using the rules of {@link DockStationDropLayer} and returns the
+	 * stations of the layers.
+	 * @param layers some layers that were returned by {@link #getLayersAt(int, int)}
+	 * @return the ordered stations, where the first station is the station with the highest priority
+	 */
+	public List<DockStation> sortLayers( List<DockStationDropLayer> layers ){
+		return collection.sortLayers( layers );
+	}
+	
+	/**
+	 * Gets the cell of the grid which contains <code>x/y</code>.
+	 * @param x the x-coordinate on the screen
+	 * @param y the y-coordinate on the screen
+	 * @return the content of the cell or <code>null</code> if the point is outside the grid
+	 */
+	private List<Entry> getCell( int x, int y ){
+		if( cells == null || !gridBounds.contains( x, y )){
+			return null;
+		}
+		Cell cell = cells[ column( x ) + row( y ) * gridColumns ];
+		return cell == null ? null : cell.entries;
+	}
+	
+	private int column( int x ){
+		long offset = x - gridBounds.x;
+		return (int)Math.min( gridColumns-1, Math.max( 0, offset * gridColumns / gridBounds.width ));
+	}
+	
+	private int row( int y ){
+		long offset = y - gridBounds.y;
+		return (int)Math.min( gridRows-1, Math.max( 0, offset * gridRows / gridBounds.height ));
+	}
+	
+	/**
+	 * Tells whether <code>station</code> is currently accepted by {@link #isIndexed(DockStation)}. The
+	 * result is cached until the next search starts.
+	 * @param station the station to check
+	 * @return whether the layers of <code>station</code> are used
+	 */
+	private boolean isCandidate( StationEntry station ){
+		if( station.query != query ){
+			station.query = query;
+			station.candidate = isIndexed( station.station );
+		}
+		return station.candidate;
+	}
+	
+	/**
+	 * Tells whether the layers of <code>station</code> were modified by exactly those ancestors
+	 * which are currently accepted by {@link #isIndexed(DockStation)}.
+	 * @param station the station to check
+	 * @return <code>true</code> if the layers are up to date
+	 */
+	private boolean isModified( StationEntry station ){
+		StationEntry[] modifiers = station.modifiers;
+		int index = 0;
+		
+		Dockable child = station.station.asDockable();
+		while( child != null ){
+			DockStation parent = child.getDockParent();
+			if( parent == null ){
+				break;
+			}
+			StationEntry entry = stations.get( parent );
+			if( entry != null && isCandidate( entry )){
+				if( index == modifiers.length || modifiers[ index ] != entry ){
+					return false;
+				}
+				index++;
+			}
+			child = parent.asDockable();
+		}
+		
+		return index == modifiers.length;
+	}
+	
+	/**
+	 * Makes sure that the layers of all the dirty stations and the grid are up to date.
+	 */
+	private void validate(){
+		if( !bound ){
+			throw new IllegalStateException( "the index is not bound" );
+		}
+		if( !dirty.isEmpty() ){
+			for( StationEntry station : dirty ){
+				update( station );
+			}
+			dirty.clear();
+		}
+		if( gridInvalid ){
+			buildGrid();
+		}
+	}
+	
+	/**
+	 * Adds a new station to this index, the layers of the station are collected lazily.
+	 * @param station the new station
+	 */
+	private void addStation( DockStation station ){
+		if( !stations.containsKey( station )){
+			StationEntry entry = new StationEntry( station, nextOrder++ );
+			stations.put( station, entry );
+			dirty.add( entry );
+		}
+	}
+	
+	/**
+	 * Removes a station and all its layers from this index.
+	 * @param station the station to remove
+	 */
+	private void removeStation( DockStation station ){
+		StationEntry entry = stations.remove( station );
+		if( entry != null ){
+			dirty.remove( entry );
+			remove( entry );
+			observe( entry, new HashSet<Component>() );
+		}
+	}
+	
+	/**
+	 * Marks <code>station</code> as dirty, its layers will be collected again before the next search.
+	 * @param station the station that changed, can be <code>null</code>
+	 */
+	private void markDirty( DockStation station ){
+		if( station != null ){
+			StationEntry entry = stations.get( station );
+			if( entry != null ){
+				dirty.add( entry );
+			}
+		}
+	}
+	
+	/**
+	 * Collects the layers of <code>station</code> again, modifies them with the layers of the indexed ancestors,
+	 * and updates the cells covered by the old and the new layers.
+	 * @param station the station to update
+	 */
+	private void update( StationEntry station ){
+		remove( station );
+		
+		List<StationEntry> modifiers = new ArrayList<StationEntry>();
+		Dockable child = station.station.asDockable();
+		while( child != null ){
+			DockStation parent = child.getDockParent();
+			if( parent == null ){
+				break;
+			}
+			StationEntry entry = stations.get( parent );
+			if( entry != null && isCandidate( entry )){
+				modifiers.add( entry );
+			}
+			child = parent.asDockable();
+		}
+		station.modifiers = modifiers.toArray( new StationEntry[ modifiers.size() ] );
+		
+		DockStationDropLayer[] layers = station.station.getLayers();
+		for( StationEntry modifier : station.modifiers ){
+			DockStationDropLayer[] parentLayers = modifier.station.getLayers();
+			for( int i = 0; i < layers.length; i++ ){
+				for( DockStationDropLayer layer : parentLayers ){
+					layers[i] = layer.modify( layers[i] );
+				}
+			}
+		}
+		
+		station.layers = new Entry[ layers.length ];
+		for( int i = 0; i < layers.length; i++ ){
+			station.layers[i] = new Entry( station, i, layers[i] );
+		}
+		insert( station );
+		
+		Set<Component> components = new HashSet<Component>();
+		Dockable dockable = station.station.asDockable();
+		if( dockable != null ){
+			addComponent( dockable.getComponent(), components );
+		}
+		for( DockStationDropLayer layer : layers ){
+			addComponent( layer.getComponent(), components );
+		}
+		observe( station, components );
+	}
+	
+	/**
+	 * Adds <code>component</code> and its window to <code>components</code>.
+	 * @param component the component to add, can be <code>null</code>
+	 * @param components the set to fill
+	 */
+	private void addComponent( Component component, Set<Component> components ){
+		if( component != null ){
+			components.add( component );
+			if( !(component instanceof Window) ){
+				Window window = SwingUtilities.getWindowAncestor( component );
+				if( window != null ){
+					components.add( window );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Replaces the set of {@link Component}s observed for <code>station</code>.
+	 * @param station the station whose components changed
+	 * @param components the components to observe from now on
+	 */
+	private void observe( StationEntry station, Set<Component> components ){
+		for( Component component : station.components ){
+			if( !components.contains( component )){
+				List<StationEntry> list = observed.get( component );
+				list.remove( station );
+				if( list.isEmpty() ){
+					observed.remove( component );
+					component.removeComponentListener( componentListener );
+					component.removeHierarchyBoundsListener( componentListener );
+					component.removeHierarchyListener( componentListener );
+				}
+			}
+		}
+		for( Component component : components ){
+			if( !station.components.contains( component )){
+				List<StationEntry> list = observed.get( component );
+				if( list == null ){
+					list = new ArrayList<StationEntry>( 2 );
+					observed.put( component, list );
+					component.addComponentListener( componentListener );
+					component.addHierarchyBoundsListener( componentListener );
+					component.addHierarchyListener( componentListener );
+				}
+				list.add( station );
+			}
+		}
+		station.components = components;
+	}
+	
+	/**
+	 * Marks all the stations depending on <code>component</code> as dirty.
+	 * @param component the component that changed
+	 */
+	private void changed( Component component ){
+		List<StationEntry> list = observed.get( component );
+		if( list != null ){
+			dirty.addAll( list );
+		}
+	}
+	
+	/**
+	 * Adds the layers of <code>station</code> to the grid or to the unbounded layers.
+	 * @param station the station whose layers are added
+	 */
+	private void insert( StationEntry station ){
+		for( Entry entry : station.layers ){
+			if( entry.bounds == null ){
+				insert( unbounded, entry );
+			}
+			else if( !entry.bounds.isEmpty() ){
+				boundedCount++;
+				if( !gridInvalid ){
+					if( cells == null || boundedCount > gridCapacity || !gridBounds.contains( entry.bounds )){
+						gridInvalid = true;
+					}
+					else{
+						forEachCell( entry, true );
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes the current layers of <code>station</code> from the grid and from the unbounded layers.
+	 * @param station the station whose layers are removed
+	 */
+	private void remove( StationEntry station ){
+		for( Entry entry : station.layers ){
+			if( entry.bounds == null ){
+				unbounded.remove( entry );
+			}
+			else if( !entry.bounds.isEmpty() ){
+				boundedCount--;
+				if( !gridInvalid ){
+					forEachCell( entry, false );
+				}
+			}
+		}
+		station.layers = new Entry[0];
+	}
+	
+	/**
+	 * Adds <code>entry</code> to, or removes <code>entry</code> from, all the cells it touches.
+	 * @param entry the entry to add or remove, must have bounds inside {@link #gridBounds}
+	 * @param add whether to add or to remove <code>entry</code>
+	 */
+	private void forEachCell( Entry entry, boolean add ){
+		Rectangle bounds = entry.bounds;
+		for( int r = row( bounds.y ), rn = row( bounds.y + bounds.height - 1 ); r <= rn; r++ ){
+			for( int c = column( bounds.x ), cn = column( bounds.x + bounds.width - 1 ); c <= cn; c++ ){
+				int index = c + r * gridColumns;
+				Cell cell = cells[ index ];
+				if( add ){
+					if( cell == null ){
+						cell = new Cell();
+						cells[ index ] = cell;
+					}
+					insert( cell.entries, entry );
+				}
+				else if( cell != null ){
+					cell.entries.remove( entry );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Inserts <code>entry</code> into the ordered list <code>entries</code>.
+	 * @param entries an ordered list
+	 * @param entry the new entry
+	 */
+	private void insert( List<Entry> entries, Entry entry ){
+		int min = 0;
+		int max = entries.size();
+		while( min < max ){
+			int mid = (min + max) >>> 1;
+			if( entries.get( mid ).compareTo( entry ) < 0 ){
+				min = mid + 1;
+			}
+			else{
+				max = mid;
+			}
+		}
+		entries.add( min, entry );
+	}
+	
+	/**
+	 * Tells whether the layers of <code>station</code> should be part of this index. Stations that are
+	 * not indexed are neither returned by {@link #getLayersAt(int, int)}, nor do they 
+	 * {@link DockStationDropLayer#modify(DockStationDropLayer) modify} the layers of their children. This
+	 * method is called while searching the index, for the stations containing the location and for
+	 * their ancestors. The result is used for one search only. The default implementation always returns 
+	 * <code>true</code>.
+	 * @param station the station to check
+	 * @return whether the layers of <code>station</code> are to be indexed
+	 */
+	protected boolean isIndexed( DockStation station ){
+		return true;
+	}
+	
+	/**
+	 * Puts all the bounded layers into a new grid. The grid covers the current layers with some
+	 * space to spare, and it is only built again if a layer leaves the grid or if the number of 
+	 * layers doubles.
+	 */
+	private void buildGrid(){
+		gridInvalid = false;
+		
+		List<Entry> boundedList = new ArrayList<Entry>();
+		Rectangle area = null;
+		
+		for( StationEntry station : stations.values() ){
+			for( Entry entry : station.layers ){
+				if( entry.bounds != null && !entry.bounds.isEmpty() ){
+					boundedList.add( entry );
+					if( area == null ){
+						area = new Rectangle( entry.bounds );
+					}
+					else{
+						area.add( entry.bounds );
+					}
+				}
+			}
+		}
+		
+		boundedCount = boundedList.size();
+		gridCapacity = Math.max( 16, boundedCount * 2 );
+		
+		if( area == null || area.isEmpty() ){
+			cells = null;
+			gridBounds = null;
+			return;
+		}
+		
+		area.grow( area.width / 4, area.height / 4 );
+		
+		gridBounds = area;
+		int size = (int)Math.ceil( Math.sqrt( boundedCount ));
+		gridColumns = Math.max( 1, Math.min( MAX_GRID_SIZE, Math.min( size, area.width )));
+		gridRows = Math.max( 1, Math.min( MAX_GRID_SIZE, Math.min( size, area.height )));
+		
+		cells = new Cell[ gridColumns * gridRows ];
+		for( Entry entry : boundedList ){
+			forEachCell( entry, true );
+		}
+	}
+	
+	/**
+	 * Observes the {@link Component}s of the stations, of their layers and their ancestors.
+	 * @author Benjamin Sigg
+	 */
+	private class ComponentObserver implements ComponentListener, HierarchyBoundsListener, HierarchyListener{
+		public void componentShown( ComponentEvent e ){
+			changed( e.getComponent() );
+		}
+		
+		public void componentResized( ComponentEvent e ){
+			changed( e.getComponent() );
+		}
+		
+		public void componentMoved( ComponentEvent e ){
+			changed( e.getComponent() );
+		}
+		
+		public void componentHidden( ComponentEvent e ){
+			changed( e.getComponent() );
+		}
+		
+		public void ancestorMoved( HierarchyEvent e ){
+			changed( e.getComponent() );
+		}
+		
+		public void ancestorResized( HierarchyEvent e ){
+			changed( e.getComponent() );
+		}
+		
+		public void hierarchyChanged( HierarchyEvent e ){
+			if( (e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED | HierarchyEvent.PARENT_CHANGED)) != 0 ){
+				changed( e.getComponent() );
+			}
+		}
+	}
+	
+	/**
+	 * Describes one station, its layers and the components it depends on.
+	 * @author Benjamin Sigg
+	 */
+	private static class StationEntry{
+		/** the station represented by this entry */
+		private final DockStation station;
+		/** the order of this station, defines the order in which layers are visited */
+		private final int order;
+		/** the current layers of the station */
+		private Entry[] layers = new Entry[0];
+		/** the indexed ancestors which modified {@link #layers}, the nearest ancestor first */
+		private StationEntry[] modifiers = new StationEntry[0];
+		/** the components observed because of this station */
+		private Set<Component> components = new HashSet<Component>();
+		/** the search for which {@link #candidate} was calculated */
+		private int query = -1;
+		/** the result of {@link DropLayerIndex#isIndexed(DockStation)} during search {@link #query} */
+		private boolean candidate;
+		
+		public StationEntry( DockStation station, int order ){
+			this.station = station;
+			this.order = order;
+		}
+	}
+	
+	/**
+	 * One cell of the grid.
+	 * @author Benjamin Sigg
+	 */
+	private static class Cell{
+		/** the layers touching this cell, ordered */
+		private final List<Entry> entries = new ArrayList<Entry>( 4 );
+	}
+	
+	/**
+	 * Describes one layer and its location.
+	 * @author Benjamin Sigg
+	 */
+	private static class Entry implements Comparable<Entry>{
+		/** the station owning this layer */
+		private final StationEntry station;
+		/** the position of this layer in the array of layers of {@link #station} */
+		private final int index;
+		/** the layer represented by this entry */
+		private final DockStationDropLayer layer;
+		/** the bounds of the layer on the screen, <code>null</code> if unknown */
+		private final Rectangle bounds;
+		
+		public Entry( StationEntry station, int index, DockStationDropLayer layer ){
+			this.station = station;
+			this.index = index;
+			this.layer = layer;
+			if( layer instanceof BoundedDropLayer ){
+				bounds = ((BoundedDropLayer)layer).getScreenBounds();
+			}
+			else{
+				bounds = null;
+			}
+		}
+		
+		public int compareTo( Entry o ){
+			if( station.order != o.station.order ){
+				return station.order < o.station.order ? -1 : 1;
+			}
+			return index - o.index;
+		}
+	}
+}
@@ -68,6 +68,38 @@ public class OrderedLayerCollection {
 	 * @return the ordered stations, where the first station is the station with the highest priority 
 	 */
 	public List<DockStation> sort( int x, int y ){
+		List<DockStationDropLayer> layers = new ArrayList<DockStationDropLayer>();
+		for( Node root : buildTree() ){
+			root.collect( layers, x, y );
+		}
+		return sortLayers( layers );
+	}
+	
+	/**
+	 * Orders <code>layers</code> and returns the {@link DockStation}s which are represented
+	 * by the layers. Each station is returned only once, at the position of its most important layer.
+	 * @param layers the layers to order, e.g. the layers found by a {@link DropLayerIndex}
+	 * @return the ordered stations, where the first station is the station with the highest priority
+	 */
+	public List<DockStation> sortLayers( List<DockStationDropLayer> layers ){
+		layers = sort( layers );
+		
+		Set<DockStation> done = new HashSet<DockStation>();
+		List<DockStation> result = new ArrayList<DockStation>();
+		for( DockStationDropLayer layer : layers ){
+			if( done.add( layer.getStation() )){
+				result.add( layer.getStation() );
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Creates a {@link Node} for each known station, links the nodes and modifies their layers.
+	 * @return the roots of the new tree
+	 */
+	private List<Node> buildTree(){
 		Map<DockStation, Node> nodes = new HashMap<DockStation, OrderedLayerCollection.Node>();
 		for( DockStation station : stations ){
 			nodes.put( station, new Node( station ) );
@@ -84,21 +116,7 @@ public class OrderedLayerCollection {
 			root.modify();
 		}
 		
-		List<DockStationDropLayer> layers = new ArrayList<DockStationDropLayer>();
-		for( Node root : roots ){
-			root.collect( layers, x, y );
-		}
-		
-		layers = sort( layers );
-		
-		List<DockStation> result = new ArrayList<DockStation>();
-		for( DockStationDropLayer layer : layers ){
-			if( nodes.remove( layer.getStation() ) != null ){
-				result.add( layer.getStation() );
-			}
-		}
-		
-		return result;
+		return roots;
 	}
 	
 	/**
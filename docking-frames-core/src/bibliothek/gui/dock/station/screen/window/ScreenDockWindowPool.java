@@ -0,0 +1,309 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.station.screen.window;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.swing.Timer;
+
+import bibliothek.gui.dock.ScreenDockStation;
+import bibliothek.gui.dock.station.screen.ScreenDockWindow;
+import bibliothek.gui.dock.station.screen.ScreenDockWindowFactory;
+
+/**
+ * A pool of hidden {@link ScreenDockWindow}s that are no longer used by their {@link ScreenDockStation}. Creating
+ * and realizing a native window can be expensive, a {@link ScreenDockStation} using a pool does not 
+ * {@link ScreenDockWindow#destroy() destroy} a window when the {@link bibliothek.gui.Dockable} leaves, but puts the window
+ * into the pool. When a new window is required, a window from the pool is used instead of calling 
+ * {@link ScreenDockWindowFactory#createWindow(ScreenDockStation, WindowConfiguration)}.<br>
+ * A window is only reused by the same station and only for a {@link WindowConfiguration} that 
+ * {@link #matches(WindowConfiguration, WindowConfiguration) matches} the configuration the window was created with.
+ * The pool holds at most {@link #getCapacity() capacity} windows, and windows that are not used for more than
+ * {@link #getIdleTimeout() idle timeout} milliseconds are destroyed.<br>
+ * A pool can be shared by several stations, it is installed using the property {@link ScreenDockStation#WINDOW_POOL}.
+ * The pool keeps strong references to the stations whose windows it stores. A {@link ScreenDockStation} calls
+ * {@link #clear(ScreenDockStation)} when it is removed from its {@link bibliothek.gui.DockController} or when it
+ * no longer uses this pool, clients using the pool directly have to do the same.
+ * @author Benjamin Sigg
+ */
+public class ScreenDockWindowPool {
+	/** the windows that are currently not used, the oldest windows are at the beginning of the list */
+	private LinkedList<Entry> entries = new LinkedList<Entry>();
+	
+	/** the maximum number of windows in this pool */
+	private int capacity;
+	
+	/** how long a window can stay in this pool, in milliseconds */
+	private int idleTimeout;
+	
+	/** how many times a window could be reused */
+	private int hits = 0;
+	
+	/** how many times no window was available */
+	private int misses = 0;
+	
+	/** how many windows were destroyed because this pool was full or because they were too old */
+	private int evictions = 0;
+	
+	/** the timer that destroys old windows, only running while this pool is not empty */
+	private Timer timer;
+	
+	/**
+	 * Creates a new pool holding up to 5 windows for up to one minute.
+	 */
+	public ScreenDockWindowPool(){
+		this( 5, 60000 );
+	}
+	
+	/**
+	 * Creates a new pool.
+	 * @param capacity the maximum number of windows that are stored in this pool
+	 * @param idleTimeout the time in milliseconds a window can stay in this pool before it gets destroyed,
+	 * a value smaller than 1 means that windows are never destroyed because of their age
+	 */
+	public ScreenDockWindowPool( int capacity, int idleTimeout ){
+		if( capacity < 0 ){
+			throw new IllegalArgumentException( "capacity must not be negative: " + capacity );
+		}
+		this.capacity = capacity;
+		this.idleTimeout = idleTimeout;
+		
+		if( idleTimeout > 0 ){
+			timer = new Timer( idleTimeout, new ActionListener(){
+				public void actionPerformed( ActionEvent e ){
+					evict( System.currentTimeMillis() - ScreenDockWindowPool.this.idleTimeout );
+				}
+			});
+			timer.setRepeats( true );
+		}
+	}
+	
+	/**
+	 * Gets the maximum number of windows this pool stores.
+	 * @return the capacity
+	 */
+	public int getCapacity(){
+		return capacity;
+	}
+	
+	/**
+	 * Gets the time in milliseconds a window can stay unused in this pool.
+	 * @return the timeout, a value smaller than 1 means that there is no timeout
+	 */
+	public int getIdleTimeout(){
+		return idleTimeout;
+	}
+	
+	/**
+	 * Gets the number of windows that are currently stored in this pool.
+	 * @return the number of windows
+	 */
+	public int getSize(){
+		return entries.size();
+	}
+	
+	/**
+	 * Tells how many times {@link #acquire(ScreenDockStation, WindowConfiguration)} was able
+	 * to reuse a window.
+	 * @return the number of hits
+	 */
+	public int getHits(){
+		return hits;
+	}
+	
+	/**
+	 * Tells how many times {@link #acquire(ScreenDockStation, WindowConfiguration)} did not find
+	 * a window that could be reused.
+	 * @return the number of misses
+	 */
+	public int getMisses(){
+		return misses;
+	}
+	
+	/**
+	 * Tells how many windows were destroyed because this pool was full, or because they were not used
+	 * for more than {@link #getIdleTimeout() idle timeout} milliseconds. Windows destroyed by {@link #clear()}
+	 * or {@link #clear(ScreenDockStation)} are not counted.
+	 * @return the number of evicted windows
+	 */
+	public int getEvictions(){
+		return evictions;
+	}
+	
+	/**
+	 * Sets the {@link #getHits() hits}, {@link #getMisses() misses} and {@link #getEvictions() evictions} back to 0.
+	 */
+	public void resetCounters(){
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+	
+	/**
+	 * Searches a window that was used by <code>station</code> and that was created with a configuration
+	 * matching <code>configuration</code>. The window is removed from this pool.
+	 * @param station the station that is going to use the window
+	 * @param configuration the configuration the window must have
+	 * @return a hidden window that can be used by <code>station</code>, or <code>null</code> if no
+	 * such window is available
+	 */
+	public ScreenDockWindow acquire( ScreenDockStation station, WindowConfiguration configuration ){
+		Iterator<Entry> iterator = entries.descendingIterator();
+		while( iterator.hasNext() ){
+			Entry entry = iterator.next();
+			if( entry.station == station && matches( entry.configuration, configuration )){
+				iterator.remove();
+				updateTimer();
+				hits++;
+				return entry.window;
+			}
+		}
+		misses++;
+		return null;
+	}
+	
+	/**
+	 * Puts <code>window</code> into this pool. The window must already be hidden and must not show any
+	 * {@link bibliothek.gui.Dockable} anymore. If this pool is full, then the oldest window is destroyed.
+	 * @param station the station which used <code>window</code>
+	 * @param configuration the configuration that was used to create <code>window</code>
+	 * @param window the window that is no longer used
+	 * @return <code>true</code> if <code>window</code> was stored, <code>false</code> if the
+	 * caller has to destroy <code>window</code>
+	 */
+	public boolean release( ScreenDockStation station, WindowConfiguration configuration, ScreenDockWindow window ){
+		if( capacity == 0 ){
+			return false;
+		}
+		while( entries.size() >= capacity ){
+			entries.removeFirst().window.destroy();
+			evictions++;
+		}
+		
+		Entry entry = new Entry();
+		entry.station = station;
+		entry.configuration = configuration;
+		entry.window = window;
+		entry.released = System.currentTimeMillis();
+		entries.addLast( entry );
+		updateTimer();
+		return true;
+	}
+	
+	/**
+	 * Destroys all the windows that were used by <code>station</code>.
+	 * @param station the station whose windows are no longer required
+	 */
+	public void clear( ScreenDockStation station ){
+		List<ScreenDockWindow> removed = new ArrayList<ScreenDockWindow>();
+		Iterator<Entry> iterator = entries.iterator();
+		while( iterator.hasNext() ){
+			Entry entry = iterator.next();
+			if( entry.station == station ){
+				iterator.remove();
+				removed.add( entry.window );
+			}
+		}
+		updateTimer();
+		for( ScreenDockWindow window : removed ){
+			window.destroy();
+		}
+	}
+	
+	/**
+	 * Destroys all the windows of this pool.
+	 */
+	public void clear(){
+		List<ScreenDockWindow> removed = new ArrayList<ScreenDockWindow>();
+		for( Entry entry : entries ){
+			removed.add( entry.window );
+		}
+		entries.clear();
+		updateTimer();
+		for( ScreenDockWindow window : removed ){
+			window.destroy();
+		}
+	}
+	
+	/**
+	 * Destroys all the windows that were put into this pool before <code>time</code>.
+	 * @param time the oldest time a window may have been released
+	 */
+	private void evict( long time ){
+		List<ScreenDockWindow> removed = new ArrayList<ScreenDockWindow>();
+		while( !entries.isEmpty() && entries.getFirst().released <= time ){
+			removed.add( entries.removeFirst().window );
+		}
+		evictions += removed.size();
+		updateTimer();
+		for( ScreenDockWindow window : removed ){
+			window.destroy();
+		}
+	}
+	
+	private void updateTimer(){
+		if( timer != null ){
+			if( entries.isEmpty() ){
+				timer.stop();
+			}
+			else if( !timer.isRunning() ){
+				timer.start();
+			}
+		}
+	}
+	
+	/**
+	 * Tells whether a window that was created with <code>pooled</code> can be used where a window with 
+	 * <code>requested</code> is required. The default implementation calls {@link WindowConfiguration#equals(Object)},
+	 * hence subclasses of {@link WindowConfiguration} decide themselves which of their properties matter.
+	 * @param pooled the configuration of a window in this pool
+	 * @param requested the configuration of the window that is required
+	 * @return whether the window can be reused
+	 */
+	protected boolean matches( WindowConfiguration pooled, WindowConfiguration requested ){
+		return pooled.equals( requested );
+	}
+	
+	/**
+	 * A window that is stored in the pool.
+	 * @author Benjamin Sigg
+	 */
+	private static class Entry{
+		/** the station that used {@link #window}, kept alive until {@link ScreenDockWindowPool#clear(ScreenDockStation)} is called */
+		public ScreenDockStation station;
+		/** the configuration that was used to create {@link #window} */
+		public WindowConfiguration configuration;
+		/** the pooled window */
+		public ScreenDockWindow window;
+		/** the time when {@link #window} was put into the pool */
+		public long released;
+	}
+}
@@ -209,4 +209,63 @@ public class WindowConfiguration {
 	public ScreenDockWindowBorderFactory getBorderFactory(){
 		return borderFactory;
 	}
+	
+	@Override
+	public int hashCode(){
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (allowDragAndDropOnTitle ? 1231 : 1237);
+		result = prime * result + ((borderFactory == null) ? 0 : borderFactory.hashCode());
+		result = prime * result + (moveOnBorder ? 1231 : 1237);
+		result = prime * result + (moveOnTitleGrab ? 1231 : 1237);
+		result = prime * result + (resetOnDropable ? 1231 : 1237);
+		result = prime * result + (resizeable ? 1231 : 1237);
+		result = prime * result + ((shape == null) ? 0 : shape.hashCode());
+		result = prime * result + (transparent ? 1231 : 1237);
+		return result;
+	}
+	
+	/**
+	 * Tells whether <code>obj</code> is a configuration of the same class with the same properties. A
+	 * {@link ScreenDockWindow} that was created for one configuration may be reused for an equal configuration,
+	 * e.g. by a {@link ScreenDockWindowPool}. The {@link #getShape() shapes} are compared with their
+	 * <code>equals</code> method, hence a window with a shape is only reused for the very same shape unless
+	 * the shape overrides <code>equals</code>. Subclasses adding new properties should override this
+	 * method and {@link #hashCode()}.
+	 */
+	@Override
+	public boolean equals( Object obj ){
+		if( this == obj )
+			return true;
+		if( obj == null )
+			return false;
+		if( getClass() != obj.getClass() )
+			return false;
+		WindowConfiguration other = (WindowConfiguration) obj;
+		if( allowDragAndDropOnTitle != other.allowDragAndDropOnTitle )
+			return false;
+		if( borderFactory == null ) {
+			if( other.borderFactory != null )
+				return false;
+		}
+		else if( !borderFactory.equals( other.borderFactory ) )
+			return false;
+		if( moveOnBorder != other.moveOnBorder )
+			return false;
+		if( moveOnTitleGrab != other.moveOnTitleGrab )
+			return false;
+		if( resetOnDropable != other.resetOnDropable )
+			return false;
+		if( resizeable != other.resizeable )
+			return false;
+		if( shape == null ) {
+			if( other.shape != null )
+				return false;
+		}
+		else if( !shape.equals( other.shape ) )
+			return false;
+		if( transparent != other.transparent )
+			return false;
+		return true;
+	}
 }
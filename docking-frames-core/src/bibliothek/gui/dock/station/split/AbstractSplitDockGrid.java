@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import bibliothek.gui.DockStation;
@@ -424,37 +425,83 @@ public abstract class AbstractSplitDockGrid<D> {
 	}
 		
 	/**
-	 * Transforms the grid into a tree and returns the root.
+	 * Transforms the grid into a tree and returns the root.<br>
+	 * The pair of nodes with the smallest {@link #diff(Node, Node) difference} is merged
+	 * until only one node remains. The differences of all pairs are calculated only once and
+	 * stored in a queue, hence building the tree requires <code>O(n^2 log n)</code> time.
 	 * @return the root, can be <code>null</code>
 	 */
 	protected Node<D> tree(){
-		List<Node<D>> nodes = new ArrayList<Node<D>>( this.nodes );
-		
 		if( nodes.isEmpty() )
 			return null;
 		
-		while( nodes.size() > 1 ){
-			int size = nodes.size();
-			
-			int bestA = 0, bestB = 0;
-			double bestDiff = Double.MAX_VALUE;
+		// the "order" of an item is its position in a list where merged nodes are appended, ties are broken by that order
+		List<Item<D>> items = new ArrayList<Item<D>>( nodes.size() );
+		PriorityQueue<Pair<D>> queue = new PriorityQueue<Pair<D>>( nodes.size() * 4 + 1 );
+		
+		for( Node<D> node : nodes ){
+			Item<D> item = new Item<D>( node, items.size() );
+			for( Item<D> other : items ){
+				offer( queue, other, item );
+			}
+			items.add( item );
+		}
+		
+		int alive = items.size();
+		int first = 0;
+		
+		while( alive > 1 ){
+			Pair<D> best = queue.poll();
+			while( best != null && !(best.a.alive && best.b.alive) ){
+				best = queue.poll();
+			}
 			
-			for( int i = 0; i < size; i++ ){
-				for( int j = i+1; j < size; j++ ){
-					double diff = diff( nodes.get( i ), nodes.get( j ) );
-					if( diff < bestDiff ){
-						bestDiff = diff;
-						bestA = i;
-						bestB = j;
-					}
+			Item<D> a, b;
+			if( best != null ){
+				a = best.a;
+				b = best.b;
+			}
+			else{
+				// no pair has a useful difference: merge the two oldest nodes
+				while( !items.get( first ).alive ){
+					first++;
+				}
+				int second = first+1;
+				while( !items.get( second ).alive ){
+					second++;
 				}
+				a = items.get( second );
+				b = items.get( first );
 			}
 			
-			Node<D> node = combine( nodes.remove( bestB ), nodes.remove( bestA ));
-			nodes.add( node );
+			a.alive = false;
+			b.alive = false;
+			alive--;
+			
+			Item<D> item = new Item<D>( combine( b.node, a.node ), items.size() );
+			for( Item<D> other : items ){
+				if( other.alive ){
+					offer( queue, other, item );
+				}
+			}
+			items.add( item );
 		}
 		
-		return nodes.get( 0 );
+		return items.get( items.size()-1 ).node;
+	}
+	
+	/**
+	 * Calculates the difference between <code>a</code> and <code>b</code> and stores the
+	 * pair in <code>queue</code>, if the difference makes merging the pair possible.
+	 * @param queue the queue of all pairs
+	 * @param a the older node
+	 * @param b the newer node
+	 */
+	private void offer( PriorityQueue<Pair<D>> queue, Item<D> a, Item<D> b ){
+		double diff = diff( a.node, b.node );
+		if( diff < Double.MAX_VALUE ){
+			queue.add( new Pair<D>( a, b, diff ) );
+		}
 	}
 	
 	/**
@@ -646,6 +693,61 @@ public abstract class AbstractSplitDockGrid<D> {
 		return diff / (max - min);
 	}
 	
+	/**
+	 * A {@link Node} that is used while building a tree.
+	 * @author Benjamin Sigg
+	 * @param <D> the kind of object that represents a {@link Dockable}
+	 */
+	private static class Item<D>{
+		/** the node that is represented */
+		public final Node<D> node;
+		/** the order in which the nodes were created */
+		public final int order;
+		/** whether {@link #node} was not yet merged with another node */
+		public boolean alive = true;
+		
+		public Item( Node<D> node, int order ){
+			this.node = node;
+			this.order = order;
+		}
+	}
+	
+	/**
+	 * Two {@link Item}s that could be merged.
+	 * @author Benjamin Sigg
+	 * @param <D> the kind of object that represents a {@link Dockable}
+	 */
+	private static class Pair<D> implements Comparable<Pair<D>>{
+		/** the older item */
+		public final Item<D> a;
+		/** the newer item */
+		public final Item<D> b;
+		/** the result of {@link AbstractSplitDockGrid#diff(Node, Node)} */
+		public final double diff;
+		
+		public Pair( Item<D> a, Item<D> b, double diff ){
+			this.a = a;
+			this.b = b;
+			this.diff = diff;
+		}
+		
+		public int compareTo( Pair<D> o ){
+			if( diff < o.diff ){
+				return -1;
+			}
+			if( diff > o.diff ){
+				return 1;
+			}
+			if( a.order != o.a.order ){
+				return a.order < o.a.order ? -1 : 1;
+			}
+			if( b.order != o.b.order ){
+				return b.order < o.b.order ? -1 : 1;
+			}
+			return 0;
+		}
+	}
+	
 	/**
 	 * Represents a dividing line in the grid.
 	 * @author Benjamin Sigg
@@ -165,6 +165,7 @@ public class Leaf extends SpanSplitNode{
      * replaced by the map provided by the current {@link Dockable} which is a {@link DockStation}
      */
     public void setDockable( Dockable dockable, DockHierarchyLock.Token token, boolean updatePlaceholders, boolean storePlaceholderMap ){
+    	Dockable oldDockable = getDockable();
     	if( handle != null ){
     		if( updatePlaceholders ){
     			getAccess().getPlaceholderSet().set( this, handle.getDockable() );
@@ -192,6 +193,10 @@ public class Leaf extends SpanSplitNode{
         	getAccess().addHandle( handle, token );
         }
         
+        SplitTreeIndex index = getTreeIndex();
+        if( index != null ){
+        	index.dockableChanged( this, oldDockable );
+        }
         treeChanged();
     }
     
@@ -398,6 +398,10 @@ public class Root extends SpanSplitNode{
     
     @Override
     public Leaf getLeaf( Dockable dockable ) {
+    	SplitTreeIndex index = getTreeIndex();
+    	if( index != null && index.getRoot() == this ){
+    		return index.getLeaf( dockable );
+    	}
         return child == null ? null : child.getLeaf( dockable );
     }
     
@@ -407,6 +407,10 @@ public abstract class SplitNode{
     		node.setChild( null, node.getChildLocation( this ) );
     	}
         this.parent = parent;
+        SplitTreeIndex index = getTreeIndex();
+        if( index != null ){
+        	index.parentChanged( this );
+        }
     }
     
     /**
@@ -487,6 +491,10 @@ public abstract class SplitNode{
     		for( int i = 0; i < delta; i++ ){
     			if( ids[offset+i] == id ){
     				this.id = access.uniqueID();
+    				SplitTreeIndex index = getTreeIndex();
+    				if( index != null ){
+    					index.idChanged( this, id );
+    				}
     				issue = true;
     				break;
     			}
@@ -521,6 +529,17 @@ public abstract class SplitNode{
         return access;
     }
     
+    /**
+     * Gets the index of the tree this node belongs to.
+     * @return the index or <code>null</code> if the access does not offer an index
+     */
+    protected SplitTreeIndex getTreeIndex(){
+    	if( access instanceof IndexedSplitDockAccess ){
+    		return ((IndexedSplitDockAccess)access).getTreeIndex();
+    	}
+    	return null;
+    }
+    
     /**
      * Tells whether this node (or one of this children) contains element that
      * are visible to the user.
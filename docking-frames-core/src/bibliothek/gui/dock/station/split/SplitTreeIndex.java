@@ -0,0 +1,212 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ *
+ * Copyright (C) 2013 Benjamin Sigg
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.station.split;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.SplitDockStation;
+
+/**
+ * An index over all the {@link SplitNode}s that are reachable from the {@link Root} of a
+ * {@link SplitDockStation}. The index allows to find a node by its {@link SplitNode#getId() id} and
+ * to find the {@link Leaf} that shows some {@link Dockable} without visiting the entire tree.<br>
+ * The index is updated by the nodes themselves whenever they are added to or removed from the tree,
+ * when their id changes, and when a {@link Leaf} changes its {@link Dockable}.
+ * @author Benjamin Sigg
+ */
+public class SplitTreeIndex {
+	/** the root of the tree, only nodes below this root are indexed */
+	private Root root;
+
+	/** all the nodes of the tree, usually there is only one node per id */
+	private Map<Long, List<SplitNode>> nodes = new HashMap<Long, List<SplitNode>>();
+
+	/** all the leafs of the tree that show a {@link Dockable} */
+	private Map<Dockable, Leaf> leafs = new IdentityHashMap<Dockable, Leaf>();
+
+	/**
+	 * Sets the root of the tree, all the nodes that are currently in the index are removed
+	 * and all the nodes below <code>root</code> are added.
+	 * @param root the new root, can be <code>null</code>
+	 */
+	public void setRoot( Root root ){
+		nodes.clear();
+		leafs.clear();
+		this.root = root;
+		if( root != null ){
+			add( root );
+		}
+	}
+
+	/**
+	 * Gets the root of the indexed tree.
+	 * @return the root, can be <code>null</code>
+	 */
+	public Root getRoot(){
+		return root;
+	}
+
+	/**
+	 * Searches a node with identifier <code>id</code>.
+	 * @param id the unique identifier of the node
+	 * @return the node or <code>null</code> if no such node is in the tree
+	 */
+	public SplitNode getNode( long id ){
+		List<SplitNode> list = nodes.get( id );
+		if( list == null ){
+			return null;
+		}
+		return list.get( list.size()-1 );
+	}
+
+	/**
+	 * Searches the {@link Leaf} which shows <code>dockable</code>.
+	 * @param dockable some {@link Dockable}
+	 * @return the leaf which shows <code>dockable</code> or <code>null</code>
+	 */
+	public Leaf getLeaf( Dockable dockable ){
+		Leaf leaf = leafs.get( dockable );
+		if( leaf != null && leaf.getDockable() != dockable ){
+			return null;
+		}
+		return leaf;
+	}
+
+	/**
+	 * Tells whether <code>node</code> is currently stored in this index.
+	 * @param node the node to search
+	 * @return whether <code>node</code> is part of the tree
+	 */
+	public boolean contains( SplitNode node ){
+		List<SplitNode> list = nodes.get( node.getId() );
+		return list != null && list.contains( node );
+	}
+
+	/**
+	 * Called by <code>node</code> after its parent changed. Adds or removes <code>node</code>
+	 * and all its children if necessary.
+	 * @param node the node whose parent changed
+	 */
+	public void parentChanged( SplitNode node ){
+		boolean inTree = root != null && node.getRoot() == root;
+		boolean indexed = contains( node );
+
+		if( inTree && !indexed ){
+			add( node );
+		}
+		else if( !inTree && indexed ){
+			remove( node );
+		}
+	}
+
+	/**
+	 * Called by <code>node</code> after its identifier changed.
+	 * @param node the node whose identifier changed
+	 * @param oldId the old identifier
+	 */
+	public void idChanged( SplitNode node, long oldId ){
+		if( removeNode( node, oldId )){
+			addNode( node );
+		}
+	}
+
+	/**
+	 * Called by <code>leaf</code> after its {@link Dockable} changed.
+	 * @param leaf the leaf whose dockable changed
+	 * @param oldDockable the dockable that was shown by <code>leaf</code>, can be <code>null</code>
+	 */
+	public void dockableChanged( Leaf leaf, Dockable oldDockable ){
+		if( oldDockable != null && leafs.get( oldDockable ) == leaf ){
+			leafs.remove( oldDockable );
+		}
+		if( contains( leaf )){
+			Dockable dockable = leaf.getDockable();
+			if( dockable != null ){
+				leafs.put( dockable, leaf );
+			}
+		}
+	}
+
+	private void add( SplitNode node ){
+		addNode( node );
+		if( node instanceof Leaf ){
+			Dockable dockable = ((Leaf)node).getDockable();
+			if( dockable != null ){
+				leafs.put( dockable, (Leaf)node );
+			}
+		}
+		for( int i = 0, n = node.getMaxChildrenCount(); i<n; i++ ){
+			SplitNode child = node.getChild( i );
+			if( child != null ){
+				add( child );
+			}
+		}
+	}
+
+	private void remove( SplitNode node ){
+		removeNode( node, node.getId() );
+		if( node instanceof Leaf ){
+			Dockable dockable = ((Leaf)node).getDockable();
+			if( dockable != null && leafs.get( dockable ) == node ){
+				leafs.remove( dockable );
+			}
+		}
+		for( int i = 0, n = node.getMaxChildrenCount(); i<n; i++ ){
+			SplitNode child = node.getChild( i );
+			if( child != null ){
+				remove( child );
+			}
+		}
+	}
+
+	private void addNode( SplitNode node ){
+		List<SplitNode> list = nodes.get( node.getId() );
+		if( list == null ){
+			list = new ArrayList<SplitNode>( 1 );
+			nodes.put( node.getId(), list );
+		}
+		if( !list.contains( node )){
+			list.add( node );
+		}
+	}
+
+	private boolean removeNode( SplitNode node, long id ){
+		List<SplitNode> list = nodes.get( id );
+		if( list == null ){
+			return false;
+		}
+		boolean result = list.remove( node );
+		if( list.isEmpty() ){
+			nodes.remove( id );
+		}
+		return result;
+	}
+}
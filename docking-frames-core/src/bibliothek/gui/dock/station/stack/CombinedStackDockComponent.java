@@ -32,12 +32,16 @@ import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.swing.Icon;
 import javax.swing.JComponent;
+import javax.swing.LookAndFeel;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 import javax.swing.border.Border;
 
 import bibliothek.gui.DockController;
@@ -81,6 +85,9 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 
 	/** A list of all {@link Component Components} which are shown on this {@link #componentPanel}  */
 	private Map<Dockable, Meta> components = new HashMap<Dockable, Meta>();
+	
+	/** whether only the content of the selected tab is added to {@link #componentPanel} */
+	private boolean detachInactiveContent = false;
 
 	/** The current configuration of the tabs */
 	private PropertyValue<TabConfigurations> tabConfiguration = new PropertyValue<TabConfigurations>( StackDockStation.TAB_CONFIGURATIONS ){
@@ -89,6 +96,7 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 			for( T tab : getTabsList() ){
 				tab.setConfiguration( newValue.getConfiguration( tab.getDockable() ));
 			}
+			invalidateLayout();
 		}
 	};
 	
@@ -110,8 +118,8 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 		@Override
 		public Dimension getPreferredSize(){
 			Dimension base = new Dimension( 0, 0 );
-			for( int i = 0, n = getComponentCount(); i < n; i++ ) {
-				Dimension next = getComponent( i ).getPreferredSize();
+			for( Component component : getContents() ) {
+				Dimension next = component.getPreferredSize();
 				base.width = Math.max( base.width, next.width );
 				base.height = Math.max( base.height, next.height );
 			}
@@ -121,13 +129,32 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 		@Override
 		public Dimension getMinimumSize(){
 			Dimension base = new Dimension( 0, 0 );
-			for( int i = 0, n = getComponentCount(); i < n; i++ ) {
-				Dimension next = getComponent( i ).getMinimumSize();
+			for( Component component : getContents() ) {
+				Dimension next = component.getMinimumSize();
 				base.width = Math.max( base.width, next.width );
 				base.height = Math.max( base.height, next.height );
 			}
 			return base;
 		}
+		
+		/**
+		 * Gets the contents of all tabs, including the contents that are currently detached.
+		 * @return the contents
+		 */
+		private Collection<Component> getContents(){
+			List<Component> result = new ArrayList<Component>( components.size() );
+			if( detachInactiveContent ){
+				for( Meta meta : components.values() ){
+					result.add( meta.component );
+				}
+			}
+			else{
+				for( int i = 0, n = getComponentCount(); i < n; i++ ){
+					result.add( getComponent( i ) );
+				}
+			}
+			return result;
+		}
 	};
 
 	/** listeners to be informed when the selection changes */
@@ -435,13 +462,102 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 
 	@Override
 	public void setSelectedDockable( Dockable dockable ){
-		if( getSelectedDockable() != dockable ) {
+		Dockable oldSelection = getSelectedDockable();
+		if( oldSelection != dockable ) {
 			super.setSelectedDockable( dockable );
 
-			for( Meta entry : components.values() ) {
-				entry.component.setVisible( entry.dockable == dockable );
+			Meta oldMeta = oldSelection == null ? null : components.get( oldSelection );
+			Meta newMeta = dockable == null ? null : components.get( dockable );
+
+			if( detachInactiveContent ){
+				if( oldMeta != null ){
+					detach( oldMeta );
+				}
+				if( newMeta != null ){
+					attach( newMeta );
+				}
+			}
+			else{
+				// only the content of the selected tab is visible, hence only two tabs change
+				if( oldMeta != null ){
+					oldMeta.component.setVisible( false );
+				}
+				if( newMeta != null ){
+					newMeta.component.setVisible( true );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tells this component whether only the {@link Component} of the selected tab should be added
+	 * to the Swing hierarchy. If set, the content of the other tabs is removed from this component and
+	 * attached again once their tab gets selected.
+	 * @param detach whether to detach the content of inactive tabs
+	 * @see StackDockStation#DETACH_INACTIVE_CONTENT
+	 */
+	public void setDetachInactiveContent( boolean detach ){
+		if( detachInactiveContent != detach ){
+			detachInactiveContent = detach;
+			Dockable selection = getSelectedDockable();
+			
+			for( Meta meta : components.values() ){
+				if( meta.dockable == selection ){
+					attach( meta );
+				}
+				else if( detach ){
+					detach( meta );
+				}
+				else{
+					attach( meta );
+					meta.component.setVisible( false );
+				}
+			}
+			revalidate();
+		}
+	}
+	
+	/**
+	 * Tells whether only the {@link Component} of the selected tab is added to the Swing hierarchy.
+	 * @return whether the content of inactive tabs is detached
+	 * @see #setDetachInactiveContent(boolean)
+	 */
+	public boolean isDetachInactiveContent(){
+		return detachInactiveContent;
+	}
+	
+	/**
+	 * Adds the content of <code>meta</code> to this component. If the {@link LookAndFeel} changed while
+	 * the content was detached, then the content is updated.
+	 * @param meta the tab whose content is required
+	 */
+	private void attach( Meta meta ){
+		if( meta.component.getParent() != componentPanel ){
+			if( meta.lookAndFeel != null && meta.lookAndFeel != UIManager.getLookAndFeel() ){
+				SwingUtilities.updateComponentTreeUI( meta.component );
 			}
+			meta.lookAndFeel = null;
+			componentPanel.add( meta.component );
+			meta.component.setVisible( true );
+			componentPanel.doLayout();
+			componentPanel.revalidate();
+			componentPanel.repaint();
+		}
+		else{
+			meta.component.setVisible( true );
+		}
+	}
+	
+	/**
+	 * Removes the content of <code>meta</code> from this component.
+	 * @param meta the tab whose content is no longer required
+	 */
+	private void detach( Meta meta ){
+		if( meta.component.getParent() == componentPanel ){
+			componentPanel.remove( meta.component );
+			meta.component.setVisible( true );
 		}
+		meta.lookAndFeel = UIManager.getLookAndFeel();
 	}
 
 	public Rectangle getBoundsAt( int index ){
@@ -468,13 +584,25 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 		Component between = createLayerAt( comp, dockable );
 		Meta meta = new Meta( dockable, between, title, icon, null, !tabDisabling.isDisabled( dockable ) );
 		components.put( dockable, meta );
-		componentPanel.add( between );
+		if( !detachInactiveContent ){
+			componentPanel.add( between );
+		}
 
 		insert( index, dockable );
 
 		meta.forward();
 
-		meta.component.setVisible( getSelectedDockable() == dockable );
+		if( detachInactiveContent ){
+			if( getSelectedDockable() == dockable ){
+				attach( meta );
+			}
+			else{
+				detach( meta );
+			}
+		}
+		else{
+			meta.component.setVisible( getSelectedDockable() == dockable );
+		}
 		
 		tabDisabling.add( dockable );
 	}
@@ -510,6 +638,9 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 			selected = destination;
 		}
 		else if( selected > source && selected <= destination ) {
+			selected--;
+		}
+		else if( selected < source && selected >= destination ) {
 			selected++;
 		}
 
@@ -665,9 +796,19 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 
 		componentPanel.remove( meta.component );
 		meta.component = createLayerAt( component, meta.dockable );
-		componentPanel.add( meta.component );
-
-		meta.component.setVisible( getSelectedDockable() == meta.dockable );
+		
+		if( detachInactiveContent ){
+			if( getSelectedDockable() == meta.dockable ){
+				attach( meta );
+			}
+			else{
+				detach( meta );
+			}
+		}
+		else{
+			componentPanel.add( meta.component );
+			meta.component.setVisible( getSelectedDockable() == meta.dockable );
+		}
 		revalidate();
 	}
 	
@@ -741,6 +882,8 @@ public abstract class CombinedStackDockComponent<T extends CombinedTab, M extend
 		private BorderForwarder border;
 		/** whether this tab is enabled */
 		private boolean enabled = true;
+		/** the {@link LookAndFeel} that was active when {@link #component} was detached, can be <code>null</code> */
+		private LookAndFeel lookAndFeel;
 		
 		/**
 		 * Creates new meta information.
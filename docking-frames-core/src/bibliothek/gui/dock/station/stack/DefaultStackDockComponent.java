@@ -24,8 +24,8 @@
  * CH - Switzerland
  */
 
-package bibliothek.gui.dock.station.stack;
-
+package bibliothek.gui.dock.station.stack;
+
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Point;
@@ -36,7 +36,9 @@ import java.util.List;
 
 import javax.swing.Icon;
 import javax.swing.JTabbedPane;
+import javax.swing.LookAndFeel;
 import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.MouseInputAdapter;
@@ -52,17 +54,17 @@ import bibliothek.gui.dock.control.RemoteRelocator.Reaction;
 import bibliothek.gui.dock.disable.TabDisablingStrategyObserver;
 import bibliothek.gui.dock.station.stack.tab.layouting.TabPlacement;
 import bibliothek.gui.dock.util.SimpleDockElementRepresentative;
-
-
-/**
- * The standard-implementation of {@link StackDockComponent}. This implementation
- * uses a {@link JTabbedPane} to display its children.
- * 
+
+
+/**
+ * The standard-implementation of {@link StackDockComponent}. This implementation
+ * uses a {@link JTabbedPane} to display its children.
+ * 
  * @author Janni Kovacs
- * @author Benjamin Sigg
- * @see StackDockComponent
- * @see JTabbedPane
- */
+ * @author Benjamin Sigg
+ * @see StackDockComponent
+ * @see JTabbedPane
+ */
 public class DefaultStackDockComponent extends JTabbedPane implements StackDockComponent {
 	/** The Dockables shown on this component and their RemoteRelocators to control drag&drop operations */
 	private List<Tab> dockables = new ArrayList<Tab>();
@@ -76,6 +78,9 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 	/** listeners to be informed if the selection changes */
 	private List<StackDockComponentListener> listeners = new ArrayList<StackDockComponentListener>();
 	
+	/** whether only the content of the selected tab is added to this component */
+	private boolean detachInactiveContent = false;
+	
 	/** keeps track of all tabs that need to be disabled */
 	private TabDisablingStrategyObserver tabDisabling = new TabDisablingStrategyObserver(){
 		@Override
@@ -86,11 +91,11 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 			}
 		}
 	};
-	
-	/**
-	 * Constructs the component, sets the location of the tabs to bottom.
-	 */
-    public DefaultStackDockComponent(){
+	
+	/**
+	 * Constructs the component, sets the location of the tabs to bottom.
+	 */
+    public DefaultStackDockComponent(){
         super(BOTTOM);
         
         Listener listener = new Listener();
@@ -98,7 +103,7 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
         addMouseMotionListener( listener );
         addChangeListener( listener );
         
-        setOpaque( false );
+        setOpaque( false );
     }
     
     public void addStackDockComponentListener( StackDockComponentListener listener ){
@@ -140,13 +145,15 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
     	
     	throw new IllegalStateException( "unknown position: " + getTabPlacement() );
     }
-    
-    public void insertTab(String title, Icon icon, Component comp, Dockable dockable, int index) {
+    
+    public void insertTab(String title, Icon icon, Component comp, Dockable dockable, int index) {
         insertTab(title, icon, comp, (String)null, index);
         Tab tab = createTab( dockable );
+        tab.content = comp;
         dockables.add( index, tab );
         tab.setController( controller );
-        tabDisabling.add( dockable );
+        tabDisabling.add( dockable );
+        updateContents();
     }
     
     /**
@@ -161,9 +168,92 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 	public void addTab( String title, Icon icon, Component comp, Dockable dockable ){
 		addTab( title, icon, comp );
 		Tab tab = createTab( dockable );
+		tab.content = comp;
         dockables.add( tab );
         tab.setController( controller );
         tabDisabling.add( dockable );
+        updateContents();
+	}
+	
+	@Override
+	public void setComponentAt( int index, Component component ){
+		if( index < dockables.size() ){
+			dockables.get( index ).content = component;
+			if( detachInactiveContent && index != getSelectedIndex() ){
+				component = null;
+			}
+		}
+		Component old = getComponentAt( index );
+		super.setComponentAt( index, component );
+		restoreVisibility( old );
+	}
+	
+	/**
+	 * Tells this component whether only the {@link Component} of the selected tab should be added
+	 * to the {@link JTabbedPane}. If set, the content of the other tabs is removed and attached again
+	 * once their tab gets selected.
+	 * @param detach whether to detach the content of inactive tabs
+	 * @see bibliothek.gui.dock.StackDockStation#DETACH_INACTIVE_CONTENT
+	 */
+	public void setDetachInactiveContent( boolean detach ){
+		if( detachInactiveContent != detach ){
+			detachInactiveContent = detach;
+			updateContents();
+			revalidate();
+		}
+	}
+	
+	/**
+	 * Tells whether only the {@link Component} of the selected tab is added to the {@link JTabbedPane}.
+	 * @return whether the content of inactive tabs is detached
+	 * @see #setDetachInactiveContent(boolean)
+	 */
+	public boolean isDetachInactiveContent(){
+		return detachInactiveContent;
+	}
+	
+	/**
+	 * Makes sure that the content of all tabs is attached, or if {@link #isDetachInactiveContent()} is set,
+	 * that only the content of the selected tab is attached.
+	 */
+	private void updateContents(){
+		if( dockables.size() != getTabCount() ){
+			// in the middle of adding a tab
+			return;
+		}
+		int selected = getSelectedIndex();
+		for( int i = 0, n = dockables.size(); i<n; i++ ){
+			Tab tab = dockables.get( i );
+			Component expected = tab.content;
+			if( detachInactiveContent && i != selected ){
+				expected = null;
+			}
+			if( getComponentAt( i ) != expected ){
+				if( expected == null ){
+					tab.lookAndFeel = UIManager.getLookAndFeel();
+				}
+				else{
+					if( tab.lookAndFeel != null && tab.lookAndFeel != UIManager.getLookAndFeel() ){
+						SwingUtilities.updateComponentTreeUI( expected );
+					}
+					tab.lookAndFeel = null;
+				}
+				Component old = getComponentAt( i );
+				super.setComponentAt( i, expected );
+				restoreVisibility( old );
+			}
+		}
+	}
+
+	/**
+	 * The {@link JTabbedPane} hides the content of unselected tabs, but does not show them again if they
+	 * are replaced. A detached content may later be shown directly by the station, hence it must be visible.
+	 * @param old the content that may just have been removed
+	 */
+	private void restoreVisibility( Component old ){
+		if( old != null && old.getParent() != this ){
+			old.setVisible( true );
+		}
 	}
 	
 	public Dockable getDockableAt( int index ){
@@ -192,7 +282,7 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 		String title = getTitleAt( source );
 		String tooltip = getToolTipTextAt( source );
 		Icon icon = getIconAt( source );
-		Component comp = getComponentAt( source );
+		Component comp = dockables.get( source ).content;
 		Dockable dockable = dockables.get( source ).getDockable();
 		
 		remove( source );
@@ -203,6 +293,9 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 			selected = destination;
 		}
 		else if( selected > source && selected <= destination ){
+			selected--;
+		}
+		else if( selected < source && selected >= destination ){
 			selected++;
 		}
 		setSelectedIndex( selected );
@@ -224,10 +317,10 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
         tab.setController( null );
         tabDisabling.remove( tab.getDockable() );
         super.remove( index );
-    }
-
-    public Component getComponent() {
-        return this;
+    }
+
+    public Component getComponent() {
+        return this;
     }
     
     @Override
@@ -293,14 +386,40 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 	@Override
 	public Dimension getMinimumSize(){
 		Dimension result = new Dimension( 1, 1 );
-		for( int i = 0, n = getTabCount(); i<n; i++ ){
-    		Dimension size = getComponentAt( i ).getMinimumSize();
+		for( Tab tab : dockables ){
+    		Dimension size = tab.content.getMinimumSize();
     		result.width = Math.max( result.width, size.width );
     		result.height = Math.max( result.height, size.height );
     	}
 		return result;
 	}
 	
+	@Override
+	public Dimension getPreferredSize(){
+		Dimension result = super.getPreferredSize();
+		if( detachInactiveContent ){
+			// the look and feel only sees the attached content, the detached contents need the same space
+			int selected = getSelectedIndex();
+			Dimension attached = new Dimension( 0, 0 );
+			if( selected >= 0 && selected < dockables.size() ){
+				attached = dockables.get( selected ).content.getPreferredSize();
+			}
+			int width = Math.max( 0, result.width - attached.width );
+			int height = Math.max( 0, result.height - attached.height );
+			
+			Dimension content = new Dimension( attached );
+			for( Tab tab : dockables ){
+				Dimension size = tab.content.getPreferredSize();
+				content.width = Math.max( content.width, size.width );
+				content.height = Math.max( content.height, size.height );
+			}
+			result = new Dimension( 
+					Math.max( result.width, content.width + width ),
+					Math.max( result.height, content.height + height ));
+		}
+		return result;
+	}
+	
 	/**
 	 * Representation of a single tab of this {@link StackDockComponent}.
 	 * @author Benjamin Sigg
@@ -310,6 +429,10 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 	    protected Dockable dockable;
 	    /** used to drag and drop the tab */
 	    private RemoteRelocator relocator;
+	    /** the content of the tab, may or may not be attached to this component */
+	    private Component content;
+	    /** the {@link LookAndFeel} that was active when {@link #content} was detached, can be <code>null</code> */
+	    private LookAndFeel lookAndFeel;
 	    
 	    /**
 	     * Creates a new Tab
@@ -364,6 +487,7 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 	 */
 	private class Listener extends MouseInputAdapter implements ChangeListener{
 		public void stateChanged( ChangeEvent e ){
+			updateContents();
 			for( StackDockComponentListener listener : listeners.toArray( new StackDockComponentListener[ listeners.size() ] )){
 				listener.selectionChanged( DefaultStackDockComponent.this );
 			}
@@ -498,5 +622,5 @@ public class DefaultStackDockComponent extends JTabbedPane implements StackDockC
 				}
 			}
 		}
-	}
+	}
 }
\ No newline at end of file
@@ -57,6 +57,29 @@ public abstract class AbstractTabLayoutManager<I extends AbstractTabLayoutManage
 		}
 	}
 	
+	/**
+	 * Informs this manager that the layout of <code>pane</code> is no longer valid, e.g. because
+	 * the tabs were reordered or their orientation changed. Any cached information about 
+	 * <code>pane</code> is discarded.
+	 * @param pane the panel whose layout is invalid
+	 */
+	public void invalidate( TabPane pane ){
+		I info = getInfo( pane );
+		if( info != null ){
+			info.invalidate();
+		}
+	}
+	
+	/**
+	 * Invalidates the information about all the {@link TabPane}s that are
+	 * currently known to this manager.
+	 */
+	protected void invalidate(){
+		for( I info : infos ){
+			info.invalidate();
+		}
+	}
+	
 	/**
 	 * Creates a new bag for information about <code>pane</code>.
 	 * @param pane some panel
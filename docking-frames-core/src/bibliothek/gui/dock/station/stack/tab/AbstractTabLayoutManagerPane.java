@@ -55,6 +55,14 @@ public class AbstractTabLayoutManagerPane implements TabPaneListener{
 	public TabPane getPane(){
 		return pane;
 	}
+	
+	/**
+	 * Called when the layout of {@link #getPane() the pane} is no longer valid,
+	 * subclasses should discard any cached information.
+	 */
+	public void invalidate(){
+		// ignore
+	}
 
 	public void added( TabPane pane, Dockable dockable ){
 		// ignore
@@ -111,6 +111,7 @@ public abstract class AbstractTabPane<T extends Tab, M extends TabMenu, I extend
 		if( tabPlacement == null )
 			throw new IllegalArgumentException( "tab placement must not be null" );
 		this.tabPlacement = tabPlacement;
+		invalidateLayout();
 		revalidate();
 	}
 	
@@ -160,6 +161,20 @@ public abstract class AbstractTabPane<T extends Tab, M extends TabMenu, I extend
 		return new Dimension( 1, 1 );
 	}
 	
+	/**
+	 * Tells the current {@link TabLayoutManager} that any information it cached about
+	 * this pane is no longer valid. Only {@link AbstractTabLayoutManager}s are informed, other
+	 * managers are not expected to cache anything. This method does not update the layout, clients
+	 * usually call {@link #revalidate()} afterwards.
+	 */
+	public void invalidateLayout(){
+		TabLayoutManager layout = layoutManager.getValue();
+		
+		if( layout instanceof AbstractTabLayoutManager<?> ){
+			((AbstractTabLayoutManager<?>)layout).invalidate( this );
+		}
+	}
+	
 	/**
 	 * Called when the layout of this pane has become invalid, the default
 	 * behavior is to call {@link #doLayout()}. Subclasses may override to
@@ -285,6 +300,7 @@ public abstract class AbstractTabPane<T extends Tab, M extends TabMenu, I extend
 		Dockable dockable = dockables.remove( source );
 		cleanOut( dockable );
 		dockables.add( destination, dockable );
+		invalidateLayout();
 		revalidate();
 	}
 	
@@ -357,6 +373,7 @@ public abstract class AbstractTabPane<T extends Tab, M extends TabMenu, I extend
 		}
 		menuPosition.clear();
 		
+		invalidateLayout();
 		doLayout();
 	}
 	
@@ -54,6 +54,7 @@ public class MenuLineLayout extends AbstractTabLayoutManager<MenuLineLayoutPane>
 			throw new IllegalArgumentException( "factory must not be null" );
 		}
 		this.factory = factory;
+		invalidate();
 	}
 	
 	/**
@@ -74,6 +75,7 @@ public class MenuLineLayout extends AbstractTabLayoutManager<MenuLineLayoutPane>
 			throw new IllegalArgumentException( "strategy must not be null" );
 		}
 		this.strategy = strategy;
+		invalidate();
 	}
 	
 	/**
@@ -30,8 +30,10 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.station.stack.tab.layouting.LayoutBlock;
 import bibliothek.gui.dock.station.stack.tab.layouting.MenuLayoutBlock;
@@ -40,7 +42,10 @@ import bibliothek.gui.dock.station.stack.tab.layouting.TabPlacement;
 import bibliothek.gui.dock.station.stack.tab.layouting.TabsLayoutBlock;
 
 /**
- * Represents one of the {@link TabPane}s that are managed by a {@link MenuLineLayout}.
+ * Represents one of the {@link TabPane}s that are managed by a {@link MenuLineLayout}.<br>
+ * The possible layouts and the result of the last {@link #layout()} are cached. The cache
+ * is discarded if the {@link TabPane} reports a change, or if the sizes of the tabs, of the menu
+ * or of the info component change.
  * @author Benjamin Sigg
  */
 public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
@@ -49,6 +54,29 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 	private TabsLayoutBlock tabs;
 	private MenuLineLayout layout;
 	
+	/** incremented whenever the {@link TabPane} reports a change or {@link #invalidate()} is called */
+	private int version = 0;
+	
+	/** the result of {@link #listLayouts()}, may be <code>null</code> */
+	private List<MenuLineLayoutPossibility> layouts;
+	/** the {@link #version} at the time {@link #layouts} was created */
+	private int layoutsVersion;
+	/** the {@link #fingerprint() fingerprint} at the time {@link #layouts} was created */
+	private int[] layoutsFingerprint;
+	/** the preferred size of the tabs, menu and info as found in {@link #layouts}, may be <code>null</code> */
+	private Dimension layoutsPreferredSize;
+	/** the minimal size of the tabs, menu and info as found in {@link #layouts}, may be <code>null</code> */
+	private Dimension layoutsMinimumSize;
+	
+	/** the {@link #version} at the time {@link #layout()} was called the last time */
+	private int appliedVersion;
+	/** the available space at the time {@link #layout()} was called the last time, may be <code>null</code> */
+	private Rectangle appliedArea;
+	/** the {@link #fingerprint() fingerprint} on which the search for {@link #applied} was based */
+	private int[] appliedFingerprint;
+	/** the layout that was chosen when {@link #layout()} was called the last time, may be <code>null</code> */
+	private MenuLineLayoutPossibility applied;
+	
 	/**
 	 * Creates new layout information for <code>pane</code>.
 	 * @param layout the layout using this pane
@@ -91,8 +119,7 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 	 * @return the preferred size
 	 */
 	public Dimension getPreferredSize(){
-		List<MenuLineLayoutPossibility> layouts = listLayouts();
-		Dimension bestSize = new Dimension( 0, 0 );
+		List<MenuLineLayoutPossibility> layouts = getLayouts( fingerprint() );
 		Dimension dockableSize = new Dimension();
 		
 		TabPane pane = getPane();
@@ -102,27 +129,38 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 			dockableSize.height = Math.max( dockableSize.height, size.height );
 		}
 		
-		if( getPane().getDockTabPlacement().isHorizontal() ){
-			for( MenuLineLayoutPossibility layout : layouts ){
-				if( layout.isPreferred() ){
-					Dimension size = layout.getSize();
-					if( size.width > bestSize.width ){
-						bestSize = size;
+		if( layoutsPreferredSize == null ){
+			layoutsPreferredSize = new Dimension( 0, 0 );
+			
+			if( getPane().getDockTabPlacement().isHorizontal() ){
+				for( MenuLineLayoutPossibility layout : layouts ){
+					if( layout.isPreferred() ){
+						Dimension size = layout.getSize();
+						if( size.width > layoutsPreferredSize.width ){
+							layoutsPreferredSize = size;
+						}
+					}
+				}
+			}
+			else{
+				for( MenuLineLayoutPossibility layout : layouts ){
+					if( layout.isPreferred() ){
+						Dimension size = layout.getSize();
+						if( size.height > layoutsPreferredSize.height ){
+							layoutsPreferredSize = size;
+						}
 					}
 				}
 			}
+		}
+		
+		Dimension bestSize = new Dimension( layoutsPreferredSize );
+		
+		if( getPane().getDockTabPlacement().isHorizontal() ){
 			bestSize.width = Math.max( bestSize.width, dockableSize.width );
 			bestSize.height += dockableSize.height;
 		}
 		else{
-			for( MenuLineLayoutPossibility layout : layouts ){
-				if( layout.isPreferred() ){
-					Dimension size = layout.getSize();
-					if( size.height > bestSize.height ){
-						bestSize = size;
-					}
-				}
-			}
 			bestSize.width += dockableSize.width;
 			bestSize.height = Math.max( bestSize.height, dockableSize.height );
 		}
@@ -135,8 +173,7 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 	 * @return the minimal size
 	 */
 	public Dimension getMinimumSize(){
-		List<MenuLineLayoutPossibility> layouts = listLayouts();
-		Dimension bestSize = null;
+		List<MenuLineLayoutPossibility> layouts = getLayouts( fingerprint() );
 		Dimension dockableSize = new Dimension();
 		
 		TabPane pane = getPane();
@@ -146,23 +183,32 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 			dockableSize.height = Math.max( dockableSize.height, size.height );
 		}
 		
-		if( getPane().getDockTabPlacement().isHorizontal() ){
-			for( MenuLineLayoutPossibility layout : layouts ){
-				Dimension size = layout.getSize();
-				if( bestSize == null || size.width < bestSize.width ){
-					bestSize = size;
+		if( layoutsMinimumSize == null ){
+			if( getPane().getDockTabPlacement().isHorizontal() ){
+				for( MenuLineLayoutPossibility layout : layouts ){
+					Dimension size = layout.getSize();
+					if( layoutsMinimumSize == null || size.width < layoutsMinimumSize.width ){
+						layoutsMinimumSize = size;
+					}
 				}
 			}
+			else{
+				for( MenuLineLayoutPossibility layout : layouts ){
+					Dimension size = layout.getSize();
+					if( layoutsMinimumSize == null || size.height < layoutsMinimumSize.height ){
+						layoutsMinimumSize = size;
+					}
+				}
+			}
+		}
+		
+		Dimension bestSize = new Dimension( layoutsMinimumSize );
+		
+		if( getPane().getDockTabPlacement().isHorizontal() ){
 			bestSize.width = Math.max( bestSize.width, dockableSize.width );
 			bestSize.height += dockableSize.height;
 		}
 		else{
-			for( MenuLineLayoutPossibility layout : layouts ){
-				Dimension size = layout.getSize();
-				if( bestSize == null || size.height < bestSize.height ){
-					bestSize = size;
-				}
-			}
 			bestSize.width += dockableSize.width;
 			bestSize.height = Math.max( bestSize.height, dockableSize.height );
 		}
@@ -197,15 +243,25 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 	
 	/**
 	 * Updates the number of shown tabs and the boundaries of tabs, menu
-	 * and info.
+	 * and info. If neither the available space, nor the {@link TabPane},
+	 * nor the sizes of tabs, menu and info changed since the last call, then the
+	 * layout that was chosen the last time is applied again without searching a new layout.
 	 */
 	public void layout(){
+		Rectangle area = getPane().getAvailableArea();
+		int[] fingerprint = fingerprint();
+		
+		if( applied != null && appliedArea != null && appliedVersion == version && appliedArea.equals( area ) && Arrays.equals( appliedFingerprint, fingerprint )){
+			applied.apply();
+			return;
+		}
+		
 		AxisConversion conversion = getLayout().getConversion( getPane() );
 		
-		List<MenuLineLayoutPossibility> layouts = listLayouts();
+		List<MenuLineLayoutPossibility> layouts = getLayouts( fingerprint );
 		
 		// search the layout that fits into the available space
-		Rectangle available = conversion.viewToModel( getPane().getAvailableArea() );
+		Rectangle available = conversion.viewToModel( area );
 		
 		int space = available.width;
 		
@@ -233,12 +289,78 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 			}
 		}
 		
-		if( best != null ){
-			best.apply();
+		applied = best != null ? best : smallest;
+		appliedFingerprint = null;
+		if( applied == null ){
+			return;
 		}
-		else if( smallest != null ){
-			smallest.apply();
+		applied.apply();
+		
+		appliedVersion = version;
+		appliedArea = new Rectangle( area );
+		// if applying the layout shows or hides tabs, then the fingerprint changes and the next call searches
+		// again, because a search starting from the new state may find another layout
+		appliedFingerprint = fingerprint;
+	}
+	
+	/**
+	 * Gets all the available layouts, the layouts are only recreated if the
+	 * {@link TabPane} or <code>fingerprint</code> changed.
+	 * @param fingerprint the current {@link #fingerprint() fingerprint}
+	 * @return the list of all available layouts
+	 */
+	private List<MenuLineLayoutPossibility> getLayouts( int[] fingerprint ){
+		if( layouts == null || layoutsVersion != version || !Arrays.equals( layoutsFingerprint, fingerprint )){
+			layouts = listLayouts();
+			layoutsVersion = version;
+			layoutsFingerprint = fingerprint;
+			layoutsPreferredSize = null;
+			layoutsMinimumSize = null;
+		}
+		return layouts;
+	}
+	
+	/**
+	 * Collects the orientation, the selection, the tabs and the sizes of tabs, menu and
+	 * info. If two fingerprints are equal, then {@link #listLayouts()} would return the
+	 * same layouts.
+	 * @return the current fingerprint of the {@link TabPane}
+	 */
+	private int[] fingerprint(){
+		TabPane pane = getPane();
+		Dockable[] dockables = pane.getDockables();
+		int[] result = new int[ 2 + dockables.length * 6 + 2 * 5 ];
+		int index = 0;
+		
+		result[ index++ ] = pane.getDockTabPlacement().ordinal();
+		result[ index++ ] = System.identityHashCode( pane.getSelectedDockable() );
+		
+		for( Dockable dockable : dockables ){
+			index = fingerprint( result, index, pane.getOnTab( dockable ) );
+		}
+		index = fingerprint( result, index, menu.getMenu() );
+		index = fingerprint( result, index, pane.getInfoComponent() );
+		
+		return result;
+	}
+	
+	private int fingerprint( int[] result, int index, TabPaneComponent component ){
+		if( component == null ){
+			return index + 5;
 		}
+		
+		Dimension minimum = component.getMinimumSize();
+		Dimension preferred = component.getPreferredSize();
+		
+		if( component instanceof Tab ){
+			result[ index++ ] = System.identityHashCode( component );
+		}
+		result[ index++ ] = component.isPaneVisible() ? 1 : 2;
+		result[ index++ ] = minimum.width;
+		result[ index++ ] = minimum.height;
+		result[ index++ ] = preferred.width;
+		result[ index++ ] = preferred.height;
+		return index;
 	}
 	
 	/**
@@ -309,6 +431,35 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 		return new MenuLineLayoutPossibility( this, tabSize, menuSize, infoSize );
 	}
 	
+	@Override
+	public void invalidate(){
+		version++;
+	}
+	
+	@Override
+	public void added( TabPane pane, Dockable dockable ){
+		super.added( pane, dockable );
+		invalidate();
+	}
+	
+	@Override
+	public void removed( TabPane pane, Dockable dockable ){
+		super.removed( pane, dockable );
+		invalidate();
+	}
+	
+	@Override
+	public void selectionChanged( TabPane pane ){
+		super.selectionChanged( pane );
+		invalidate();
+	}
+	
+	@Override
+	public void controllerChanged( TabPane pane, DockController controller ){
+		super.controllerChanged( pane, controller );
+		invalidate();
+	}
+	
 	@Override
 	public void infoComponentChanged( TabPane pane, LonelyTabPaneComponent oldInfo, LonelyTabPaneComponent newInfo ){
 		super.infoComponentChanged( pane, oldInfo, newInfo );
@@ -316,5 +467,6 @@ public class MenuLineLayoutPane extends AbstractTabLayoutManagerPane{
 			info = null;
 		else
 			info = newInfo.toLayoutBlock();
+		invalidate();
 	}
 }
@@ -25,10 +25,18 @@
  */
 package bibliothek.gui.dock.station.support;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
 
 import bibliothek.gui.DockStation;
@@ -60,6 +68,30 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 
 	/** head of the dockables sublist */
 	private Entry headDockable = null;
+	
+	/** root of the tree that is used to convert between entries and indices */
+	private Entry root = null;
+	
+	/** temporary results of {@link #split(Entry, int)} */
+	private Entry splitLeft, splitRight;
+	
+	/** generator for the priorities of the entries in the tree */
+	private final Random random = new Random();
+	
+	/** all the entries that contain some placeholder in their placeholder set */
+	private Map<Path, List<Entry>> placeholderIndex = new HashMap<Path, List<Entry>>();
+	
+	/** all the entries that contain some dockable */
+	private Map<D, Entry> dockableIndex = new IdentityHashMap<D, Entry>();
+	
+	/** all the entries that contain some item */
+	private Map<P, Entry> itemIndex = new IdentityHashMap<P, Entry>();
+	
+	/** all the entries whose item has a {@link PlaceholderMap} */
+	private Set<Entry> mapIndex = new HashSet<Entry>();
+	
+	/** entries whose item may have no placeholders left and that may need to be removed */
+	private Set<Entry> cleanupIndex = new HashSet<Entry>();
 
 	/** identifiers for the various sublists this list consists of */
 	public static enum Level {
@@ -557,14 +589,7 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 	 * @param placeholders the placeholders to remove
 	 */
 	public void removeAll( Set<Path> placeholders ){
-		Iterator<Item> iter = list().iterator();
-		while( iter.hasNext() ) {
-			Item item = iter.next();
-			item.removeAll( placeholders );
-			if( item.getPlaceholderSet() == null && item.isPlaceholder() ) {
-				iter.remove();
-			}
-		}
+		removeCollected( placeholders );
 	}
 
 	/**
@@ -574,14 +599,7 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 	 * @param placeholder the placeholder to remove
 	 */
 	public void removeAll( Path placeholder ){
-		Iterator<Item> iter = list().iterator();
-		while( iter.hasNext() ) {
-			Item item = iter.next();
-			item.remove( placeholder );
-			if( item.getPlaceholderSet() == null && item.isPlaceholder() ) {
-				iter.remove();
-			}
-		}
+		removeCollected( Collections.singleton( placeholder ) );
 	}
 
 	/**
@@ -697,16 +715,11 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 			return -1;
 		}
 
-		while( entry != null && entry.item.isPlaceholder() ) {
-			entry = entry.previous( Level.BASE );
-		}
-
-		if( entry == null ) {
-			return 0;
-		}
-		else {
-			return entry.index( Level.DOCKABLE ) + 1;
+		int index = entry.countBefore( Level.DOCKABLE );
+		if( !entry.item.isPlaceholder() ) {
+			index++;
 		}
+		return index;
 	}
 
 	/**
@@ -882,47 +895,100 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 	}
 
 	private Entry search( Path placeholder ){
-		Entry entry = this.head;
-		while( entry != null ) {
-			Set<Path> set = entry.item.getPlaceholderSet();
-			if( set != null && set.contains( placeholder ) ) {
-				return entry;
+		List<Entry> entries = placeholderIndex.get( placeholder );
+		if( entries == null ) {
+			return null;
+		}
+		Entry result = null;
+		int resultIndex = -1;
+		for( Entry entry : entries ) {
+			int index = entry.index( Level.BASE );
+			if( result == null || index < resultIndex ) {
+				result = entry;
+				resultIndex = index;
 			}
-			entry = entry.next( Level.BASE );
 		}
-		return null;
+		return result;
 	}
 	
 	private Entry search( D dockable ){
-		Entry entry = head( Level.DOCKABLE );
-		while( entry != null ) {
-			if( entry.item.getDockable().asDockable() == dockable ) {
-				return entry;
-			}
-			entry = entry.next( Level.DOCKABLE );
-		}
-		return null;
+		return dockableIndex.get( dockable );
 	}
 
 	private Entry search( P dockable ){
-		Entry entry = head( Level.DOCKABLE );
-		while( entry != null ) {
-			if( entry.item.getDockable() == dockable ) {
-				return entry;
-			}
-			entry = entry.next( Level.DOCKABLE );
-		}
-		return null;
+		return itemIndex.get( dockable );
 	}
 
 	private Entry search( int index, Level level ){
-		Entry entry = head( level );
-
-		while( entry != null && index > 0 ) {
-			entry = entry.next( level );
-			index--;
+		if( index < 0 || index >= count( root, level ) ) {
+			return null;
+		}
+		Entry entry = root;
+		while( true ) {
+			int left = count( entry.left, level );
+			if( index < left ) {
+				entry = entry.left;
+			}
+			else {
+				if( entry.visible( level ) ) {
+					if( index == left ) {
+						return entry;
+					}
+					index -= left + 1;
+				}
+				else {
+					index -= left;
+				}
+				entry = entry.right;
+			}
+		}
+	}
+	
+	/**
+	 * Collects all the entries which may contain one of <code>placeholders</code>, either in their
+	 * placeholder set or in their {@link PlaceholderMap}.
+	 * @param placeholders the placeholders to search
+	 * @return the entries, ordered as they appear in the list
+	 */
+	private List<Entry> collect( Set<Path> placeholders ){
+		Set<Entry> result = new HashSet<Entry>( mapIndex );
+		result.addAll( cleanupIndex );
+		for( Path placeholder : placeholders ) {
+			List<Entry> entries = placeholderIndex.get( placeholder );
+			if( entries != null ) {
+				result.addAll( entries );
+			}
+		}
+		List<Entry> list = new ArrayList<Entry>( result );
+		Collections.sort( list, new Comparator<Entry>(){
+			public int compare( Entry a, Entry b ){
+				int indexA = a.index( Level.BASE );
+				int indexB = b.index( Level.BASE );
+				return indexA < indexB ? -1 : (indexA == indexB ? 0 : 1);
+			}
+		});
+		return list;
+	}
+	
+	/**
+	 * Removes all occurrences of <code>placeholders</code> from the entries that were returned
+	 * by {@link #collect(Set)}. If an entry remains with 0 placeholders and no {@link Dockable}
+	 * it is removed.
+	 * @param placeholders the placeholders to remove
+	 */
+	private void removeCollected( Set<Path> placeholders ){
+		for( Entry entry : collect( placeholders ) ) {
+			if( entry.isLinked() ) {
+				Item item = entry.item;
+				item.removeAll( placeholders );
+				if( item.getPlaceholderSet() == null && item.isPlaceholder() ) {
+					entry.remove();
+				}
+				else if( item.hasPlaceholders() || !item.isPlaceholder() ) {
+					cleanupIndex.remove( entry );
+				}
+			}
 		}
-		return entry;
 	}
 
 	/**
@@ -964,7 +1030,12 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		head = null;
 		headDockable = null;
 		headPlaceholder = null;
-		invalidate();
+		root = null;
+		placeholderIndex.clear();
+		dockableIndex.clear();
+		itemIndex.clear();
+		mapIndex.clear();
+		cleanupIndex.clear();
 	}
 
 	private Entry head( Level level ){
@@ -978,12 +1049,153 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		}
 		throw new IllegalArgumentException();
 	}
-
-	private void invalidate(){
-		dockables.invalidate();
-		allPlaceholders.invalidate();
-		purePlaceholders.invalidate();
-		allItems.invalidate();
+	
+	/**
+	 * Gets the number of entries of the subtree <code>entry</code> that are part of <code>level</code>.
+	 * @param entry the root of a subtree, can be <code>null</code>
+	 * @param level the level to count
+	 * @return the number of entries
+	 */
+	private int count( Entry entry, Level level ){
+		if( entry == null ) {
+			return 0;
+		}
+		switch( level ){
+			case BASE:
+				return entry.countBase;
+			case DOCKABLE:
+				return entry.countDockable;
+			case PLACEHOLDER:
+				return entry.countBase - entry.countDockable;
+		}
+		throw new IllegalArgumentException();
+	}
+	
+	/**
+	 * Merges the trees <code>a</code> and <code>b</code>, all the entries of <code>a</code>
+	 * are placed before the entries of <code>b</code>.
+	 * @param a the first tree, can be <code>null</code>
+	 * @param b the second tree, can be <code>null</code>
+	 * @return the root of the merged tree
+	 */
+	private Entry merge( Entry a, Entry b ){
+		if( a == null ) {
+			return b;
+		}
+		if( b == null ) {
+			return a;
+		}
+		if( a.priority > b.priority ) {
+			a.setRight( merge( a.right, b ) );
+			a.updateCount();
+			return a;
+		}
+		else {
+			b.setLeft( merge( a, b.left ) );
+			b.updateCount();
+			return b;
+		}
+	}
+	
+	/**
+	 * Splits the tree <code>entry</code> such that the first <code>count</code> entries are
+	 * stored in {@link #splitLeft}, and the remaining entries in {@link #splitRight}.
+	 * @param entry the tree to split, can be <code>null</code>
+	 * @param count the number of entries to put into the left tree
+	 */
+	private void split( Entry entry, int count ){
+		if( entry == null ) {
+			splitLeft = null;
+			splitRight = null;
+			return;
+		}
+		int left = count( entry.left, Level.BASE );
+		if( count <= left ) {
+			split( entry.left, count );
+			entry.setLeft( splitRight );
+			entry.updateCount();
+			splitRight = entry;
+		}
+		else {
+			split( entry.right, count - left - 1 );
+			entry.setRight( splitLeft );
+			entry.updateCount();
+			splitLeft = entry;
+		}
+	}
+	
+	/**
+	 * Inserts <code>entry</code> into the tree at location <code>index</code>.
+	 * @param entry the new entry
+	 * @param index the location of the entry in the {@link Level#BASE} list
+	 */
+	private void treeInsert( Entry entry, int index ){
+		split( root, index );
+		Entry left = splitLeft;
+		Entry right = splitRight;
+		entry.updateCount();
+		root = merge( merge( left, entry ), right );
+		root.parent = null;
+		splitLeft = null;
+		splitRight = null;
+	}
+	
+	/**
+	 * Removes <code>entry</code> from the tree.
+	 * @param entry the entry to remove
+	 */
+	private void treeRemove( Entry entry ){
+		Entry replacement = merge( entry.left, entry.right );
+		Entry parent = entry.parent;
+		if( parent == null ) {
+			root = replacement;
+			if( root != null ) {
+				root.parent = null;
+			}
+		}
+		else {
+			if( parent.left == entry ) {
+				parent.setLeft( replacement );
+			}
+			else {
+				parent.setRight( replacement );
+			}
+			parent.updateCountUpwards();
+		}
+		entry.left = null;
+		entry.right = null;
+		entry.parent = null;
+	}
+	
+	/**
+	 * Adds a reference to <code>entry</code> to the index of <code>placeholder</code>.
+	 * @param placeholder some placeholder
+	 * @param entry an entry containing <code>placeholder</code>
+	 */
+	private void indexPlaceholder( Path placeholder, Entry entry ){
+		List<Entry> entries = placeholderIndex.get( placeholder );
+		if( entries == null ) {
+			entries = new ArrayList<Entry>( 1 );
+			placeholderIndex.put( placeholder, entries );
+		}
+		if( !entries.contains( entry ) ) {
+			entries.add( entry );
+		}
+	}
+	
+	/**
+	 * Removes a reference to <code>entry</code> from the index of <code>placeholder</code>.
+	 * @param placeholder some placeholder
+	 * @param entry an entry which no longer contains <code>placeholder</code>
+	 */
+	private void unindexPlaceholder( Path placeholder, Entry entry ){
+		List<Entry> entries = placeholderIndex.get( placeholder );
+		if( entries != null ) {
+			entries.remove( entry );
+			if( entries.isEmpty() ) {
+				placeholderIndex.remove( placeholder );
+			}
+		}
 	}
 
 	@Override
@@ -991,26 +1203,99 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		return list().toString();
 	}
 
+	/**
+	 * An {@link Entry} is a node of a doubly linked list, and at the same time a node of a
+	 * balanced binary tree. The tree stores how many entries of each {@link Level} are in
+	 * each subtree, allowing to convert between entries and indices in logarithmic time.
+	 * @author Benjamin Sigg
+	 */
 	private class Entry {
 		private Item item;
 		private boolean itemWasPlaceholder;
 
 		private Entry next, previous;
 		private Entry nextLevel, previousLevel;
+		
+		/** the tree this entry belongs to */
+		private Entry left, right, parent;
+		/** the priority of this entry in the tree, parents have a higher priority than their children */
+		private final int priority = random.nextInt();
+		/** the number of entries in the subtree starting at this entry */
+		private int countBase;
+		/** the number of entries that are not placeholders in the subtree starting at this entry */
+		private int countDockable;
+		/** whether this entry is stored in the list */
+		private boolean linked = false;
+		/** the dockable that was last registered in the indices of the enclosing list */
+		private P indexedDockable;
 
 		public Entry( Entry predecessor, Item item ){
 			this.item = item;
 			insertAfter( predecessor );
 		}
+		
+		/**
+		 * Tells whether this entry is currently part of the list.
+		 * @return whether the entry is in the list
+		 */
+		public boolean isLinked(){
+			return linked;
+		}
+		
+		/**
+		 * Tells whether this entry is part of the sublist <code>level</code>.
+		 * @param level the sublist
+		 * @return whether this entry is visible in <code>level</code>
+		 */
+		public boolean visible( Level level ){
+			switch( level ){
+				case BASE:
+					return true;
+				case DOCKABLE:
+					return !itemWasPlaceholder;
+				case PLACEHOLDER:
+					return itemWasPlaceholder;
+			}
+			throw new IllegalArgumentException();
+		}
+		
+		private void setLeft( Entry left ){
+			this.left = left;
+			if( left != null ) {
+				left.parent = this;
+			}
+		}
+		
+		private void setRight( Entry right ){
+			this.right = right;
+			if( right != null ) {
+				right.parent = this;
+			}
+		}
+		
+		/**
+		 * Updates the counters of this entry using the counters of its children.
+		 */
+		private void updateCount(){
+			countBase = 1 + count( left, Level.BASE ) + count( right, Level.BASE );
+			countDockable = (itemWasPlaceholder ? 0 : 1) + count( left, Level.DOCKABLE ) + count( right, Level.DOCKABLE );
+		}
+		
+		/**
+		 * Updates the counters of this entry and of all its parents.
+		 */
+		private void updateCountUpwards(){
+			Entry entry = this;
+			while( entry != null ) {
+				entry.updateCount();
+				entry = entry.parent;
+			}
+		}
 
 		public void insertAfter( Entry predecessor ){
-			invalidate();
-
 			item.setOwner( this );
 			itemWasPlaceholder = item.isPlaceholder();
 
-			Entry predecessorLevel = null;
-
 			if( predecessor == null ) {
 				next = head;
 				if( head != null ) {
@@ -1018,7 +1303,7 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 				}
 
 				head = this;
-				predecessorLevel = null;
+				treeInsert( this, 0 );
 			}
 			else {
 				next = predecessor.next;
@@ -1028,63 +1313,125 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 
 				predecessor.next = this;
 				this.previous = predecessor;
-
-				Entry search = predecessor;
-				while( search != null && predecessorLevel == null ) {
-					if( search.item.isPlaceholder() == item.isPlaceholder() ) {
-						predecessorLevel = search;
-					}
-					search = search.previous( Level.BASE );
-				}
+				
+				treeInsert( this, predecessor.index( Level.BASE ) + 1 );
 			}
-
-			Entry successorLevel = null;
+			
+			linked = true;
+			insertLevel();
+			index();
+		}
+		
+		/**
+		 * Inserts this entry into the sublist of its {@link Level}.
+		 */
+		private void insertLevel(){
+			Level level = itemWasPlaceholder ? Level.PLACEHOLDER : Level.DOCKABLE;
+			int index = index( level );
+			
+			Entry predecessorLevel = search( index-1, level );
+			Entry successorLevel = search( index+1, level );
+			
+			previousLevel = predecessorLevel;
+			nextLevel = successorLevel;
+			
 			if( predecessorLevel == null ) {
-				if( item.isPlaceholder() ) {
-					successorLevel = headPlaceholder;
+				if( itemWasPlaceholder ) {
 					headPlaceholder = this;
 				}
 				else {
-					successorLevel = headDockable;
 					headDockable = this;
 				}
 			}
-
-			if( predecessorLevel != null ) {
-				previousLevel = predecessorLevel;
-				nextLevel = predecessorLevel.nextLevel;
-
-				if( nextLevel != null ) {
-					nextLevel.previousLevel = this;
-				}
-				previousLevel.nextLevel = this;
+			else {
+				predecessorLevel.nextLevel = this;
 			}
-			else if( successorLevel != null ) {
-				nextLevel = successorLevel;
+			if( successorLevel != null ) {
 				successorLevel.previousLevel = this;
 			}
 		}
+		
+		/**
+		 * Registers the item of this entry in the indices of the enclosing list.
+		 */
+		private void index(){
+			Set<Path> placeholders = item.getPlaceholderSet();
+			if( placeholders != null ) {
+				for( Path placeholder : placeholders ) {
+					indexPlaceholder( placeholder, this );
+				}
+			}
+			if( item.getPlaceholderMap() != null ) {
+				mapIndex.add( this );
+			}
+			if( !item.hasPlaceholders() ) {
+				cleanupIndex.add( this );
+			}
+			indexDockable();
+		}
+		
+		/**
+		 * Ensures that the dockable of the item of this entry is registered in the
+		 * indices of the enclosing list.
+		 */
+		private void indexDockable(){
+			P dockable = item.getDockable();
+			if( dockable != indexedDockable ) {
+				unindexDockable();
+				if( dockable != null ) {
+					itemIndex.put( dockable, this );
+					dockableIndex.put( dockable.asDockable(), this );
+					indexedDockable = dockable;
+				}
+			}
+		}
+		
+		/**
+		 * Removes the item of this entry from the indices of the enclosing list.
+		 */
+		private void unindex(){
+			Set<Path> placeholders = item.getPlaceholderSet();
+			if( placeholders != null ) {
+				for( Path placeholder : placeholders ) {
+					unindexPlaceholder( placeholder, this );
+				}
+			}
+			mapIndex.remove( this );
+			cleanupIndex.remove( this );
+			unindexDockable();
+		}
+		
+		private void unindexDockable(){
+			if( indexedDockable != null ) {
+				if( itemIndex.get( indexedDockable ) == this ) {
+					itemIndex.remove( indexedDockable );
+				}
+				D dockable = indexedDockable.asDockable();
+				if( dockableIndex.get( dockable ) == this ) {
+					dockableIndex.remove( dockable );
+				}
+				indexedDockable = null;
+			}
+		}
 
 		public void move( int delta, Level level ){
 			if( delta == 0 ) {
 				return;
 			}
-			Entry newPredecessor = this;
+			int index = index( level );
+			Entry newPredecessor;
 			if( delta > 0 ) {
-				for( int i = 0; i < delta; i++ ) {
-					newPredecessor = newPredecessor.next( level );
-					if( newPredecessor == null ) {
-						throw new IllegalArgumentException( "delta too big" );
-					}
+				newPredecessor = search( index + delta, level );
+				if( newPredecessor == null ) {
+					throw new IllegalArgumentException( "delta too big" );
 				}
 			}
 			else {
-				for( int i = -delta; i >= 0; i-- ) {
-					if( newPredecessor == null ) {
-						throw new IllegalArgumentException( "delta too big" );
-					}
-					newPredecessor = newPredecessor.previous( level );
+				int target = index + delta - 1;
+				if( target < -1 ) {
+					throw new IllegalArgumentException( "delta too big" );
 				}
+				newPredecessor = search( target, level );
 			}
 
 			remove();
@@ -1116,15 +1463,31 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		}
 
 		public int index( Level level ){
-			Entry entry = head( level );
-			int index = 0;
-			while( entry != this && entry != null ) {
-				entry = entry.next( level );
-				index++;
-			}
-			if( entry == null ) {
+			if( !linked || !visible( level ) ) {
 				return -1;
 			}
+			return countBefore( level );
+		}
+		
+		/**
+		 * Counts how many entries of <code>level</code> are in front of this entry.
+		 * @param level the sublist to count
+		 * @return the number of entries in front of this entry, this entry does not 
+		 * need to be part of <code>level</code>
+		 */
+		public int countBefore( Level level ){
+			int index = count( left, level );
+			Entry entry = this;
+			while( entry.parent != null ) {
+				Entry parent = entry.parent;
+				if( parent.right == entry ) {
+					index += count( parent.left, level );
+					if( parent.visible( level ) ) {
+						index++;
+					}
+				}
+				entry = parent;
+			}
 			return index;
 		}
 
@@ -1133,68 +1496,29 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		}
 
 		public void set( Item item ){
+			if( linked ) {
+				unindex();
+			}
 			this.item.setOwner( null );
 			item.setOwner( this );
+			this.item = item;
 
 			if( itemWasPlaceholder != item.isPlaceholder() ) {
-				itemWasPlaceholder = item.isPlaceholder();
-
-				invalidate();
 				removeLevel();
-
-				Entry levelPredecessor = findLevelPredecessor( item.isPlaceholder() );
-				Entry levelSuccessor = findLevelSuccessor( item.isPlaceholder() );
-
-				if( levelPredecessor == null ) {
-					if( item.isPlaceholder() ) {
-						headPlaceholder = this;
-					}
-					else {
-						headDockable = this;
-					}
-					previousLevel = null;
-				}
-				else {
-					levelPredecessor.nextLevel = this;
-					previousLevel = levelPredecessor;
-				}
-
-				if( levelSuccessor != null ) {
-					nextLevel = levelSuccessor;
-					levelSuccessor.previousLevel = this;
-				}
-				else {
-					nextLevel = null;
-				}
-			}
-			this.item = item;
-		}
-
-		private Entry findLevelPredecessor( boolean placeholder ){
-			Entry entry = previous;
-			while( entry != null ) {
-				if( entry.item.isPlaceholder() == placeholder ) {
-					return entry;
+				itemWasPlaceholder = item.isPlaceholder();
+				
+				if( linked ) {
+					updateCountUpwards();
+					insertLevel();
 				}
-				entry = entry.previous;
 			}
-			return null;
-		}
-
-		private Entry findLevelSuccessor( boolean placeholder ){
-			Entry entry = next;
-			while( entry != null ) {
-				if( entry.item.isPlaceholder() == placeholder ) {
-					return entry;
-				}
-				entry = entry.next;
+			
+			if( linked ) {
+				index();
 			}
-			return null;
 		}
 
 		public void remove(){
-			invalidate();
-
 			if( next != null ) {
 				next.previous = previous;
 			}
@@ -1209,14 +1533,17 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 			next = null;
 			previous = null;
 
-			this.item.setOwner( null );
-
 			removeLevel();
+			if( linked ) {
+				unindex();
+				treeRemove( this );
+				linked = false;
+			}
+			
+			this.item.setOwner( null );
 		}
 
 		private void removeLevel(){
-			invalidate();
-
 			if( nextLevel != null ) {
 				nextLevel.previousLevel = previousLevel;
 			}
@@ -1339,14 +1666,60 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		}
 
 		/**
-		 * Sets the set of placeholders that are associated with this entry.
+		 * Sets the set of placeholders that are associated with this entry. The set is copied, changes
+		 * made to <code>placeholderSet</code> afterwards are not seen by this item. Clients that want to
+		 * modify the placeholders later have to use the set returned by {@link #getPlaceholderSet()}.
 		 * @param placeholderSet the placeholders, can be <code>null</code>
 		 */
 		public void setPlaceholderSet( Set<Path> placeholderSet ){
 			if( placeholderSet != null && placeholderSet.contains( null ) ) {
 				throw new IllegalArgumentException( "placeholderSet contains a null value" );
 			}
-			this.placeholderSet = placeholderSet;
+			
+			ObservedPlaceholderSet copy = null;
+			if( placeholderSet != null ) {
+				copy = new ObservedPlaceholderSet();
+				copy.delegate.addAll( placeholderSet );
+			}
+			
+			if( this.placeholderSet != null ) {
+				for( Path placeholder : this.placeholderSet ) {
+					placeholderRemoved( placeholder );
+				}
+			}
+			this.placeholderSet = copy;
+			if( copy != null ) {
+				for( Path placeholder : copy ) {
+					placeholderAdded( placeholder );
+				}
+			}
+			if( isIndexed() && !hasPlaceholders() ) {
+				cleanupIndex.add( owner );
+			}
+		}
+		
+		/**
+		 * Tells whether this item is currently stored in the enclosing list and thus
+		 * part of its indices.
+		 * @return whether this item is indexed
+		 */
+		private boolean isIndexed(){
+			return owner != null && owner.isLinked() && owner.item == this;
+		}
+		
+		private void placeholderAdded( Path placeholder ){
+			if( isIndexed() ) {
+				indexPlaceholder( placeholder, owner );
+			}
+		}
+		
+		private void placeholderRemoved( Path placeholder ){
+			if( isIndexed() ) {
+				unindexPlaceholder( placeholder, owner );
+				if( !hasPlaceholders() ) {
+					cleanupIndex.add( owner );
+				}
+			}
 		}
 
 		/**
@@ -1397,7 +1770,7 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 			}
 
 			if( placeholderSet == null ) {
-				placeholderSet = new HashSet<Path>();
+				placeholderSet = new ObservedPlaceholderSet();
 			}
 			placeholderSet.add( placeholder );
 		}
@@ -1456,6 +1829,14 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 			else {
 				this.placeholderMap = placeholders;
 			}
+			if( isIndexed() ) {
+				if( placeholders == null ) {
+					mapIndex.remove( owner );
+				}
+				else {
+					mapIndex.add( owner );
+				}
+			}
 		}
 
 		/**
@@ -1510,6 +1891,65 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 			builder.append( "})" );
 			return builder.toString();
 		}
+		
+		/**
+		 * The set of placeholders of an {@link Item}, keeps the index of the enclosing
+		 * {@link PlaceholderList} up to date when modified.
+		 * @author Benjamin Sigg
+		 */
+		private class ObservedPlaceholderSet extends AbstractSet<Path> {
+			private final Set<Path> delegate = new HashSet<Path>();
+			
+			@Override
+			public int size(){
+				return delegate.size();
+			}
+			
+			@Override
+			public boolean contains( Object o ){
+				return delegate.contains( o );
+			}
+			
+			@Override
+			public boolean add( Path placeholder ){
+				if( delegate.add( placeholder ) ) {
+					placeholderAdded( placeholder );
+					return true;
+				}
+				return false;
+			}
+			
+			@Override
+			public boolean remove( Object o ){
+				if( delegate.remove( o ) ) {
+					placeholderRemoved( (Path) o );
+					return true;
+				}
+				return false;
+			}
+			
+			@Override
+			public Iterator<Path> iterator(){
+				final Iterator<Path> iterator = delegate.iterator();
+				return new Iterator<Path>(){
+					private Path current;
+					
+					public boolean hasNext(){
+						return iterator.hasNext();
+					}
+					
+					public Path next(){
+						current = iterator.next();
+						return current;
+					}
+					
+					public void remove(){
+						iterator.remove();
+						placeholderRemoved( current );
+					}
+				};
+			}
+		}
 	}
 
 	/**
@@ -1640,7 +2080,6 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 
 	private abstract class SubList<A> implements Filter<A> {
 		private Level level;
-		private int size = -1;
 
 		protected abstract A unwrap( Item item );
 
@@ -1659,26 +2098,15 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		public PlaceholderList<D, S, P> getPlaceholderList(){
 			return PlaceholderList.this;
 		}
-		
-		public void invalidate(){
-			size = -1;
-		}
 
 		private Entry getEntry( int index ){
 			if( index < 0 )
 				throw new IndexOutOfBoundsException("index < 0: " + index);
 
-			Entry entry = head( level );
-			int start = index;
-			
-			while( index > 0 ) {
-				entry = entry.next( level );
-				index--;
-				if( entry == null ) {
-					throw new IndexOutOfBoundsException( "index=" + start + ", size=" + size() );
-				}
+			Entry entry = search( index, level );
+			if( entry == null ) {
+				throw new IndexOutOfBoundsException( "index=" + index + ", size=" + size() );
 			}
-
 			return entry;
 		}
 
@@ -1713,12 +2141,7 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		
 		private void insert( int index, Item item ){
 			if( size() == index ) {
-				Entry entry = head;
-				Entry predecessor = null;
-				while( entry != null ) {
-					predecessor = entry;
-					entry = entry.next;
-				}
+				Entry predecessor = search( count( root, Level.BASE )-1, Level.BASE );
 				new Entry( predecessor, item );
 			}
 			else {
@@ -1749,16 +2172,18 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		}
 		
 		public int indexOfPlaceholder( Path placeholder ){
-			int index = 0;
-			Entry entry = head( level );
-			while( entry != null ) {
-				if( entry.item.hasPlaceholder( placeholder )){
-					return index;
+			List<Entry> entries = placeholderIndex.get( placeholder );
+			if( entries == null ){
+				return -1;
+			}
+			int result = -1;
+			for( Entry entry : entries ){
+				int index = entry.index( level );
+				if( index != -1 && (result == -1 || index < result) ){
+					result = index;
 				}
-				entry = entry.next( level );
-				index++;
 			}
-			return -1;
+			return result;
 		}
 
 		public A remove( int index ){
@@ -1789,15 +2214,7 @@ public abstract class PlaceholderList<D, S, P extends PlaceholderListItem<D>> {
 		}
 		
 		public int size(){
-			if( size == -1 ) {
-				size = 0;
-				Entry entry = head( level );
-				while( entry != null ) {
-					size++;
-					entry = entry.next( level );
-				}
-			}
-			return size;
+			return count( root, level );
 		}
 
 		public void move( int source, int destination ){
@@ -29,6 +29,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -49,17 +50,39 @@ import bibliothek.util.xml.XException;
  *  <li>If using non-shared keys, this map will use the <code>==</code> operator to compare keys</li>
  * </ul>
  * This data structure can work together with a {@link PlaceholderStrategy} to automatically delete
- * entries that are no longer valid. 
+ * entries that are no longer valid.<br>
+ * Internally the values of each {@link Key} are stored in a compact table: the names of the
+ * values are interned in a table shared by all the maps read from the same stream or
+ * {@link XElement}, and primitive values are stored without boxing them. 
  * @author Benjamin Sigg
  */
 public class PlaceholderMap {
+	/** type of a {@link String} value, also the identifier used in the binary format */
+	private static final byte TYPE_STRING = 0;
+	/** type of an {@link Integer} value, also the identifier used in the binary format */
+	private static final byte TYPE_INT = 1;
+	/** type of a {@link Long} value, also the identifier used in the binary format */
+	private static final byte TYPE_LONG = 2;
+	/** type of a {@link Double} value, also the identifier used in the binary format */
+	private static final byte TYPE_DOUBLE = 3;
+	/** type of a {@link Boolean} value, also the identifier used in the binary format */
+	private static final byte TYPE_BOOLEAN = 4;
+	/** type of a {@link PlaceholderMap} value, also the identifier used in the binary format */
+	private static final byte TYPE_MAP = 5;
+	/** type of an array value, also the identifier used in the binary format */
+	private static final byte TYPE_ARRAY = 6;
+	/** type of a {@link Path} value, also the identifier used in the binary format */
+	private static final byte TYPE_PATH = 7;
+	/** type of any other value, such values cannot be written */
+	private static final byte TYPE_OBJECT = -1;
+	
 	/** version of the format */
 	private int version;
 	/** what kind of data is stored in this map */
 	private Path format;
 	
 	/** all the data that is stored in this map */
-	private Map<Key, Map<String, Object>> data = new LinkedHashMap<Key, Map<String,Object>>();
+	private Map<Key, Values> data = new LinkedHashMap<Key, Values>();
 	
 	/** strategy observed for automatically removeal of invalid placeholders */
 	private PlaceholderStrategy strategy;
@@ -93,6 +116,17 @@ public class PlaceholderMap {
 	 * @throws IOException in case of an I/O error
 	 */
 	public PlaceholderMap( DataInputStream in, PlaceholderStrategy strategy ) throws IOException{
+		this( in, strategy, new HashMap<String, String>() );
+	}
+	
+	/**
+	 * Creates a new map reading the content of the map directly from <code>in</code>.
+	 * @param in the content
+	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code>
+	 * @param names the names of the values read so far, shared by this map and all its sub-maps
+	 * @throws IOException in case of an I/O error
+	 */
+	private PlaceholderMap( DataInputStream in, PlaceholderStrategy strategy, Map<String, String> names ) throws IOException{
 		setPlaceholderStrategy( strategy );
 		
 		Version version = Version.read( in );
@@ -111,19 +145,18 @@ public class PlaceholderMap {
 			
 			if( key != null ){
 				add(key);
-				Map<String, Object> map = data.get( key );
+				Values values = data.get( key );
 				int length = in.readInt();
 				for( int j = 0; j < length; j++ ){
-					String subkey = in.readUTF();
-					Object value = read( in, strategy );
-					map.put( subkey, value );
+					String subkey = intern( in.readUTF(), names );
+					read( in, strategy, values, subkey, names );
 				}
 			}
 			else{
 				int length = in.readInt();
 				for( int j = 0; j < length; j++ ){
 					in.readUTF();
-					read( in, strategy );
+					read( in, strategy, names );
 				}
 			}
 		}
@@ -135,6 +168,16 @@ public class PlaceholderMap {
 	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code> 
 	 */
 	public PlaceholderMap( XElement in, PlaceholderStrategy strategy ){
+		this( in, strategy, new HashMap<String, String>() );
+	}
+	
+	/**
+	 * Creates a new map reading the content of the map directly from <code>in</code>.
+	 * @param in the content to read
+	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code>
+	 * @param names the names of the values read so far, shared by this map and all its sub-maps
+	 */
+	private PlaceholderMap( XElement in, PlaceholderStrategy strategy, Map<String, String> names ){
 		setPlaceholderStrategy( strategy );
 		
 		XElement xversion = in.getElement( "version" );
@@ -157,13 +200,13 @@ public class PlaceholderMap {
 				
 				if( placeholder != null ){
 					add( placeholder );
-					Map<String,Object> map = data.get( placeholder );
+					Values values = data.get( placeholder );
 					for( int j = 0, m = xentry.getElementCount(); j<m; j++ ){
 						XElement xitem = xentry.getElement( j );
 						if( xitem.getName().equals( "item" )){
-							String key = xitem.getString( "key" );
-							Object value = read( xitem, strategy );
-							map.put( key, value );
+							String key = intern( xitem.getString( "key" ), names );
+							Object value = read( xitem, strategy, names );
+							values.put( key, value );
 						}
 					}
 				}
@@ -182,44 +225,65 @@ public class PlaceholderMap {
 		out.writeUTF( format.toString() );
 		
 		out.writeInt( data.size() );
-		for( Map.Entry<Key, Map<String, Object>> entry : data.entrySet() ){
+		for( Map.Entry<Key, Values> entry : data.entrySet() ){
 			((PlaceholderKey)entry.getKey()).write( out );
-			Map<String, Object> map = entry.getValue();
-			out.writeInt( map.size() );
-			for( Map.Entry<String, Object> mapEntry : map.entrySet() ){
-				out.writeUTF( mapEntry.getKey() );
-				write( mapEntry.getValue(), out );
+			Values values = entry.getValue();
+			out.writeInt( values.size );
+			for( int i = 0; i < values.size; i++ ){
+				out.writeUTF( values.names[i] );
+				byte type = values.types[i];
+				switch( type ){
+					case TYPE_INT:
+						out.writeByte( type );
+						out.writeInt( (int)values.primitives[i] );
+						break;
+					case TYPE_LONG:
+						out.writeByte( type );
+						out.writeLong( values.primitives[i] );
+						break;
+					case TYPE_DOUBLE:
+						out.writeByte( type );
+						out.writeDouble( Double.longBitsToDouble( values.primitives[i] ) );
+						break;
+					case TYPE_BOOLEAN:
+						out.writeByte( type );
+						out.writeBoolean( values.primitives[i] != 0 );
+						break;
+					default:
+						write( values.objects[i], out );
+						break;
+				}
 			}
 		}
 	}
 
 	private void write( Object value, DataOutputStream out ) throws IOException{
 		if( value instanceof String ){
-			out.writeByte( 0 );
+			out.writeByte( TYPE_STRING );
 			out.writeUTF( (String)value );
 		}
 		else if( value instanceof Integer ){
-			out.writeByte( 1 );
+			out.writeByte( TYPE_INT );
 			out.writeInt( (Integer)value );
 		}
 		else if( value instanceof Long ){
-			out.writeByte( 2 );
+			out.writeByte( TYPE_LONG );
 			out.writeLong( (Long)value );
 		}
 		else if( value instanceof Double ){
-			out.writeByte( 3 );
+			out.writeByte( TYPE_DOUBLE );
 			out.writeDouble( (Double)value );
 		}
 		else if( value instanceof Boolean ){
-			out.writeByte( 4 );
+			out.writeByte( TYPE_BOOLEAN );
 			out.writeBoolean( (Boolean)value );
 		}
 		else if( value instanceof PlaceholderMap ){
-			out.writeByte( 5 );
+			out.writeByte( TYPE_MAP );
 			((PlaceholderMap)value).write( out );
 		}
 		else if( value instanceof Object[] ){
-			out.writeByte( 6 );
+			out.writeByte( TYPE_ARRAY );
 			Object[] array = (Object[])value;
 			out.writeInt( array.length );
 			for( Object item : array ){
@@ -227,7 +291,7 @@ public class PlaceholderMap {
 			}
 		}
 		else if( value instanceof Path ){
-			out.writeByte( 7 );
+			out.writeByte( TYPE_PATH );
 			out.writeUTF( ((Path)value).toString() );
 		}
 		else{
@@ -235,23 +299,57 @@ public class PlaceholderMap {
 		}
 	}
 
-	private Object read( DataInputStream in, PlaceholderStrategy strategy ) throws IOException{
+	/**
+	 * Reads one value from <code>in</code> and stores it in <code>values</code>. Primitive
+	 * values are stored without boxing them.
+	 * @param in the stream to read from
+	 * @param strategy the strategy to apply to any sub-map
+	 * @param values the storage for the value
+	 * @param name the name of the value
+	 * @param names the names of the values read so far
+	 * @throws IOException in case of an I/O error
+	 */
+	private void read( DataInputStream in, PlaceholderStrategy strategy, Values values, String name, Map<String, String> names ) throws IOException{
 		byte kind = in.readByte();
 		switch( kind ){
-			case 0: return in.readUTF();
-			case 1: return in.readInt();
-			case 2: return in.readLong();
-			case 3: return in.readDouble();
-			case 4: return in.readBoolean();
-			case 5: return new PlaceholderMap( in, strategy );
-			case 6:
+			case TYPE_INT:
+				values.put( name, TYPE_INT, in.readInt(), null );
+				break;
+			case TYPE_LONG:
+				values.put( name, TYPE_LONG, in.readLong(), null );
+				break;
+			case TYPE_DOUBLE:
+				values.put( name, TYPE_DOUBLE, Double.doubleToLongBits( in.readDouble() ), null );
+				break;
+			case TYPE_BOOLEAN:
+				values.put( name, TYPE_BOOLEAN, in.readBoolean() ? 1 : 0, null );
+				break;
+			default:
+				values.put( name, read( kind, in, strategy, names ) );
+				break;
+		}
+	}
+	
+	private Object read( DataInputStream in, PlaceholderStrategy strategy, Map<String, String> names ) throws IOException{
+		return read( in.readByte(), in, strategy, names );
+	}
+	
+	private Object read( byte kind, DataInputStream in, PlaceholderStrategy strategy, Map<String, String> names ) throws IOException{
+		switch( kind ){
+			case TYPE_STRING: return in.readUTF();
+			case TYPE_INT: return in.readInt();
+			case TYPE_LONG: return in.readLong();
+			case TYPE_DOUBLE: return in.readDouble();
+			case TYPE_BOOLEAN: return in.readBoolean();
+			case TYPE_MAP: return new PlaceholderMap( in, strategy, names );
+			case TYPE_ARRAY:
 				int length = in.readInt();
 				Object[] result = new Object[length];
 				for( int i = 0; i < length; i++ ){
-					result[i] = read( in, strategy );
+					result[i] = read( in, strategy, names );
 				}
 				return result;
-			case 7: return new Path( in.readUTF() );
+			case TYPE_PATH: return new Path( in.readUTF() );
 		}
 		throw new IOException( "illegal format" );
 	}
@@ -264,14 +362,14 @@ public class PlaceholderMap {
 		out.addElement( "version" ).setInt( version );
 		out.addElement( "format" ).setString( format.toString() );
 		
-		for( Map.Entry<Key, Map<String, Object>> entry : data.entrySet() ){
+		for( Map.Entry<Key, Values> entry : data.entrySet() ){
 			XElement xplaceholder = out.addElement( "entry" );
 			((PlaceholderKey)entry.getKey()).write( xplaceholder.addElement( "key" ) );
-			Map<String, Object> map = entry.getValue();
-			for( Map.Entry<String, Object> mapEntry : map.entrySet() ){
+			Values values = entry.getValue();
+			for( int i = 0; i < values.size; i++ ){
 				XElement xitem = xplaceholder.addElement( "item" );
-				xitem.addString( "key", mapEntry.getKey() );
-				write( mapEntry.getValue(), xitem );
+				xitem.addString( "key", values.names[i] );
+				write( values.get( i ), xitem );
 			}
 		}
 	}
@@ -317,7 +415,7 @@ public class PlaceholderMap {
 		}
 	}
 
-	private Object read( XElement in, PlaceholderStrategy strategy ){
+	private Object read( XElement in, PlaceholderStrategy strategy, Map<String, String> names ){
 		String type = in.getString( "type" );
 		if( "s".equals( type )){
 			return in.getString();
@@ -335,13 +433,13 @@ public class PlaceholderMap {
 			return in.getBoolean();
 		}
 		if( "p".equals( type )){
-			return new PlaceholderMap( in, strategy );
+			return new PlaceholderMap( in, strategy, names );
 		}
 		if( "a".equals( type )){
 			XElement[] xitems = in.getElements( "item" );
 			Object[] result = new Object[xitems.length];
 			for( int i = 0; i < xitems.length; i++ ){
-				result[i] = read( xitems[i], strategy );
+				result[i] = read( xitems[i], strategy, names );
 			}
 			return result;
 		}
@@ -360,13 +458,9 @@ public class PlaceholderMap {
 	public PlaceholderMap copy(){
 		PlaceholderMap result = new PlaceholderMap( format, version );
 		
-		for( Map.Entry<Key, Map<String, Object>> entry : data.entrySet() ){
+		for( Map.Entry<Key, Values> entry : data.entrySet() ){
 			Key newKey = result.copyKey( entry.getKey() );
-			result.add( newKey );
-			Map<String, Object> map = result.data.get( newKey );
-			for( Map.Entry<String, Object> valueEntry : entry.getValue().entrySet() ){
-				map.put( valueEntry.getKey(), copy( valueEntry.getValue() ) );
-			}
+			result.data.put( newKey, entry.getValue().copy( this ) );
 		}
 		
 		return result;
@@ -404,6 +498,9 @@ public class PlaceholderMap {
 		else if( value instanceof Boolean ){
 			return value;
 		}
+		else if( value instanceof Path ){
+			return value;
+		}
 		else if( value instanceof PlaceholderMap ){
 			return ((PlaceholderMap)value).copy();
 		}
@@ -486,9 +583,9 @@ public class PlaceholderMap {
 			this.strategy.removeListener( listener );
 		}
 		this.strategy = strategy;
-		for( Map<?, Object> map : data.values() ){
-			for( Object value : map.values() ){
-				setPlaceholderStrategy( value, strategy );
+		for( Values values : data.values() ){
+			for( int i = 0; i < values.size; i++ ){
+				setPlaceholderStrategy( values.objects[i], strategy );
 			}
 		}
 		if( this.strategy != null ){
@@ -529,9 +626,9 @@ public class PlaceholderMap {
 		}
 		
 		if( recursive ){
-			for( Map<?, Object> map : data.values() ){
-				for( Object value : map.values() ){
-					validate( value, strategy );
+			for( Values values : data.values() ){
+				for( int i = 0; i < values.size; i++ ){
+					validate( values.objects[i], strategy );
 				}
 			}
 		}
@@ -540,9 +637,9 @@ public class PlaceholderMap {
 		for( Key key : keys ){
 			Key replacement = ((PlaceholderKey)key).shrink( strategy );
 			if( replacement != key ){
-				Map<String, Object> map = data.remove( key );
+				Values values = data.remove( key );
 				if( replacement != null ){
-					data.put( replacement, map );
+					data.put( replacement, values );
 				}
 			}
 		}
@@ -583,9 +680,9 @@ public class PlaceholderMap {
 		}
 		
 		if( recursive ){
-			for( Map<?, Object> map : data.values() ){
-				for( Object value : map.values() ){
-					removeAll( value, placeholders );
+			for( Values values : data.values() ){
+				for( int i = 0; i < values.size; i++ ){
+					removeAll( values.objects[i], placeholders );
 				}
 			}
 		}
@@ -594,9 +691,9 @@ public class PlaceholderMap {
 		for( Key key : keys ){
 			Key replacement = ((PlaceholderKey)key).shrink( placeholders );
 			if( replacement != key ){
-				Map<String, Object> map = data.remove( key );
+				Values values = data.remove( key );
 				if( replacement != null ){
-					data.put( replacement, map );
+					data.put( replacement, values );
 				}
 			}
 		}
@@ -638,10 +735,10 @@ public class PlaceholderMap {
 		if( placeholder == null ){
 			throw new IllegalArgumentException( "placeholder must not be null" );
 		}
-		Map<String, Object> map = data.get( placeholder );
-		if( map == null ){
-			map = new LinkedHashMap<String, Object>();
-			data.put( placeholder, map );
+		Values values = data.get( placeholder );
+		if( values == null ){
+			values = new Values();
+			data.put( placeholder, values );
 		}
 	}
 	
@@ -672,12 +769,11 @@ public class PlaceholderMap {
 	 * known to this map
 	 */
 	public String[] getKeys( Key placeholder ){
-		Map<String,Object> map = data.get( placeholder );
-		if( map == null ){
+		Values values = data.get( placeholder );
+		if( values == null ){
 			return null;
 		}
-		Set<String> set = map.keySet();
-		return set.toArray( new String[ set.size() ] );
+		return Arrays.copyOf( values.names, values.size );
 	}
 	
 	/**
@@ -721,7 +817,7 @@ public class PlaceholderMap {
 	 * @param value the new value
 	 */
 	public void putInt( Key placeholder, String key, int value ){
-		put( placeholder, key, Integer.valueOf( value ) );
+		put( placeholder, key, TYPE_INT, value );
 	}
 	
 	/**
@@ -733,7 +829,7 @@ public class PlaceholderMap {
 	 * @param value the new value
 	 */
 	public void putLong( Key placeholder, String key, long value ){
-		put( placeholder, key, Long.valueOf( value ) );
+		put( placeholder, key, TYPE_LONG, value );
 	}
 	
 	/**
@@ -745,7 +841,7 @@ public class PlaceholderMap {
 	 * @param value the new value
 	 */
 	public void putBoolean( Key placeholder, String key, boolean value ){
-		put( placeholder, key, Boolean.valueOf( value ) );
+		put( placeholder, key, TYPE_BOOLEAN, value ? 1 : 0 );
 	}
 	
 	/**
@@ -757,7 +853,7 @@ public class PlaceholderMap {
 	 * @param value the new value
 	 */
 	public void putDouble( Key placeholder, String key, double value ){
-		put( placeholder, key, Double.valueOf( value ) );
+		put( placeholder, key, TYPE_DOUBLE, Double.doubleToLongBits( value ) );
 	}
 	
 	/**
@@ -809,6 +905,11 @@ public class PlaceholderMap {
 		}
 	}
 	
+	private void put( Key placeholder, String key, byte type, long value ){
+		add( placeholder );
+		data.get( placeholder ).put( key, type, value, null );
+	}
+	
 	private Object invalidType( Object value ){
 		if( value instanceof String ||
 				value instanceof Integer ||
@@ -842,11 +943,11 @@ public class PlaceholderMap {
 	 * @return the data that was removed, may be <code>null</code>
 	 */
 	public Object remove( Key placeholder, String key ){
-		Map<String, Object> map = data.get( placeholder );
-		if( map == null ){
+		Values values = data.get( placeholder );
+		if( values == null ){
 			return null;
 		}
-		return map.remove( key );
+		return values.remove( key );
 	}
 	
 	/**
@@ -856,7 +957,8 @@ public class PlaceholderMap {
 	 * @return <code>true</code> if there is some data stored
 	 */
 	public boolean contains( Key placeholder, String key ){
-		return get( placeholder, key ) != null;
+		Values values = data.get( placeholder );
+		return values != null && values.indexOf( key ) != -1;
 	}
 	
 	/**
@@ -901,9 +1003,10 @@ public class PlaceholderMap {
 	 * @throws IllegalArgumentException if either the value is of the wrong type or missing
 	 */
 	public int getInt( Key placeholder, String key ){
-		Object data = get( placeholder, key );
-		if( data instanceof Integer ){
-			return (Integer)data;
+		Values values = data.get( placeholder );
+		int index = values == null ? -1 : values.indexOf( key );
+		if( index != -1 && values.types[ index ] == TYPE_INT ){
+			return (int)values.primitives[ index ];
 		}
 		else{
 			throw new IllegalArgumentException();
@@ -918,9 +1021,10 @@ public class PlaceholderMap {
 	 * @throws IllegalArgumentException if either the value is of the wrong type or missing
 	 */
 	public long getLong( Key placeholder, String key ){
-		Object data = get( placeholder, key );
-		if( data instanceof Long ){
-			return (Long)data;
+		Values values = data.get( placeholder );
+		int index = values == null ? -1 : values.indexOf( key );
+		if( index != -1 && values.types[ index ] == TYPE_LONG ){
+			return values.primitives[ index ];
 		}
 		else{
 			throw new IllegalArgumentException();
@@ -935,9 +1039,10 @@ public class PlaceholderMap {
 	 * @throws IllegalArgumentException if either the value is of the wrong type or missing
 	 */
 	public boolean getBoolean( Key placeholder, String key ){
-		Object data = get( placeholder, key );
-		if( data instanceof Boolean ){
-			return (Boolean)data;
+		Values values = data.get( placeholder );
+		int index = values == null ? -1 : values.indexOf( key );
+		if( index != -1 && values.types[ index ] == TYPE_BOOLEAN ){
+			return values.primitives[ index ] != 0;
 		}
 		else{
 			throw new IllegalArgumentException();
@@ -952,9 +1057,10 @@ public class PlaceholderMap {
 	 * @throws IllegalArgumentException if either the value is of the wrong type or missing
 	 */
 	public double getDouble( Key placeholder, String key ){
-		Object data = get( placeholder, key );
-		if( data instanceof Double ){
-			return (Double)data;
+		Values values = data.get( placeholder );
+		int index = values == null ? -1 : values.indexOf( key );
+		if( index != -1 && values.types[ index ] == TYPE_DOUBLE ){
+			return Double.longBitsToDouble( values.primitives[ index ] );
 		}
 		else{
 			throw new IllegalArgumentException();
@@ -1002,16 +1108,317 @@ public class PlaceholderMap {
 	 * @return the data, may be <code>null</code>
 	 */
 	public Object get( Key placeholder, String key ){
-		Map<String, Object> map = data.get( placeholder );
-		if( map == null ){
+		Values values = data.get( placeholder );
+		if( values == null ){
 			return null;
 		}
-		return map.get( key );
+		int index = values.indexOf( key );
+		if( index == -1 ){
+			return null;
+		}
+		return values.get( index );
 	}
 	
 	@Override
 	public String toString(){
-		return data.toString();
+		StringBuilder builder = new StringBuilder();
+		builder.append( "{" );
+		boolean first = true;
+		for( Map.Entry<Key, Values> entry : data.entrySet() ){
+			if( first ){
+				first = false;
+			}
+			else{
+				builder.append( ", " );
+			}
+			builder.append( entry.getKey() ).append( "=" ).append( entry.getValue() );
+		}
+		builder.append( "}" );
+		return builder.toString();
+	}
+	
+	/**
+	 * Gets the shared instance of <code>name</code>. The maps and sub-maps read from
+	 * one stream use the same names many times, sharing the {@link String}s reduces the
+	 * memory footprint.
+	 * @param name some name of a value that was just read
+	 * @param names the names read so far from the same stream
+	 * @return a string equal to <code>name</code>
+	 */
+	private static String intern( String name, Map<String, String> names ){
+		String result = names.get( name );
+		if( result == null ){
+			names.put( name, name );
+			result = name;
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets the type of <code>value</code>.
+	 * @param value some value that passed {@link #invalidType(Object)}
+	 * @return the type of <code>value</code>
+	 */
+	private static byte typeOf( Object value ){
+		if( value instanceof String ){
+			return TYPE_STRING;
+		}
+		if( value instanceof Integer ){
+			return TYPE_INT;
+		}
+		if( value instanceof Long ){
+			return TYPE_LONG;
+		}
+		if( value instanceof Double ){
+			return TYPE_DOUBLE;
+		}
+		if( value instanceof Boolean ){
+			return TYPE_BOOLEAN;
+		}
+		if( value instanceof PlaceholderMap ){
+			return TYPE_MAP;
+		}
+		if( value instanceof Object[] ){
+			return TYPE_ARRAY;
+		}
+		if( value instanceof Path ){
+			return TYPE_PATH;
+		}
+		return TYPE_OBJECT;
+	}
+	
+	/**
+	 * All the values that are stored for one {@link Key}. The values are stored in the
+	 * order they were first put into the map. Primitive values are stored in 
+	 * {@link #primitives}, all other values in {@link #objects}. The values are found
+	 * by the hash code of their name using {@link #table}.
+	 * @author Benjamin Sigg
+	 */
+	private static class Values{
+		/** the names of the values */
+		private String[] names;
+		/** the type of each value */
+		private byte[] types;
+		/** the primitive values, <code>double</code>s are stored as bits, <code>boolean</code>s as 0 or 1 */
+		private long[] primitives;
+		/** all the values that are not primitive */
+		private Object[] objects;
+		/** the number of values stored in this object */
+		private int size;
+		/** open addressing hash table, each slot is either 0 or the index of a value plus 1, the length is a power of 2 */
+		private int[] table;
+		
+		/**
+		 * Creates a new, empty set of values.
+		 */
+		public Values(){
+			this( 4 );
+		}
+		
+		private Values( int capacity ){
+			names = new String[ capacity ];
+			types = new byte[ capacity ];
+			primitives = new long[ capacity ];
+			objects = new Object[ capacity ];
+			table = new int[ tableSize( capacity ) ];
+		}
+		
+		/**
+		 * Gets the size of {@link #table} for storing up to <code>capacity</code> values.
+		 * @param capacity the number of values
+		 * @return a power of 2 that is at least twice <code>capacity</code>
+		 */
+		private static int tableSize( int capacity ){
+			int result = 4;
+			while( result < capacity * 2 ){
+				result *= 2;
+			}
+			return result;
+		}
+		
+		private static int hash( String name ){
+			int hash = name.hashCode();
+			return hash ^ (hash >>> 16);
+		}
+		
+		/**
+		 * Searches the value with name <code>name</code>.
+		 * @param name the name of the value
+		 * @return the location of the value or -1
+		 */
+		public int indexOf( String name ){
+			int mask = table.length - 1;
+			int slot = hash( name ) & mask;
+			while( true ){
+				int index = table[ slot ] - 1;
+				if( index == -1 ){
+					return -1;
+				}
+				String other = names[ index ];
+				if( other == name || other.equals( name )){
+					return index;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+		
+		/**
+		 * Stores the index of the value with name <code>name</code> in {@link #table}.
+		 * @param name the name of the value, must not yet be in the table
+		 * @param index the location of the value
+		 */
+		private void insert( String name, int index ){
+			int mask = table.length - 1;
+			int slot = hash( name ) & mask;
+			while( table[ slot ] != 0 ){
+				slot = (slot + 1) & mask;
+			}
+			table[ slot ] = index + 1;
+		}
+		
+		/**
+		 * Rebuilds {@link #table} from {@link #names}.
+		 * @param length the new length of the table
+		 */
+		private void rehash( int length ){
+			table = new int[ length ];
+			for( int i = 0; i < size; i++ ){
+				insert( names[i], i );
+			}
+		}
+		
+		/**
+		 * Gets the value at <code>index</code>, primitive values are boxed.
+		 * @param index the location of the value
+		 * @return the value
+		 */
+		public Object get( int index ){
+			switch( types[ index ] ){
+				case TYPE_INT: return Integer.valueOf( (int)primitives[ index ] );
+				case TYPE_LONG: return Long.valueOf( primitives[ index ] );
+				case TYPE_DOUBLE: return Double.valueOf( Double.longBitsToDouble( primitives[ index ] ));
+				case TYPE_BOOLEAN: return Boolean.valueOf( primitives[ index ] != 0 );
+				default: return objects[ index ];
+			}
+		}
+		
+		/**
+		 * Stores <code>value</code>, primitive values are unboxed.
+		 * @param name the name of the value
+		 * @param value the new value, not <code>null</code>
+		 */
+		public void put( String name, Object value ){
+			byte type = typeOf( value );
+			switch( type ){
+				case TYPE_INT:
+					put( name, type, ((Integer)value).intValue(), null );
+					break;
+				case TYPE_LONG:
+					put( name, type, ((Long)value).longValue(), null );
+					break;
+				case TYPE_DOUBLE:
+					put( name, type, Double.doubleToLongBits( ((Double)value).doubleValue() ), null );
+					break;
+				case TYPE_BOOLEAN:
+					put( name, type, ((Boolean)value).booleanValue() ? 1 : 0, null );
+					break;
+				default:
+					put( name, type, 0, value );
+					break;
+			}
+		}
+		
+		/**
+		 * Stores a new value, replaces the old value with the same name if there is one.
+		 * @param name the name of the value
+		 * @param type the type of the value
+		 * @param primitive the value if it is a primitive
+		 * @param object the value if it is not a primitive
+		 */
+		public void put( String name, byte type, long primitive, Object object ){
+			int index = indexOf( name );
+			if( index == -1 ){
+				if( size == names.length ){
+					int capacity = Math.max( 4, size * 2 );
+					names = Arrays.copyOf( names, capacity );
+					types = Arrays.copyOf( types, capacity );
+					primitives = Arrays.copyOf( primitives, capacity );
+					objects = Arrays.copyOf( objects, capacity );
+					rehash( tableSize( capacity ) );
+				}
+				index = size++;
+				names[ index ] = name;
+				insert( name, index );
+			}
+			types[ index ] = type;
+			primitives[ index ] = primitive;
+			objects[ index ] = object;
+		}
+		
+		/**
+		 * Removes the value with name <code>name</code>.
+		 * @param name the name of the value
+		 * @return the value that was removed or <code>null</code>
+		 */
+		public Object remove( String name ){
+			int index = indexOf( name );
+			if( index == -1 ){
+				return null;
+			}
+			Object result = get( index );
+			int length = size - index - 1;
+			System.arraycopy( names, index+1, names, index, length );
+			System.arraycopy( types, index+1, types, index, length );
+			System.arraycopy( primitives, index+1, primitives, index, length );
+			System.arraycopy( objects, index+1, objects, index, length );
+			size--;
+			names[ size ] = null;
+			objects[ size ] = null;
+			rehash( table.length );
+			return result;
+		}
+		
+		/**
+		 * Creates a deep copy of this set of values. The names and the primitive
+		 * values are copied in bulk.
+		 * @param owner the map owning this set of values
+		 * @return the copy
+		 */
+		public Values copy( PlaceholderMap owner ){
+			Values copy = new Values( size );
+			System.arraycopy( names, 0, copy.names, 0, size );
+			System.arraycopy( types, 0, copy.types, 0, size );
+			System.arraycopy( primitives, 0, copy.primitives, 0, size );
+			if( copy.table.length == table.length ){
+				System.arraycopy( table, 0, copy.table, 0, table.length );
+			}
+			else{
+				copy.size = size;
+				copy.rehash( copy.table.length );
+			}
+			for( int i = 0; i < size; i++ ){
+				Object value = objects[i];
+				if( value != null ){
+					copy.objects[i] = owner.copy( value );
+				}
+			}
+			copy.size = size;
+			return copy;
+		}
+		
+		@Override
+		public String toString(){
+			StringBuilder builder = new StringBuilder();
+			builder.append( "{" );
+			for( int i = 0; i < size; i++ ){
+				if( i > 0 ){
+					builder.append( ", " );
+				}
+				builder.append( names[i] ).append( "=" ).append( get( i ) );
+			}
+			builder.append( "}" );
+			return builder.toString();
+		}
 	}
 	
 	/**
@@ -416,7 +416,8 @@ public class DockUtilities {
             if( !component.isShowing() ){
             	DockController controller = dockable.getController();
             	if( controller != null ){
-            		for( DockElementRepresentative item : controller.getRepresentatives( dockable )){
+            		for( int i = 0, n = controller.getRepresentativeCount( dockable ); i < n; i++ ){
+            			DockElementRepresentative item = controller.getRepresentative( dockable, i );
             			if( item.getComponent().isShowing() ){
             				component = item.getComponent();
             				break;
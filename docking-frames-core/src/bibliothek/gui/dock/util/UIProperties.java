@@ -25,13 +25,14 @@
  */
 package bibliothek.gui.dock.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,7 +41,9 @@ import bibliothek.util.Path;
 
 /**
  * A map containing some string-values pairs and so called
- * bridges to modify these values when reading them out. 
+ * bridges to modify these values when reading them out.<br>
+ * Many changes can be applied at once by calling {@link #beginTransaction()} and {@link #endTransaction()},
+ * in which case each affected {@link UIValue} is informed only once when the transaction ends.
  * @author Benjamin Sigg
  * @param <V> The kind of values this map contains
  * @param <U> The kind of observers used to read values from this map
@@ -66,11 +69,29 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
     private PriorityValue<UISchemeListener<V, U, B>> schemeListeners = new PriorityValue<UISchemeListener<V,U,B>>();
     
     /** a list of all observers */
-    private List<Observer> observers = new LinkedList<Observer>();
+    private Set<Observer> observers = new LinkedHashSet<Observer>();
+    
+    /** all observers grouped by the id of the resource they observe */
+    private Map<String, List<Observer>> observersById = new HashMap<String, List<Observer>>();
+    
+    /** all observers grouped by the kind of bridge they use */
+    private Map<Path, List<Observer>> observersByPath = new HashMap<Path, List<Observer>>();
+    
+    /** all observers grouped by the {@link UIValue} they wrap */
+    private Map<U, List<Observer>> observersByValue = new IdentityHashMap<U, List<Observer>>();
     
     /** whether to stall updates or not */
     private int updateLock = 0;
     
+    /** whether all observers need to be updated once {@link #updateLock} is released */
+    private boolean updateAll = false;
+    
+    /** the ids of the resources that changed while {@link #updateLock} was active */
+    private Set<String> changedResources = new HashSet<String>();
+    
+    /** the paths of the bridges that changed while {@link #updateLock} was active */
+    private Set<Path> changedBridges = new HashSet<Path>();
+    
     /** the owner of this properties map */
     private DockController controller;
     
@@ -96,20 +117,106 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
      */
     public void lockUpdate(){
         updateLock++;
+        updateAll = true;
     }
     
     /**
      * Tells this manager no longer to stall updates. This triggers a full
-     * update on all {@link UIValue}s.
+     * update on all {@link UIValue}s if {@link #lockUpdate()} was called since the
+     * lock was acquired, otherwise only the {@link UIValue}s whose resources or bridges
+     * changed are updated.
      */
     public void unlockUpdate(){
         updateLock--;
         if( updateLock == 0 ){
-            for( Observer observer : observers )
-                observer.resetAll();
+        	if( updateAll ){
+        		updateAll = false;
+        		changedResources.clear();
+        		changedBridges.clear();
+        		
+        		for( Observer observer : new ArrayList<Observer>( observers )){
+        			observer.resetAll();
+        		}
+        	}
+        	else{
+        		Set<Observer> affected = new LinkedHashSet<Observer>();
+        		for( String id : changedResources ){
+        			List<Observer> list = observersById.get( id );
+        			if( list != null ){
+        				affected.addAll( list );
+        			}
+        		}
+        		collectBridgeObservers( changedBridges, affected );
+        		changedResources.clear();
+        		changedBridges.clear();
+        		
+        		for( Observer observer : affected ){
+        			observer.resetAll();
+        		}
+        	}
         }
     }
     
+    /**
+     * Starts a transaction. Until {@link #endTransaction()} is called no {@link UIValue} is informed
+     * about changes. When the transaction ends, each {@link UIValue} whose resource or bridge changed is
+     * informed exactly once. Transactions can be nested, and they can be mixed with
+     * {@link #lockUpdate()}.
+     */
+    public void beginTransaction(){
+    	updateLock++;
+    }
+    
+    /**
+     * Ends a transaction that was started by {@link #beginTransaction()}, and informs all the
+     * affected {@link UIValue}s once the outermost transaction ends.
+     */
+    public void endTransaction(){
+    	unlockUpdate();
+    }
+    
+    /**
+     * Collects all observers whose bridge may be affected by a change of the bridges
+     * <code>paths</code>.
+     * @param paths the paths of some bridges
+     * @param result the set to which the observers are added
+     */
+    private void collectBridgeObservers( Set<Path> paths, Set<Observer> result ){
+    	if( paths.isEmpty() ){
+    		return;
+    	}
+    	for( Map.Entry<Path, List<Observer>> entry : observersByPath.entrySet() ){
+    		Path path = entry.getKey();
+    		while( path != null ){
+    			if( paths.contains( path )){
+    				result.addAll( entry.getValue() );
+    				break;
+    			}
+    			path = path.getParent();
+    		}
+    	}
+    }
+    
+    /**
+     * Calls {@link Observer#resetBridge()} on all observers whose bridge may be affected by a change
+     * of the bridge at <code>path</code>, or stores <code>path</code> if updates are currently locked.
+     * @param path the path of the changed bridge
+     */
+    private void bridgeChanged( Path path ){
+    	if( updateLock == 0 ){
+    		Set<Observer> affected = new LinkedHashSet<Observer>();
+    		Set<Path> paths = new HashSet<Path>();
+    		paths.add( path );
+    		collectBridgeObservers( paths, affected );
+    		for( Observer observer : affected ){
+    			observer.resetBridge();
+    		}
+    	}
+    	else{
+    		changedBridges.add( path );
+    	}
+    }
+    
     /**
      * Gets the {@link UIScheme} that is used to fill up missing values in
      * the level <code>priority</code>.
@@ -190,7 +297,7 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
     
     private void schemeUpdate( Priority priority, UISchemeEvent<V, U, B> event ){
     	try{
-    		lockUpdate();
+    		beginTransaction();
     		
     		// collect changes
     		Set<String> usedResources = getAllUsedResources();
@@ -207,6 +314,9 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
     		
     		UIScheme<V, U, B> scheme = schemes.get( priority );
     		
+    		this.changedResources.addAll( changedResources );
+    		this.changedBridges.addAll( changedBridges );
+    		
     		// resources
     		for( String name : changedResources ){
     			UIPriorityValue<V> value = resources.get( name );
@@ -272,24 +382,16 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
     		}
     	}
     	finally{
-    		unlockUpdate();
+    		endTransaction();
     	}
     }
     
     private Set<String> getAllUsedResources(){
-    	Set<String> result = new HashSet<String>();
-    	for( Observer observer : observers ){
-    		result.add( observer.id );
-    	}
-    	return result;
+    	return new HashSet<String>( observersById.keySet() );
     }
     
     private Set<Path> getAllUsedBridges(){
-    	Set<Path> result = new HashSet<Path>();
-    	for( Observer observer : observers ){
-    		result.add( observer.path );
-    	}
-    	return result;
+    	return new HashSet<Path>( observersByPath.keySet() );
     }
     
     /**
@@ -314,11 +416,7 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         }
         
         if( value.set( priority, bridge, null )){
-            if( updateLock == 0 ){
-                for( Observer check : observers ){
-                    check.resetBridge();
-                }
-            }
+        	bridgeChanged( path );
         }
     }
     
@@ -345,11 +443,9 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
                 bridges.remove( path );
             }
             
-            if( change && updateLock == 0 ){
-                for( Observer check : observers ){
-                    check.resetBridge();
-                }
-            }   
+            if( change ){
+            	bridgeChanged( path );
+            }
         }
     }
     
@@ -363,7 +459,7 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
      */
     public void unpublish( Priority priority, B bridge ){
         Iterator<Map.Entry<Path, UIPriorityValue<B>>> iterator = bridges.entrySet().iterator();
-        boolean change = false;
+        List<Path> changed = new ArrayList<Path>();
         
         UIScheme<V, U, B> scheme = schemes.get( priority );
         
@@ -378,7 +474,9 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
             			replacement = scheme.getBridge( entry.getKey(), this );
             		}
             		
-	                change = next.set( priority, replacement, scheme ) || change;
+	                if( next.set( priority, replacement, scheme )){
+	                	changed.add( entry.getKey() );
+	                }
 	                if( isRemoveable( entry.getKey(), next ) ){
 	                    iterator.remove();
 	                }
@@ -386,10 +484,16 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
             }
         }
         
-        if( change && updateLock == 0 ){
-            for( Observer check : observers ){
-                check.resetBridge();
-            }
+        if( !changed.isEmpty() ){
+        	try{
+        		beginTransaction();
+        		for( Path path : changed ){
+        			bridgeChanged( path );
+        		}
+        	}
+        	finally{
+        		endTransaction();
+        	}
         }
     }
     
@@ -480,23 +584,45 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         
         Observer combination = new Observer( id, path, value );
         observers.add( combination );
+        addTo( observersById, id, combination );
+        addTo( observersByPath, path, combination );
+        addTo( observersByValue, value, combination );
         combination.resetAll();
     }
     
+    private <K> void addTo( Map<K, List<Observer>> map, K key, Observer observer ){
+    	List<Observer> list = map.get( key );
+    	if( list == null ){
+    		list = new ArrayList<Observer>( 2 );
+    		map.put( key, list );
+    	}
+    	list.add( observer );
+    }
+    
+    private <K> void removeFrom( Map<K, List<Observer>> map, K key, Observer observer ){
+    	List<Observer> list = map.get( key );
+    	if( list != null ){
+    		list.remove( observer );
+    		if( list.isEmpty() ){
+    			map.remove( key );
+    		}
+    	}
+    }
+    
     /**
      * Uninstalls an observer of a resource
      * @param value the observer to remove
      */
     public void remove( U value ){
-        ListIterator<Observer> list = observers.listIterator();
-        while( list.hasNext() ){
-            Observer next = list.next();
-            if( next.getValue() == value ){
-                list.remove();
-                next.destroy();
-                return;
-            }
-        }
+    	List<Observer> list = observersByValue.get( value );
+    	if( list != null ){
+    		Observer next = list.get( 0 );
+    		observers.remove( next );
+    		removeFrom( observersById, next.id, next );
+    		removeFrom( observersByPath, next.path, next );
+    		removeFrom( observersByValue, value, next );
+    		next.destroy();
+    	}
     }
     
     /**
@@ -582,11 +708,15 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         	
 	        if( value.set( priority, resource, scheme ) ){
 	            if( updateLock == 0 ){
-	                for( Observer observer : observers ){
-	                    if( observer.id.equals( id )){
-	                        observer.update( resource );
-	                    }
-	                }
+	            	List<Observer> list = observersById.get( id );
+	            	if( list != null ){
+	            		for( Observer observer : list ){
+	            			observer.update( resource );
+	            		}
+	            	}
+	            }
+	            else{
+	            	changedResources.add( id );
 	            }
 	        }
 	        
@@ -675,10 +805,13 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         }
         
         if( updateLock == 0 ){
-            for( Observer observer : observers ){
+            for( Observer observer : new ArrayList<Observer>( observers ) ){
                 observer.resetAll();
             }
         }
+        else{
+        	updateAll = true;
+        }
     }
     
     /**
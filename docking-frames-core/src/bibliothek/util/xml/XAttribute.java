@@ -56,6 +56,9 @@ public class XAttribute extends XContainer{
         if( name == null )
             throw new IllegalArgumentException( "name must not be null" );
         
+        if( this.name != null && !this.name.equals( name )){
+        	renamed();
+        }
         this.name = name;
     }
     
@@ -25,6 +25,9 @@
  */
 package bibliothek.util.xml;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An element that can have some content. The content can be a {@link String},
  * byte-array or a primitive value type.
@@ -34,6 +37,9 @@ package bibliothek.util.xml;
 public class XContainer {
     /** the value of this container */
     private String value = "";
+    
+    /** the elements whose indices contain this container, <code>null</code> if there are none */
+    private List<XElement> indexOwners;
 
     /**
      * Creates an independent copy of this container.
@@ -53,6 +59,44 @@ public class XContainer {
     	this.value = original.value;
     }
     
+    /**
+     * Informs this container that <code>owner</code> found it by its name using an index.
+     * @param owner the element whose index contains this container
+     */
+    void addIndexOwner( XElement owner ){
+    	if( indexOwners == null ){
+    		indexOwners = new ArrayList<XElement>( 1 );
+    	}
+    	indexOwners.add( owner );
+    }
+    
+    /**
+     * Informs this container that the index of <code>owner</code> is no longer used.
+     * @param owner the element whose index was dropped
+     */
+    void removeIndexOwner( XElement owner ){
+    	if( indexOwners != null ){
+    		indexOwners.remove( owner );
+    		if( indexOwners.isEmpty() ){
+    			indexOwners = null;
+    		}
+    	}
+    }
+    
+    /**
+     * Called when the name of this container changed, drops the indices of all the
+     * elements that know this container by its old name.
+     */
+    void renamed(){
+    	if( indexOwners != null ){
+    		XElement[] owners = indexOwners.toArray( new XElement[ indexOwners.size() ] );
+    		indexOwners = null;
+    		for( XElement owner : owners ){
+    			owner.dropIndices();
+    		}
+    	}
+    }
+    
     /**
      * Sets the exact value that is stored in this container.
      * @param value the value that will not be encoded by this method
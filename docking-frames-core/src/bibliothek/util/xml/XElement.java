@@ -27,9 +27,11 @@ package bibliothek.util.xml;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A {@link XElement} is an entry in a xml-file. It has a name, can have children
@@ -37,11 +39,19 @@ import java.util.List;
  * @author Benjamin Sigg
  */
 public class XElement extends XContainer implements Iterable<XElement>{
+    /** the minimal number of attributes or children before they get indexed by their name */
+    private static final int INDEX_THRESHOLD = 8;
+    
     /** the attributes of this entry */
     private List<XAttribute> attributes = new ArrayList<XAttribute>();
     /** the children of this entry */
     private List<XElement> children = new ArrayList<XElement>();
     
+    /** the attributes ordered by their name, <code>null</code> if not yet built */
+    private Map<String, XAttribute> attributeIndex;
+    /** the children ordered by their name, <code>null</code> if not yet built */
+    private Map<String, List<XElement>> childIndex;
+    
     /** the name of this attribute */
     private String name;
 
@@ -68,15 +78,44 @@ public class XElement extends XContainer implements Iterable<XElement>{
     public void copy( XElement original ){
     	super.copy( original );
     	
+    	dropAttributeIndex();
     	attributes.clear();
     	for( XAttribute attr : original.attributes )
     		attributes.add( attr.copy() );
     	
+    	dropChildIndex();
     	children.clear();
     	for( XElement child : original.children )
     		children.add( child.copy() );
     }
     
+    /**
+     * Called when the name of an attribute or of a child of this element changed, the
+     * indices of this element are no longer valid.
+     */
+    void dropIndices(){
+    	dropAttributeIndex();
+    	dropChildIndex();
+    }
+    
+    private void dropAttributeIndex(){
+    	if( attributeIndex != null ){
+    		attributeIndex = null;
+    		for( XAttribute attribute : attributes ){
+    			attribute.removeIndexOwner( this );
+    		}
+    	}
+    }
+    
+    private void dropChildIndex(){
+    	if( childIndex != null ){
+    		childIndex = null;
+    		for( XElement child : children ){
+    			child.removeIndexOwner( this );
+    		}
+    	}
+    }
+    
     /**
      * Sets the name of this attribute.
      * @param name the new name
@@ -85,6 +124,9 @@ public class XElement extends XContainer implements Iterable<XElement>{
         if( name == null )
             throw new IllegalArgumentException( "name must not be null" );
         
+        if( this.name != null && !this.name.equals( name )){
+        	renamed();
+        }
         this.name = name;
     }
     
@@ -97,7 +139,19 @@ public class XElement extends XContainer implements Iterable<XElement>{
     }
     
     public Iterator<XElement> iterator() {
-        return children.iterator();
+    	final Iterator<XElement> iterator = children.iterator();
+        return new Iterator<XElement>(){
+        	public boolean hasNext(){
+        		return iterator.hasNext();
+        	}
+        	public XElement next(){
+        		return iterator.next();
+        	}
+        	public void remove(){
+        		dropChildIndex();
+        		iterator.remove();
+        	}
+        };
     }
     
     /**
@@ -130,6 +184,10 @@ public class XElement extends XContainer implements Iterable<XElement>{
         }
         
         attributes.add( attribute );
+        if( attributeIndex != null ){
+        	attributeIndex.put( attribute.getName(), attribute );
+        	attribute.addIndexOwner( this );
+        }
         return this;
     }
     
@@ -141,6 +199,7 @@ public class XElement extends XContainer implements Iterable<XElement>{
     public XAttribute removeAttribute( String name ){
     	for( int i = 0, n = attributes.size(); i<n; i++ ){
     		if( attributes.get( i ).getName().equals( name ) ){
+    			dropAttributeIndex();
     			return attributes.remove( i );
     		}
     	}
@@ -153,6 +212,7 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return <code>true</code> if <code>attribute</code> was removed
      */
     public boolean removeAttribute( XAttribute attribute ){
+    	dropAttributeIndex();
     	return attributes.remove( attribute );
     }
     
@@ -301,11 +361,22 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the attribute
      */
     public XAttribute getAttribute( String name ){
-        for( XAttribute check : attributes ){
-            if( check.getName().equals( name ))
-                return check;
-        }
-        return null;
+    	if( attributeIndex == null ){
+    		if( attributes.size() < INDEX_THRESHOLD ){
+    			for( XAttribute check : attributes ){
+    				if( check.getName().equals( name ))
+    					return check;
+    			}
+    			return null;
+    		}
+    		attributeIndex = new HashMap<String, XAttribute>( attributes.size() * 2 );
+    		for( int i = attributes.size()-1; i >= 0; i-- ){
+    			XAttribute attribute = attributes.get( i );
+    			attributeIndex.put( attribute.getName(), attribute );
+    			attribute.addIndexOwner( this );
+    		}
+    	}
+    	return attributeIndex.get( name );
     }
     
     /**
@@ -464,6 +535,7 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return <code>true</code> if <code>element</code> was removed, <code>false</code> otherwise
      */
     public boolean removeElement( XElement element ){
+    	dropChildIndex();
     	return children.remove( element );
     }
     
@@ -475,6 +547,15 @@ public class XElement extends XContainer implements Iterable<XElement>{
         if( element == null )
             throw new NullPointerException( "element must not be null" );
         children.add( element );
+        if( childIndex != null ){
+        	List<XElement> list = childIndex.get( element.getName() );
+        	if( list == null ){
+        		list = new ArrayList<XElement>( 2 );
+        		childIndex.put( element.getName(), list );
+        	}
+        	list.add( element );
+        	element.addIndexOwner( this );
+        }
     }
    
     /**
@@ -494,12 +575,47 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the element or <code>null</code>
      */
     public XElement getElement( String name ){
-        for( XElement element : children ){
-            if( element.getName().equals( name ))
-                return element;
-        }
-        
-        return null;
+    	List<XElement> list = getIndexedElements( name );
+    	if( list == null ){
+    		for( XElement element : children ){
+    			if( element.getName().equals( name ))
+    				return element;
+    		}
+    		return null;
+    	}
+    	if( list.isEmpty() ){
+    		return null;
+    	}
+    	return list.get( 0 );
+    }
+    
+    /**
+     * Gets all the children named <code>name</code> using an index that is built lazily. 
+     * @param name the name of the children
+     * @return the children, ordered by their occurrence, or <code>null</code> if this element
+     * has not enough children to make an index worthwhile
+     */
+    private List<XElement> getIndexedElements( String name ){
+    	if( childIndex == null ){
+    		if( children.size() < INDEX_THRESHOLD ){
+    			return null;
+    		}
+    		childIndex = new HashMap<String, List<XElement>>();
+    		for( XElement child : children ){
+    			child.addIndexOwner( this );
+    			List<XElement> list = childIndex.get( child.getName() );
+    			if( list == null ){
+    				list = new ArrayList<XElement>( 2 );
+    				childIndex.put( child.getName(), list );
+    			}
+    			list.add( child );
+    		}
+    	}
+    	List<XElement> list = childIndex.get( name );
+    	if( list == null ){
+    		return Collections.emptyList();
+    	}
+    	return list;
     }
     
     /**
@@ -525,7 +641,12 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the array of children, might be empty
      */
     public XElement[] getElements( String name ){
-        List<XElement> elements = new LinkedList<XElement>();
+    	List<XElement> indexed = getIndexedElements( name );
+    	if( indexed != null ){
+    		return indexed.toArray( new XElement[ indexed.size() ] );
+    	}
+    	
+        List<XElement> elements = new ArrayList<XElement>();
         for( XElement element : children ){
             if( element.getName().equals( name ))
                 elements.add( element );
@@ -539,7 +660,7 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the array of children, ordered by their occurence within this element, might be empty
      */
     public XElement[] getElements( String... names ){
-    	List<XElement> elements = new LinkedList<XElement>();
+    	List<XElement> elements = new ArrayList<XElement>();
         for( XElement element : children ){
         	for( String name : names ){
         		if( element.getName().equals( name )){
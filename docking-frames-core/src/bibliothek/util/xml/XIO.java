@@ -40,7 +40,9 @@ import org.xml.sax.helpers.DefaultHandler;
 /**
  * Class used to read and write xml-files. Clients should use
  * {@link #writeUTF(XElement, OutputStream)} and {@link #readUTF(InputStream)} to
- * guarantee maximal independence from the underlying file system.
+ * guarantee maximal independence from the underlying file system.<br>
+ * The methods of this class always build a tree of {@link XElement}s, clients that
+ * need to handle large files can use {@link XReader} and {@link XWriter} instead.
  * @author Benjamin Sigg
  */
 public class XIO {
@@ -122,7 +124,7 @@ public class XIO {
      * @param out the stream to write into
      * @throws IOException if an I/O-error occurs
      */
-    private static void write( XElement element, int tabs, Appendable out ) throws IOException{
+    static void write( XElement element, int tabs, Appendable out ) throws IOException{
         for( int i = 0; i < tabs; i++ )
             out.append( "\t" );
         
@@ -174,7 +176,7 @@ public class XIO {
      * @param value the value to encode
      * @param out the stream to write into
      */
-    private static void encode( String value, Appendable out ) throws IOException{
+    static void encode( String value, Appendable out ) throws IOException{
         for( int i = 0, n = value.length(); i<n; i++ ){
             char c = value.charAt( i );
             switch( c ){
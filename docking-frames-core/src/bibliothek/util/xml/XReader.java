@@ -0,0 +1,353 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.util.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A {@link XReader} reads a xml-file element by element, without building a tree of 
+ * {@link XElement}s. The reader is a cursor that is always positioned at the beginning
+ * or the end of an element. A typical usage looks like this:
+ * <pre>XReader reader = new XReader( in, "UTF-8" );
+ * reader.nextElement(); // the root element
+ * while( reader.nextElement() ){
+ *     if( reader.getName().equals( "small" )){
+ *         XElement element = reader.readElement();
+ *     }
+ *     else{
+ *         reader.skipElement();
+ *     }
+ * }</pre>
+ * Every element that was opened by {@link #nextElement()} must be closed again, either by
+ * calling {@link #nextElement()} until it returns <code>false</code>, or by calling one of 
+ * {@link #readElement()}, {@link #readValue()} or {@link #skipElement()}.
+ * @author Benjamin Sigg
+ */
+public class XReader {
+	/** the source of all events */
+	private XMLStreamReader reader;
+	
+	/** the number of elements that are currently open */
+	private int depth = 0;
+	
+	/**
+	 * Creates a new reader.
+	 * @param in the stream to read from
+	 * @param encoding the encoding used to decode characters
+	 * @throws IOException if the stream cannot be read
+	 */
+	public XReader( InputStream in, String encoding ) throws IOException{
+		this( new InputStreamReader( in, encoding ) );
+	}
+	
+	/**
+	 * Creates a new reader.
+	 * @param in the source of all characters
+	 * @throws IOException if the source cannot be read
+	 */
+	public XReader( Reader in ) throws IOException{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+		factory.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE );
+		try{
+			reader = factory.createXMLStreamReader( in );
+		}
+		catch( XMLStreamException e ){
+			throw toIOException( e );
+		}
+	}
+	
+	/**
+	 * Moves the cursor to the next element that starts within the current element. If the
+	 * current element ends before such an element is found, then the current element gets closed.
+	 * @return <code>true</code> if the cursor is now at the beginning of a new element, <code>false</code>
+	 * if the current element (or the document) ended
+	 * @throws IOException if the file cannot be read
+	 */
+	public boolean nextElement() throws IOException{
+		try{
+			while( reader.hasNext() ){
+				switch( reader.next() ){
+					case XMLStreamConstants.START_ELEMENT:
+						depth++;
+						return true;
+					case XMLStreamConstants.END_ELEMENT:
+						depth--;
+						return false;
+				}
+			}
+			return false;
+		}
+		catch( XMLStreamException e ){
+			throw toIOException( e );
+		}
+	}
+	
+	/**
+	 * Gets the number of elements that are currently open.
+	 * @return the depth of the cursor
+	 */
+	public int getDepth(){
+		return depth;
+	}
+	
+	/**
+	 * Gets the name of the element at whose beginning the cursor currently is.
+	 * @return the name of the element
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public String getName(){
+		checkStart();
+		return reader.getLocalName();
+	}
+	
+	/**
+	 * Searches an attribute of the element at whose beginning the cursor currently is.
+	 * @param name the name of the attribute
+	 * @return the attribute or <code>null</code> if not found
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public XAttribute getAttribute( String name ){
+		checkStart();
+		for( int i = 0, n = reader.getAttributeCount(); i<n; i++ ){
+			if( reader.getAttributeLocalName( i ).equals( name )){
+				XAttribute attribute = new XAttribute( name );
+				attribute.setString( reader.getAttributeValue( i ) );
+				return attribute;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Gets the value of an attribute of the element at whose beginning the cursor currently is.
+	 * @param name the name of the attribute
+	 * @return the value of the attribute
+	 * @throws XException if the attribute does not exist
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public String getString( String name ){
+		XAttribute attribute = getAttribute( name );
+		if( attribute == null )
+			throw new XException( "no attribute known with name: " + name );
+		return attribute.getString();
+	}
+	
+	/**
+	 * Gets the value of an attribute of the element at whose beginning the cursor currently is.
+	 * @param name the name of the attribute
+	 * @return the value of the attribute
+	 * @throws XException if the attribute does not exist or is not a boolean
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public boolean getBoolean( String name ){
+		XAttribute attribute = getAttribute( name );
+		if( attribute == null )
+			throw new XException( "no attribute known with name: " + name );
+		return attribute.getBoolean();
+	}
+	
+	/**
+	 * Reads the element at whose beginning the cursor currently is, including all its
+	 * children, into a new {@link XElement}. Afterwards the element is closed.
+	 * @return the element
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public XElement readElement() throws IOException{
+		checkStart();
+		try{
+			List<XElement> elements = new ArrayList<XElement>();
+			List<StringBuilder> values = new ArrayList<StringBuilder>();
+			XElement result = startElement();
+			elements.add( result );
+			values.add( new StringBuilder() );
+			
+			while( true ){
+				switch( reader.next() ){
+					case XMLStreamConstants.START_ELEMENT:
+						XElement child = startElement();
+						elements.get( elements.size()-1 ).addElement( child );
+						elements.add( child );
+						values.add( new StringBuilder() );
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						values.get( values.size()-1 ).append( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						XElement element = elements.remove( elements.size()-1 );
+						element.setValue( values.remove( values.size()-1 ).toString() );
+						element.setValue( element.getString().trim() );
+						if( elements.isEmpty() ){
+							depth--;
+							return result;
+						}
+						break;
+					case XMLStreamConstants.END_DOCUMENT:
+						throw new IOException( "unexpected end of document" );
+				}
+			}
+		}
+		catch( XMLStreamException e ){
+			throw toIOException( e );
+		}
+	}
+	
+	/**
+	 * Reads the value of the element at whose beginning the cursor currently is, the
+	 * children of the element are skipped. Afterwards the element is closed.
+	 * @return the value, like {@link XContainer#getValue()} would return it
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public String readValue() throws IOException{
+		checkStart();
+		try{
+			StringBuilder value = new StringBuilder();
+			int level = 0;
+			while( true ){
+				switch( reader.next() ){
+					case XMLStreamConstants.START_ELEMENT:
+						level++;
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						if( level == 0 ){
+							value.append( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+						}
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						if( level == 0 ){
+							depth--;
+							XElement element = new XElement( "value" );
+							element.setValue( value.toString() );
+							return element.getString().trim();
+						}
+						level--;
+						break;
+					case XMLStreamConstants.END_DOCUMENT:
+						throw new IOException( "unexpected end of document" );
+				}
+			}
+		}
+		catch( XMLStreamException e ){
+			throw toIOException( e );
+		}
+	}
+	
+	/**
+	 * Skips the element at whose beginning the cursor currently is, including all its children.
+	 * Afterwards the element is closed.
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalStateException if the cursor is not at the beginning of an element
+	 */
+	public void skipElement() throws IOException{
+		checkStart();
+		try{
+			int level = 0;
+			while( true ){
+				switch( reader.next() ){
+					case XMLStreamConstants.START_ELEMENT:
+						level++;
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						if( level == 0 ){
+							depth--;
+							return;
+						}
+						level--;
+						break;
+					case XMLStreamConstants.END_DOCUMENT:
+						throw new IOException( "unexpected end of document" );
+				}
+			}
+		}
+		catch( XMLStreamException e ){
+			throw toIOException( e );
+		}
+	}
+	
+	/**
+	 * Releases all resources of this reader, the underlying stream is not closed.
+	 * @throws IOException if the resources cannot be released
+	 */
+	public void close() throws IOException{
+		try{
+			reader.close();
+		}
+		catch( XMLStreamException e ){
+			throw toIOException( e );
+		}
+	}
+	
+	/**
+	 * Creates a new {@link XElement} with the name and attributes of the current element.
+	 * @return the new element
+	 */
+	private XElement startElement(){
+		XElement element = new XElement( reader.getLocalName() );
+		for( int i = 0, n = reader.getAttributeCount(); i<n; i++ ){
+			XAttribute attribute = new XAttribute( reader.getAttributeLocalName( i ) );
+			attribute.setString( reader.getAttributeValue( i ) );
+			element.addAttribute( attribute );
+		}
+		return element;
+	}
+	
+	/**
+	 * Ensures that the cursor is at the beginning of an element.
+	 * @throws IllegalStateException if not at the beginning of an element
+	 */
+	private void checkStart(){
+		if( reader.getEventType() != XMLStreamConstants.START_ELEMENT ){
+			throw new IllegalStateException( "the cursor is not at the beginning of an element" );
+		}
+	}
+	
+	/**
+	 * Wraps <code>e</code> into an {@link IOException}, keeping <code>e</code> as cause.
+	 * @param e the exception thrown by the parser
+	 * @return the new exception
+	 */
+	private static IOException toIOException( XMLStreamException e ){
+		IOException exception = new IOException( e.getMessage() );
+		exception.initCause( e );
+		return exception;
+	}
+}
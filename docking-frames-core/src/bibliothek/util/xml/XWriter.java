@@ -0,0 +1,326 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.util.xml;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link XWriter} writes a xml-file element by element, without building a tree
+ * of {@link XElement}s first. The output has the same format as the output of
+ * {@link XIO#write(XElement, Appendable)}, and can be read by {@link XIO} or by a {@link XReader}.<br>
+ * A typical usage looks like this:
+ * <pre>XWriter writer = new XWriter( out, "UTF-8" );
+ * writer.startElement( "root" );
+ * writer.addString( "name", "value" );
+ * writer.element( someElement );
+ * writer.endElement();
+ * writer.flush();</pre>
+ * Attributes can only be added as long as the element has no value and no children. The
+ * value of an element must be set before its first child is started.
+ * @author Benjamin Sigg
+ */
+public class XWriter implements Flushable{
+	/** where to write the text */
+	private Appendable out;
+	
+	/** all the elements that are currently open */
+	private List<Frame> stack = new ArrayList<Frame>();
+	
+	/** whether the header of the file was already written */
+	private boolean started = false;
+	
+	/**
+	 * Creates a new writer.
+	 * @param out the destination of all the text
+	 */
+	public XWriter( Appendable out ){
+		if( out == null ){
+			throw new IllegalArgumentException( "out must not be null" );
+		}
+		this.out = out;
+	}
+	
+	/**
+	 * Creates a new writer which writes into <code>out</code> using the encoding
+	 * <code>encoding</code>. Closing <code>out</code> remains the responsibility of the caller,
+	 * but {@link #flush()} has to be called before <code>out</code> can be used again.
+	 * @param out the stream to write into
+	 * @param encoding the encoding of the characters, e.g. "UTF-8"
+	 * @throws IOException if <code>encoding</code> is not supported
+	 */
+	public XWriter( OutputStream out, String encoding ) throws IOException{
+		this( new OutputStreamWriter( out, encoding ) );
+	}
+	
+	/**
+	 * Opens a new element. If there is already an open element, then the new element
+	 * will be a child of that element.
+	 * @param name the name of the new element
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 */
+	public XWriter startElement( String name ) throws IOException{
+		if( name == null ){
+			throw new IllegalArgumentException( "name must not be null" );
+		}
+		int tabs = beginChild();
+		for( int i = 0; i < tabs; i++ ){
+			out.append( "\t" );
+		}
+		out.append( "<" );
+		out.append( name );
+		stack.add( new Frame( name, tabs ) );
+		return this;
+	}
+	
+	/**
+	 * Adds an attribute to the current element.
+	 * @param attribute the new attribute
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 * @throws IllegalStateException if the current element already has a value or children
+	 */
+	public XWriter addAttribute( XAttribute attribute ) throws IOException{
+		return addString( attribute.getName(), attribute.getString() );
+	}
+	
+	/**
+	 * Adds an attribute to the current element.
+	 * @param name the name of the attribute
+	 * @param value the value of the attribute
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 * @throws IllegalStateException if the current element already has a value or children
+	 */
+	public XWriter addString( String name, String value ) throws IOException{
+		if( name == null ){
+			throw new IllegalArgumentException( "name must not be null" );
+		}
+		if( value == null ){
+			throw new IllegalArgumentException( "value must not be null" );
+		}
+		Frame frame = current();
+		if( frame.value != null || frame.children ){
+			throw new IllegalStateException( "attributes must be added before the value or the children of an element" );
+		}
+		out.append( " " );
+		out.append( name );
+		out.append( "=\"" );
+		XIO.encode( value, out );
+		out.append( "\"" );
+		return this;
+	}
+	
+	/**
+	 * Adds an attribute to the current element.
+	 * @param name the name of the attribute
+	 * @param value the value of the attribute
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 * @throws IllegalStateException if the current element already has a value or children
+	 */
+	public XWriter addBoolean( String name, boolean value ) throws IOException{
+		return addString( name, String.valueOf( value ) );
+	}
+	
+	/**
+	 * Adds an attribute to the current element.
+	 * @param name the name of the attribute
+	 * @param value the value of the attribute
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 * @throws IllegalStateException if the current element already has a value or children
+	 */
+	public XWriter addInt( String name, int value ) throws IOException{
+		return addString( name, String.valueOf( value ) );
+	}
+	
+	/**
+	 * Sets the exact value of the current element, the value is not encoded like
+	 * {@link XElement#setString(String)} would do.
+	 * @param value the new value
+	 * @return <code>this</code>
+	 * @throws IllegalStateException if the current element already has children
+	 * @see XContainer#setValue(String)
+	 */
+	public XWriter setValue( String value ){
+		if( value == null ){
+			throw new IllegalArgumentException( "value must not be null" );
+		}
+		Frame frame = current();
+		if( frame.children ){
+			throw new IllegalStateException( "the value must be set before the first child is added" );
+		}
+		frame.value = value;
+		return this;
+	}
+	
+	/**
+	 * Writes <code>element</code> and all its children as child of the current element.
+	 * @param element the element to write
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 */
+	public XWriter element( XElement element ) throws IOException{
+		if( element == null ){
+			throw new IllegalArgumentException( "element must not be null" );
+		}
+		int tabs = beginChild();
+		XIO.write( element, tabs, out );
+		if( !stack.isEmpty() ){
+			out.append( "\n" );
+		}
+		return this;
+	}
+	
+	/**
+	 * Closes the current element.
+	 * @return <code>this</code>
+	 * @throws IOException if an I/O-error occurs
+	 * @throws IllegalStateException if there is no open element
+	 */
+	public XWriter endElement() throws IOException{
+		Frame frame = current();
+		stack.remove( stack.size()-1 );
+		
+		if( frame.children ){
+			for( int i = 0; i < frame.tabs; i++ ){
+				out.append( "\t" );
+			}
+			out.append( "</" );
+			out.append( frame.name );
+			out.append( ">" );
+		}
+		else if( frame.value == null || frame.value.length() == 0 ){
+			out.append( "/>" );
+		}
+		else{
+			out.append( ">" );
+			XIO.encode( frame.value, out );
+			out.append( "</" );
+			out.append( frame.name );
+			out.append( ">" );
+		}
+		
+		if( !stack.isEmpty() ){
+			out.append( "\n" );
+		}
+		return this;
+	}
+	
+	/**
+	 * Gets the number of elements that are currently open.
+	 * @return the depth of the current element
+	 */
+	public int getDepth(){
+		return stack.size();
+	}
+	
+	/**
+	 * Closes all the elements that are still open and flushes the underlying stream.
+	 * @throws IOException if an I/O-error occurs
+	 */
+	public void finish() throws IOException{
+		while( !stack.isEmpty() ){
+			endElement();
+		}
+		flush();
+	}
+	
+	public void flush() throws IOException{
+		if( out instanceof Flushable ){
+			((Flushable)out).flush();
+		}
+	}
+	
+	/**
+	 * Gets the element that is currently open.
+	 * @return the current element
+	 * @throws IllegalStateException if there is no open element
+	 */
+	private Frame current(){
+		if( stack.isEmpty() ){
+			throw new IllegalStateException( "no element is open" );
+		}
+		return stack.get( stack.size()-1 );
+	}
+	
+	/**
+	 * Prepares the current element such that a child can be written.
+	 * @return the number of tabs the child needs
+	 * @throws IOException if an I/O-error occurs
+	 */
+	private int beginChild() throws IOException{
+		if( stack.isEmpty() ){
+			if( started ){
+				throw new IllegalStateException( "there can be only one root element" );
+			}
+			started = true;
+			out.append( "<?xml version='1.0'?>\n" );
+			return 0;
+		}
+		
+		Frame parent = stack.get( stack.size()-1 );
+		if( !parent.children ){
+			parent.children = true;
+			out.append( ">" );
+			if( parent.value != null && parent.value.length() > 0 ){
+				out.append( "\n\t" );
+				for( int i = 0; i < parent.tabs; i++ ){
+					out.append( "\t" );
+				}
+				XIO.encode( parent.value, out );
+			}
+			out.append( "\n" );
+		}
+		return parent.tabs + 1;
+	}
+	
+	/**
+	 * Describes an element that is currently open.
+	 * @author Benjamin Sigg
+	 */
+	private static class Frame{
+		/** the name of the element */
+		public final String name;
+		/** the indentation of the element */
+		public final int tabs;
+		/** the value of the element, <code>null</code> if not yet set */
+		public String value;
+		/** whether at least one child was written */
+		public boolean children = false;
+		
+		public Frame( String name, int tabs ){
+			this.name = name;
+			this.tabs = tabs;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.extension.css;
+
+import java.util.Collection;
+
+/**
+ * A {@link CssNode} that can list all its classes. Knowing the classes allows to look up the
+ * {@link CssRule}s of each class directly, instead of asking the node for every class that
+ * is used by some rule.
+ * @author Benjamin Sigg
+ */
+public interface ClassListCssNode extends CssNode {
+	/**
+	 * Gets all the classes of this node, these are exactly the classes for which 
+	 * {@link #hasClass(String)} returns <code>true</code>.
+	 * @return the classes, may be empty but not <code>null</code>
+	 */
+	public Collection<String> getClasses();
+}
@@ -32,8 +32,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import bibliothek.gui.dock.extension.css.path.CssPathListener;
 import bibliothek.gui.dock.extension.css.property.BooleanType;
@@ -47,6 +49,7 @@ import bibliothek.gui.dock.extension.css.property.paint.CssPaint;
 import bibliothek.gui.dock.extension.css.property.paint.CssPaintType;
 import bibliothek.gui.dock.extension.css.property.shape.CssShape;
 import bibliothek.gui.dock.extension.css.property.shape.CssShapeType;
+import bibliothek.gui.dock.extension.css.scheme.CssRuleIndex;
 import bibliothek.gui.dock.extension.css.scheme.MatchedCssRule;
 import bibliothek.gui.dock.extension.css.transition.CssTransition;
 import bibliothek.gui.dock.extension.css.transition.DefaultAnimatedCssRuleChain;
@@ -73,6 +76,15 @@ public class CssScheme {
 	private boolean rulesAreSorted = false;
 	private boolean rematchPending = false;
 	
+	/** the {@link #rules} grouped by their selectors, rebuilt whenever the rules are sorted */
+	private CssRuleIndex index;
+	
+	/** the rules that were added, removed or modified since the last call to {@link #match()}, guarded by {@link #RULES_LOCK} */
+	private Set<CssRule> changedRules = new HashSet<CssRule>();
+	
+	/** whether the next scheduled match has to check all the items regardless of {@link #changedRules} */
+	private boolean rematchAll = false;
+	
 	private CssTree tree;
 	private CssScheduler scheduler = new DefaultCssScheduler();
 	
@@ -80,7 +92,7 @@ public class CssScheme {
 		@Override
 		public void selectorChanged( CssRule source ){
 			rulesAreSorted = false;
-			rematch();
+			rematch( source );
 		}
 	};
 	
@@ -187,16 +199,23 @@ public class CssScheme {
 	 * @return the properties of the rule, <code>null</code> if nothing was found
 	 */
 	public CssRuleContent search( CssItem item ){
+		return union( searchRules( item.getPath() ) );
+	}
+	
+	/**
+	 * Searches all the {@link CssRule}s whose {@link CssSelector} matches <code>path</code>. Only the
+	 * rules which are {@link CssRuleIndex#getCandidates(CssPath) candidates} for <code>path</code> are checked.
+	 * @param path the path of some item
+	 * @return the matching rules, ordered by their specificity
+	 */
+	private List<CssRule> searchRules( CssPath path ){
 		synchronized( RULES_LOCK ){
 			ensureRulesSorted();
-			CssRuleContentUnion result = null;
+			List<CssRule> result = new ArrayList<CssRule>();
 			
-			for( CssRule rule : rules ){
-				if( rule.getSelector().matches( item.getPath() )){
-					if( result == null ){
-						result = new CssRuleContentUnion();
-					}
-					result.add( rule.getContent() );
+			for( CssRule rule : index.getCandidates( path ) ){
+				if( rule.getSelector().matches( path )){
+					result.add( rule );
 				}
 			}
 			return result;
@@ -204,8 +223,24 @@ public class CssScheme {
 	}
 	
 	/**
-	 * Adds <code>rule</code> to this scheme. This method calls {@link #rematch()}, meaning the changes
-	 * will be propagated to the {@link CssItem}s later.
+	 * Collects the properties of <code>rules</code>.
+	 * @param rules some rules, ordered by their specificity
+	 * @return the union of all the properties, <code>null</code> if <code>rules</code> is empty
+	 */
+	private CssRuleContent union( List<CssRule> rules ){
+		if( rules.isEmpty() ){
+			return null;
+		}
+		CssRuleContentUnion result = new CssRuleContentUnion();
+		for( CssRule rule : rules ){
+			result.add( rule.getContent() );
+		}
+		return result;
+	}
+	
+	/**
+	 * Adds <code>rule</code> to this scheme. The {@link CssItem}s that are matched by <code>rule</code>
+	 * are updated later in the EDT.
 	 * @param rule the rule to add, not <code>null</code>
 	 */
 	public void addRule( CssRule rule ){
@@ -217,12 +252,12 @@ public class CssScheme {
 		}
 		rulesAreSorted = false;
 		rule.addRuleListener( selectorChangedListener );
-		rematch();
+		rematch( rule );
 	}
 	
 	/**
-	 * Removes <code>rule</code> from this scheme. This method calls {@link #rematch()}, meaning the changes
-	 * will be propagated to the {@link CssItem}s later.
+	 * Removes <code>rule</code> from this scheme. The {@link CssItem}s that were matched by <code>rule</code>
+	 * are updated later in the EDT.
 	 * @param rule the rule to remove
 	 */
 	public void removeRule( CssRule rule ){
@@ -231,7 +266,7 @@ public class CssScheme {
 		}
 		rule.removeRuleListener( selectorChangedListener );
 		rulesAreSorted = false;
-		rematch();
+		rematch( rule );
 	}
 	
 	/**
@@ -267,14 +302,37 @@ public class CssScheme {
 	 * Schedules a call to {@link #match()}, the call will be executed later in the EDT.
 	 */
 	public void rematch(){
-		if( !rematchPending ){
-			EventQueue.invokeLater( new Runnable(){
-				@Override
-				public void run(){
-					match();
-				}
-			} );
+		synchronized( RULES_LOCK ){
+			rematchAll = true;
+		}
+		scheduleMatch();
+	}
+	
+	/**
+	 * Schedules a check of all the {@link CssItem}s which either were matched by <code>rule</code>, or
+	 * which are matched by <code>rule</code> now. The check will be executed later in the EDT.
+	 * @param rule the rule that was added, removed or changed
+	 */
+	private void rematch( CssRule rule ){
+		synchronized( RULES_LOCK ){
+			changedRules.add( rule );
+		}
+		scheduleMatch();
+	}
+	
+	private void scheduleMatch(){
+		synchronized( RULES_LOCK ){
+			if( rematchPending ){
+				return;
+			}
+			rematchPending = true;
 		}
+		EventQueue.invokeLater( new Runnable(){
+			@Override
+			public void run(){
+				matchChanged();
+			}
+		} );
 	}
 	
 	/**
@@ -282,7 +340,11 @@ public class CssScheme {
 	 * {@link CssRule}.
 	 */
 	public void match(){
-		rematchPending = false;
+		synchronized( RULES_LOCK ){
+			rematchPending = false;
+			rematchAll = false;
+			changedRules.clear();
+		}
 		ensureRulesSorted();
 		
 		for( Match match : items.values() ){
@@ -290,6 +352,37 @@ public class CssScheme {
 		}
 	}
 	
+	/**
+	 * Goes through all currently registered {@link CssItem}s and searches new {@link CssRule}s for
+	 * the items which are affected by one of the {@link #changedRules}.
+	 */
+	private void matchChanged(){
+		Set<CssRule> changed = null;
+		synchronized( RULES_LOCK ){
+			if( !rematchAll ){
+				rematchPending = false;
+				if( changedRules.isEmpty() ){
+					return;
+				}
+				changed = changedRules;
+				changedRules = new HashSet<CssRule>();
+			}
+		}
+		
+		if( changed == null ){
+			match();
+			return;
+		}
+		
+		ensureRulesSorted();
+		
+		for( Match match : items.values() ){
+			if( match.isAffected( changed )){
+				match.searchRule();
+			}
+		}
+	}
+	
 	private void ensureRulesSorted(){
 		if( !rulesAreSorted ){
 			synchronized( RULES_LOCK ){
@@ -298,6 +391,7 @@ public class CssScheme {
 						return a.getSelector().getSpecificity().compareTo( b.getSelector().getSpecificity() );
 					}
 				} );
+				index = new CssRuleIndex( rules );
 			}
 			rulesAreSorted = true;
 		}
@@ -366,6 +460,9 @@ public class CssScheme {
 		
 		private MatchedCssRule currentMatch;
 		
+		/** the rules that were found by the last call to {@link #searchRule()} */
+		private List<CssRule> matchedRules = Collections.emptyList();
+		
 		/**
 		 * Creates a new match
 		 * @param item the item to which to write properties
@@ -385,7 +482,27 @@ public class CssScheme {
 		}
 		
 		private void searchRule(){
-			setRule( search( item ) );
+			matchedRules = searchRules( item.getPath() );
+			setRule( union( matchedRules ) );
+		}
+		
+		/**
+		 * Tells whether the rules of this item have to be searched again because one of 
+		 * <code>changed</code> either was used for this item, or might be used now.
+		 * @param changed the rules that were added, removed or modified
+		 * @return whether this match needs to be updated
+		 */
+		private boolean isAffected( Set<CssRule> changed ){
+			CssPath path = item.getPath();
+			for( CssRule rule : changed ){
+				if( matchedRules.contains( rule )){
+					return true;
+				}
+				if( CssRuleIndex.isCandidate( rule, path ) && rule.getSelector().matches( path )){
+					return true;
+				}
+			}
+			return false;
 		}
 		
 		private void animate( CssPropertyKey transitionKey, CssTransition<?> transition ){
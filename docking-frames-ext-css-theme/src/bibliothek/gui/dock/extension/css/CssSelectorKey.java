@@ -0,0 +1,149 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.extension.css;
+
+/**
+ * A {@link CssSelectorKey} describes a condition that at least one {@link CssNode} of a
+ * {@link CssPath} must fulfill in order for a {@link CssSelector} to match the path. The
+ * {@link CssScheme} uses these keys to group its {@link CssRule}s, and to check only those
+ * rules whose key is present in the path of a {@link CssItem}.
+ * @author Benjamin Sigg
+ */
+public final class CssSelectorKey {
+	/**
+	 * The kind of property of a {@link CssNode} that is described by a {@link CssSelectorKey}.
+	 * @author Benjamin Sigg
+	 */
+	public static enum Type{
+		/** the key describes the {@link CssNode#getName() name} of a node */
+		NAME,
+		/** the key describes the {@link CssNode#getIdentifier() identifier} of a node */
+		IDENTIFIER,
+		/** the key describes a {@link CssNode#hasClass(String) class} of a node */
+		CLASS
+	}
+	
+	/**
+	 * Creates a new key which requires a node with name <code>name</code>.
+	 * @param name the name of the node, not <code>null</code>
+	 * @return the new key
+	 */
+	public static CssSelectorKey name( String name ){
+		return new CssSelectorKey( Type.NAME, name );
+	}
+	
+	/**
+	 * Creates a new key which requires a node with identifier <code>identifier</code>.
+	 * @param identifier the identifier of the node, not <code>null</code>
+	 * @return the new key
+	 */
+	public static CssSelectorKey identifier( String identifier ){
+		return new CssSelectorKey( Type.IDENTIFIER, identifier );
+	}
+	
+	/**
+	 * Creates a new key which requires a node with class <code>className</code>.
+	 * @param className the class of the node, not <code>null</code>
+	 * @return the new key
+	 */
+	public static CssSelectorKey clazz( String className ){
+		return new CssSelectorKey( Type.CLASS, className );
+	}
+	
+	private final Type type;
+	private final String value;
+	
+	private CssSelectorKey( Type type, String value ){
+		if( value == null ){
+			throw new IllegalArgumentException( "value must not be null" );
+		}
+		this.type = type;
+		this.value = value;
+	}
+	
+	/**
+	 * Gets the kind of property this key describes.
+	 * @return the kind of property, not <code>null</code>
+	 */
+	public Type getType(){
+		return type;
+	}
+	
+	/**
+	 * Gets the value the property must have.
+	 * @return the value, not <code>null</code>
+	 */
+	public String getValue(){
+		return value;
+	}
+	
+	/**
+	 * Tells whether <code>node</code> fulfills the condition of this key.
+	 * @param node the node to check
+	 * @return whether <code>node</code> has the property described by this key
+	 */
+	public boolean matches( CssNode node ){
+		switch( type ){
+			case NAME:
+				return value.equals( node.getName() );
+			case IDENTIFIER:
+				return value.equals( node.getIdentifier() );
+			case CLASS:
+				return node.hasClass( value );
+			default:
+				throw new IllegalStateException( "unknown type: " + type );
+		}
+	}
+	
+	@Override
+	public int hashCode(){
+		return type.hashCode() * 31 + value.hashCode();
+	}
+	
+	@Override
+	public boolean equals( Object obj ){
+		if( this == obj ){
+			return true;
+		}
+		if( obj == null || obj.getClass() != getClass() ){
+			return false;
+		}
+		CssSelectorKey other = (CssSelectorKey)obj;
+		return type == other.type && value.equals( other.value );
+	}
+	
+	@Override
+	public String toString(){
+		switch( type ){
+			case IDENTIFIER:
+				return "#" + value;
+			case CLASS:
+				return "." + value;
+			default:
+				return value;
+		}
+	}
+}
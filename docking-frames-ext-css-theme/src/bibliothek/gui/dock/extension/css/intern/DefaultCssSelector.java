@@ -31,14 +31,16 @@ import java.util.List;
 
 import bibliothek.gui.dock.extension.css.CssPath;
 import bibliothek.gui.dock.extension.css.CssSelector;
+import bibliothek.gui.dock.extension.css.CssSelectorKey;
 import bibliothek.gui.dock.extension.css.CssSpecificity;
+import bibliothek.gui.dock.extension.css.KeyedCssSelector;
 
 /**
  * The default implementation of a {@link CssSelector} just works like the standard CSS selector
  * is supposed to work.
  * @author Benjamin Sigg
  */
-public class DefaultCssSelector implements CssSelector{
+public class DefaultCssSelector implements KeyedCssSelector{
 	private enum Specificity{
 		STYLE, ID, ATTRIBUTE, ELEMENT
 	}
@@ -56,8 +58,12 @@ public class DefaultCssSelector implements CssSelector{
 	
 	private CssSpecificity specificity;
 	
+	/** a condition that all matched paths fulfill */
+	private CssSelectorKey key;
+	
 	private DefaultCssSelector( Step[] steps ){
 		this.steps = steps;
+		this.key = createKey( steps );
 		
 		int countStyle = 0;
 		int countId = 0;
@@ -113,6 +119,45 @@ public class DefaultCssSelector implements CssSelector{
 		return specificity;
 	}
 	
+	@Override
+	public CssSelectorKey getKey(){
+		return key;
+	}
+	
+	/**
+	 * Creates a key describing the node that is matched by the last {@link Any}, {@link Element} or
+	 * {@link Child} of <code>steps</code>, and all the steps following it. An identifier is preferred 
+	 * over a name because it is more selective, a class is used only if nothing else is available.
+	 * @param steps the steps of the selector
+	 * @return the key or <code>null</code>
+	 */
+	private static CssSelectorKey createKey( Step[] steps ){
+		int base = steps.length-1;
+		while( base >= 0 && !(steps[base] instanceof Any || steps[base] instanceof Element || steps[base] instanceof Child )){
+			base--;
+		}
+		if( base < 0 ){
+			return null;
+		}
+		
+		CssSelectorKey classKey = null;
+		for( int i = base+1; i < steps.length; i++ ){
+			if( steps[i] instanceof Identifier ){
+				return CssSelectorKey.identifier( ((Identifier)steps[i]).name );
+			}
+			if( classKey == null && steps[i] instanceof ItemClass ){
+				classKey = CssSelectorKey.clazz( ((ItemClass)steps[i]).name );
+			}
+		}
+		if( steps[base] instanceof Element ){
+			return CssSelectorKey.name( ((Element)steps[base]).name );
+		}
+		if( steps[base] instanceof Child ){
+			return CssSelectorKey.name( ((Child)steps[base]).name );
+		}
+		return classKey;
+	}
+	
 	@Override
 	public String toString(){
 		StringBuilder builder = new StringBuilder();
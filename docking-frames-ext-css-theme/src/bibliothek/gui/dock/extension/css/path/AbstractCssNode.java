@@ -26,8 +26,11 @@
 package bibliothek.gui.dock.extension.css.path;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+import bibliothek.gui.dock.extension.css.ClassListCssNode;
 import bibliothek.gui.dock.extension.css.CssNode;
 import bibliothek.gui.dock.extension.css.CssNodeListener;
 
@@ -37,7 +40,7 @@ import bibliothek.gui.dock.extension.css.CssNodeListener;
  * telling that this node has no special properties.
  * @author Benjamin Sigg
  */
-public abstract class AbstractCssNode implements CssNode{
+public abstract class AbstractCssNode implements ClassListCssNode{
 	private List<CssNodeListener> listeners = new ArrayList<CssNodeListener>( 5 );
 	
 	@Override
@@ -97,6 +100,14 @@ public abstract class AbstractCssNode implements CssNode{
 		return false;
 	}
 	
+	/**
+	 * Gets the classes of this node, subclasses overriding {@link #hasClass(String)} must
+	 * override this method as well.
+	 */
+	public Collection<String> getClasses(){
+		return Collections.emptySet();
+	}
+	
 	public boolean hasPseudoClass( String className ){
 		return false;
 	}
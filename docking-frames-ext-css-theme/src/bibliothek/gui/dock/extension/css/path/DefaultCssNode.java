@@ -25,6 +25,8 @@
  */
 package bibliothek.gui.dock.extension.css.path;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -132,6 +134,14 @@ public class DefaultCssNode extends AbstractCssNode{
 		return classes.contains( className );
 	}
 	
+	@Override
+	public Collection<String> getClasses(){
+		if( classes == null ){
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet( classes );
+	}
+	
 	/**
 	 * Adds a class to this node.
 	 * @param className the name of the class
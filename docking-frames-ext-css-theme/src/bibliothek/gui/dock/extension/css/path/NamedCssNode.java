@@ -25,14 +25,17 @@
  */
 package bibliothek.gui.dock.extension.css.path;
 
-import bibliothek.gui.dock.extension.css.CssNode;
+import java.util.Collection;
+import java.util.Collections;
+
+import bibliothek.gui.dock.extension.css.ClassListCssNode;
 import bibliothek.gui.dock.extension.css.CssNodeListener;
 
 /**
  * This node offers no features other than a unmodifiable name.
  * @author Benjamin Sigg
  */
-public class NamedCssNode implements CssNode{
+public class NamedCssNode implements ClassListCssNode{
 	private String name;
 	
 	/**
@@ -60,6 +63,11 @@ public class NamedCssNode implements CssNode{
 	public boolean hasClass( String className ){
 		return false;
 	}
+	
+	@Override
+	public Collection<String> getClasses(){
+		return Collections.emptySet();
+	}
 
 	@Override
 	public boolean hasPseudoClass( String className ){
@@ -0,0 +1,212 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2013 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.extension.css.scheme;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import bibliothek.gui.dock.extension.css.ClassListCssNode;
+import bibliothek.gui.dock.extension.css.CssNode;
+import bibliothek.gui.dock.extension.css.CssPath;
+import bibliothek.gui.dock.extension.css.CssRule;
+import bibliothek.gui.dock.extension.css.CssScheme;
+import bibliothek.gui.dock.extension.css.CssSelector;
+import bibliothek.gui.dock.extension.css.CssSelectorKey;
+import bibliothek.gui.dock.extension.css.KeyedCssSelector;
+
+/**
+ * An index over a list of {@link CssRule}s. The rules are grouped by the {@link KeyedCssSelector#getKey() key}
+ * of their {@link CssSelector}, allowing the {@link CssScheme} to find all the rules that might match 
+ * a {@link CssPath} by looking only at the names, identifiers and classes of the {@link CssNode}s of the path. Rules
+ * whose selector is not a {@link KeyedCssSelector} are candidates for every path.<br>
+ * The index is immutable, a new index has to be {@link #CssRuleIndex(List) created} whenever the rules 
+ * change.
+ * @author Benjamin Sigg
+ */
+public class CssRuleIndex {
+	/** all the rules, in the order in which they were given to this index */
+	private List<CssRule> rules;
+	
+	/** the positions of the rules whose key is the name of a node */
+	private Map<String, int[]> names = new HashMap<String, int[]>();
+	
+	/** the positions of the rules whose key is the identifier of a node */
+	private Map<String, int[]> identifiers = new HashMap<String, int[]>();
+	
+	/** the positions of the rules whose key is a class of a node */
+	private Map<String, int[]> classes = new HashMap<String, int[]>();
+	
+	/** the positions of the rules without key */
+	private int[] unkeyed;
+	
+	/**
+	 * Creates a new index.
+	 * @param rules the rules to index, the order of this list is preserved by {@link #getCandidates(CssPath)}. The
+	 * list is copied.
+	 */
+	public CssRuleIndex( List<CssRule> rules ){
+		this.rules = Collections.unmodifiableList( new ArrayList<CssRule>( rules ) );
+		
+		Map<String, List<Integer>> names = new HashMap<String, List<Integer>>();
+		Map<String, List<Integer>> identifiers = new HashMap<String, List<Integer>>();
+		Map<String, List<Integer>> classes = new HashMap<String, List<Integer>>();
+		List<Integer> unkeyed = new ArrayList<Integer>();
+		
+		for( int i = 0, n = this.rules.size(); i<n; i++ ){
+			CssSelectorKey key = getKey( this.rules.get( i ) );
+			if( key == null ){
+				unkeyed.add( i );
+			}
+			else{
+				switch( key.getType() ){
+					case NAME:
+						put( names, key.getValue(), i );
+						break;
+					case IDENTIFIER:
+						put( identifiers, key.getValue(), i );
+						break;
+					case CLASS:
+						put( classes, key.getValue(), i );
+						break;
+				}
+			}
+		}
+		
+		this.unkeyed = toArray( unkeyed );
+		copy( names, this.names );
+		copy( identifiers, this.identifiers );
+		copy( classes, this.classes );
+	}
+	
+	private void put( Map<String, List<Integer>> map, String key, int position ){
+		List<Integer> list = map.get( key );
+		if( list == null ){
+			list = new ArrayList<Integer>();
+			map.put( key, list );
+		}
+		list.add( position );
+	}
+	
+	private void copy( Map<String, List<Integer>> source, Map<String, int[]> destination ){
+		for( Map.Entry<String, List<Integer>> entry : source.entrySet() ){
+			destination.put( entry.getKey(), toArray( entry.getValue() ) );
+		}
+	}
+	
+	private int[] toArray( List<Integer> list ){
+		int[] result = new int[ list.size() ];
+		for( int i = 0; i < result.length; i++ ){
+			result[i] = list.get( i );
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets all the rules that are stored in this index.
+	 * @return an unmodifiable list of rules
+	 */
+	public List<CssRule> getRules(){
+		return rules;
+	}
+	
+	/**
+	 * Gets all the rules whose {@link CssSelector} might match <code>path</code>. The rules
+	 * still have to be checked with {@link CssSelector#matches(CssPath)}.
+	 * @param path the path of some item
+	 * @return the candidates, in the same order as they were given to this index
+	 */
+	public List<CssRule> getCandidates( CssPath path ){
+		BitSet positions = new BitSet( rules.size() );
+		add( positions, unkeyed );
+		
+		for( int i = 0, n = path.getSize(); i<n; i++ ){
+			CssNode node = path.getNode( i );
+			add( positions, names.get( node.getName() ) );
+			String identifier = node.getIdentifier();
+			if( identifier != null ){
+				add( positions, identifiers.get( identifier ) );
+			}
+			if( node instanceof ClassListCssNode ){
+				for( String className : ((ClassListCssNode)node).getClasses() ){
+					add( positions, classes.get( className ) );
+				}
+			}
+			else{
+				for( Map.Entry<String, int[]> entry : classes.entrySet() ){
+					if( node.hasClass( entry.getKey() )){
+						add( positions, entry.getValue() );
+					}
+				}
+			}
+		}
+		
+		List<CssRule> result = new ArrayList<CssRule>( positions.cardinality() );
+		for( int i = positions.nextSetBit( 0 ); i >= 0; i = positions.nextSetBit( i+1 )){
+			result.add( rules.get( i ) );
+		}
+		return result;
+	}
+	
+	private void add( BitSet positions, int[] bucket ){
+		if( bucket != null ){
+			for( int position : bucket ){
+				positions.set( position );
+			}
+		}
+	}
+	
+	/**
+	 * Tells whether <code>rule</code> would be a {@link #getCandidates(CssPath) candidate} for
+	 * <code>path</code>. This method does not require <code>rule</code> to be stored in this index.
+	 * @param rule some rule
+	 * @param path the path of some item
+	 * @return <code>true</code> if the selector of <code>rule</code> might match <code>path</code>
+	 */
+	public static boolean isCandidate( CssRule rule, CssPath path ){
+		CssSelectorKey key = getKey( rule );
+		if( key == null ){
+			return true;
+		}
+		for( int i = 0, n = path.getSize(); i<n; i++ ){
+			if( key.matches( path.getNode( i ) )){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static CssSelectorKey getKey( CssRule rule ){
+		CssSelector selector = rule.getSelector();
+		if( selector instanceof KeyedCssSelector ){
+			return ((KeyedCssSelector)selector).getKey();
+		}
+		return null;
+	}
+}
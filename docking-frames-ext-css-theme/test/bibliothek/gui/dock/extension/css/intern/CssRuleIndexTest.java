@@ -0,0 +1,146 @@
+package bibliothek.gui.dock.extension.css.intern;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import bibliothek.gui.dock.extension.css.CssNode;
+import bibliothek.gui.dock.extension.css.CssNodeListener;
+import bibliothek.gui.dock.extension.css.CssPath;
+import bibliothek.gui.dock.extension.css.CssRule;
+import bibliothek.gui.dock.extension.css.CssSelector;
+import bibliothek.gui.dock.extension.css.CssSelectorKey;
+import bibliothek.gui.dock.extension.css.CssSpecificity;
+import bibliothek.gui.dock.extension.css.path.DefaultCssNode;
+import bibliothek.gui.dock.extension.css.path.DefaultCssPath;
+import bibliothek.gui.dock.extension.css.scheme.CssRuleIndex;
+
+public class CssRuleIndexTest {
+	@Test
+	public void keys(){
+		assertEquals( CssSelectorKey.name( "b" ), DefaultCssSelector.selector().element( "a" ).child( "b" ).build().getKey() );
+		assertEquals( CssSelectorKey.identifier( "x" ), DefaultCssSelector.selector().element( "a" ).clazz( "y" ).identifier( "x" ).build().getKey() );
+		assertEquals( CssSelectorKey.clazz( "y" ), DefaultCssSelector.selector().element( "a" ).any().clazz( "y" ).build().getKey() );
+		assertNull( DefaultCssSelector.selector().element( "a" ).any().pseudo( "hover" ).build().getKey() );
+	}
+	
+	@Test
+	public void candidatesAreOrderedAndComplete(){
+		List<CssRule> rules = rules(
+				DefaultCssSelector.selector().element( "a" ).build(),
+				DefaultCssSelector.selector().any().identifier( "x" ).build(),
+				DefaultCssSelector.selector().element( "c" ).build(),
+				DefaultCssSelector.selector().any().clazz( "y" ).build(),
+				DefaultCssSelector.selector().any().build(),
+				DefaultCssSelector.selector().element( "a" ).element( "b" ).build() );
+		
+		CssRuleIndex index = new CssRuleIndex( rules );
+		
+		DefaultCssNode a = new DefaultCssNode( "a" );
+		DefaultCssNode b = new DefaultCssNode( "b" );
+		b.setIdentifier( "x" );
+		CssPath path = new DefaultCssPath( a, b );
+		
+		assertEquals( Arrays.asList( rules.get( 0 ), rules.get( 1 ), rules.get( 4 ), rules.get( 5 ) ), index.getCandidates( path ) );
+		assertEquals( matching( rules, path ), matching( index.getCandidates( path ), path ) );
+		
+		b.addClass( "y" );
+		assertEquals( Arrays.asList( rules.get( 0 ), rules.get( 1 ), rules.get( 3 ), rules.get( 4 ), rules.get( 5 ) ), index.getCandidates( path ) );
+		assertEquals( matching( rules, path ), matching( index.getCandidates( path ), path ) );
+		
+		assertTrue( CssRuleIndex.isCandidate( rules.get( 3 ), path ));
+		assertFalse( CssRuleIndex.isCandidate( rules.get( 2 ), path ));
+	}
+	
+	@Test
+	public void unkeyedSelectorsAndPlainNodes(){
+		final CssSelector clazz = DefaultCssSelector.selector().any().clazz( "y" ).build();
+		CssSelector plain = new CssSelector(){
+			public boolean matches( CssPath path ){
+				return clazz.matches( path );
+			}
+			
+			public CssSpecificity getSpecificity(){
+				return clazz.getSpecificity();
+			}
+		};
+		
+		List<CssRule> rules = rules(
+				DefaultCssSelector.selector().element( "a" ).build(),
+				clazz,
+				plain );
+		
+		CssRuleIndex index = new CssRuleIndex( rules );
+		
+		CssPath path = new DefaultCssPath( new DefaultCssNode( "a" ) );
+		assertEquals( Arrays.asList( rules.get( 0 ), rules.get( 2 ) ), index.getCandidates( path ) );
+		assertTrue( CssRuleIndex.isCandidate( rules.get( 2 ), path ));
+		
+		path = new DefaultCssPath( new DefaultCssNode( "a" ), new PlainNode( "b", "y" ) );
+		assertEquals( Arrays.asList( rules.get( 0 ), rules.get( 1 ), rules.get( 2 ) ), index.getCandidates( path ) );
+		assertEquals( matching( rules, path ), matching( index.getCandidates( path ), path ) );
+	}
+	
+	private List<CssRule> rules( CssSelector... selectors ){
+		List<CssRule> result = new ArrayList<CssRule>();
+		for( CssSelector selector : selectors ){
+			result.add( new DefaultCssRule( selector ) );
+		}
+		return result;
+	}
+	
+	private List<CssRule> matching( List<CssRule> rules, CssPath path ){
+		List<CssRule> result = new ArrayList<CssRule>();
+		for( CssRule rule : rules ){
+			if( rule.getSelector().matches( path )){
+				result.add( rule );
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * A node that does not list its classes.
+	 */
+	private static class PlainNode implements CssNode{
+		private String name;
+		private String clazz;
+		
+		public PlainNode( String name, String clazz ){
+			this.name = name;
+			this.clazz = clazz;
+		}
+		
+		public String getName(){
+			return name;
+		}
+		
+		public String getIdentifier(){
+			return null;
+		}
+		
+		public boolean hasClass( String className ){
+			return clazz.equals( className );
+		}
+		
+		public boolean hasPseudoClass( String className ){
+			return false;
+		}
+		
+		public String getProperty( String key ){
+			return null;
+		}
+		
+		public void addNodeListener( CssNodeListener listener ){
+			// ignore
+		}
+		
+		public void removeNodeListener( CssNodeListener listener ){
+			// ignore
+		}
+	}
+}
@@ -32,6 +32,7 @@ package bibliothek.gui.dock.station.toolbar.layer;
 
 import java.awt.Component;
 import java.awt.Point;
+import java.awt.Rectangle;
 
 import javax.swing.SwingUtilities;
 
@@ -59,6 +60,19 @@ public class ToolbarContainerDropLayer extends DefaultDropLayer {
 		return station.getComponent();
 	}
 	
+	@Override
+	public Rectangle getScreenBounds(){
+		Rectangle bounds = super.getScreenBounds();
+		if( bounds != null ){
+			int side = station.getSideSnapSize();
+			bounds.grow( side, side );
+			// contains includes the far edges
+			bounds.width++;
+			bounds.height++;
+		}
+		return bounds;
+	}
+	
 	@Override
 	public boolean contains( int x, int y ){
 		Component component = getComponent();
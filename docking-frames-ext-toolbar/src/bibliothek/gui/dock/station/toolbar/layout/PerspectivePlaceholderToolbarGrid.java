@@ -96,6 +96,7 @@ public class PerspectivePlaceholderToolbarGrid extends ModeledPlaceholderToolbar
 		int index = list.dockables().indexOf( oldDockable );
 		list.remove( index );
 		list.dockables().add( index, newDockable );
+		columnChanged( list );
 	}
 
 	@Override
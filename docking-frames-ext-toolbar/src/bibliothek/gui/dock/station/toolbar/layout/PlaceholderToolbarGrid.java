@@ -30,8 +30,11 @@
 
 package bibliothek.gui.dock.station.toolbar.layout;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -79,6 +82,9 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 
 	/** tells whether this grid is currently used */
 	private boolean bound = false;
+	
+	/** the location of all items, <code>null</code> if the index was not yet built or if the grid was replaced as a whole */
+	private Index index;
 
 	/**
 	 * Initializes all fields of this object.
@@ -155,6 +161,83 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 */
 	protected abstract void onRemoved();
 	
+	/**
+	 * Informs this grid that its content was replaced as a whole, and that the {@link Index} needs to be rebuilt.
+	 */
+	private void invalidate(){
+		index = null;
+	}
+	
+	/**
+	 * Informs this grid that columns were added or removed, the {@link Index} is updated accordingly.
+	 */
+	private void columnsChanged(){
+		if( index != null ){
+			index.updateColumns();
+		}
+	}
+	
+	/**
+	 * Informs this grid that the items of <code>column</code> changed, the {@link Index} is updated accordingly.
+	 * @param column the column whose content changed
+	 */
+	private void itemsChanged( PlaceholderList<D, S, P> column ){
+		if( index != null ){
+			index.updateColumn( column );
+		}
+	}
+	
+	/**
+	 * Informs this grid that a subclass modified the items of <code>column</code> directly, without
+	 * using one of the methods of this grid. Subclasses must call this method after every such
+	 * modification, otherwise the lookup methods of this grid may return outdated results.
+	 * @param column a column of this grid whose content changed
+	 */
+	protected void columnChanged( PlaceholderList<D, S, P> column ){
+		itemsChanged( column );
+	}
+	
+	/**
+	 * Gets an up to date index of all the items of this grid.
+	 * @return the index
+	 */
+	private Index index(){
+		if( index == null ){
+			index = new Index();
+		}
+		return index;
+	}
+	
+	private void fireInserted( PlaceholderList<D, S, P> column, int columnIndex, P item, int itemIndex ){
+		itemsChanged( column );
+		onInserted( column, columnIndex, item, itemIndex );
+	}
+	
+	private void fireRemoved( PlaceholderList<D, S, P> column, int columnIndex, P item, int itemIndex ){
+		itemsChanged( column );
+		onRemoved( column, columnIndex, item, itemIndex );
+	}
+	
+	private void fireInserted( PlaceholderList<D, S, P> column, int index ){
+		columnsChanged();
+		onInserted( column, index );
+	}
+	
+	private void fireRemoved( PlaceholderList<D, S, P> column, int index ){
+		columnsChanged();
+		onRemoved( column, index );
+	}
+	
+	private void fireInserted(){
+		invalidate();
+		onInserted();
+	}
+	
+	private void fireRemoved(){
+		invalidate();
+		onRemoved();
+	}
+	
 	/**
 	 * Removes all content from this grid.
 	 */
@@ -165,7 +248,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 			column.getList().setStrategy( null );
 		}
 		columns.clear();
-		onRemoved();
+		fireRemoved();
 	}
 
 	/**
@@ -197,7 +280,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 			int index = Math.min( line, list.dockables().size() );
 			list.dockables().add( index, item );
 			ensureRemoved( list, item );
-			onInserted( list, column, item, index );
+			fireInserted( list, column, item, index );
 		}
 	}
 
@@ -257,7 +340,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 					}
 					columnItem.setDockable( column );
 					addedColumnIndex = columns.dockables().indexOf( column );
-					onInserted( column.getList(), addedColumnIndex );
+					fireInserted( column.getList(), addedColumnIndex );
 					added = true;
 				}
 			}
@@ -265,13 +348,13 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 
 		columnList.dockables().add( item );
 		if( added ){
-			onInserted( columnList, addedColumnIndex, item, columnList.dockables().size()-1 );
+			fireInserted( columnList, addedColumnIndex, item, columnList.dockables().size()-1 );
 		}
 		else{
 			int index = Math.max( 0, Math.min( columnIndex, columns.dockables().size() ) );
 			columns.dockables().add( index, column );
-			onInserted( columnList, index );
-			onInserted( columnList, index, item, columnList.dockables().size()-1 );
+			fireInserted( columnList, index );
+			fireInserted( columnList, index, item, columnList.dockables().size()-1 );
 		}
 
 		if( bound ) {
@@ -338,7 +421,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 				columns.list().add( item );
 			}
 			destinationColumnIndex = columns.dockables().indexOf( item.getDockable() );
-			onInserted( list, destinationColumnIndex );
+			fireInserted( list, destinationColumnIndex );
 		}
 		else {
 			final PlaceholderList<?, ?, Column<D, S, P>>.Item item = columns.list().get( destinationColumn );
@@ -349,7 +432,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 				}
 				item.setDockable( columns.createColumn( list ) );
 				destinationColumnIndex = columns.dockables().indexOf( item.getDockable() );
-				onInserted( list, destinationColumnIndex );
+				fireInserted( list, destinationColumnIndex );
 			}
 			else {
 				list = item.getDockable().getList();
@@ -366,8 +449,8 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 		list.dockables().move( sourceList, sourceLine, destinationLine );
 		ensureRemoved( list, value );
 		
-		onRemoved( source, sourceColumn, moved, sourceLine );
-		onInserted( list, destinationColumnIndex, moved, destinationLine );
+		fireRemoved( source, sourceColumn, moved, sourceLine );
+		fireInserted( list, destinationColumnIndex, moved, destinationLine );
 		
 		purge();
 	}
@@ -404,18 +487,19 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 				int size = column.getList().dockables().size();
 				int removedIndex = column.getList().put( placeholder, item );
 				if( removed != null ){
-					onRemoved( column.getList(), columnIndex, removed, removedIndex );
+					fireRemoved( column.getList(), columnIndex, removed, removedIndex );
 					if( size == 0 && item == null ){
-						onRemoved( column.getList(), columnIndex );
+						fireRemoved( column.getList(), columnIndex );
 						listItem.setDockable( null );
+						columnsChanged();
 					}
 				}
 				
 				if( item != null ){
 					if( size == 0 ){
-						onInserted( column.getList(), columnIndex );
+						fireInserted( column.getList(), columnIndex );
 					}
-					onInserted( column.getList(), columnIndex, item, column.getList().dockables().indexOf( item ) );
+					fireInserted( column.getList(), columnIndex, item, column.getList().dockables().indexOf( item ) );
 				}
 				return true;
 			}
@@ -429,18 +513,18 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 			listItem.setDockable( column );
 			int columnIndex = columns.dockables().indexOf( column );
 			
-			onInserted( list, columnIndex );
+			fireInserted( list, columnIndex );
 			
 			int insertIndex = column.getList().put( placeholder, item );
 			if( insertIndex == -1 ) {
 				listItem.setDockable( null );
-				onRemoved( list, columnIndex );
+				fireRemoved( list, columnIndex );
 				return false;
 			}
 			else {
 				listItem.setPlaceholderMap( null );
 				ensureRemoved( list, placeholder );
-				onInserted( list, columnIndex, item, insertIndex );
+				fireInserted( list, columnIndex, item, insertIndex );
 			}
 			return true;
 		}
@@ -492,6 +576,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 		else{
 			lineList.addPlaceholder( line, placeholder );
 		}
+		columnsChanged();
 	}
 
 	/**
@@ -502,15 +587,13 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 */
 	public boolean remove( P item ){
 		boolean result = false;
-		int columnIndex = -1;
-		for( final Column<D, S, P> column : columns.dockables() ) {
-			columnIndex++;
-			int index = column.getList().dockables().indexOf( item );
-			if( index >= 0 ){
-				column.getList().remove( item );
-				onRemoved( column.getList(), columnIndex, item, index );
-				result = true;
-			}
+		final Location location = index().locations.get( item.asDockable() );
+		if( location != null && location.item.equals( item ) ){
+			final IndexedColumn column = location.column;
+			final int line = location.line;
+			column.list.remove( item );
+			fireRemoved( column.list, column.index, item, line );
+			result = true;
 		}
 		purge();
 		return result;
@@ -556,17 +639,12 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 * @return the column of the dockable or <code>-1</code> if not found
 	 */
 	public int getColumn( D dockable ){
-		int index = 0;
-		final Iterator<PlaceholderList<D, S, P>> columns = columns();
-		while( columns.hasNext() ) {
-			for( final P item : columns.next().dockables() ) {
-				if( item.asDockable() == dockable ) {
-					return index;
-				}
-			}
-			index++;
+		final Index index = index();
+		final Location location = index.locations.get( dockable );
+		if( location == null ) {
+			return -1;
 		}
-		return -1;
+		return index.getNonEmptyIndex( location.column );
 	}
 
 	/**
@@ -579,14 +657,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 *         found, this includes empty columns
 	 */
 	public int getColumn( Path placeholder ){
-		int index = 0;
-		for( final PlaceholderList<?, ?, Column<D, S, P>>.Item item : columns.list() ) {
-			if( item.hasPlaceholder( placeholder ) ) {
-				return index;
-			}
-			index++;
-		}
-		return -1;
+		return columns.getListIndex( placeholder );
 	}
 
 	/**
@@ -615,15 +686,12 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 * @return the location of <code>dockable</code>
 	 */
 	public int getLine( int column, D dockable ){
-		final PlaceholderList<D, S, P> list = getColumn( column );
-		int index = 0;
-		for( final P item : list.dockables() ) {
-			if( item.asDockable() == dockable ) {
-				return index;
-			}
-			index++;
+		final Index index = index();
+		final Location location = index.locations.get( dockable );
+		if( location == null || location.column.index != column ) {
+			return -1;
 		}
-		return -1;
+		return location.line;
 	}
 
 	/**
@@ -705,12 +773,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 * @return the total amount of items
 	 */
 	public int size(){
-		int sum = 0;
-		final Iterator<PlaceholderList<D, S, P>> iter = columns();
-		while( iter.hasNext() ) {
-			sum += iter.next().dockables().size();
-		}
-		return sum;
+		return index().size();
 	}
 
 	/**
@@ -726,19 +789,11 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 		if( index < 0 ) {
 			throw new IllegalArgumentException( "index must not be < 0" );
 		}
-		final Iterator<PlaceholderList<D, S, P>> iter = columns();
-		while( iter.hasNext() ) {
-			final Filter<P> dockables = iter.next().dockables();
-			final int size = dockables.size();
-			if( index < size ) {
-				return dockables.get( index );
-			}
-			else {
-				index -= size;
-			}
+		final P result = index().get( index );
+		if( result == null ) {
+			throw new IllegalArgumentException( "index must not be >= size" );
 		}
-
-		throw new IllegalArgumentException( "index must not be >= size" );
+		return result;
 	}
 
 	/**
@@ -750,14 +805,11 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	 *         <code>null</code> if not found
 	 */
 	public P get( D dockable ){
-		final Iterator<P> iter = items();
-		while( iter.hasNext() ) {
-			final P next = iter.next();
-			if( next.asDockable() == dockable ) {
-				return next;
-			}
+		final Location location = index().locations.get( dockable );
+		if( location == null ) {
+			return null;
 		}
-		return null;
+		return location.item;
 	}
 
 	/**
@@ -786,7 +838,8 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 	/**
 	 * Gets an iterator over all columns, including the columns with no content.
 	 * This does not include columns with no list (columns that consist only of
-	 * placeholders).
+	 * placeholders). Subclasses modifying the content of a column
+	 * have to call {@link #columnChanged(PlaceholderList)} afterwards.
 	 * 
 	 * @return all columns
 	 */
@@ -811,14 +864,15 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 			@Override
 			public void remove(){
 				items.remove();
-				onRemoved( current, currentIndex-- );
+				fireRemoved( current, currentIndex-- );
 			}
 		};
 	}
 
 	/**
 	 * Gets an iterator over all non-empty columns. The iterator does not
-	 * support modifications nor is it concurrent.
+	 * support modifications nor is it concurrent. Subclasses modifying the content of a column
+	 * have to call {@link #columnChanged(PlaceholderList)} afterwards.
 	 * 
 	 * @return the iterator
 	 */
@@ -910,7 +964,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 					throw new IllegalStateException( "no item selected" );
 				}
 				items.remove();
-				onRemoved( currentList, currentListIndex, currentItem, currentItemIndex-- );
+				fireRemoved( currentList, currentListIndex, currentItem, currentItemIndex-- );
 				requiresdPurge = true;
 			}
 		};
@@ -988,13 +1042,14 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 			@Override
 			public void remove(){
 				delegate.remove();
-				onRemoved( list, index, current, currentIndex-- );
+				fireRemoved( list, index, current, currentIndex-- );
 			}
 		};
 	}
 
 	/**
-	 * Gets the non-empty column with index <code>index</code>. Subclasses should not modify the returned list.
+	 * Gets the non-empty column with index <code>index</code>. Subclasses should not modify the returned list,
+	 * if they do, they have to call {@link #columnChanged(PlaceholderList)} afterwards.
 	 * 
 	 * @param index
 	 *            the index of the column
@@ -1111,8 +1166,9 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 						}
 					} ) );
 					item.setDockable( null );
+					columnsChanged();
 					if( !silent ){
-						onRemoved( list, index-- );
+						fireRemoved( list, index-- );
 					}
 				}
 			}
@@ -1202,6 +1258,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 
 				@Override
 				public void added( GridPlaceholderList.Column<D, S, P> dockable ){
+					invalidate();
 					for( final P item : dockable.getList().dockables() ) {
 						converter.added( item );
 					}
@@ -1211,7 +1268,7 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 		}
 		finally {
 			columns.setConverter( null );
-			onInserted();
+			fireInserted();
 		}
 	}
 
@@ -1275,5 +1332,246 @@ public abstract class PlaceholderToolbarGrid<D, S, P extends PlaceholderListItem
 			}
 		} );
 		purge(true);
+		invalidate();
+	}
+
+	/**
+	 * Describes where an item of this grid is stored.
+	 */
+	private class Location {
+		/** the column in which the item is stored */
+		public IndexedColumn column;
+		/** the index of the item within its column */
+		public int line;
+		/** the item itself */
+		public P item;
+		/** the {@link IndexedColumn#version} in which this location was last confirmed */
+		public int version;
+	}
+	
+	/**
+	 * Caches the content of one column of this grid.
+	 */
+	private class IndexedColumn {
+		/** the column whose content is cached */
+		public final PlaceholderList<D, S, P> list;
+		/** the items of {@link #list} as they were the last time this column was updated */
+		public final List<P> items = new ArrayList<P>();
+		/** the index of this column, includes empty columns */
+		public int index;
+		/** the number of items stored in the columns before this column */
+		public int offset;
+		/** incremented each time this column is updated */
+		private int version = 0;
+
+		/**
+		 * Creates a new, yet empty, cache.
+		 * @param list the column to cache
+		 */
+		public IndexedColumn( PlaceholderList<D, S, P> list ){
+			this.list = list;
+		}
+		
+		/**
+		 * Reads the current content of {@link #list}, the items of all the other columns remain untouched.
+		 * @param locations the map to update
+		 */
+		public void update( Map<D, Location> locations ){
+			version++;
+			final List<P> oldItems = new ArrayList<P>( items );
+			items.clear();
+			
+			int line = 0;
+			for( final P item : list.dockables() ) {
+				final D dockable = item.asDockable();
+				Location location = locations.get( dockable );
+				if( location == null || location.column != this ) {
+					location = new Location();
+					location.column = this;
+					locations.put( dockable, location );
+				}
+				location.line = line++;
+				location.item = item;
+				location.version = version;
+				items.add( item );
+			}
+			
+			for( final P item : oldItems ) {
+				final D dockable = item.asDockable();
+				final Location location = locations.get( dockable );
+				if( location != null && location.column == this && location.version != version ) {
+					locations.remove( dockable );
+				}
+			}
+		}
+		
+		/**
+		 * Tells whether the content of {@link #list} differs from the cached {@link #items}. Items
+		 * may be replaced or reordered without changing the size of the column, hence every item is compared.
+		 * @return <code>true</code> if this column needs to be {@link #update(Map) updated}
+		 */
+		public boolean isOutdated(){
+			final Filter<P> dockables = list.dockables();
+			if( dockables.size() != items.size() ) {
+				return true;
+			}
+			int line = 0;
+			for( final P item : dockables ) {
+				if( items.get( line++ ) != item ) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		/**
+		 * Removes all the items of this column from <code>locations</code>.
+		 * @param locations the map to update
+		 */
+		public void clear( Map<D, Location> locations ){
+			for( final P item : items ) {
+				final D dockable = item.asDockable();
+				final Location location = locations.get( dockable );
+				if( location != null && location.column == this ) {
+					locations.remove( dockable );
+				}
+			}
+			items.clear();
+		}
+	}
+
+	/**
+	 * Allows fast lookup of items by their {@link Dockable} and by their index. An {@link Index} is
+	 * built once and then updated whenever a column, or the items of a column, change. Updating
+	 * a column only requires time proportional to the size of that column and the number of columns.
+	 */
+	private class Index {
+		/** the location of each {@link Dockable} */
+		private final Map<D, Location> locations = new IdentityHashMap<D, Location>();
+		/** all the columns of this grid, including empty columns */
+		private List<IndexedColumn> indexedColumns = new ArrayList<IndexedColumn>();
+		/** the same columns as {@link #indexedColumns}, accessed by their list */
+		private Map<PlaceholderList<D, S, P>, IndexedColumn> lists = new IdentityHashMap<PlaceholderList<D, S, P>, IndexedColumn>();
+		/** the total number of items */
+		private int size;
+		/** the number of columns without any items */
+		private int emptyColumns;
+
+		/**
+		 * Creates a new index reading the current content of this grid.
+		 */
+		public Index(){
+			updateColumns();
+		}
+
+		/**
+		 * Reads which columns are currently stored in this grid. Columns that are already known
+		 * are only read again if their content changed.
+		 */
+		public void updateColumns(){
+			final List<IndexedColumn> nextColumns = new ArrayList<IndexedColumn>();
+			final Map<PlaceholderList<D, S, P>, IndexedColumn> nextLists = new IdentityHashMap<PlaceholderList<D, S, P>, IndexedColumn>();
+			
+			for( final Column<D, S, P> column : columns.dockables() ) {
+				final PlaceholderList<D, S, P> list = column.getList();
+				IndexedColumn indexed = lists.remove( list );
+				if( indexed == null ) {
+					indexed = new IndexedColumn( list );
+				}
+				indexed.index = nextColumns.size();
+				nextColumns.add( indexed );
+				nextLists.put( list, indexed );
+			}
+			
+			for( final IndexedColumn removed : lists.values() ) {
+				removed.clear( locations );
+			}
+			indexedColumns = nextColumns;
+			lists = nextLists;
+			
+			for( final IndexedColumn column : indexedColumns ) {
+				if( column.isOutdated() ) {
+					column.update( locations );
+				}
+			}
+			updateOffsets();
+		}
+
+		/**
+		 * Reads the items of <code>column</code> again.
+		 * @param column the column whose items changed
+		 */
+		public void updateColumn( PlaceholderList<D, S, P> column ){
+			final IndexedColumn indexed = lists.get( column );
+			if( indexed == null ) {
+				updateColumns();
+			}
+			else {
+				indexed.update( locations );
+				updateOffsets();
+			}
+		}
+
+		private void updateOffsets(){
+			size = 0;
+			emptyColumns = 0;
+			for( final IndexedColumn column : indexedColumns ) {
+				column.offset = size;
+				size += column.items.size();
+				if( column.items.isEmpty() ) {
+					emptyColumns++;
+				}
+			}
+		}
+		
+		/**
+		 * Gets the index of <code>column</code> ignoring any empty column.
+		 * @param column some non-empty column
+		 * @return the index of <code>column</code> 
+		 */
+		public int getNonEmptyIndex( IndexedColumn column ){
+			if( emptyColumns == 0 ) {
+				return column.index;
+			}
+			int result = 0;
+			for( int i = 0; i < column.index; i++ ) {
+				if( !indexedColumns.get( i ).items.isEmpty() ) {
+					result++;
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Gets the total number of items.
+		 * @return the number of items
+		 */
+		public int size(){
+			return size;
+		}
+
+		/**
+		 * Gets the <code>index</code>'th item of the grid.
+		 * @param index the index of the item
+		 * @return the item or <code>null</code> if <code>index</code> is out of bounds
+		 */
+		public P get( int index ){
+			if( index < 0 || index >= size ) {
+				return null;
+			}
+			int min = 0;
+			int max = indexedColumns.size() - 1;
+			while( min < max ) {
+				final int mid = (min + max + 1) / 2;
+				if( indexedColumns.get( mid ).offset <= index ) {
+					min = mid;
+				}
+				else {
+					max = mid - 1;
+				}
+			}
+			final IndexedColumn column = indexedColumns.get( min );
+			return column.items.get( index - column.offset );
+		}
 	}
 }
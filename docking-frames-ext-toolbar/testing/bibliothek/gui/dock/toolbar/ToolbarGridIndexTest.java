@@ -0,0 +1,585 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ *
+ * Copyright (C) 2012 Herve Guillaume, Benjamin Sigg
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Herve Guillaume
+ * rvguillaume@hotmail.com
+ * FR - France
+ *
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.toolbar;
+
+import static org.junit.Assert.*;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.component.DockComponentRootHandler;
+import bibliothek.gui.dock.dockable.AbstractDockable;
+import bibliothek.gui.dock.station.support.PlaceholderList;
+import bibliothek.gui.dock.station.support.PlaceholderList.Filter;
+import bibliothek.gui.dock.station.support.PlaceholderList.Level;
+import bibliothek.gui.dock.station.support.PlaceholderListItem;
+import bibliothek.gui.dock.station.support.PlaceholderStrategy;
+import bibliothek.gui.dock.station.support.PlaceholderStrategyListener;
+import bibliothek.gui.dock.station.toolbar.ToolbarDockPerspective;
+import bibliothek.gui.dock.station.toolbar.ToolbarGroupDockPerspective;
+import bibliothek.gui.dock.station.toolbar.group.ToolbarColumnModel;
+import bibliothek.gui.dock.station.toolbar.layout.DockablePlaceholderToolbarGrid;
+import bibliothek.gui.dock.station.toolbar.layout.GridPlaceholderList;
+import bibliothek.gui.dock.station.toolbar.layout.PerspectivePlaceholderToolbarGrid;
+import bibliothek.gui.dock.station.toolbar.layout.PlaceholderToolbarGrid;
+import bibliothek.gui.dock.util.PropertyKey;
+import bibliothek.gui.dock.util.icon.DockIcon;
+import bibliothek.util.Path;
+
+/**
+ * This test checks the index of {@link PlaceholderToolbarGrid}. Random operations are applied to a grid,
+ * and after each operation the answers of the index are compared with the answers of a linear search
+ * through all the columns. Items are inserted, moved, removed, replaced by putting new items onto their
+ * placeholders and removed through iterators, placeholders are inserted and sometimes the grid is cleared.
+ * Several items share the same placeholder, hence putting an item often replaces another item without
+ * changing the size of its column.
+ * @author Benjamin Sigg
+ */
+public class ToolbarGridIndexTest {
+	private Random random;
+	private TestGrid grid;
+	/** all the items that were ever created, including items that are no longer in the grid */
+	private List<TestItem> created;
+	/** all the placeholders that were ever used */
+	private List<Path> placeholders;
+	private int step;
+
+	@Before
+	public void setup(){
+		grid = new TestGrid();
+		grid.setStrategy( new TestPlaceholderStrategy() );
+		created = new ArrayList<TestItem>();
+		placeholders = new ArrayList<Path>();
+		for( int i = 0; i < 8; i++ ){
+			placeholders.add( placeholder( "p" + i ) );
+		}
+		step = 0;
+	}
+
+	@After
+	public void clear(){
+		grid = null;
+		created = null;
+		placeholders = null;
+		random = null;
+	}
+
+	@Test
+	public void testRandomOperations(){
+		for( int seed = 0; seed < 200; seed++ ){
+			setup();
+			random = new Random( seed );
+			for( int i = 0; i < 200; i++ ){
+				operation();
+				check();
+			}
+		}
+	}
+
+	@Test
+	public void testColumnOfPlaceholder(){
+		grid.insert( 0, 0, item( "a" ) );
+		grid.insert( 1, 0, item( "b" ) );
+		grid.insertPlaceholder( 0, 1, placeholder( "x" ) );
+		grid.insertPlaceholder( 1, 0, placeholder( "y" ) );
+		placeholders.add( placeholder( "x" ) );
+		placeholders.add( placeholder( "y" ) );
+
+		assertEquals( 0, grid.getColumn( placeholder( "x" ) ) );
+		assertEquals( 1, grid.getColumn( placeholder( "y" ) ) );
+		assertEquals( -1, grid.getColumn( placeholder( "z" ) ) );
+		check();
+	}
+
+	@Test
+	public void testColumnOfMovedPlaceholder(){
+		grid.insert( 0, 0, item( "a" ) );
+		grid.insert( 1, 0, item( "b" ) );
+		grid.insertPlaceholder( 1, 1, placeholder( "x" ) );
+		placeholders.add( placeholder( "x" ) );
+		assertEquals( 1, grid.getColumn( placeholder( "x" ) ) );
+
+		// a new first column moves the column of "x"
+		grid.insert( 0, item( "c" ), false );
+		assertEquals( 2, grid.getColumn( placeholder( "x" ) ) );
+		check();
+
+		// the column of "x" stays where it is when it becomes empty
+		grid.move( 2, 0, 0, 1, Level.DOCKABLE );
+		assertEquals( 2, grid.getColumnCount() );
+		assertEquals( 2, grid.getColumn( placeholder( "x" ) ) );
+		check();
+
+		// moving an item into a new first column moves the empty column of "x" as well
+		grid.move( 0, 0, -1, 0, Level.DOCKABLE );
+		assertEquals( 3, grid.getColumn( placeholder( "x" ) ) );
+		check();
+	}
+
+	@Test
+	public void testColumnOfRemovedPlaceholder(){
+		TestItem b = item( "b" );
+		grid.insert( 0, 0, item( "a" ) );
+		grid.insert( 1, 0, b );
+		grid.insertPlaceholder( 1, 1, placeholder( "x" ) );
+		placeholders.add( placeholder( "x" ) );
+
+		// the empty column remains as placeholder
+		assertTrue( grid.remove( b ) );
+		assertEquals( 1, grid.getColumnCount() );
+		assertEquals( 1, grid.getColumn( placeholder( "x" ) ) );
+		check();
+
+		TestItem x = item( "x" );
+		assertTrue( grid.put( placeholder( "x" ), x ) );
+		assertEquals( 1, grid.getColumn( x.asDockable() ) );
+		assertEquals( 1, grid.getColumn( placeholder( "x" ) ) );
+		check();
+
+		grid.clear();
+		assertEquals( -1, grid.getColumn( placeholder( "x" ) ) );
+		check();
+	}
+
+	@Test
+	public void testReplacePerspective(){
+		ToolbarGroupDockPerspective group = new ToolbarGroupDockPerspective();
+		ToolbarDockPerspective x = new ToolbarDockPerspective();
+		ToolbarDockPerspective y = new ToolbarDockPerspective();
+		ToolbarDockPerspective z = new ToolbarDockPerspective();
+		group.add( 0, x );
+		group.add( 0, y );
+
+		PerspectivePlaceholderToolbarGrid dockables = group.getDockables();
+		assertEquals( 0, dockables.getColumn( x ) );
+
+		// replace edits the column directly, the index has to follow
+		group.replace( x, z );
+		assertSame( z, group.getDockable( 0 ) );
+		assertSame( y, group.getDockable( 1 ) );
+		assertEquals( 0, dockables.getColumn( z ) );
+		assertEquals( 0, dockables.getLine( z ) );
+		assertEquals( -1, dockables.getColumn( x ) );
+		assertNull( dockables.get( x ) );
+		assertEquals( 2, dockables.size() );
+
+		assertFalse( group.remove( x ) );
+		assertTrue( group.remove( z ) );
+		assertSame( y, group.getDockable( 0 ) );
+		assertEquals( 1, dockables.size() );
+	}
+
+	private Path placeholder( String id ){
+		return new Path( "test", id );
+	}
+
+	private String id(){
+		return "p" + random.nextInt( 8 );
+	}
+
+	private TestItem item(){
+		return item( id() );
+	}
+
+	private TestItem item( String placeholder ){
+		TestItem item = new TestItem( placeholder );
+		created.add( item );
+		return item;
+	}
+
+	private void operation(){
+		step++;
+		int size = grid.linearSize();
+		int columns = grid.getColumnCount();
+		switch( random.nextInt( 12 ) ){
+			case 0:
+			case 1: {
+				int column = random.nextInt( columns + 1 );
+				int line = column < columns ? random.nextInt( grid.getLineCount( column ) + 1 ) : 0;
+				grid.insert( column, line, item() );
+				break;
+			}
+			case 2: {
+				grid.insert( random.nextInt( columns + 1 ), item(), random.nextBoolean() );
+				break;
+			}
+			case 3:
+			case 4: {
+				if( size > 0 ){
+					move();
+				}
+				break;
+			}
+			case 5: {
+				if( !created.isEmpty() ){
+					TestItem item = created.get( random.nextInt( created.size() ) );
+					boolean expected = grid.linearGet( item.asDockable() ) == item;
+					assertEquals( message( "remove " + item ), expected, grid.remove( item ) );
+				}
+				break;
+			}
+			case 6:
+			case 7: {
+				grid.put( placeholder( id() ), item() );
+				break;
+			}
+			case 8: {
+				// adding a placeholder prunes empty entries, changing the indices of the columns
+				if( grid.getTotalColumnCount() > 0 && !grid.hasEmptyEntries() ){
+					int column = random.nextInt( grid.getTotalColumnCount() );
+					GridPlaceholderList.Column<Dockable, DockStation, TestItem> existing = grid.getGrid().list().get( column ).getDockable();
+					if( existing != null ){
+						int line = random.nextInt( existing.getList().list().size() + 1 );
+						Path placeholder = placeholder( "q" + step );
+						placeholders.add( placeholder );
+						grid.insertPlaceholder( column, line, placeholder );
+					}
+				}
+				break;
+			}
+			case 9: {
+				if( size > 0 ){
+					int index = random.nextInt( size );
+					Iterator<TestItem> items = grid.items();
+					for( int i = 0; i <= index; i++ ){
+						items.next();
+					}
+					items.remove();
+					while( items.hasNext() ){
+						items.next();
+					}
+				}
+				break;
+			}
+			case 10: {
+				if( columns > 0 ){
+					int column = random.nextInt( columns );
+					if( grid.getLineCount( column ) > 0 ){
+						int line = random.nextInt( grid.getLineCount( column ) );
+						Iterator<TestItem> items = grid.getColumnContent( column );
+						for( int i = 0; i <= line; i++ ){
+							items.next();
+						}
+						items.remove();
+						while( items.hasNext() ){
+							items.next();
+						}
+					}
+				}
+				break;
+			}
+			case 11: {
+				if( random.nextInt( 10 ) == 0 ){
+					grid.clear();
+				}
+				break;
+			}
+		}
+	}
+
+	private void move(){
+		List<Integer> sources = new ArrayList<Integer>();
+		for( int i = 0, n = grid.getColumnCount(); i < n; i++ ){
+			if( grid.getLineCount( i ) > 0 ){
+				sources.add( i );
+			}
+		}
+		int sourceColumn = sources.get( random.nextInt( sources.size() ) );
+		int sourceLine = random.nextInt( grid.getLineCount( sourceColumn ) );
+
+		int destinationColumn = random.nextInt( grid.getColumnCount() + 2 ) - 1;
+		int destinationLine = 0;
+		if( destinationColumn >= 0 && destinationColumn < grid.getColumnCount() ){
+			int lines = grid.getLineCount( destinationColumn );
+			if( destinationColumn == sourceColumn ){
+				// moving within a column does not change its size, only the order of its items
+				destinationLine = random.nextInt( lines );
+			}
+			else{
+				destinationLine = random.nextInt( lines + 1 );
+			}
+		}
+		grid.move( sourceColumn, sourceLine, destinationColumn, destinationLine, Level.DOCKABLE );
+	}
+
+	private void check(){
+		int size = grid.linearSize();
+		assertEquals( message( "size" ), size, grid.size() );
+		for( int i = 0; i < size; i++ ){
+			assertSame( message( "item " + i ), grid.linearGet( i ), grid.get( i ) );
+		}
+
+		for( TestItem item : created ){
+			Dockable dockable = item.asDockable();
+			assertSame( message( "item of " + item ), grid.linearGet( dockable ), grid.get( dockable ) );
+			int column = grid.linearColumn( dockable );
+			assertEquals( message( "column of " + item ), column, grid.getColumn( dockable ) );
+			assertEquals( message( "line of " + item ), column == -1 ? -1 : grid.linearLine( column, dockable ), grid.getLine( dockable ) );
+			for( int i = 0, n = grid.getColumnCount(); i < n; i++ ){
+				assertEquals( message( "line of " + item + " in column " + i ), grid.linearLine( i, dockable ), grid.getLine( i, dockable ) );
+			}
+		}
+
+		for( Path placeholder : placeholders ){
+			assertEquals( message( "column of " + placeholder ), grid.linearColumn( placeholder ), grid.getColumn( placeholder ) );
+		}
+	}
+
+	private String message( String message ){
+		return "step " + step + ", " + message;
+	}
+
+	/**
+	 * A grid that also offers the linear searches the index replaced. The {@link ToolbarColumnModel} of the
+	 * grid is not updated, only the index is tested.
+	 */
+	private static class TestGrid extends DockablePlaceholderToolbarGrid<TestItem> {
+		private GridPlaceholderList<Dockable, DockStation, TestItem> grid;
+
+		@Override
+		protected void onInserted( PlaceholderList<Dockable, DockStation, TestItem> column, int columnIndex, TestItem item, int itemIndex ){
+			// ignore
+		}
+
+		@Override
+		protected void onRemoved( PlaceholderList<Dockable, DockStation, TestItem> column, int columnIndex, TestItem item, int itemIndex ){
+			// ignore
+		}
+
+		@Override
+		protected void onInserted( PlaceholderList<Dockable, DockStation, TestItem> column, int index ){
+			// ignore
+		}
+
+		@Override
+		protected void onRemoved( PlaceholderList<Dockable, DockStation, TestItem> column, int index ){
+			// ignore
+		}
+
+		@Override
+		protected void onInserted(){
+			// ignore
+		}
+
+		@Override
+		protected void onRemoved(){
+			// ignore
+		}
+
+		@Override
+		protected GridPlaceholderList<Dockable, DockStation, TestItem> createGrid(){
+			grid = super.createGrid();
+			return grid;
+		}
+
+		public GridPlaceholderList<Dockable, DockStation, TestItem> getGrid(){
+			return grid;
+		}
+
+		public boolean hasEmptyEntries(){
+			for( PlaceholderList<?, ?, GridPlaceholderList.Column<Dockable, DockStation, TestItem>>.Item item : grid.list() ){
+				if( item.getDockable() == null && (item.getPlaceholderSet() == null || item.getPlaceholderSet().isEmpty()) ){
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public int linearSize(){
+			int sum = 0;
+			Iterator<PlaceholderList<Dockable, DockStation, TestItem>> iter = columns();
+			while( iter.hasNext() ){
+				sum += iter.next().dockables().size();
+			}
+			return sum;
+		}
+
+		public TestItem linearGet( int index ){
+			Iterator<PlaceholderList<Dockable, DockStation, TestItem>> iter = columns();
+			while( iter.hasNext() ){
+				Filter<TestItem> dockables = iter.next().dockables();
+				if( index < dockables.size() ){
+					return dockables.get( index );
+				}
+				index -= dockables.size();
+			}
+			return null;
+		}
+
+		public TestItem linearGet( Dockable dockable ){
+			Iterator<PlaceholderList<Dockable, DockStation, TestItem>> iter = columns();
+			while( iter.hasNext() ){
+				for( TestItem item : iter.next().dockables() ){
+					if( item.asDockable() == dockable ){
+						return item;
+					}
+				}
+			}
+			return null;
+		}
+
+		public int linearColumn( Dockable dockable ){
+			int index = 0;
+			Iterator<PlaceholderList<Dockable, DockStation, TestItem>> iter = columns();
+			while( iter.hasNext() ){
+				for( TestItem item : iter.next().dockables() ){
+					if( item.asDockable() == dockable ){
+						return index;
+					}
+				}
+				index++;
+			}
+			return -1;
+		}
+
+		public int linearColumn( Path placeholder ){
+			int index = 0;
+			for( PlaceholderList<?, ?, GridPlaceholderList.Column<Dockable, DockStation, TestItem>>.Item item : grid.list() ){
+				if( item.hasPlaceholder( placeholder ) ){
+					return index;
+				}
+				index++;
+			}
+			return -1;
+		}
+
+		public int linearLine( int column, Dockable dockable ){
+			int index = 0;
+			for( TestItem item : getColumn( column ).dockables() ){
+				if( item.asDockable() == dockable ){
+					return index;
+				}
+				index++;
+			}
+			return -1;
+		}
+	}
+
+	private static class TestPlaceholderStrategy implements PlaceholderStrategy {
+		public void install( DockStation station ){
+			// ignore
+		}
+
+		public void uninstall( DockStation station ){
+			// ignore
+		}
+
+		public void addListener( PlaceholderStrategyListener listener ){
+			// ignore
+		}
+
+		public void removeListener( PlaceholderStrategyListener listener ){
+			// ignore
+		}
+
+		public Path getPlaceholderFor( Dockable dockable ){
+			if( dockable instanceof TestDockable ){
+				return new Path( "test", ((TestDockable) dockable).getId() );
+			}
+			return null;
+		}
+
+		public boolean isValidPlaceholder( Path placeholder ){
+			return true;
+		}
+	}
+
+	private static class TestDockable extends AbstractDockable {
+		private String id;
+
+		public TestDockable( String id ){
+			super( PropertyKey.DOCKABLE_TITLE, PropertyKey.DOCKABLE_TOOLTIP );
+			this.id = id;
+		}
+
+		public Component getComponent(){
+			return null;
+		}
+
+		public DockStation asDockStation(){
+			return null;
+		}
+
+		public String getFactoryID(){
+			return null;
+		}
+
+		@Override
+		protected DockIcon createTitleIcon(){
+			return null;
+		}
+
+		public String getId(){
+			return id;
+		}
+
+		@Override
+		protected DockComponentRootHandler createRootHandler(){
+			return new DockComponentRootHandler( this ){
+				@Override
+				protected TraverseResult shouldTraverse( Component component ){
+					return TraverseResult.EXCLUDE;
+				}
+			};
+		}
+	}
+
+	/**
+	 * An item of the grid, several items may share the same placeholder.
+	 */
+	private static class TestItem implements PlaceholderListItem<Dockable> {
+		private static int nextId = 0;
+		private TestDockable dockable;
+		private int id = nextId++;
+
+		public TestItem( String placeholder ){
+			dockable = new TestDockable( placeholder );
+		}
+
+		public Dockable asDockable(){
+			return dockable;
+		}
+
+		@Override
+		public String toString(){
+			return "item " + id + " (" + dockable.getId() + ")";
+		}
+	}
+}